@@ -3,8 +3,8 @@ package com.scm.controller;
 import java.io.IOException;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
 import java.time.temporal.ChronoUnit;
-import java.util.List;
 import java.util.Map;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -16,12 +16,15 @@ import javax.servlet.http.HttpServlet;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
-import com.scm.model.CustomerOrder;
-import com.scm.model.Product;
+import com.scm.dao.exception.DaoException;
 import com.scm.security.model.UserPrincipal;
 import com.scm.security.util.SessionManager;
 import com.scm.service.DashboardService;
+import com.scm.service.EmailService;
+import com.scm.service.event.DomainEventBus;
 import com.scm.service.exception.ServiceException;
+import com.scm.service.impl.DashboardAssembler;
+import com.scm.service.impl.OrderTotalVerifier;
 
 /**
  * Servlet for handling the main dashboard display.
@@ -35,6 +38,18 @@ public class DashboardServlet extends HttpServlet {
     @Inject
     private DashboardService dashboardService;
     
+    @Inject
+    private DashboardAssembler dashboardAssembler;
+    
+    @Inject
+    private OrderTotalVerifier orderTotalVerifier;
+    
+    @Inject
+    private DomainEventBus eventBus;
+    
+    @Inject
+    private EmailService emailService;
+    
     /**
      * Handles GET requests to display the dashboard.
      * 
@@ -78,27 +93,26 @@ public class DashboardServlet extends HttpServlet {
                 endDate = LocalDateTime.parse(endDateParam, formatter);
             }
             
-            // Get dashboard data
-            Map<String, Object> salesStats = dashboardService.getSalesStatistics(startDate, endDate);
-            Map<String, Object> inventoryStats = dashboardService.getInventoryStatistics();
-            Map<String, Object> supplierStats = dashboardService.getSupplierStatistics();
-            
-            List<Map<String, Object>> topProducts = dashboardService.getTopSellingProducts(startDate, endDate, 5);
-            List<Map<String, Object>> salesByPeriod = dashboardService.getSalesByTimePeriod(startDate, endDate, "day");
-            List<Map<String, Object>> recentActivity = dashboardService.getRecentActivity(10);
+            // Load the dashboard widgets concurrently and set them as attributes for the view
+            Map<String, Object> widgets = dashboardAssembler.assemble(startDate, endDate);
+            for (Map.Entry<String, Object> widget : widgets.entrySet()) {
+                request.setAttribute(widget.getKey(), widget.getValue());
+            }
             
-            List<CustomerOrder> ordersNeedingAttention = dashboardService.getOrdersRequiringAttention();
-            List<Product> stockAlerts = dashboardService.getStockAlerts();
+            // Cache hit ratios and pool metrics are only of interest to administrators
+            if (currentUser.hasPermission("settings:edit")) {
+                try {
+                    request.setAttribute("cacheStats", dashboardService.getCacheStatistics());
+                    request.setAttribute("queryPlanStats", dashboardService.getQueryPlanStatistics());
+                    request.setAttribute("poolStats", dashboardService.getConnectionPoolStatistics());
+                    request.setAttribute("orderTotalReport", orderTotalVerifier.getLastReport());
+                    request.setAttribute("eventBusStats", eventBus.getStatistics());
+                    request.setAttribute("outboxStats", emailService.getOutboxStatistics());
+                } catch (ServiceException e) {
+                    LOGGER.log(Level.WARNING, "Cache and pool statistics unavailable", e);
+                }
+            }
             
-            // Set attributes for the view
-            request.setAttribute("salesStats", salesStats);
-            request.setAttribute("inventoryStats", inventoryStats);
-            request.setAttribute("supplierStats", supplierStats);
-            request.setAttribute("topProducts", topProducts);
-            request.setAttribute("salesByPeriod", salesByPeriod);
-            request.setAttribute("recentActivity", recentActivity);
-            request.setAttribute("ordersNeedingAttention", ordersNeedingAttention);
-            request.setAttribute("stockAlerts", stockAlerts);
             request.setAttribute("startDate", startDate.format(formatter));
             request.setAttribute("endDate", endDate.format(formatter));
             request.setAttribute("currentUser", currentUser);
@@ -106,9 +120,10 @@ public class DashboardServlet extends HttpServlet {
             // Forward to dashboard view
             request.getRequestDispatcher("/WEB-INF/jsp/dashboard.jsp").forward(request, response);
             
-        } catch (ServiceException e) {
-            LOGGER.log(Level.SEVERE, "Error retrieving dashboard data", e);
-            request.setAttribute("error", "An error occurred while retrieving dashboard data: " + e.getMessage());
+        } catch (DateTimeParseException e) {
+            // Widget failures are handled by the assembler; only bad parameters end up here
+            LOGGER.log(Level.WARNING, "Invalid dashboard date range", e);
+            request.setAttribute("error", "Invalid date range: " + e.getParsedString());
             request.getRequestDispatcher("/WEB-INF/jsp/dashboard.jsp").forward(request, response);
         }
     }
@@ -164,17 +179,18 @@ public class DashboardServlet extends HttpServlet {
                     format = "PDF";
                 }
                 
-                // Generate and send the report
-                byte[] reportData = dashboardService.generateSalesReport(startDate, endDate, format);
+                // Reject the format before any header or byte of the download is written
+                if (!DashboardService.REPORT_FORMATS.contains(format.toUpperCase())) {
+                    forwardWithError(request, response, "Unsupported report format: " + format);
+                    return;
+                }
                 
-                // Set response headers
+                // Set response headers; without a content length the report is sent chunked as it is written
                 response.setContentType(getContentType(format));
                 response.setHeader("Content-Disposition", "attachment; filename=sales-report." + format.toLowerCase());
-                response.setContentLength(reportData.length);
                 
-                // Write report data to response
-                response.getOutputStream().write(reportData);
-                response.getOutputStream().flush();
+                // Write the report straight to the response
+                dashboardService.writeSalesReport(startDate, endDate, format, response.getOutputStream());
                 
             } else if ("exportInventoryReport".equals(action)) {
                 String format = request.getParameter("format");
@@ -183,30 +199,62 @@ public class DashboardServlet extends HttpServlet {
                     format = "PDF";
                 }
                 
-                // Generate and send the report
-                byte[] reportData = dashboardService.generateInventoryReport(format);
+                if (!DashboardService.REPORT_FORMATS.contains(format.toUpperCase())) {
+                    forwardWithError(request, response, "Unsupported report format: " + format);
+                    return;
+                }
                 
-                // Set response headers
+                // Set response headers; without a content length the report is sent chunked as it is written
                 response.setContentType(getContentType(format));
                 response.setHeader("Content-Disposition", "attachment; filename=inventory-report." + format.toLowerCase());
-                response.setContentLength(reportData.length);
                 
-                // Write report data to response
-                response.getOutputStream().write(reportData);
-                response.getOutputStream().flush();
+                // Write the report straight to the response
+                dashboardService.writeInventoryReport(format, response.getOutputStream());
+                
+            } else if ("rebuildSalesRollup".equals(action)) {
+                // One-off backfill of the daily sales rollup, restricted to administrators
+                if (!currentUser.hasPermission("settings:edit")) {
+                    response.sendRedirect(request.getContextPath() + "/access-denied");
+                    return;
+                }
+                
+                dashboardService.rebuildSalesRollup();
+                response.sendRedirect(request.getContextPath() + "/dashboard");
                 
             } else {
                 // Unknown action
                 response.sendRedirect(request.getContextPath() + "/dashboard");
             }
             
-        } catch (ServiceException e) {
+        } catch (ServiceException | DaoException e) {
             LOGGER.log(Level.SEVERE, "Error generating report", e);
-            request.setAttribute("error", "An error occurred while generating the report: " + e.getMessage());
-            request.getRequestDispatcher("/WEB-INF/jsp/dashboard.jsp").forward(request, response);
+            if (response.isCommitted()) {
+                // Part of the report has been sent. Failing the request makes the container abort the
+                // connection instead of ending the chunked response, so the client sees a failed
+                // download rather than a truncated file that looks complete
+                throw new ServletException("Report failed after part of it was sent", e);
+            }
+            // Drop the download headers so the error page is shown rather than saved
+            response.reset();
+            forwardWithError(request, response, "An error occurred while generating the report: " + e.getMessage());
         }
     }
     
+    /**
+     * Show the dashboard with an error message
+     * 
+     * @param request The HTTP request
+     * @param response The HTTP response
+     * @param message Error message
+     * @throws ServletException If an error occurs during request handling
+     * @throws IOException If an I/O error occurs
+     */
+    private void forwardWithError(HttpServletRequest request, HttpServletResponse response, String message)
+            throws ServletException, IOException {
+        request.setAttribute("error", message);
+        request.getRequestDispatcher("/WEB-INF/jsp/dashboard.jsp").forward(request, response);
+    }
+    
     /**
      * Get the content type for a report format
      * 
@@ -218,7 +266,7 @@ public class DashboardServlet extends HttpServlet {
             case "PDF":
                 return "application/pdf";
             case "CSV":
-                return "text/csv";
+                return "text/csv; charset=UTF-8";
             case "XLSX":
                 return "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet";
             default:
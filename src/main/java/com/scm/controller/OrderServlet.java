@@ -14,10 +14,13 @@ import javax.servlet.http.HttpServlet;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
+import com.scm.dao.util.Cursor;
+import com.scm.dao.util.Page;
 import com.scm.model.CustomerOrder;
 import com.scm.model.CustomerOrder.Status;
 import com.scm.model.OrderItem;
 import com.scm.model.Product;
+import com.scm.model.dto.OrderSummary;
 import com.scm.security.model.UserPrincipal;
 import com.scm.security.util.SessionManager;
 import com.scm.service.OrderService;
@@ -34,6 +37,7 @@ public class OrderServlet extends HttpServlet {
     
     private static final long serialVersionUID = 1L;
     private static final Logger LOGGER = Logger.getLogger(OrderServlet.class.getName());
+    private static final int PAGE_SIZE = 25;
     
     @Inject
     private OrderService orderService;
@@ -74,16 +78,19 @@ public class OrderServlet extends HttpServlet {
         try {
             if (pathInfo == null || pathInfo.equals("/")) {
                 // List all orders
-                List<CustomerOrder> orders;
+                List<OrderSummary> orders;
                 
                 // Filter by status if provided
                 String statusParam = request.getParameter("status");
                 if (statusParam != null && !statusParam.isEmpty()) {
                     Status status = Status.valueOf(statusParam);
-                    orders = orderService.findByStatus(status);
+                    orders = orderService.findSummariesByStatus(status);
                     request.setAttribute("statusFilter", status);
                 } else {
-                    orders = orderService.findRecentOrders(50); // Get most recent 50 orders
+                    Page<OrderSummary> page = orderService.findOrderSummaries(getCursor(request), PAGE_SIZE);
+                    orders = page.getContent();
+                    request.setAttribute("nextCursor", page.hasNext() ? page.getNextCursor().encode() : null);
+                    request.setAttribute("previousCursor", page.hasPrevious() ? page.getPreviousCursor().encode() : null);
                 }
                 
                 request.setAttribute("orders", orders);
@@ -251,6 +258,8 @@ public class OrderServlet extends HttpServlet {
                 // Extract form data
                 CustomerOrder order = extractOrderFromRequest(request);
                 order.setId(orderId);
+                // Version the form was loaded with; the update fails if the order changed since
+                order.setVersion(Integer.parseInt(request.getParameter("version")));
                 
                 // Update the order
                 order = orderService.updateOrder(order);
@@ -485,4 +494,19 @@ public class OrderServlet extends HttpServlet {
         
         return item;
     }
-} 
\ No newline at end of file
+    
+    /**
+     * Read the page cursor from the request
+     * 
+     * @param request The HTTP request
+     * @return The cursor, or null for the first page or an invalid cursor
+     */
+    private Cursor getCursor(HttpServletRequest request) {
+        try {
+            return Cursor.decode(request.getParameter("cursor"));
+        } catch (IllegalArgumentException e) {
+            LOGGER.log(Level.FINE, "Ignoring invalid order page cursor", e);
+            return null;
+        }
+    }
+}
@@ -14,7 +14,10 @@ import javax.servlet.http.HttpServlet;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
+import com.scm.dao.util.Cursor;
+import com.scm.dao.util.Page;
 import com.scm.model.Product;
+import com.scm.model.dto.ProductSummary;
 import com.scm.security.model.UserPrincipal;
 import com.scm.security.util.SessionManager;
 import com.scm.service.ProductService;
@@ -29,6 +32,7 @@ public class ProductServlet extends HttpServlet {
     
     private static final long serialVersionUID = 1L;
     private static final Logger LOGGER = Logger.getLogger(ProductServlet.class.getName());
+    private static final int PAGE_SIZE = 25;
     
     @Inject
     private ProductService productService;
@@ -64,13 +68,16 @@ public class ProductServlet extends HttpServlet {
             if (pathInfo == null || pathInfo.equals("/")) {
                 // List all products
                 String searchTerm = request.getParameter("search");
-                List<Product> products;
+                List<ProductSummary> products;
                 
                 if (searchTerm != null && !searchTerm.isEmpty()) {
-                    products = productService.findByNameContaining(searchTerm);
+                    products = productService.findSummariesByNameContaining(searchTerm);
                     request.setAttribute("searchTerm", searchTerm);
                 } else {
-                    products = productService.findAllProducts();
+                    Page<ProductSummary> page = productService.findProductSummaries(getCursor(request), PAGE_SIZE);
+                    products = page.getContent();
+                    request.setAttribute("nextCursor", page.hasNext() ? page.getNextCursor().encode() : null);
+                    request.setAttribute("previousCursor", page.hasPrevious() ? page.getPreviousCursor().encode() : null);
                 }
                 
                 request.setAttribute("products", products);
@@ -122,14 +129,14 @@ public class ProductServlet extends HttpServlet {
                 
             } else if (pathInfo.equals("/low-stock")) {
                 // List low stock products
-                List<Product> products = productService.findLowStockProducts();
+                List<ProductSummary> products = productService.findLowStockSummaries();
                 request.setAttribute("products", products);
                 request.setAttribute("title", "Low Stock Products");
                 request.getRequestDispatcher("/WEB-INF/jsp/product/list.jsp").forward(request, response);
                 
             } else if (pathInfo.equals("/out-of-stock")) {
                 // List out of stock products
-                List<Product> products = productService.findOutOfStockProducts();
+                List<ProductSummary> products = productService.findOutOfStockSummaries();
                 request.setAttribute("products", products);
                 request.setAttribute("title", "Out of Stock Products");
                 request.getRequestDispatcher("/WEB-INF/jsp/product/list.jsp").forward(request, response);
@@ -202,6 +209,8 @@ public class ProductServlet extends HttpServlet {
                 // Extract form data
                 Product product = extractProductFromRequest(request);
                 product.setId(productId);
+                // Version the form was loaded with; the update fails if the product changed since
+                product.setVersion(Integer.parseInt(request.getParameter("version")));
                 
                 // Update the product
                 product = productService.updateProduct(product);
@@ -326,4 +335,19 @@ public class ProductServlet extends HttpServlet {
         
         return product;
     }
-} 
\ No newline at end of file
+    
+    /**
+     * Read the page cursor from the request
+     * 
+     * @param request The HTTP request
+     * @return The cursor, or null for the first page or an invalid cursor
+     */
+    private Cursor getCursor(HttpServletRequest request) {
+        try {
+            return Cursor.decode(request.getParameter("cursor"));
+        } catch (IllegalArgumentException e) {
+            LOGGER.log(Level.FINE, "Ignoring invalid product page cursor", e);
+            return null;
+        }
+    }
+}
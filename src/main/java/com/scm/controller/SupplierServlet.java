@@ -14,8 +14,11 @@ import javax.servlet.http.HttpServlet;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
+import com.scm.dao.util.Cursor;
+import com.scm.dao.util.Page;
 import com.scm.model.Supplier;
 import com.scm.model.SupplierProduct;
+import com.scm.model.dto.SupplierSummary;
 import com.scm.security.model.UserPrincipal;
 import com.scm.security.util.SessionManager;
 import com.scm.service.ProductService;
@@ -31,6 +34,7 @@ public class SupplierServlet extends HttpServlet {
     
     private static final long serialVersionUID = 1L;
     private static final Logger LOGGER = Logger.getLogger(SupplierServlet.class.getName());
+    private static final int PAGE_SIZE = 25;
     
     @Inject
     private SupplierService supplierService;
@@ -69,13 +73,16 @@ public class SupplierServlet extends HttpServlet {
             if (pathInfo == null || pathInfo.equals("/")) {
                 // List all suppliers
                 String searchTerm = request.getParameter("search");
-                List<Supplier> suppliers;
+                List<SupplierSummary> suppliers;
                 
                 if (searchTerm != null && !searchTerm.isEmpty()) {
-                    suppliers = supplierService.findByNameContaining(searchTerm);
+                    suppliers = supplierService.findSummariesByNameContaining(searchTerm);
                     request.setAttribute("searchTerm", searchTerm);
                 } else {
-                    suppliers = supplierService.findAllSuppliers();
+                    Page<SupplierSummary> page = supplierService.findSupplierSummaries(getCursor(request), PAGE_SIZE);
+                    suppliers = page.getContent();
+                    request.setAttribute("nextCursor", page.hasNext() ? page.getNextCursor().encode() : null);
+                    request.setAttribute("previousCursor", page.hasPrevious() ? page.getPreviousCursor().encode() : null);
                 }
                 
                 request.setAttribute("suppliers", suppliers);
@@ -346,4 +353,19 @@ public class SupplierServlet extends HttpServlet {
         
         return supplier;
     }
-} 
\ No newline at end of file
+    
+    /**
+     * Read the page cursor from the request
+     * 
+     * @param request The HTTP request
+     * @return The cursor, or null for the first page or an invalid cursor
+     */
+    private Cursor getCursor(HttpServletRequest request) {
+        try {
+            return Cursor.decode(request.getParameter("cursor"));
+        } catch (IllegalArgumentException e) {
+            LOGGER.log(Level.FINE, "Ignoring invalid supplier page cursor", e);
+            return null;
+        }
+    }
+}
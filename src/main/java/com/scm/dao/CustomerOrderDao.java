@@ -1,10 +1,17 @@
 package com.scm.dao;
 
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Stream;
 
+import com.scm.dao.util.Cursor;
+import com.scm.dao.util.Page;
 import com.scm.model.CustomerOrder;
 import com.scm.model.CustomerOrder.Status;
+import com.scm.model.dto.OrderSummary;
 
 /**
  * DAO interface for CustomerOrder entity with custom query methods
@@ -19,6 +26,14 @@ public interface CustomerOrderDao extends GenericDao<CustomerOrder, Integer> {
      */
     List<CustomerOrder> findByCustomerEmail(String email);
     
+    /**
+     * Find an order by ID together with its items and their products
+     * 
+     * @param id Order ID
+     * @return Optional containing the order if found, empty otherwise
+     */
+    Optional<CustomerOrder> findByIdWithItems(Integer id);
+    
     /**
      * Find orders by status
      * 
@@ -27,6 +42,23 @@ public interface CustomerOrderDao extends GenericDao<CustomerOrder, Integer> {
      */
     List<CustomerOrder> findByStatus(Status status);
     
+    /**
+     * Find one page of order summaries, most recent first, for the order list view
+     * 
+     * @param cursor Position to read from, or null for the first page
+     * @param size Maximum number of orders on the page
+     * @return Page of order summaries
+     */
+    Page<OrderSummary> findSummaryPage(Cursor cursor, int size);
+    
+    /**
+     * Find summaries of orders by status
+     * 
+     * @param status Order status
+     * @return Order summaries with the specified status, most recent first
+     */
+    List<OrderSummary> findSummariesByStatus(Status status);
+    
     /**
      * Find orders by date range
      * 
@@ -36,6 +68,47 @@ public interface CustomerOrderDao extends GenericDao<CustomerOrder, Integer> {
      */
     List<CustomerOrder> findByDateRange(LocalDateTime startDate, LocalDateTime endDate);
     
+    /**
+     * Stream orders within a date range without loading them all into memory
+     * 
+     * @param startDate Start date
+     * @param endDate End date
+     * @param fetchSize JDBC fetch size
+     * @return Stream of orders within the date range, most recent first; must be closed
+     * @see GenericDao#streamAll(int)
+     */
+    Stream<CustomerOrder> streamByDateRange(LocalDateTime startDate, LocalDateTime endDate, int fetchSize);
+    
+    /**
+     * Sum the total amount of the orders within a date range
+     * 
+     * @param startDate Start date
+     * @param endDate End date
+     * @return Total amount, zero if there are no orders
+     */
+    BigDecimal sumTotalAmountByDateRange(LocalDateTime startDate, LocalDateTime endDate);
+    
+    /**
+     * Count the orders within a date range, grouped by status
+     * 
+     * @param startDate Start date
+     * @param endDate End date
+     * @return Number of orders per status; statuses without orders are absent
+     */
+    Map<Status, Long> countByStatusInDateRange(LocalDateTime startDate, LocalDateTime endDate);
+    
+    /**
+     * Find the best selling products of the orders within a date range.
+     * Cancelled orders are ignored.
+     * 
+     * @param startDate Start date
+     * @param endDate End date
+     * @param limit Maximum number of products to return
+     * @return Rows of [product ID, name, SKU, quantity sold (Long), revenue (BigDecimal)],
+     *         by quantity then revenue, highest first
+     */
+    List<Object[]> findTopSellingProducts(LocalDateTime startDate, LocalDateTime endDate, int limit);
+    
     /**
      * Find recent orders
      * 
@@ -60,4 +133,24 @@ public interface CustomerOrderDao extends GenericDao<CustomerOrder, Integer> {
      * @return true if order was found and updated, false otherwise
      */
     boolean updateStatus(Integer orderId, Status status);
+    
+    /**
+     * Add an amount to the total of an order with a single UPDATE, without reading its items.
+     * Pending changes are flushed first, and the order is refreshed afterwards so its total
+     * and version match the database row.
+     * 
+     * @param order Order to update
+     * @param delta Amount to add; negative to subtract
+     * @return true if order was found and updated, false otherwise
+     */
+    boolean addToTotalAmount(CustomerOrder order, BigDecimal delta);
+    
+    /**
+     * Find the stored total of a chunk of orders next to the total of their items
+     * 
+     * @param afterId Only orders with a greater ID are returned; 0 to start from the first order
+     * @param limit Maximum number of orders to return
+     * @return Rows of [order ID, stored total (BigDecimal), sum of the items (BigDecimal)], by order ID
+     */
+    List<Object[]> findTotalsAfterId(Integer afterId, int limit);
 } 
\ No newline at end of file
@@ -0,0 +1,45 @@
+package com.scm.dao;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import com.scm.model.DailySalesRollup;
+import com.scm.model.DailySalesRollupId;
+
+/**
+ * DAO interface for DailySalesRollup entity with custom query methods
+ */
+public interface DailySalesRollupDao extends GenericDao<DailySalesRollup, DailySalesRollupId> {
+    
+    /**
+     * Add the current state of an order (day, status, total amount and item quantity)
+     * to the rollup. Pending changes are flushed first.
+     * 
+     * @param orderId Order ID
+     */
+    void addOrder(Integer orderId);
+    
+    /**
+     * Remove the current state of an order from the rollup. Call before changing the
+     * order and {@link #addOrder(Integer)} afterwards to move its contribution.
+     * 
+     * @param orderId Order ID
+     */
+    void removeOrder(Integer orderId);
+    
+    /**
+     * Find the rollup rows of a date range
+     * 
+     * @param startDate First day (inclusive)
+     * @param endDate Last day (inclusive)
+     * @return Rollup rows ordered by day
+     */
+    List<DailySalesRollup> findByDateRange(LocalDate startDate, LocalDate endDate);
+    
+    /**
+     * Rebuild the whole rollup from customer_orders and order_items
+     * 
+     * @return Number of rollup rows written
+     */
+    int rebuild();
+}
@@ -1,8 +1,14 @@
 package com.scm.dao;
 
 import java.io.Serializable;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+
+import com.scm.dao.util.Cursor;
+import com.scm.dao.util.Page;
+import com.scm.dao.util.Sort;
 
 /**
  * Generic DAO interface that defines common CRUD operations for all entities.
@@ -12,6 +18,13 @@ import java.util.Optional;
  */
 public interface GenericDao<T, ID extends Serializable> {
     
+    /**
+     * Fetch size that makes MySQL Connector/J stream rows one at a time instead of
+     * buffering the whole result set in memory. Any other fetch size is ignored by
+     * the driver unless useCursorFetch=true is set on the connection URL.
+     */
+    int STREAMING_FETCH_SIZE = Integer.MIN_VALUE;
+    
     /**
      * Persist the entity to the database
      * 
@@ -28,6 +41,25 @@ public interface GenericDao<T, ID extends Serializable> {
      */
     T update(T entity);
     
+    /**
+     * Persist several entities, flushing the persistence context and detaching the
+     * flushed entities every hibernate.jdbc.batch_size entities so memory use stays
+     * constant and inserts are sent as JDBC batches
+     * 
+     * @param entities Entities to save
+     * @return The persisted entities (detached if a batch boundary was crossed)
+     */
+    List<T> saveAll(Collection<T> entities);
+    
+    /**
+     * Update several existing entities, flushing the persistence context and
+     * detaching the flushed entities every hibernate.jdbc.batch_size entities
+     * 
+     * @param entities Entities to update
+     * @return The updated entities (detached if a batch boundary was crossed)
+     */
+    List<T> updateAll(Collection<T> entities);
+    
     /**
      * Save or update an entity based on whether it exists or not
      * 
@@ -51,6 +83,15 @@ public interface GenericDao<T, ID extends Serializable> {
      */
     boolean deleteById(ID id);
     
+    /**
+     * Delete several entities by their IDs, flushing the persistence context
+     * every hibernate.jdbc.batch_size entities
+     * 
+     * @param ids Entity IDs
+     * @return Number of entities found and deleted
+     */
+    int deleteAllById(Collection<ID> ids);
+    
     /**
      * Find an entity by its ID
      * 
@@ -75,6 +116,32 @@ public interface GenericDao<T, ID extends Serializable> {
      */
     List<T> findAll(int startPosition, int maxResults);
     
+    /**
+     * Find a page of entities using keyset pagination.
+     * Instead of skipping rows with an offset, the query seeks directly past the
+     * cursor position on (sort attribute, ID), so every page costs the same when
+     * the sort attribute is indexed. The sort attribute must not be nullable.
+     * 
+     * @param cursor Position to read from, or null for the first page
+     * @param size Maximum number of entities in the page
+     * @param sort Sort order; ties are broken by ID
+     * @return The page with the cursors to the next and previous pages
+     */
+    Page<T> findPage(Cursor cursor, int size, Sort sort);
+    
+    /**
+     * Stream all entities through a forward-only cursor.
+     * Entities are read-only and each one is evicted from the persistence context
+     * once the next one is read, so memory use does not grow with the result size.
+     * The stream holds a database cursor and must be closed (try-with-resources).
+     * While a MySQL streaming result set is open no other statement can run on the
+     * connection, so entities must not trigger lazy loading during iteration.
+     * 
+     * @param fetchSize JDBC fetch size, e.g. {@link #STREAMING_FETCH_SIZE}
+     * @return Stream of entities
+     */
+    Stream<T> streamAll(int fetchSize);
+    
     /**
      * Count all entities of type T
      * 
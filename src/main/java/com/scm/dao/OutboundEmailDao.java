@@ -0,0 +1,50 @@
+package com.scm.dao;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+import com.scm.model.OutboundEmail;
+
+/**
+ * DAO interface for OutboundEmail entity with custom query methods
+ */
+public interface OutboundEmailDao extends GenericDao<OutboundEmail, Integer> {
+    
+    /**
+     * Find the emails that are due, oldest first, and lock them: pending emails whose next
+     * attempt is due and claimed emails whose lease expired. Rows locked by another
+     * transaction are skipped, so several dispatchers never claim the same email.
+     * 
+     * @param now Current time
+     * @param limit Maximum number of emails
+     * @return Due emails, locked until the transaction ends
+     */
+    List<OutboundEmail> findDueForUpdate(LocalDateTime now, int limit);
+    
+    /**
+     * Find the emails among the given ones that are still claimed by a dispatcher.
+     * An email whose lease expired and was claimed again by another dispatcher is left out.
+     * 
+     * @param owner Dispatcher that claimed the emails
+     * @param ids Email IDs
+     * @return Emails still claimed by the dispatcher
+     */
+    List<OutboundEmail> findClaimed(String owner, Collection<Integer> ids);
+    
+    /**
+     * Count the emails in each delivery state
+     * 
+     * @return Map of status name to number of emails; states without emails are left out
+     */
+    Map<String, Long> countByStatus();
+    
+    /**
+     * Delete the emails sent before a point in time
+     * 
+     * @param before Oldest send time to keep
+     * @return Number of emails deleted
+     */
+    int deleteSentBefore(LocalDateTime before);
+}
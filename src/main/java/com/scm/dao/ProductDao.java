@@ -1,9 +1,14 @@
 package com.scm.dao;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
+import com.scm.dao.util.Cursor;
+import com.scm.dao.util.Page;
 import com.scm.model.Product;
+import com.scm.model.dto.ProductSummary;
+import com.scm.model.dto.StockAlert;
 
 /**
  * DAO interface for Product entity with custom query methods
@@ -18,6 +23,13 @@ public interface ProductDao extends GenericDao<Product, Integer> {
      */
     Optional<Product> findBySku(String sku);
     
+    /**
+     * Find all products with their stock loaded in the same query
+     * 
+     * @return List of all products ordered by name
+     */
+    List<Product> findAllWithStock();
+    
     /**
      * Find products by name (partial match)
      * 
@@ -40,6 +52,68 @@ public interface ProductDao extends GenericDao<Product, Integer> {
      */
     List<Product> findOutOfStockProducts();
     
+    /**
+     * Find one page of product summaries ordered by name, for the product list view
+     * 
+     * @param cursor Position to read from, or null for the first page
+     * @param size Maximum number of products on the page
+     * @return Page of product summaries
+     */
+    Page<ProductSummary> findSummaryPage(Cursor cursor, int size);
+    
+    /**
+     * Find summaries of products by name (partial match)
+     * 
+     * @param name Name to search for
+     * @return Product summaries with matching name, ordered by name
+     */
+    List<ProductSummary> findSummariesByNameContaining(String name);
+    
+    /**
+     * Find summaries of products below their reorder level
+     * 
+     * @return Product summaries, ordered by name
+     */
+    List<ProductSummary> findLowStockSummaries();
+    
+    /**
+     * Find summaries of products with zero stock
+     * 
+     * @return Product summaries, ordered by name
+     */
+    List<ProductSummary> findOutOfStockSummaries();
+    
+    /**
+     * Sum up the stock of all products in a single aggregate query
+     * 
+     * @return Array of [inventory value (BigDecimal, unit price times quantity available),
+     *         out of stock count (Number), below reorder level count (Number)]; counts are null
+     *         when there is no stock at all
+     */
+    Object[] findStockTotals();
+    
+    /**
+     * Find the products that are out of stock or at or below their reorder level,
+     * each classified in a single query
+     * 
+     * @return Stock alerts, lowest quantity first
+     */
+    List<StockAlert> findStockAlerts();
+    
+    /**
+     * Find the price, reorder level and quantity available of every product with a stock record
+     * 
+     * @return Rows of [product ID, unit price (BigDecimal), reorder level (Integer), quantity available (Integer)]
+     */
+    List<Object[]> findStockLevels();
+    
+    /**
+     * Count the products of each product type
+     * 
+     * @return Number of products per product type; products without a type are counted under null
+     */
+    Map<String, Long> countByProductType();
+    
     /**
      * Find products by supplier ID
      * 
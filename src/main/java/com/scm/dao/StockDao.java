@@ -1,6 +1,8 @@
 package com.scm.dao;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import com.scm.model.Stock;
@@ -34,12 +36,44 @@ public interface StockDao extends GenericDao<Stock, Integer> {
      */
     List<Stock> findByProductIds(Integer[] productIds);
     
+    /**
+     * Lock the stock rows of the given products (SELECT ... FOR UPDATE) and return
+     * their available quantities. Rows are locked in product ID order so concurrent
+     * reservations cannot deadlock on each other.
+     * 
+     * @param productIds Product IDs
+     * @return Map of product ID to available quantity; products without stock are absent
+     */
+    Map<Integer, Integer> lockQuantities(Collection<Integer> productIds);
+    
+    /**
+     * Apply quantity changes to the stock of several products in a single JDBC batch.
+     * Callers are expected to hold the row locks (see {@link #lockQuantities(Collection)})
+     * and to have checked that no resulting quantity becomes negative. Stock instances
+     * already loaded in the persistence context are refreshed with the new values.
+     * 
+     * @param quantityChanges Map of product ID to change in quantity (positive or negative)
+     */
+    void applyQuantityChanges(Map<Integer, Integer> quantityChanges);
+    
+    /**
+     * Atomically apply a quantity change to the stock of a product.
+     * The change is executed as a single conditional UPDATE and is only applied
+     * if the resulting quantity is not negative, so concurrent callers cannot oversell.
+     * 
+     * @param productId Product ID
+     * @param quantityChange Change in quantity (positive or negative)
+     * @return true if the stock was updated, false if no stock exists for the product
+     *         or the change would make the quantity negative
+     */
+    boolean adjustQuantity(Integer productId, int quantityChange);
+    
     /**
      * Update stock quantity
      * 
      * @param productId Product ID
      * @param quantityChange Change in quantity (positive or negative)
-     * @return Updated stock entity if found, empty otherwise
+     * @return Updated stock entity if found and the resulting quantity is not negative, empty otherwise
      */
     Optional<Stock> updateQuantity(Integer productId, int quantityChange);
 } 
\ No newline at end of file
@@ -3,7 +3,10 @@ package com.scm.dao;
 import java.util.List;
 import java.util.Optional;
 
+import com.scm.dao.util.Cursor;
+import com.scm.dao.util.Page;
 import com.scm.model.Supplier;
+import com.scm.model.dto.SupplierSummary;
 
 /**
  * DAO interface for Supplier entity with custom query methods
@@ -26,6 +29,23 @@ public interface SupplierDao extends GenericDao<Supplier, Integer> {
      */
     List<Supplier> findByNameContaining(String name);
     
+    /**
+     * Find one page of supplier summaries ordered by name, for the supplier list view
+     * 
+     * @param cursor Position to read from, or null for the first page
+     * @param size Maximum number of suppliers on the page
+     * @return Page of supplier summaries
+     */
+    Page<SupplierSummary> findSummaryPage(Cursor cursor, int size);
+    
+    /**
+     * Find summaries of suppliers by name (partial match)
+     * 
+     * @param name Name to search for
+     * @return Supplier summaries with matching name, ordered by name
+     */
+    List<SupplierSummary> findSummariesByNameContaining(String name);
+    
     /**
      * Find suppliers that supply a specific product
      * 
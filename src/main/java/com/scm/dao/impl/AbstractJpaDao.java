@@ -1,8 +1,28 @@
 package com.scm.dao.impl;
 
 import java.io.Serializable;
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Member;
+import java.lang.reflect.Method;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import javax.persistence.EntityManager;
 import javax.persistence.NoResultException;
@@ -10,9 +30,23 @@ import javax.persistence.PersistenceContext;
 import javax.persistence.TypedQuery;
 import javax.persistence.criteria.CriteriaBuilder;
 import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Path;
+import javax.persistence.criteria.Predicate;
 import javax.persistence.criteria.Root;
+import javax.persistence.criteria.Selection;
+import javax.persistence.metamodel.EntityType;
+import javax.persistence.metamodel.SingularAttribute;
+
+import org.hibernate.CacheMode;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.Session;
+import org.hibernate.query.Query;
 
 import com.scm.dao.GenericDao;
+import com.scm.dao.util.Cursor;
+import com.scm.dao.util.Page;
+import com.scm.dao.util.Sort;
 
 /**
  * Abstract JPA DAO implementation that provides common CRUD operations for all entities.
@@ -22,6 +56,15 @@ import com.scm.dao.GenericDao;
  */
 public abstract class AbstractJpaDao<T, ID extends Serializable> implements GenericDao<T, ID> {
     
+    private static final Logger LOGGER = Logger.getLogger(AbstractJpaDao.class.getName());
+    private static final String BATCH_SIZE_PROPERTY = "hibernate.jdbc.batch_size";
+    private static final int DEFAULT_BATCH_SIZE = 50;
+    
+    /**
+     * JPA query hint applying an entity graph as a fetch graph
+     */
+    protected static final String FETCH_GRAPH_HINT = "javax.persistence.fetchgraph";
+    
     @PersistenceContext
     protected EntityManager entityManager;
     
@@ -47,6 +90,16 @@ public abstract class AbstractJpaDao<T, ID extends Serializable> implements Gene
         return entityManager.merge(entity);
     }
     
+    @Override
+    public List<T> saveAll(Collection<T> entities) {
+        return writeInBatches(entities, this::save, "save");
+    }
+    
+    @Override
+    public List<T> updateAll(Collection<T> entities) {
+        return writeInBatches(entities, this::update, "update");
+    }
+    
     @Override
     public T saveOrUpdate(T entity) {
         return entityManager.merge(entity);
@@ -67,6 +120,12 @@ public abstract class AbstractJpaDao<T, ID extends Serializable> implements Gene
         return false;
     }
     
+    @Override
+    public int deleteAllById(Collection<ID> ids) {
+        List<Boolean> deleted = writeInBatches(ids, this::deleteById, "delete");
+        return (int) deleted.stream().filter(Boolean::booleanValue).count();
+    }
+    
     @Override
     public Optional<T> findById(ID id) {
         T entity = entityManager.find(entityClass, id);
@@ -81,6 +140,7 @@ public abstract class AbstractJpaDao<T, ID extends Serializable> implements Gene
         CriteriaQuery<T> all = cq.select(rootEntry);
         
         TypedQuery<T> allQuery = entityManager.createQuery(all);
+        applyFetchGraph(allQuery);
         return allQuery.getResultList();
     }
     
@@ -92,11 +152,26 @@ public abstract class AbstractJpaDao<T, ID extends Serializable> implements Gene
         CriteriaQuery<T> all = cq.select(rootEntry);
         
         TypedQuery<T> allQuery = entityManager.createQuery(all);
+        applyFetchGraph(allQuery);
         allQuery.setFirstResult(startPosition);
         allQuery.setMaxResults(maxResults);
         return allQuery.getResultList();
     }
     
+    @Override
+    public Page<T> findPage(Cursor cursor, int size, Sort sort) {
+        return findPage(cursor, size, sort, entityClass, (cb, root) -> root, null, this::getIdentifier);
+    }
+    
+    @Override
+    public Stream<T> streamAll(int fetchSize) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<T> cq = cb.createQuery(entityClass);
+        Root<T> rootEntry = cq.from(entityClass);
+        
+        return stream(entityManager.createQuery(cq.select(rootEntry)), fetchSize);
+    }
+    
     @Override
     public long count() {
         CriteriaBuilder cb = entityManager.getCriteriaBuilder();
@@ -120,6 +195,94 @@ public abstract class AbstractJpaDao<T, ID extends Serializable> implements Gene
         entityManager.clear();
     }
     
+    /**
+     * Find one keyset-paginated page of a projection of the entity, such as a
+     * constructor expression building a read-only summary. The projection is
+     * ordered and filtered exactly as {@link #findPage(Cursor, int, Sort)}.
+     * 
+     * @param <R> Result type
+     * @param cursor Position to read from, or null for the first page
+     * @param size Maximum number of rows on the page
+     * @param sort Sort attribute of the entity and direction
+     * @param resultType Result type
+     * @param projection Builds the selection from the query root
+     * @param sortReader Reads the sort key from a result row, or null to read the entity attribute
+     * @param idReader Reads the ID from a result row
+     * @return Page of results
+     */
+    @SuppressWarnings("unchecked")
+    protected <R> Page<R> findPage(Cursor cursor, int size, Sort sort, Class<R> resultType,
+            BiFunction<CriteriaBuilder, Root<T>, Selection<? extends R>> projection,
+            Function<R, Object> sortReader, Function<R, Object> idReader) {
+        if (size <= 0) {
+            throw new IllegalArgumentException("Page size must be positive");
+        }
+        
+        EntityType<T> entityType = entityManager.getMetamodel().entity(entityClass);
+        SingularAttribute<? super T, ?> idAttribute = entityType.getId(entityType.getIdType().getJavaType());
+        SingularAttribute<? super T, ?> sortAttribute = entityType.getSingularAttribute(sort.getProperty());
+        boolean sortById = sortAttribute.getName().equals(idAttribute.getName());
+        boolean backward = cursor != null && cursor.isBackward();
+        // Reading backward walks the index in the opposite order, the rows are reversed afterwards
+        boolean ascending = sort.isAscending() != backward;
+        
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<R> cq = cb.createQuery(resultType);
+        Root<T> root = cq.from(entityClass);
+        Path<Comparable<Object>> idPath = root.get(idAttribute.getName());
+        Path<Comparable<Object>> sortPath = root.get(sortAttribute.getName());
+        
+        if (cursor != null) {
+            Comparable<Object> idValue = toAttributeValue(idAttribute, cursor.getId());
+            Predicate idPast = ascending ? cb.greaterThan(idPath, idValue) : cb.lessThan(idPath, idValue);
+            
+            if (sortById) {
+                cq.where(idPast);
+            } else {
+                Comparable<Object> sortValue = toAttributeValue(sortAttribute, cursor.getSortValue());
+                Predicate sortPast = ascending ? cb.greaterThan(sortPath, sortValue) : cb.lessThan(sortPath, sortValue);
+                cq.where(cb.or(sortPast, cb.and(cb.equal(sortPath, sortValue), idPast)));
+            }
+        }
+        
+        if (sortById) {
+            cq.orderBy(ascending ? cb.asc(idPath) : cb.desc(idPath));
+        } else {
+            cq.orderBy(ascending ? cb.asc(sortPath) : cb.desc(sortPath),
+                    ascending ? cb.asc(idPath) : cb.desc(idPath));
+        }
+        
+        // Read one extra row to know whether there is anything past this page
+        TypedQuery<R> query = entityManager.createQuery(cq.select(projection.apply(cb, root)));
+        if (resultType == entityClass) {
+            applyFetchGraph((TypedQuery<T>) query);
+        }
+        query.setMaxResults(size + 1);
+        List<R> content = new ArrayList<>(query.getResultList());
+        boolean more = content.size() > size;
+        if (more) {
+            content.remove(size);
+        }
+        if (backward) {
+            Collections.reverse(content);
+        }
+        
+        if (content.isEmpty()) {
+            return new Page<>(content, null, null);
+        }
+        
+        Function<R, Object> sortKey = sortReader != null ? sortReader
+                : row -> getAttributeValue((T) row, sortAttribute);
+        boolean hasNext = backward || more;
+        boolean hasPrevious = backward ? more : cursor != null;
+        R first = content.get(0);
+        R last = content.get(content.size() - 1);
+        
+        Cursor next = hasNext ? Cursor.after(sortKey.apply(last), idReader.apply(last)) : null;
+        Cursor previous = hasPrevious ? Cursor.before(sortKey.apply(first), idReader.apply(first)) : null;
+        return new Page<>(content, next, previous);
+    }
+    
     /**
      * Get a single result from a query or empty Optional if none found
      * 
@@ -134,4 +297,234 @@ public abstract class AbstractJpaDao<T, ID extends Serializable> implements Gene
             return Optional.empty();
         }
     }
-} 
\ No newline at end of file
+    
+    /**
+     * Name of the entity graph applied to findAll and findPage, so associations that
+     * are always needed are loaded in the same query. None by default.
+     * 
+     * @return Named entity graph, or null
+     */
+    protected String getFetchGraphName() {
+        return null;
+    }
+    
+    /**
+     * Apply the fetch graph returned by {@link #getFetchGraphName()} to a query
+     * 
+     * @param query The query
+     */
+    protected void applyFetchGraph(TypedQuery<T> query) {
+        applyFetchGraph(query, getFetchGraphName());
+    }
+    
+    /**
+     * Apply a named entity graph to a query
+     * 
+     * @param query The query
+     * @param graphName Named entity graph, or null for none
+     */
+    protected void applyFetchGraph(TypedQuery<T> query, String graphName) {
+        if (graphName != null) {
+            query.setHint(FETCH_GRAPH_HINT, entityManager.getEntityGraph(graphName));
+        }
+    }
+    
+    /**
+     * Find an entity by its ID, loading the associations of a named entity graph
+     * in the same query
+     * 
+     * @param id The entity ID
+     * @param graphName Named entity graph
+     * @return Optional containing the entity if found, empty otherwise
+     */
+    protected Optional<T> findById(ID id, String graphName) {
+        Map<String, Object> hints = Collections.singletonMap(FETCH_GRAPH_HINT, entityManager.getEntityGraph(graphName));
+        return Optional.ofNullable(entityManager.find(entityClass, id, hints));
+    }
+    
+    /**
+     * Execute a query through a forward-only Hibernate ScrollableResults.
+     * Entities are loaded read-only, bypass the second-level cache and are evicted
+     * from the persistence context as soon as the next row is read. The returned
+     * stream closes the underlying cursor when it is closed.
+     * 
+     * @param query The query to execute
+     * @param fetchSize JDBC fetch size
+     * @return Stream of entities
+     */
+    @SuppressWarnings("unchecked")
+    protected Stream<T> stream(TypedQuery<T> query, int fetchSize) {
+        Query<T> hibernateQuery = query.unwrap(Query.class);
+        hibernateQuery.setFetchSize(fetchSize);
+        hibernateQuery.setReadOnly(true);
+        hibernateQuery.setCacheMode(CacheMode.IGNORE);
+        
+        Session session = entityManager.unwrap(Session.class);
+        ScrollableResults results = hibernateQuery.scroll(ScrollMode.FORWARD_ONLY);
+        
+        Spliterator<T> spliterator = new Spliterators.AbstractSpliterator<T>(
+                Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL) {
+            
+            private T previous;
+            
+            @Override
+            public boolean tryAdvance(Consumer<? super T> action) {
+                if (previous != null) {
+                    session.detach(previous);
+                    previous = null;
+                }
+                if (!results.next()) {
+                    return false;
+                }
+                
+                previous = (T) results.get(0);
+                action.accept(previous);
+                return true;
+            }
+        };
+        
+        return StreamSupport.stream(spliterator, false).onClose(results::close);
+    }
+    
+    /**
+     * Apply a write operation to each item, flushing the persistence context after every
+     * batch of hibernate.jdbc.batch_size items and detaching the entities that batch wrote.
+     * Other entities the caller has loaded stay managed. Per-batch timings are logged
+     * at FINE level.
+     * 
+     * @param <E> Item type
+     * @param <R> Operation result type
+     * @param items Items to write
+     * @param operation Write operation applied to each item
+     * @param operationName Name of the operation for logging
+     * @return Results of the operation, in iteration order
+     */
+    protected <E, R> List<R> writeInBatches(Collection<E> items, Function<E, R> operation, String operationName) {
+        if (items == null || items.isEmpty()) {
+            return new ArrayList<>();
+        }
+        
+        List<R> results = new ArrayList<>(items.size());
+        int batchSize = getBatchSize();
+        int batchNumber = 0;
+        int batchCount = 0;
+        long batchStart = System.nanoTime();
+        
+        for (E item : items) {
+            results.add(operation.apply(item));
+            
+            if (++batchCount == batchSize) {
+                entityManager.flush();
+                detachWritten(results.subList(results.size() - batchCount, results.size()));
+                logBatch(operationName, ++batchNumber, batchCount, batchStart);
+                
+                batchCount = 0;
+                batchStart = System.nanoTime();
+            }
+        }
+        
+        // Flush the last partial batch but keep it managed for the caller
+        if (batchCount > 0) {
+            entityManager.flush();
+            logBatch(operationName, ++batchNumber, batchCount, batchStart);
+        }
+        
+        return results;
+    }
+    
+    /**
+     * Detach the entities among the results of a flushed batch, so memory use stays
+     * constant without clearing the whole persistence context
+     * 
+     * @param batchResults Results of the batch
+     */
+    private void detachWritten(List<?> batchResults) {
+        for (Object result : batchResults) {
+            if (entityClass.isInstance(result) && entityManager.contains(result)) {
+                entityManager.detach(result);
+            }
+        }
+    }
+    
+    /**
+     * Get the JDBC batch size configured for the persistence unit
+     * 
+     * @return Batch size
+     */
+    protected int getBatchSize() {
+        Object value = entityManager.getEntityManagerFactory().getProperties().get(BATCH_SIZE_PROPERTY);
+        if (value != null) {
+            try {
+                int batchSize = Integer.parseInt(value.toString().trim());
+                if (batchSize > 0) {
+                    return batchSize;
+                }
+            } catch (NumberFormatException e) {
+                LOGGER.log(Level.WARNING, "Invalid {0} value: {1}", new Object[]{BATCH_SIZE_PROPERTY, value});
+            }
+        }
+        return DEFAULT_BATCH_SIZE;
+    }
+    
+    private void logBatch(String operationName, int batchNumber, int batchCount, long batchStart) {
+        if (LOGGER.isLoggable(Level.FINE)) {
+            LOGGER.log(Level.FINE, "{0} {1} batch {2}: {3} entities in {4} ms", new Object[]{
+                    entityClass.getSimpleName(), operationName, batchNumber, batchCount,
+                    (System.nanoTime() - batchStart) / 1_000_000});
+        }
+    }
+    
+    private Object getIdentifier(T entity) {
+        return entityManager.getEntityManagerFactory().getPersistenceUnitUtil().getIdentifier(entity);
+    }
+    
+    private Object getAttributeValue(T entity, SingularAttribute<? super T, ?> attribute) {
+        Member member = attribute.getJavaMember();
+        try {
+            if (member instanceof Field) {
+                Field field = (Field) member;
+                field.setAccessible(true);
+                return field.get(entity);
+            }
+            if (member instanceof Method) {
+                Method method = (Method) member;
+                method.setAccessible(true);
+                return method.invoke(entity);
+            }
+        } catch (IllegalAccessException | InvocationTargetException e) {
+            throw new IllegalStateException("Cannot read " + entityClass.getSimpleName() + "." + attribute.getName(), e);
+        }
+        throw new IllegalStateException("Unsupported member for " + entityClass.getSimpleName() + "." + attribute.getName());
+    }
+    
+    /**
+     * Convert a cursor value back to the Java type of the attribute it was read from
+     */
+    @SuppressWarnings("unchecked")
+    private Comparable<Object> toAttributeValue(SingularAttribute<? super T, ?> attribute, String value) {
+        Class<?> type = attribute.getJavaType();
+        Object converted;
+        try {
+            if (type == Integer.class || type == int.class) {
+                converted = Integer.valueOf(value);
+            } else if (type == Long.class || type == long.class) {
+                converted = Long.valueOf(value);
+            } else if (type == BigDecimal.class) {
+                converted = new BigDecimal(value);
+            } else if (type == LocalDateTime.class) {
+                converted = LocalDateTime.parse(value);
+            } else if (type == LocalDate.class) {
+                converted = LocalDate.parse(value);
+            } else if (type == String.class) {
+                converted = value;
+            } else if (type.isEnum()) {
+                converted = Enum.valueOf(type.asSubclass(Enum.class), value);
+            } else {
+                throw new IllegalArgumentException("Unsupported sort attribute type: " + type.getName());
+            }
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor value for " + attribute.getName() + ": " + value, e);
+        }
+        return (Comparable<Object>) converted;
+    }
+}
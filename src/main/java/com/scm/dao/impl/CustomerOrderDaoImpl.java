@@ -1,15 +1,24 @@
 package com.scm.dao.impl;
 
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 import javax.ejb.Stateless;
 import javax.persistence.TypedQuery;
 
 import com.scm.dao.CustomerOrderDao;
+import com.scm.dao.util.Cursor;
+import com.scm.dao.util.Page;
+import com.scm.dao.util.Sort;
 import com.scm.model.CustomerOrder;
 import com.scm.model.CustomerOrder.Status;
+import com.scm.model.dto.OrderSummary;
 
 /**
  * JPA implementation of CustomerOrderDao
@@ -23,19 +32,39 @@ public class CustomerOrderDaoImpl extends AbstractJpaDao<CustomerOrder, Integer>
     
     @Override
     public List<CustomerOrder> findByCustomerEmail(String email) {
-        TypedQuery<CustomerOrder> query = entityManager.createQuery(
-                "SELECT o FROM CustomerOrder o WHERE o.customerEmail = :email " +
-                "ORDER BY o.orderDate DESC", CustomerOrder.class);
+        TypedQuery<CustomerOrder> query = entityManager.createNamedQuery(
+                CustomerOrder.FIND_BY_CUSTOMER_EMAIL, CustomerOrder.class);
         query.setParameter("email", email);
         
         return query.getResultList();
     }
     
+    @Override
+    public Optional<CustomerOrder> findByIdWithItems(Integer id) {
+        return findById(id, CustomerOrder.GRAPH_WITH_ITEMS_AND_PRODUCTS);
+    }
+    
     @Override
     public List<CustomerOrder> findByStatus(Status status) {
-        TypedQuery<CustomerOrder> query = entityManager.createQuery(
-                "SELECT o FROM CustomerOrder o WHERE o.status = :status " +
-                "ORDER BY o.orderDate DESC", CustomerOrder.class);
+        TypedQuery<CustomerOrder> query = entityManager.createNamedQuery(
+                CustomerOrder.FIND_BY_STATUS, CustomerOrder.class);
+        query.setParameter("status", status);
+        
+        return query.getResultList();
+    }
+    
+    @Override
+    public Page<OrderSummary> findSummaryPage(Cursor cursor, int size) {
+        return findPage(cursor, size, Sort.desc("orderDate"), OrderSummary.class,
+                (cb, order) -> cb.construct(OrderSummary.class, order.get("id"), order.get("customerName"),
+                        order.get("orderDate"), order.get("status"), order.get("totalAmount")),
+                OrderSummary::getOrderDate, OrderSummary::getId);
+    }
+    
+    @Override
+    public List<OrderSummary> findSummariesByStatus(Status status) {
+        TypedQuery<OrderSummary> query = entityManager.createNamedQuery(
+                CustomerOrder.FIND_SUMMARIES_BY_STATUS, OrderSummary.class);
         query.setParameter("status", status);
         
         return query.getResultList();
@@ -43,19 +72,65 @@ public class CustomerOrderDaoImpl extends AbstractJpaDao<CustomerOrder, Integer>
     
     @Override
     public List<CustomerOrder> findByDateRange(LocalDateTime startDate, LocalDateTime endDate) {
-        TypedQuery<CustomerOrder> query = entityManager.createQuery(
-                "SELECT o FROM CustomerOrder o WHERE o.orderDate BETWEEN :startDate AND :endDate " +
-                "ORDER BY o.orderDate DESC", CustomerOrder.class);
+        TypedQuery<CustomerOrder> query = entityManager.createNamedQuery(
+                CustomerOrder.FIND_BY_DATE_RANGE, CustomerOrder.class);
         query.setParameter("startDate", startDate);
         query.setParameter("endDate", endDate);
         
         return query.getResultList();
     }
     
+    @Override
+    public Stream<CustomerOrder> streamByDateRange(LocalDateTime startDate, LocalDateTime endDate, int fetchSize) {
+        TypedQuery<CustomerOrder> query = entityManager.createNamedQuery(
+                CustomerOrder.FIND_BY_DATE_RANGE, CustomerOrder.class);
+        query.setParameter("startDate", startDate);
+        query.setParameter("endDate", endDate);
+        
+        return stream(query, fetchSize);
+    }
+    
+    @Override
+    public BigDecimal sumTotalAmountByDateRange(LocalDateTime startDate, LocalDateTime endDate) {
+        TypedQuery<BigDecimal> query = entityManager.createNamedQuery(
+                CustomerOrder.SUM_TOTAL_AMOUNT_BY_DATE_RANGE, BigDecimal.class);
+        query.setParameter("startDate", startDate);
+        query.setParameter("endDate", endDate);
+        
+        BigDecimal total = query.getSingleResult();
+        return total != null ? total : BigDecimal.ZERO;
+    }
+    
+    @Override
+    public Map<Status, Long> countByStatusInDateRange(LocalDateTime startDate, LocalDateTime endDate) {
+        TypedQuery<Object[]> query = entityManager.createNamedQuery(
+                CustomerOrder.COUNT_BY_STATUS_IN_DATE_RANGE, Object[].class);
+        query.setParameter("startDate", startDate);
+        query.setParameter("endDate", endDate);
+        
+        Map<Status, Long> counts = new EnumMap<>(Status.class);
+        for (Object[] row : query.getResultList()) {
+            counts.put((Status) row[0], (Long) row[1]);
+        }
+        return counts;
+    }
+    
+    @Override
+    public List<Object[]> findTopSellingProducts(LocalDateTime startDate, LocalDateTime endDate, int limit) {
+        TypedQuery<Object[]> query = entityManager.createNamedQuery(
+                CustomerOrder.FIND_TOP_SELLING_PRODUCTS, Object[].class);
+        query.setParameter("startDate", startDate);
+        query.setParameter("endDate", endDate);
+        query.setParameter("excludedStatuses", Arrays.asList(Status.cancelled, Status.CANCELLED));
+        query.setMaxResults(limit);
+        
+        return query.getResultList();
+    }
+    
     @Override
     public List<CustomerOrder> findRecentOrders(int limit) {
-        TypedQuery<CustomerOrder> query = entityManager.createQuery(
-                "SELECT o FROM CustomerOrder o ORDER BY o.orderDate DESC", CustomerOrder.class);
+        TypedQuery<CustomerOrder> query = entityManager.createNamedQuery(
+                CustomerOrder.FIND_RECENT_ORDERS, CustomerOrder.class);
         query.setMaxResults(limit);
         
         return query.getResultList();
@@ -63,10 +138,8 @@ public class CustomerOrderDaoImpl extends AbstractJpaDao<CustomerOrder, Integer>
     
     @Override
     public List<CustomerOrder> findByProduct(Integer productId) {
-        TypedQuery<CustomerOrder> query = entityManager.createQuery(
-                "SELECT DISTINCT o FROM CustomerOrder o JOIN o.orderItems i " +
-                "WHERE i.product.id = :productId " +
-                "ORDER BY o.orderDate DESC", CustomerOrder.class);
+        TypedQuery<CustomerOrder> query = entityManager.createNamedQuery(
+                CustomerOrder.FIND_BY_PRODUCT, CustomerOrder.class);
         query.setParameter("productId", productId);
         
         return query.getResultList();
@@ -85,4 +158,33 @@ public class CustomerOrderDaoImpl extends AbstractJpaDao<CustomerOrder, Integer>
         
         return false;
     }
-}
\ No newline at end of file
+    
+    @Override
+    public boolean addToTotalAmount(CustomerOrder order, BigDecimal delta) {
+        // Bulk updates do not flush pending changes first. Write the item changes now, or the
+        // refresh below (which cascades to the items) would throw them away
+        entityManager.flush();
+        
+        int updated = entityManager.createNamedQuery(CustomerOrder.ADD_TO_TOTAL_AMOUNT)
+                .setParameter("delta", delta)
+                .setParameter("orderId", order.getId())
+                .executeUpdate();
+        
+        // The bulk update bypasses the persistence context; without the refresh a later flush
+        // of the order would fail the version check against the row it just updated
+        if (updated > 0 && entityManager.contains(order)) {
+            entityManager.refresh(order);
+        }
+        return updated > 0;
+    }
+    
+    @Override
+    public List<Object[]> findTotalsAfterId(Integer afterId, int limit) {
+        TypedQuery<Object[]> query = entityManager.createNamedQuery(
+                CustomerOrder.FIND_TOTALS_AFTER_ID, Object[].class);
+        query.setParameter("afterId", afterId);
+        query.setMaxResults(limit);
+        
+        return query.getResultList();
+    }
+}
@@ -0,0 +1,91 @@
+package com.scm.dao.impl;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import javax.ejb.Stateless;
+import javax.persistence.TypedQuery;
+
+import org.hibernate.query.NativeQuery;
+
+import com.scm.dao.DailySalesRollupDao;
+import com.scm.model.DailySalesRollup;
+import com.scm.model.DailySalesRollupId;
+
+/**
+ * JPA implementation of DailySalesRollupDao
+ */
+@Stateless
+public class DailySalesRollupDaoImpl extends AbstractJpaDao<DailySalesRollup, DailySalesRollupId> 
+        implements DailySalesRollupDao {
+    
+    private static final String ROLLUP_TABLE = "daily_sales_rollup";
+    
+    // Upserts the contribution of one order, read from its current database row
+    private static final String APPLY_ORDER_SQL =
+            "INSERT INTO daily_sales_rollup (sales_date, status, order_count, revenue, item_count) " +
+            "SELECT DATE(o.order_date), o.status, ?1, ?1 * o.total_amount, " +
+            "?1 * COALESCE((SELECT SUM(i.quantity) FROM order_items i WHERE i.order_id = o.id), 0) " +
+            "FROM customer_orders o WHERE o.id = ?2 " +
+            "ON DUPLICATE KEY UPDATE order_count = order_count + VALUES(order_count), " +
+            "revenue = revenue + VALUES(revenue), item_count = item_count + VALUES(item_count)";
+    
+    private static final String REBUILD_SQL =
+            "INSERT INTO daily_sales_rollup (sales_date, status, order_count, revenue, item_count) " +
+            "SELECT DATE(o.order_date), o.status, COUNT(*), SUM(o.total_amount), " +
+            "COALESCE(SUM(items.quantity), 0) " +
+            "FROM customer_orders o " +
+            "LEFT JOIN (SELECT order_id, SUM(quantity) AS quantity FROM order_items GROUP BY order_id) items " +
+            "ON items.order_id = o.id " +
+            "GROUP BY DATE(o.order_date), o.status";
+    
+    public DailySalesRollupDaoImpl() {
+        super(DailySalesRollup.class);
+    }
+    
+    @Override
+    public void addOrder(Integer orderId) {
+        applyOrder(orderId, 1);
+    }
+    
+    @Override
+    public void removeOrder(Integer orderId) {
+        applyOrder(orderId, -1);
+    }
+    
+    @Override
+    public List<DailySalesRollup> findByDateRange(LocalDate startDate, LocalDate endDate) {
+        TypedQuery<DailySalesRollup> query = entityManager.createNamedQuery(
+                DailySalesRollup.FIND_BY_DATE_RANGE, DailySalesRollup.class);
+        query.setParameter("startDate", startDate);
+        query.setParameter("endDate", endDate);
+        
+        return query.getResultList();
+    }
+    
+    @Override
+    public int rebuild() {
+        entityManager.flush();
+        createRollupUpdate("DELETE FROM daily_sales_rollup").executeUpdate();
+        return createRollupUpdate(REBUILD_SQL).executeUpdate();
+    }
+    
+    private void applyOrder(Integer orderId, int sign) {
+        // The statement reads the order row, so it must see the pending changes
+        entityManager.flush();
+        createRollupUpdate(APPLY_ORDER_SQL)
+                .setParameter(1, sign)
+                .setParameter(2, orderId)
+                .executeUpdate();
+    }
+    
+    /**
+     * Create a native statement writing the rollup table. Declaring the table it touches
+     * keeps Hibernate from invalidating every second-level cache region on execution.
+     */
+    private NativeQuery<?> createRollupUpdate(String sql) {
+        return entityManager.createNativeQuery(sql)
+                .unwrap(NativeQuery.class)
+                .addSynchronizedQuerySpace(ROLLUP_TABLE);
+    }
+}
@@ -21,8 +21,8 @@ public class OrderItemDaoImpl extends AbstractJpaDao<OrderItem, Integer> impleme
     
     @Override
     public List<OrderItem> findByOrderId(Integer orderId) {
-        TypedQuery<OrderItem> query = entityManager.createQuery(
-                "SELECT oi FROM OrderItem oi WHERE oi.order.id = :orderId", OrderItem.class);
+        TypedQuery<OrderItem> query = entityManager.createNamedQuery(
+                OrderItem.FIND_BY_ORDER_ID, OrderItem.class);
         query.setParameter("orderId", orderId);
         
         return query.getResultList();
@@ -30,8 +30,8 @@ public class OrderItemDaoImpl extends AbstractJpaDao<OrderItem, Integer> impleme
     
     @Override
     public List<OrderItem> findByProductId(Integer productId) {
-        TypedQuery<OrderItem> query = entityManager.createQuery(
-                "SELECT oi FROM OrderItem oi WHERE oi.product.id = :productId", OrderItem.class);
+        TypedQuery<OrderItem> query = entityManager.createNamedQuery(
+                OrderItem.FIND_BY_PRODUCT_ID, OrderItem.class);
         query.setParameter("productId", productId);
         
         return query.getResultList();
@@ -39,17 +39,15 @@ public class OrderItemDaoImpl extends AbstractJpaDao<OrderItem, Integer> impleme
     
     @Override
     public void deleteByOrderId(Integer orderId) {
-        entityManager.createQuery(
-                "DELETE FROM OrderItem oi WHERE oi.order.id = :orderId")
+        entityManager.createNamedQuery(OrderItem.DELETE_BY_ORDER_ID)
                 .setParameter("orderId", orderId)
                 .executeUpdate();
     }
     
     @Override
     public Optional<OrderItem> findByOrderIdAndProductId(Integer orderId, Integer productId) {
-        TypedQuery<OrderItem> query = entityManager.createQuery(
-                "SELECT oi FROM OrderItem oi WHERE oi.order.id = :orderId AND oi.product.id = :productId", 
-                OrderItem.class);
+        TypedQuery<OrderItem> query = entityManager.createNamedQuery(
+                OrderItem.FIND_BY_ORDER_ID_AND_PRODUCT_ID, OrderItem.class);
         query.setParameter("orderId", orderId);
         query.setParameter("productId", productId);
         
@@ -0,0 +1,79 @@
+package com.scm.dao.impl;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.ejb.Stateless;
+import javax.persistence.LockModeType;
+import javax.persistence.TypedQuery;
+
+import org.hibernate.LockOptions;
+
+import com.scm.dao.OutboundEmailDao;
+import com.scm.model.OutboundEmail;
+
+/**
+ * JPA implementation of OutboundEmailDao
+ */
+@Stateless
+public class OutboundEmailDaoImpl extends AbstractJpaDao<OutboundEmail, Integer> implements OutboundEmailDao {
+    
+    /**
+     * JPA query hint for the lock timeout; Hibernate reads SKIP_LOCKED as SELECT ... FOR UPDATE SKIP LOCKED
+     */
+    private static final String LOCK_TIMEOUT_HINT = "javax.persistence.lock.timeout";
+    
+    public OutboundEmailDaoImpl() {
+        super(OutboundEmail.class);
+    }
+    
+    @Override
+    public List<OutboundEmail> findDueForUpdate(LocalDateTime now, int limit) {
+        TypedQuery<OutboundEmail> query = entityManager.createNamedQuery(
+                OutboundEmail.FIND_DUE, OutboundEmail.class);
+        query.setParameter("pending", OutboundEmail.Status.PENDING);
+        query.setParameter("sending", OutboundEmail.Status.SENDING);
+        query.setParameter("now", now);
+        query.setMaxResults(limit);
+        query.setLockMode(LockModeType.PESSIMISTIC_WRITE);
+        query.setHint(LOCK_TIMEOUT_HINT, LockOptions.SKIP_LOCKED);
+        
+        return query.getResultList();
+    }
+    
+    @Override
+    public List<OutboundEmail> findClaimed(String owner, Collection<Integer> ids) {
+        if (ids == null || ids.isEmpty()) {
+            return List.of();
+        }
+        
+        return entityManager.createNamedQuery(OutboundEmail.FIND_CLAIMED, OutboundEmail.class)
+                .setParameter("status", OutboundEmail.Status.SENDING)
+                .setParameter("owner", owner)
+                .setParameter("ids", ids)
+                .getResultList();
+    }
+    
+    @Override
+    public Map<String, Long> countByStatus() {
+        List<Object[]> rows = entityManager.createNamedQuery(OutboundEmail.COUNT_BY_STATUS, Object[].class)
+                .getResultList();
+        
+        Map<String, Long> counts = new LinkedHashMap<>();
+        for (Object[] row : rows) {
+            counts.put(((OutboundEmail.Status) row[0]).name(), ((Number) row[1]).longValue());
+        }
+        return counts;
+    }
+    
+    @Override
+    public int deleteSentBefore(LocalDateTime before) {
+        return entityManager.createNamedQuery(OutboundEmail.DELETE_SENT_BEFORE)
+                .setParameter("status", OutboundEmail.Status.SENT)
+                .setParameter("before", before)
+                .executeUpdate();
+    }
+}
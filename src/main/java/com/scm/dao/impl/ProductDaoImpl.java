@@ -1,13 +1,26 @@
 package com.scm.dao.impl;
 
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 import javax.ejb.Stateless;
 import javax.persistence.TypedQuery;
+import javax.persistence.criteria.Join;
+import javax.persistence.criteria.JoinType;
+
+import org.hibernate.Session;
 
 import com.scm.dao.ProductDao;
+import com.scm.dao.util.Cursor;
+import com.scm.dao.util.Page;
+import com.scm.dao.util.Sort;
 import com.scm.model.Product;
+import com.scm.model.Stock;
+import com.scm.model.dto.ProductSummary;
+import com.scm.model.dto.StockAlert;
 
 /**
  * JPA implementation of ProductDao
@@ -20,18 +33,37 @@ public class ProductDaoImpl extends AbstractJpaDao<Product, Integer> implements
     }
     
     @Override
-    public Optional<Product> findBySku(String sku) {
-        TypedQuery<Product> query = entityManager.createQuery(
-                "SELECT p FROM Product p WHERE p.sku = :sku", Product.class);
-        query.setParameter("sku", sku);
+    public List<Product> findAllWithStock() {
+        TypedQuery<Product> query = entityManager.createNamedQuery(
+                Product.FIND_ALL_WITH_STOCK, Product.class);
+        query.setHint(FETCH_GRAPH_HINT, entityManager.getEntityGraph(Product.GRAPH_WITH_STOCK));
         
-        return getSingleResult(query);
+        return query.getResultList();
+    }
+    
+    @Override
+    public Stream<Product> streamAll(int fetchSize) {
+        // The inverse one-to-one to Stock cannot be lazy, fetch it in the same row
+        TypedQuery<Product> query = entityManager.createNamedQuery(Product.STREAM_ALL, Product.class);
+        
+        return stream(query, fetchSize);
+    }
+    
+    @Override
+    protected String getFetchGraphName() {
+        return Product.GRAPH_WITH_STOCK;
+    }
+    
+    @Override
+    public Optional<Product> findBySku(String sku) {
+        // Natural id lookup, resolved through the second-level cache when the SKU was seen before
+        return entityManager.unwrap(Session.class).bySimpleNaturalId(Product.class).loadOptional(sku);
     }
     
     @Override
     public List<Product> findByNameContaining(String name) {
-        TypedQuery<Product> query = entityManager.createQuery(
-                "SELECT p FROM Product p WHERE LOWER(p.name) LIKE LOWER(:name)", Product.class);
+        TypedQuery<Product> query = entityManager.createNamedQuery(
+                Product.FIND_BY_NAME_CONTAINING, Product.class);
         query.setParameter("name", "%" + name + "%");
         
         return query.getResultList();
@@ -39,31 +71,83 @@ public class ProductDaoImpl extends AbstractJpaDao<Product, Integer> implements
     
     @Override
     public List<Product> findLowStockProducts() {
-        TypedQuery<Product> query = entityManager.createQuery(
-                "SELECT p FROM Product p JOIN p.stock s " +
-                "WHERE s.quantityAvailable <= p.reorderLevel AND p.reorderLevel > 0", 
-                Product.class);
+        TypedQuery<Product> query = entityManager.createNamedQuery(
+                Product.FIND_LOW_STOCK_PRODUCTS, Product.class);
         
         return query.getResultList();
     }
     
     @Override
     public List<Product> findOutOfStockProducts() {
-        TypedQuery<Product> query = entityManager.createQuery(
-                "SELECT p FROM Product p JOIN p.stock s " +
-                "WHERE s.quantityAvailable = 0", 
-                Product.class);
+        TypedQuery<Product> query = entityManager.createNamedQuery(
+                Product.FIND_OUT_OF_STOCK_PRODUCTS, Product.class);
         
         return query.getResultList();
     }
     
+    @Override
+    public Page<ProductSummary> findSummaryPage(Cursor cursor, int size) {
+        return findPage(cursor, size, Sort.asc("name"), ProductSummary.class, (cb, product) -> {
+            Join<Product, Stock> stock = product.join("stock", JoinType.LEFT);
+            return cb.construct(ProductSummary.class, product.get("id"), product.get("sku"), product.get("name"),
+                    product.get("unitPrice"), product.get("reorderLevel"), stock.get("quantityAvailable"));
+        }, ProductSummary::getName, ProductSummary::getId);
+    }
+    
+    @Override
+    public List<ProductSummary> findSummariesByNameContaining(String name) {
+        TypedQuery<ProductSummary> query = entityManager.createNamedQuery(
+                Product.FIND_SUMMARIES_BY_NAME_CONTAINING, ProductSummary.class);
+        query.setParameter("name", "%" + name + "%");
+        
+        return query.getResultList();
+    }
+    
+    @Override
+    public List<ProductSummary> findLowStockSummaries() {
+        return entityManager.createNamedQuery(Product.FIND_LOW_STOCK_SUMMARIES, ProductSummary.class)
+                .getResultList();
+    }
+    
+    @Override
+    public List<ProductSummary> findOutOfStockSummaries() {
+        return entityManager.createNamedQuery(Product.FIND_OUT_OF_STOCK_SUMMARIES, ProductSummary.class)
+                .getResultList();
+    }
+    
+    @Override
+    public Object[] findStockTotals() {
+        return entityManager.createNamedQuery(Product.FIND_STOCK_TOTALS, Object[].class)
+                .getSingleResult();
+    }
+    
+    @Override
+    public List<StockAlert> findStockAlerts() {
+        return entityManager.createNamedQuery(Product.FIND_STOCK_ALERTS, StockAlert.class)
+                .getResultList();
+    }
+    
+    @Override
+    public List<Object[]> findStockLevels() {
+        return entityManager.createNamedQuery(Product.FIND_STOCK_LEVELS, Object[].class)
+                .getResultList();
+    }
+    
+    @Override
+    public Map<String, Long> countByProductType() {
+        List<Object[]> rows = entityManager.createNamedQuery(Product.COUNT_BY_PRODUCT_TYPE, Object[].class)
+                .getResultList();
+        
+        Map<String, Long> counts = new HashMap<>();
+        for (Object[] row : rows) {
+            counts.put((String) row[0], (Long) row[1]);
+        }
+        return counts;
+    }
+    
     @Override
     public List<Product> findBySupplier(Integer supplierId) {
-        TypedQuery<Product> query = entityManager.createQuery(
-                "SELECT DISTINCT p FROM Product p " +
-                "JOIN p.supplierProducts sp " +
-                "WHERE sp.supplier.id = :supplierId", 
-                Product.class);
+        TypedQuery<Product> query = entityManager.createNamedQuery(Product.FIND_BY_SUPPLIER, Product.class);
         query.setParameter("supplierId", supplierId);
         
         return query.getResultList();
@@ -71,8 +155,7 @@ public class ProductDaoImpl extends AbstractJpaDao<Product, Integer> implements
     
     @Override
     public boolean skuExists(String sku) {
-        TypedQuery<Long> query = entityManager.createQuery(
-                "SELECT COUNT(p) FROM Product p WHERE p.sku = :sku", Long.class);
+        TypedQuery<Long> query = entityManager.createNamedQuery(Product.SKU_EXISTS, Long.class);
         query.setParameter("sku", sku);
         
         return query.getSingleResult() > 0;
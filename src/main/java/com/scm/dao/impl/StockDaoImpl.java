@@ -1,14 +1,24 @@
 package com.scm.dao.impl;
 
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
 import java.time.LocalDateTime;
 import java.util.Arrays;
+import java.util.Calendar;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
-import java.util.stream.Collectors;
+import java.util.TimeZone;
 
 import javax.ejb.Stateless;
 import javax.persistence.TypedQuery;
 
+import org.hibernate.Session;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.persister.entity.EntityPersister;
+
 import com.scm.dao.StockDao;
 import com.scm.model.Stock;
 
@@ -24,8 +34,7 @@ public class StockDaoImpl extends AbstractJpaDao<Stock, Integer> implements Stoc
     
     @Override
     public Optional<Stock> findByProductId(Integer productId) {
-        TypedQuery<Stock> query = entityManager.createQuery(
-                "SELECT s FROM Stock s WHERE s.product.id = :productId", Stock.class);
+        TypedQuery<Stock> query = entityManager.createNamedQuery(Stock.FIND_BY_PRODUCT_ID, Stock.class);
         query.setParameter("productId", productId);
         
         return getSingleResult(query);
@@ -33,8 +42,7 @@ public class StockDaoImpl extends AbstractJpaDao<Stock, Integer> implements Stoc
     
     @Override
     public Optional<Stock> findByProductSku(String sku) {
-        TypedQuery<Stock> query = entityManager.createQuery(
-                "SELECT s FROM Stock s JOIN s.product p WHERE p.sku = :sku", Stock.class);
+        TypedQuery<Stock> query = entityManager.createNamedQuery(Stock.FIND_BY_PRODUCT_SKU, Stock.class);
         query.setParameter("sku", sku);
         
         return getSingleResult(query);
@@ -46,28 +54,110 @@ public class StockDaoImpl extends AbstractJpaDao<Stock, Integer> implements Stoc
             return List.of();
         }
         
-        String idList = Arrays.stream(productIds)
-                .map(String::valueOf)
-                .collect(Collectors.joining(","));
-        
-        TypedQuery<Stock> query = entityManager.createQuery(
-                "SELECT s FROM Stock s WHERE s.product.id IN (" + idList + ")", Stock.class);
+        // Bound as a list parameter; in-clause padding keeps the number of distinct plans small
+        TypedQuery<Stock> query = entityManager.createNamedQuery(Stock.FIND_BY_PRODUCT_IDS, Stock.class);
+        query.setParameter("productIds", Arrays.asList(productIds));
         
         return query.getResultList();
     }
     
     @Override
-    public Optional<Stock> updateQuantity(Integer productId, int quantityChange) {
-        Optional<Stock> stockOpt = findByProductId(productId);
+    public Map<Integer, Integer> lockQuantities(Collection<Integer> productIds) {
+        Map<Integer, Integer> quantities = new LinkedHashMap<>();
+        if (productIds == null || productIds.isEmpty()) {
+            return quantities;
+        }
+        
+        // Native query so the quantities are read from the locked rows rather than
+        // from Stock instances that may already be managed with stale values
+        @SuppressWarnings("unchecked")
+        List<Object[]> rows = entityManager.createNativeQuery(
+                "SELECT product_id, quantity_available FROM stock " +
+                "WHERE product_id IN (:productIds) " +
+                "ORDER BY product_id FOR UPDATE")
+                .setParameter("productIds", productIds)
+                .getResultList();
+        
+        for (Object[] row : rows) {
+            quantities.put(((Number) row[0]).intValue(), ((Number) row[1]).intValue());
+        }
+        
+        return quantities;
+    }
+    
+    @Override
+    public void applyQuantityChanges(Map<Integer, Integer> quantityChanges) {
+        if (quantityChanges == null || quantityChanges.isEmpty()) {
+            return;
+        }
+        
+        // Bind timestamps in UTC, matching hibernate.jdbc.time_zone
+        Timestamp lastUpdated = Timestamp.valueOf(LocalDateTime.now());
+        Calendar utc = Calendar.getInstance(TimeZone.getTimeZone("UTC"));
+        
+        entityManager.unwrap(Session.class).doWork(connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(
+                    "UPDATE stock SET quantity_available = quantity_available + ?, last_updated = ?, " +
+                    "version = version + 1 WHERE product_id = ?")) {
+                for (Map.Entry<Integer, Integer> change : quantityChanges.entrySet()) {
+                    statement.setInt(1, change.getValue());
+                    statement.setTimestamp(2, lastUpdated, utc);
+                    statement.setInt(3, change.getKey());
+                    statement.addBatch();
+                }
+                statement.executeBatch();
+            }
+        });
         
-        if (stockOpt.isPresent()) {
-            Stock stock = stockOpt.get();
-            stock.setQuantityAvailable(stock.getQuantityAvailable() + quantityChange);
-            stock.setLastUpdated(LocalDateTime.now());
-            
-            return Optional.of(update(stock));
+        // The batch bypasses Hibernate, so Stock instances it has already loaded keep the old values
+        @SuppressWarnings("unchecked")
+        List<Number> stockIds = entityManager.createNativeQuery(
+                "SELECT id FROM stock WHERE product_id IN (:productIds)")
+                .setParameter("productIds", quantityChanges.keySet())
+                .getResultList();
+        
+        refreshManaged(stockIds);
+    }
+    
+    /**
+     * Reload the Stock instances of this persistence context that a statement outside
+     * Hibernate has changed, so they carry the new quantity and version. Rows that are
+     * not loaded are left alone.
+     */
+    private void refreshManaged(List<Number> stockIds) {
+        SessionImplementor session = entityManager.unwrap(SessionImplementor.class);
+        EntityPersister persister = session.getFactory().getMetamodel().entityPersister(Stock.class);
+        
+        for (Number stockId : stockIds) {
+            Object managed = session.getPersistenceContext()
+                    .getEntity(session.generateEntityKey(stockId.intValue(), persister));
+            if (managed != null) {
+                entityManager.refresh(managed);
+            }
         }
+    }
+    
+    @Override
+    public boolean adjustQuantity(Integer productId, int quantityChange) {
+        int updated = entityManager.createNamedQuery(Stock.ADJUST_QUANTITY)
+                .setParameter("quantityChange", quantityChange)
+                .setParameter("lastUpdated", LocalDateTime.now())
+                .setParameter("productId", productId)
+                .executeUpdate();
+        
+        return updated > 0;
+    }
+    
+    @Override
+    public Optional<Stock> updateQuantity(Integer productId, int quantityChange) {
+        if (!adjustQuantity(productId, quantityChange)) {
+            return Optional.empty();
+        }
+        
+        // The bulk update bypasses the persistence context, so reload any managed copy
+        Optional<Stock> stockOpt = findByProductId(productId);
+        stockOpt.ifPresent(entityManager::refresh);
         
-        return Optional.empty();
+        return stockOpt;
     }
-} 
\ No newline at end of file
+}
\ No newline at end of file
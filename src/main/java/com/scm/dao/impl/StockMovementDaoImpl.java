@@ -20,56 +20,60 @@ public class StockMovementDaoImpl extends AbstractJpaDao<StockMovement, Integer>
         super(StockMovement.class);
     }
     
+    @Override
+    protected String getFetchGraphName() {
+        return StockMovement.GRAPH_WITH_PRODUCT;
+    }
+    
     @Override
     public List<StockMovement> findByProductId(Integer productId) {
-        TypedQuery<StockMovement> query = entityManager.createQuery(
-                "SELECT sm FROM StockMovement sm WHERE sm.product.id = :productId " +
-                "ORDER BY sm.movementDate DESC", StockMovement.class);
+        TypedQuery<StockMovement> query = entityManager.createNamedQuery(
+                StockMovement.FIND_BY_PRODUCT_ID, StockMovement.class);
         query.setParameter("productId", productId);
+        applyFetchGraph(query);
         
         return query.getResultList();
     }
     
     @Override
     public List<StockMovement> findByMovementType(MovementType type) {
-        TypedQuery<StockMovement> query = entityManager.createQuery(
-                "SELECT sm FROM StockMovement sm WHERE sm.movementType = :type " +
-                "ORDER BY sm.movementDate DESC", StockMovement.class);
+        TypedQuery<StockMovement> query = entityManager.createNamedQuery(
+                StockMovement.FIND_BY_MOVEMENT_TYPE, StockMovement.class);
         query.setParameter("type", type);
+        applyFetchGraph(query);
         
         return query.getResultList();
     }
     
     @Override
     public List<StockMovement> findByReferenceId(Integer referenceId) {
-        TypedQuery<StockMovement> query = entityManager.createQuery(
-                "SELECT sm FROM StockMovement sm WHERE sm.referenceId = :referenceId " +
-                "ORDER BY sm.movementDate DESC", StockMovement.class);
+        TypedQuery<StockMovement> query = entityManager.createNamedQuery(
+                StockMovement.FIND_BY_REFERENCE_ID, StockMovement.class);
         query.setParameter("referenceId", referenceId);
+        applyFetchGraph(query);
         
         return query.getResultList();
     }
     
     @Override
     public List<StockMovement> findByDateRange(LocalDateTime startDate, LocalDateTime endDate) {
-        TypedQuery<StockMovement> query = entityManager.createQuery(
-                "SELECT sm FROM StockMovement sm WHERE sm.movementDate BETWEEN :startDate AND :endDate " +
-                "ORDER BY sm.movementDate DESC", StockMovement.class);
+        TypedQuery<StockMovement> query = entityManager.createNamedQuery(
+                StockMovement.FIND_BY_DATE_RANGE, StockMovement.class);
         query.setParameter("startDate", startDate);
         query.setParameter("endDate", endDate);
+        applyFetchGraph(query);
         
         return query.getResultList();
     }
     
     @Override
     public List<StockMovement> findByProductAndDateRange(Integer productId, LocalDateTime startDate, LocalDateTime endDate) {
-        TypedQuery<StockMovement> query = entityManager.createQuery(
-                "SELECT sm FROM StockMovement sm WHERE sm.product.id = :productId " +
-                "AND sm.movementDate BETWEEN :startDate AND :endDate " +
-                "ORDER BY sm.movementDate DESC", StockMovement.class);
+        TypedQuery<StockMovement> query = entityManager.createNamedQuery(
+                StockMovement.FIND_BY_PRODUCT_AND_DATE_RANGE, StockMovement.class);
         query.setParameter("productId", productId);
         query.setParameter("startDate", startDate);
         query.setParameter("endDate", endDate);
+        applyFetchGraph(query);
         
         return query.getResultList();
     }
@@ -7,7 +7,12 @@ import javax.ejb.Stateless;
 import javax.persistence.TypedQuery;
 
 import com.scm.dao.SupplierDao;
+import com.scm.dao.util.Cursor;
+import com.scm.dao.util.Page;
+import com.scm.dao.util.Sort;
 import com.scm.model.Supplier;
+import com.scm.model.SupplierProduct;
+import com.scm.model.dto.SupplierSummary;
 
 /**
  * JPA implementation of SupplierDao
@@ -21,8 +26,7 @@ public class SupplierDaoImpl extends AbstractJpaDao<Supplier, Integer> implement
     
     @Override
     public Optional<Supplier> findByEmail(String email) {
-        TypedQuery<Supplier> query = entityManager.createQuery(
-                "SELECT s FROM Supplier s WHERE s.email = :email", Supplier.class);
+        TypedQuery<Supplier> query = entityManager.createNamedQuery(Supplier.FIND_BY_EMAIL, Supplier.class);
         query.setParameter("email", email);
         
         return getSingleResult(query);
@@ -30,8 +34,26 @@ public class SupplierDaoImpl extends AbstractJpaDao<Supplier, Integer> implement
     
     @Override
     public List<Supplier> findByNameContaining(String name) {
-        TypedQuery<Supplier> query = entityManager.createQuery(
-                "SELECT s FROM Supplier s WHERE LOWER(s.name) LIKE LOWER(:name)", Supplier.class);
+        TypedQuery<Supplier> query = entityManager.createNamedQuery(
+                Supplier.FIND_BY_NAME_CONTAINING, Supplier.class);
+        query.setParameter("name", "%" + name + "%");
+        
+        return query.getResultList();
+    }
+    
+    @Override
+    public Page<SupplierSummary> findSummaryPage(Cursor cursor, int size) {
+        return findPage(cursor, size, Sort.asc("name"), SupplierSummary.class,
+                (cb, supplier) -> cb.construct(SupplierSummary.class, supplier.get("id"), supplier.get("name"),
+                        supplier.get("contactPerson"), supplier.get("email"), supplier.get("phone"),
+                        cb.size(supplier.<List<SupplierProduct>>get("supplierProducts"))),
+                SupplierSummary::getName, SupplierSummary::getId);
+    }
+    
+    @Override
+    public List<SupplierSummary> findSummariesByNameContaining(String name) {
+        TypedQuery<SupplierSummary> query = entityManager.createNamedQuery(
+                Supplier.FIND_SUMMARIES_BY_NAME_CONTAINING, SupplierSummary.class);
         query.setParameter("name", "%" + name + "%");
         
         return query.getResultList();
@@ -39,11 +61,7 @@ public class SupplierDaoImpl extends AbstractJpaDao<Supplier, Integer> implement
     
     @Override
     public List<Supplier> findByProduct(Integer productId) {
-        TypedQuery<Supplier> query = entityManager.createQuery(
-                "SELECT DISTINCT s FROM Supplier s " +
-                "JOIN s.supplierProducts sp " +
-                "WHERE sp.product.id = :productId", 
-                Supplier.class);
+        TypedQuery<Supplier> query = entityManager.createNamedQuery(Supplier.FIND_BY_PRODUCT, Supplier.class);
         query.setParameter("productId", productId);
         
         return query.getResultList();
@@ -51,12 +69,8 @@ public class SupplierDaoImpl extends AbstractJpaDao<Supplier, Integer> implement
     
     @Override
     public List<Supplier> findByProductSku(String sku) {
-        TypedQuery<Supplier> query = entityManager.createQuery(
-                "SELECT DISTINCT s FROM Supplier s " +
-                "JOIN s.supplierProducts sp " +
-                "JOIN sp.product p " +
-                "WHERE p.sku = :sku", 
-                Supplier.class);
+        TypedQuery<Supplier> query = entityManager.createNamedQuery(
+                Supplier.FIND_BY_PRODUCT_SKU, Supplier.class);
         query.setParameter("sku", sku);
         
         return query.getResultList();
@@ -64,8 +78,7 @@ public class SupplierDaoImpl extends AbstractJpaDao<Supplier, Integer> implement
     
     @Override
     public boolean emailExists(String email) {
-        TypedQuery<Long> query = entityManager.createQuery(
-                "SELECT COUNT(s) FROM Supplier s WHERE s.email = :email", Long.class);
+        TypedQuery<Long> query = entityManager.createNamedQuery(Supplier.EMAIL_EXISTS, Long.class);
         query.setParameter("email", email);
         
         return query.getSingleResult() > 0;
@@ -22,11 +22,15 @@ public class SupplierOrderDaoImpl extends AbstractJpaDao<SupplierOrder, Integer>
         super(SupplierOrder.class);
     }
     
+    @Override
+    protected String getFetchGraphName() {
+        return SupplierOrder.GRAPH_WITH_SUPPLIER;
+    }
+    
     @Override
     public List<SupplierOrder> findBySupplierId(Integer supplierId) {
-        TypedQuery<SupplierOrder> query = entityManager.createQuery(
-                "SELECT o FROM SupplierOrder o WHERE o.supplier.id = :supplierId " +
-                "ORDER BY o.orderDate DESC", SupplierOrder.class);
+        TypedQuery<SupplierOrder> query = entityManager.createNamedQuery(
+                SupplierOrder.FIND_BY_SUPPLIER_ID, SupplierOrder.class);
         query.setParameter("supplierId", supplierId);
         
         return query.getResultList();
@@ -34,32 +38,32 @@ public class SupplierOrderDaoImpl extends AbstractJpaDao<SupplierOrder, Integer>
     
     @Override
     public List<SupplierOrder> findByStatus(Status status) {
-        TypedQuery<SupplierOrder> query = entityManager.createQuery(
-                "SELECT o FROM SupplierOrder o WHERE o.status = :status " +
-                "ORDER BY o.orderDate DESC", SupplierOrder.class);
+        TypedQuery<SupplierOrder> query = entityManager.createNamedQuery(
+                SupplierOrder.FIND_BY_STATUS, SupplierOrder.class);
         query.setParameter("status", status);
+        applyFetchGraph(query);
         
         return query.getResultList();
     }
     
     @Override
     public List<SupplierOrder> findByDateRange(LocalDateTime startDate, LocalDateTime endDate) {
-        TypedQuery<SupplierOrder> query = entityManager.createQuery(
-                "SELECT o FROM SupplierOrder o WHERE o.orderDate BETWEEN :startDate AND :endDate " +
-                "ORDER BY o.orderDate DESC", SupplierOrder.class);
+        TypedQuery<SupplierOrder> query = entityManager.createNamedQuery(
+                SupplierOrder.FIND_BY_DATE_RANGE, SupplierOrder.class);
         query.setParameter("startDate", startDate);
         query.setParameter("endDate", endDate);
+        applyFetchGraph(query);
         
         return query.getResultList();
     }
     
     @Override
     public List<SupplierOrder> findByExpectedDeliveryDateRange(LocalDate startDate, LocalDate endDate) {
-        TypedQuery<SupplierOrder> query = entityManager.createQuery(
-                "SELECT o FROM SupplierOrder o WHERE o.expectedDelivery BETWEEN :startDate AND :endDate " +
-                "ORDER BY o.expectedDelivery", SupplierOrder.class);
+        TypedQuery<SupplierOrder> query = entityManager.createNamedQuery(
+                SupplierOrder.FIND_BY_EXPECTED_DELIVERY_DATE_RANGE, SupplierOrder.class);
         query.setParameter("startDate", startDate);
         query.setParameter("endDate", endDate);
+        applyFetchGraph(query);
         
         return query.getResultList();
     }
@@ -68,31 +72,30 @@ public class SupplierOrderDaoImpl extends AbstractJpaDao<SupplierOrder, Integer>
     public List<SupplierOrder> findOverdueOrders() {
         LocalDate today = LocalDate.now();
         
-        TypedQuery<SupplierOrder> query = entityManager.createQuery(
-                "SELECT o FROM SupplierOrder o WHERE o.expectedDelivery < :today " +
-                "AND o.status NOT IN ('delivered', 'cancelled') " +
-                "ORDER BY o.expectedDelivery", SupplierOrder.class);
+        TypedQuery<SupplierOrder> query = entityManager.createNamedQuery(
+                SupplierOrder.FIND_OVERDUE_ORDERS, SupplierOrder.class);
         query.setParameter("today", today);
+        applyFetchGraph(query);
         
         return query.getResultList();
     }
     
     @Override
     public List<SupplierOrder> findRecentOrders(int limit) {
-        TypedQuery<SupplierOrder> query = entityManager.createQuery(
-                "SELECT o FROM SupplierOrder o ORDER BY o.orderDate DESC", SupplierOrder.class);
+        TypedQuery<SupplierOrder> query = entityManager.createNamedQuery(
+                SupplierOrder.FIND_RECENT_ORDERS, SupplierOrder.class);
         query.setMaxResults(limit);
+        applyFetchGraph(query);
         
         return query.getResultList();
     }
     
     @Override
     public List<SupplierOrder> findByProduct(Integer productId) {
-        TypedQuery<SupplierOrder> query = entityManager.createQuery(
-                "SELECT DISTINCT o FROM SupplierOrder o JOIN o.orderItems i " +
-                "WHERE i.product.id = :productId " +
-                "ORDER BY o.orderDate DESC", SupplierOrder.class);
+        TypedQuery<SupplierOrder> query = entityManager.createNamedQuery(
+                SupplierOrder.FIND_BY_PRODUCT, SupplierOrder.class);
         query.setParameter("productId", productId);
+        applyFetchGraph(query);
         
         return query.getResultList();
     }
@@ -20,9 +20,8 @@ public class SupplierOrderItemDaoImpl extends AbstractJpaDao<SupplierOrderItem,
     
     @Override
     public List<SupplierOrderItem> findBySupplierOrderId(Integer supplierOrderId) {
-        TypedQuery<SupplierOrderItem> query = entityManager.createQuery(
-                "SELECT soi FROM SupplierOrderItem soi WHERE soi.supplierOrder.id = :supplierOrderId", 
-                SupplierOrderItem.class);
+        TypedQuery<SupplierOrderItem> query = entityManager.createNamedQuery(
+                SupplierOrderItem.FIND_BY_SUPPLIER_ORDER_ID, SupplierOrderItem.class);
         query.setParameter("supplierOrderId", supplierOrderId);
         
         return query.getResultList();
@@ -30,9 +29,8 @@ public class SupplierOrderItemDaoImpl extends AbstractJpaDao<SupplierOrderItem,
     
     @Override
     public List<SupplierOrderItem> findByProductId(Integer productId) {
-        TypedQuery<SupplierOrderItem> query = entityManager.createQuery(
-                "SELECT soi FROM SupplierOrderItem soi WHERE soi.product.id = :productId", 
-                SupplierOrderItem.class);
+        TypedQuery<SupplierOrderItem> query = entityManager.createNamedQuery(
+                SupplierOrderItem.FIND_BY_PRODUCT_ID, SupplierOrderItem.class);
         query.setParameter("productId", productId);
         
         return query.getResultList();
@@ -40,8 +38,7 @@ public class SupplierOrderItemDaoImpl extends AbstractJpaDao<SupplierOrderItem,
     
     @Override
     public void deleteBySupplierOrderId(Integer supplierOrderId) {
-        entityManager.createQuery(
-                "DELETE FROM SupplierOrderItem soi WHERE soi.supplierOrder.id = :supplierOrderId")
+        entityManager.createNamedQuery(SupplierOrderItem.DELETE_BY_SUPPLIER_ORDER_ID)
                 .setParameter("supplierOrderId", supplierOrderId)
                 .executeUpdate();
     }
@@ -22,8 +22,8 @@ public class SupplierProductDaoImpl extends AbstractJpaDao<SupplierProduct, Supp
     
     @Override
     public List<SupplierProduct> findBySupplier(Integer supplierId) {
-        TypedQuery<SupplierProduct> query = entityManager.createQuery(
-                "SELECT sp FROM SupplierProduct sp WHERE sp.supplier.id = :supplierId", SupplierProduct.class);
+        TypedQuery<SupplierProduct> query = entityManager.createNamedQuery(
+                SupplierProduct.FIND_BY_SUPPLIER, SupplierProduct.class);
         query.setParameter("supplierId", supplierId);
         
         return query.getResultList();
@@ -31,8 +31,8 @@ public class SupplierProductDaoImpl extends AbstractJpaDao<SupplierProduct, Supp
     
     @Override
     public List<SupplierProduct> findByProduct(Integer productId) {
-        TypedQuery<SupplierProduct> query = entityManager.createQuery(
-                "SELECT sp FROM SupplierProduct sp WHERE sp.product.id = :productId", SupplierProduct.class);
+        TypedQuery<SupplierProduct> query = entityManager.createNamedQuery(
+                SupplierProduct.FIND_BY_PRODUCT, SupplierProduct.class);
         query.setParameter("productId", productId);
         
         return query.getResultList();
@@ -40,9 +40,8 @@ public class SupplierProductDaoImpl extends AbstractJpaDao<SupplierProduct, Supp
     
     @Override
     public Optional<SupplierProduct> findBySupplierAndProduct(Integer supplierId, Integer productId) {
-        TypedQuery<SupplierProduct> query = entityManager.createQuery(
-                "SELECT sp FROM SupplierProduct sp WHERE sp.supplier.id = :supplierId AND sp.product.id = :productId", 
-                SupplierProduct.class);
+        TypedQuery<SupplierProduct> query = entityManager.createNamedQuery(
+                SupplierProduct.FIND_BY_SUPPLIER_AND_PRODUCT, SupplierProduct.class);
         query.setParameter("supplierId", supplierId);
         query.setParameter("productId", productId);
         
@@ -51,25 +50,21 @@ public class SupplierProductDaoImpl extends AbstractJpaDao<SupplierProduct, Supp
     
     @Override
     public void deleteBySupplier(Integer supplierId) {
-        entityManager.createQuery(
-                "DELETE FROM SupplierProduct sp WHERE sp.supplier.id = :supplierId")
+        entityManager.createNamedQuery(SupplierProduct.DELETE_BY_SUPPLIER)
                 .setParameter("supplierId", supplierId)
                 .executeUpdate();
     }
     
     @Override
     public void deleteByProduct(Integer productId) {
-        entityManager.createQuery(
-                "DELETE FROM SupplierProduct sp WHERE sp.product.id = :productId")
+        entityManager.createNamedQuery(SupplierProduct.DELETE_BY_PRODUCT)
                 .setParameter("productId", productId)
                 .executeUpdate();
     }
     
     public Optional<SupplierProduct> findLowestCostSupplierForProduct(Integer productId) {
-        TypedQuery<SupplierProduct> query = entityManager.createQuery(
-                "SELECT sp FROM SupplierProduct sp WHERE sp.product.id = :productId " +
-                "ORDER BY sp.unitCost ASC", 
-                SupplierProduct.class);
+        TypedQuery<SupplierProduct> query = entityManager.createNamedQuery(
+                SupplierProduct.FIND_LOWEST_COST_SUPPLIER_FOR_PRODUCT, SupplierProduct.class);
         query.setParameter("productId", productId);
         query.setMaxResults(1);
         
@@ -77,10 +72,8 @@ public class SupplierProductDaoImpl extends AbstractJpaDao<SupplierProduct, Supp
     }
     
     public Optional<SupplierProduct> findFastestDeliverySupplierForProduct(Integer productId) {
-        TypedQuery<SupplierProduct> query = entityManager.createQuery(
-                "SELECT sp FROM SupplierProduct sp WHERE sp.product.id = :productId " +
-                "ORDER BY sp.leadTimeDays ASC", 
-                SupplierProduct.class);
+        TypedQuery<SupplierProduct> query = entityManager.createNamedQuery(
+                SupplierProduct.FIND_FASTEST_DELIVERY_SUPPLIER_FOR_PRODUCT, SupplierProduct.class);
         query.setParameter("productId", productId);
         query.setMaxResults(1);
         
@@ -4,9 +4,10 @@ import java.util.List;
 import java.util.Optional;
 
 import javax.ejb.Stateless;
-import javax.persistence.NoResultException;
 import javax.persistence.TypedQuery;
 
+import org.hibernate.Session;
+
 import com.scm.dao.UserDao;
 import com.scm.model.User;
 import com.scm.model.User.Role;
@@ -23,21 +24,13 @@ public class UserDaoImpl extends AbstractJpaDao<User, Integer> implements UserDa
     
     @Override
     public Optional<User> findByUsername(String username) {
-        TypedQuery<User> query = entityManager.createQuery(
-                "SELECT u FROM User u WHERE u.username = :username", User.class);
-        query.setParameter("username", username);
-        
-        try {
-            return Optional.of(query.getSingleResult());
-        } catch (NoResultException e) {
-            return Optional.empty();
-        }
+        // Natural id lookup, resolved through the second-level cache when the user was seen before
+        return entityManager.unwrap(Session.class).bySimpleNaturalId(User.class).loadOptional(username);
     }
     
     @Override
     public Optional<User> findByEmail(String email) {
-        TypedQuery<User> query = entityManager.createQuery(
-                "SELECT u FROM User u WHERE u.email = :email", User.class);
+        TypedQuery<User> query = entityManager.createNamedQuery(User.FIND_BY_EMAIL, User.class);
         query.setParameter("email", email);
         
         return getSingleResult(query);
@@ -45,8 +38,7 @@ public class UserDaoImpl extends AbstractJpaDao<User, Integer> implements UserDa
     
     @Override
     public List<User> findByRole(Role role) {
-        TypedQuery<User> query = entityManager.createQuery(
-                "SELECT u FROM User u WHERE u.role = :role", User.class);
+        TypedQuery<User> query = entityManager.createNamedQuery(User.FIND_BY_ROLE, User.class);
         query.setParameter("role", role);
         
         return query.getResultList();
@@ -54,8 +46,7 @@ public class UserDaoImpl extends AbstractJpaDao<User, Integer> implements UserDa
     
     @Override
     public boolean usernameExists(String username) {
-        TypedQuery<Long> query = entityManager.createQuery(
-                "SELECT COUNT(u) FROM User u WHERE u.username = :username", Long.class);
+        TypedQuery<Long> query = entityManager.createNamedQuery(User.USERNAME_EXISTS, Long.class);
         query.setParameter("username", username);
         
         return query.getSingleResult() > 0;
@@ -63,8 +54,7 @@ public class UserDaoImpl extends AbstractJpaDao<User, Integer> implements UserDa
     
     @Override
     public boolean emailExists(String email) {
-        TypedQuery<Long> query = entityManager.createQuery(
-                "SELECT COUNT(u) FROM User u WHERE u.email = :email", Long.class);
+        TypedQuery<Long> query = entityManager.createNamedQuery(User.EMAIL_EXISTS, Long.class);
         query.setParameter("email", email);
         
         return query.getSingleResult() > 0;
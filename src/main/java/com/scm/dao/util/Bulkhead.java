@@ -0,0 +1,23 @@
+package com.scm.dao.util;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Selects the connection pool of a @Transactional or @ReadOnly method.
+ * Methods without it use the OLTP pool. The pool is chosen when the outermost
+ * transaction begins; nested calls share its connection.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface Bulkhead {
+    
+    /**
+     * Workload whose pool serves the transaction
+     * 
+     * @return Workload
+     */
+    Workload value();
+}
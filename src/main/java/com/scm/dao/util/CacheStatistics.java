@@ -0,0 +1,87 @@
+package com.scm.dao.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.enterprise.context.ApplicationScoped;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+
+/**
+ * Reports the hit and miss counts of the second-level cache regions and of the
+ * query plan cache.
+ * Relies on hibernate.generate_statistics; counts are cumulative since startup.
+ */
+@ApplicationScoped
+public class CacheStatistics {
+    
+    @PersistenceContext(unitName = "scmPU")
+    private EntityManager entityManager;
+    
+    /**
+     * Get the statistics of every second-level cache region
+     * 
+     * @return One map per region, ordered by region name, with keys region, hits, misses,
+     *         puts and hitRatio (percentage of lookups served by the cache)
+     */
+    public List<Map<String, Object>> getRegionStatistics() {
+        Statistics statistics = getStatistics();
+        
+        String[] regionNames = statistics.getSecondLevelCacheRegionNames();
+        Arrays.sort(regionNames);
+        
+        List<Map<String, Object>> regions = new ArrayList<>();
+        for (String regionName : regionNames) {
+            CacheRegionStatistics region = statistics.getDomainDataRegionStatistics(regionName);
+            if (region == null) {
+                continue;
+            }
+            
+            long hits = region.getHitCount();
+            long misses = region.getMissCount();
+            
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("region", regionName);
+            row.put("hits", hits);
+            row.put("misses", misses);
+            row.put("puts", region.getPutCount());
+            row.put("hitRatio", ratio(hits, misses));
+            regions.add(row);
+        }
+        
+        return regions;
+    }
+    
+    /**
+     * Get the statistics of the query plan cache, which holds the parsed form of JPQL queries
+     * 
+     * @return Map with keys hits, misses and hitRatio (percentage of queries that were not parsed again)
+     */
+    public Map<String, Object> getQueryPlanStatistics() {
+        Statistics statistics = getStatistics();
+        long hits = statistics.getQueryPlanCacheHitCount();
+        long misses = statistics.getQueryPlanCacheMissCount();
+        
+        Map<String, Object> plans = new LinkedHashMap<>();
+        plans.put("hits", hits);
+        plans.put("misses", misses);
+        plans.put("hitRatio", ratio(hits, misses));
+        return plans;
+    }
+    
+    private Statistics getStatistics() {
+        return entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+    }
+    
+    private static double ratio(long hits, long misses) {
+        long lookups = hits + misses;
+        return lookups > 0 ? hits * 100.0 / lookups : 0.0;
+    }
+}
@@ -0,0 +1,99 @@
+package com.scm.dao.util;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.zaxxer.hikari.metrics.IMetricsTracker;
+import com.zaxxer.hikari.metrics.MetricsTrackerFactory;
+import com.zaxxer.hikari.metrics.PoolStats;
+
+/**
+ * Collects the saturation and connection wait times of every HikariCP pool created
+ * by the RoutingConnectionProvider. Counts are cumulative since the pool started.
+ */
+public class ConnectionPoolMetrics implements MetricsTrackerFactory {
+    
+    private static final Map<String, Tracker> TRACKERS = new ConcurrentSkipListMap<>();
+    
+    @Override
+    public IMetricsTracker create(String poolName, PoolStats poolStats) {
+        Tracker tracker = new Tracker(poolName, poolStats);
+        TRACKERS.put(poolName, tracker);
+        return tracker;
+    }
+    
+    /**
+     * Get the statistics of every connection pool
+     * 
+     * @return One map per pool, ordered by pool name, with keys pool, active, idle, total, max,
+     *         pending (threads waiting for a connection), saturation (percentage of the maximum in use),
+     *         acquisitions, avgWaitMs, maxWaitMs and timeouts
+     */
+    public static List<Map<String, Object>> getPoolStatistics() {
+        List<Map<String, Object>> pools = new ArrayList<>();
+        for (Tracker tracker : TRACKERS.values()) {
+            pools.add(tracker.snapshot());
+        }
+        return pools;
+    }
+    
+    /**
+     * Metrics of one pool
+     */
+    private static final class Tracker implements IMetricsTracker {
+        
+        private final String poolName;
+        private final PoolStats poolStats;
+        private final LongAdder acquisitions = new LongAdder();
+        private final LongAdder waitNanos = new LongAdder();
+        private final AtomicLong maxWaitNanos = new AtomicLong();
+        private final LongAdder timeouts = new LongAdder();
+        
+        Tracker(String poolName, PoolStats poolStats) {
+            this.poolName = poolName;
+            this.poolStats = poolStats;
+        }
+        
+        @Override
+        public void recordConnectionAcquiredNanos(long elapsedAcquiredNanos) {
+            acquisitions.increment();
+            waitNanos.add(elapsedAcquiredNanos);
+            maxWaitNanos.accumulateAndGet(elapsedAcquiredNanos, Math::max);
+        }
+        
+        @Override
+        public void recordConnectionTimeout() {
+            timeouts.increment();
+        }
+        
+        @Override
+        public void close() {
+            TRACKERS.remove(poolName, this);
+        }
+        
+        Map<String, Object> snapshot() {
+            int active = poolStats.getActiveConnections();
+            int max = poolStats.getMaxConnections();
+            long count = acquisitions.sum();
+            
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("pool", poolName);
+            row.put("active", active);
+            row.put("idle", poolStats.getIdleConnections());
+            row.put("total", poolStats.getTotalConnections());
+            row.put("max", max);
+            row.put("pending", poolStats.getPendingThreads());
+            row.put("saturation", max > 0 ? active * 100.0 / max : 0.0);
+            row.put("acquisitions", count);
+            row.put("avgWaitMs", count > 0 ? waitNanos.sum() / 1_000_000.0 / count : 0.0);
+            row.put("maxWaitMs", maxWaitNanos.get() / 1_000_000.0);
+            row.put("timeouts", timeouts.sum());
+            return row;
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package com.scm.dao.util;
+
+import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Objects;
+
+/**
+ * Position in a keyset-paginated result.
+ * A cursor holds the sort key and ID of the row it points at and the direction to
+ * read from it. It is exchanged with clients as an opaque URL-safe token.
+ */
+public final class Cursor implements Serializable {
+    
+    private static final long serialVersionUID = 1L;
+    private static final String FORWARD = "a";
+    private static final String BACKWARD = "b";
+    private static final String SEPARATOR = "|";
+    
+    private final String id;
+    private final String sortValue;
+    private final boolean backward;
+    
+    private Cursor(String id, String sortValue, boolean backward) {
+        this.id = Objects.requireNonNull(id, "Cursor ID cannot be null");
+        this.sortValue = Objects.requireNonNull(sortValue, "Cursor sort value cannot be null");
+        this.backward = backward;
+    }
+    
+    /**
+     * Create a cursor reading the rows after the given position
+     * 
+     * @param sortValue Sort key of the last row of the current page
+     * @param id ID of the last row of the current page
+     * @return Cursor for the next page
+     */
+    public static Cursor after(Object sortValue, Object id) {
+        return new Cursor(String.valueOf(id), String.valueOf(sortValue), false);
+    }
+    
+    /**
+     * Create a cursor reading the rows before the given position
+     * 
+     * @param sortValue Sort key of the first row of the current page
+     * @param id ID of the first row of the current page
+     * @return Cursor for the previous page
+     */
+    public static Cursor before(Object sortValue, Object id) {
+        return new Cursor(String.valueOf(id), String.valueOf(sortValue), true);
+    }
+    
+    /**
+     * Decode a cursor token
+     * 
+     * @param token Token produced by {@link #encode()}
+     * @return The cursor, or null if the token is null or empty (first page)
+     * @throws IllegalArgumentException if the token is malformed
+     */
+    public static Cursor decode(String token) {
+        if (token == null || token.isEmpty()) {
+            return null;
+        }
+        
+        String value = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+        String[] parts = value.split("\\" + SEPARATOR, 3);
+        if (parts.length != 3 || !(FORWARD.equals(parts[0]) || BACKWARD.equals(parts[0]))) {
+            throw new IllegalArgumentException("Invalid cursor: " + token);
+        }
+        
+        return new Cursor(parts[1], parts[2], BACKWARD.equals(parts[0]));
+    }
+    
+    /**
+     * Encode this cursor as an opaque URL-safe token
+     * 
+     * @return Token
+     */
+    public String encode() {
+        String value = (backward ? BACKWARD : FORWARD) + SEPARATOR + id + SEPARATOR + sortValue;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+    
+    public String getId() {
+        return id;
+    }
+    
+    public String getSortValue() {
+        return sortValue;
+    }
+    
+    public boolean isBackward() {
+        return backward;
+    }
+    
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        Cursor cursor = (Cursor) o;
+        return backward == cursor.backward && id.equals(cursor.id) && sortValue.equals(cursor.sortValue);
+    }
+    
+    @Override
+    public int hashCode() {
+        return Objects.hash(id, sortValue, backward);
+    }
+    
+    @Override
+    public String toString() {
+        return encode();
+    }
+}
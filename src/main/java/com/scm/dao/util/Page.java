@@ -0,0 +1,52 @@
+package com.scm.dao.util;
+
+import java.io.Serializable;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * One page of a keyset-paginated result with the cursors to its neighbours.
+ * 
+ * @param <T> Element type
+ */
+public class Page<T> implements Serializable {
+    
+    private static final long serialVersionUID = 1L;
+    
+    private final List<T> content;
+    private final Cursor nextCursor;
+    private final Cursor previousCursor;
+    
+    /**
+     * Constructor
+     * 
+     * @param content Elements of the page
+     * @param nextCursor Cursor to the next page, or null if this is the last page
+     * @param previousCursor Cursor to the previous page, or null if this is the first page
+     */
+    public Page(List<T> content, Cursor nextCursor, Cursor previousCursor) {
+        this.content = Collections.unmodifiableList(content);
+        this.nextCursor = nextCursor;
+        this.previousCursor = previousCursor;
+    }
+    
+    public List<T> getContent() {
+        return content;
+    }
+    
+    public Cursor getNextCursor() {
+        return nextCursor;
+    }
+    
+    public Cursor getPreviousCursor() {
+        return previousCursor;
+    }
+    
+    public boolean hasNext() {
+        return nextCursor != null;
+    }
+    
+    public boolean hasPrevious() {
+        return previousCursor != null;
+    }
+}
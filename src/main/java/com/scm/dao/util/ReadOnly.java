@@ -0,0 +1,35 @@
+package com.scm.dao.util;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+import javax.interceptor.InterceptorBinding;
+import javax.transaction.Transactional;
+
+/**
+ * Marks a query method that runs in a read-only transaction.
+ * The method is intercepted by the TransactionInterceptor like any @Transactional
+ * method, but the session loads entities read-only (no dirty-checking snapshot),
+ * never flushes and marks the JDBC connection read-only. Entities returned by such
+ * a method are detached when the transaction ends, so a later read-write method
+ * loads its own writable copy; the method must fetch every association its callers read.
+ * 
+ * Only methods marked replica = true, such as dashboard, report and list reads, may be
+ * served by the read replica. Its data can lag behind the primary, so reads that must see a
+ * write made just before, like the detail page shown after saving, stay on the primary.
+ */
+@InterceptorBinding
+@Transactional
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface ReadOnly {
+    
+    /**
+     * Whether the transaction may read from the replica when one is configured and healthy
+     * 
+     * @return true if data up to persistence.replica.max-lag-seconds old is acceptable
+     */
+    boolean replica() default false;
+}
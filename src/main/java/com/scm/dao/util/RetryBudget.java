@@ -0,0 +1,54 @@
+package com.scm.dao.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Limits transaction retries to a share of the transactions that succeed.
+ * Every committed transaction earns a fraction of a retry, up to a maximum balance,
+ * and every retry spends a whole one. Under a burst of conflicts the balance runs out
+ * and failures are reported straight away instead of multiplying the load on an
+ * already contended database.
+ */
+public class RetryBudget {
+    
+    private static final long SCALE = 1000;
+    
+    private final long tokensPerSuccess;
+    private final long maxTokens;
+    private final AtomicLong tokens;
+    
+    /**
+     * Constructor
+     * 
+     * @param ratio Retries earned per committed transaction, e.g. 0.1 for one retry per ten transactions
+     * @param maxRetries Largest number of retries that can be saved up; the budget starts full
+     */
+    public RetryBudget(double ratio, int maxRetries) {
+        this.tokensPerSuccess = Math.round(ratio * SCALE);
+        this.maxTokens = maxRetries * SCALE;
+        this.tokens = new AtomicLong(maxTokens);
+    }
+    
+    /**
+     * Record a committed transaction
+     */
+    public void recordSuccess() {
+        tokens.updateAndGet(current -> Math.min(maxTokens, current + tokensPerSuccess));
+    }
+    
+    /**
+     * Take one retry from the budget
+     * 
+     * @return true if the retry may go ahead, false if the budget is spent
+     */
+    public boolean tryAcquire() {
+        long current;
+        do {
+            current = tokens.get();
+            if (current < SCALE) {
+                return false;
+            }
+        } while (!tokens.compareAndSet(current, current - SCALE));
+        return true;
+    }
+}
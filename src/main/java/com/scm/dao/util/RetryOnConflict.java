@@ -0,0 +1,19 @@
+package com.scm.dao.util;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a transactional method that may be run again when its transaction fails on a
+ * lock conflict (optimistic lock check, deadlock or lock wait timeout).
+ * The TransactionInterceptor calls the method again with the same arguments, so only
+ * methods whose arguments are identifiers and plain values, and that read the entities
+ * they change from the database, can carry it. Methods taking entities are not retried:
+ * the failed attempt has already assigned ids and versions to them.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface RetryOnConflict {
+}
@@ -0,0 +1,286 @@
+package com.scm.dao.util;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.hibernate.HibernateException;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.engine.jdbc.connections.spi.ConnectionProvider;
+import org.hibernate.hikaricp.internal.HikariConfigurationUtil;
+import org.hibernate.service.UnknownUnwrapTypeException;
+import org.hibernate.service.spi.Configurable;
+import org.hibernate.service.spi.Stoppable;
+
+import com.scm.util.AppConfig;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+
+/**
+ * Connection provider with one HikariCP pool per workload (bulkhead), which also sends
+ * read-only transactions that allow it to a MySQL replica.
+ * Every pool is configured from the hibernate.hikari.* settings; the size and
+ * timeouts of each workload can be overridden with persistence.pool.<workload>.*
+ * in application.properties. When persistence.replica.url is set, each workload
+ * also gets a read-only replica pool with the same sizes.
+ * 
+ * The TransactionInterceptor sets the workload of a transaction, and whether it may use
+ * the replica (@ReadOnly(replica = true)), before it acquires a connection. Those
+ * transactions use the replica while it is healthy: a background check reads the replication lag every few seconds, and a
+ * replica that lags too far behind, stopped replicating or cannot hand out
+ * connections is skipped until a later check finds it healthy again.
+ */
+public class RoutingConnectionProvider implements ConnectionProvider, Configurable, Stoppable {
+    
+    private static final long serialVersionUID = 1L;
+    private static final Logger LOGGER = Logger.getLogger(RoutingConnectionProvider.class.getName());
+    
+    private static final String[] LAG_QUERIES = {"SHOW REPLICA STATUS", "SHOW SLAVE STATUS"};
+    private static final String[] LAG_COLUMNS = {"Seconds_Behind_Source", "Seconds_Behind_Master"};
+    
+    private static final ThreadLocal<Workload> WORKLOAD = ThreadLocal.withInitial(() -> Workload.OLTP);
+    private static final ThreadLocal<Boolean> REPLICA_ALLOWED = ThreadLocal.withInitial(() -> Boolean.FALSE);
+    private static final ThreadLocal<Boolean> USING_REPLICA = ThreadLocal.withInitial(() -> Boolean.FALSE);
+    
+    private final Map<Workload, HikariDataSource> primaryPools = new EnumMap<>(Workload.class);
+    private final Map<Workload, HikariDataSource> replicaPools = new EnumMap<>(Workload.class);
+    private ScheduledExecutorService lagMonitor;
+    private long maxLagSeconds;
+    private volatile boolean replicaHealthy;
+    
+    /**
+     * Set the pool of the transaction about to begin on the current thread.
+     * Must be reset with {@link #clearTransactionRoute()} once the transaction ended.
+     * 
+     * @param workload Workload whose pool serves the transaction
+     * @param replica true for a read-only transaction whose connection may come from the replica
+     */
+    public static void setTransactionRoute(Workload workload, boolean replica) {
+        WORKLOAD.set(workload);
+        REPLICA_ALLOWED.set(replica);
+    }
+    
+    /**
+     * Reset the current thread to read-write OLTP transactions
+     */
+    public static void clearTransactionRoute() {
+        WORKLOAD.remove();
+        REPLICA_ALLOWED.remove();
+        USING_REPLICA.remove();
+    }
+    
+    /**
+     * Check whether the current transaction got its connection from the replica
+     * 
+     * @return true if the connection came from the replica
+     */
+    public static boolean isUsingReplica() {
+        return USING_REPLICA.get();
+    }
+    
+    @Override
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    public void configure(Map configurationValues) throws HibernateException {
+        for (Workload workload : Workload.values()) {
+            primaryPools.put(workload, createPool(configurationValues, workload, workload.getPoolName(), false));
+        }
+        
+        String replicaUrl = AppConfig.getProperty("persistence.replica.url", "").trim();
+        if (replicaUrl.isEmpty()) {
+            LOGGER.log(Level.INFO, "No read replica configured, all transactions use the primary");
+            return;
+        }
+        
+        Map<Object, Object> replicaValues = new HashMap<>(configurationValues);
+        replicaValues.put(AvailableSettings.URL, replicaUrl);
+        // Credentials left empty are the same as the primary's
+        String user = AppConfig.getProperty("persistence.replica.username", "");
+        if (!user.isEmpty()) {
+            replicaValues.put(AvailableSettings.USER, user);
+        }
+        String password = AppConfig.getProperty("persistence.replica.password", "");
+        if (!password.isEmpty()) {
+            replicaValues.put(AvailableSettings.PASS, password);
+        }
+        for (Workload workload : Workload.values()) {
+            replicaPools.put(workload, createPool(replicaValues, workload, workload.getPoolName() + "-replica", true));
+        }
+        
+        // 0 disables the lag check, e.g. for a local replica that is not a MySQL replica
+        maxLagSeconds = AppConfig.getLongProperty("persistence.replica.max-lag-seconds", 30);
+        long checkInterval = AppConfig.getLongProperty("persistence.replica.check-interval-seconds", 5);
+        
+        checkReplica();
+        lagMonitor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "replica-lag-monitor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        lagMonitor.scheduleWithFixedDelay(this::checkReplica, checkInterval, checkInterval, TimeUnit.SECONDS);
+        
+        LOGGER.log(Level.INFO, "Dashboard, report and list reads are routed to the replica at {0}", replicaUrl);
+    }
+    
+    @Override
+    public Connection getConnection() throws SQLException {
+        Workload workload = WORKLOAD.get();
+        if (!replicaPools.isEmpty() && replicaHealthy && REPLICA_ALLOWED.get()) {
+            try {
+                Connection connection = replicaPools.get(workload).getConnection();
+                USING_REPLICA.set(Boolean.TRUE);
+                return connection;
+            } catch (SQLException e) {
+                LOGGER.log(Level.WARNING, "Replica connection failed, falling back to the primary", e);
+                markReplica(false, "connection failed");
+            }
+        }
+        
+        USING_REPLICA.set(Boolean.FALSE);
+        return primaryPools.get(workload).getConnection();
+    }
+    
+    @Override
+    public void closeConnection(Connection connection) throws SQLException {
+        // Closing a pooled connection returns it to the pool it came from
+        connection.close();
+    }
+    
+    @Override
+    public boolean supportsAggressiveRelease() {
+        return false;
+    }
+    
+    @Override
+    @SuppressWarnings("rawtypes")
+    public boolean isUnwrappableAs(Class unwrapType) {
+        // The interface declares a raw Class; viewed as Class<?> the calls below are checked
+        Class<?> type = unwrapType;
+        return type.isAssignableFrom(getClass()) || type.isAssignableFrom(HikariDataSource.class);
+    }
+    
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T unwrap(Class<T> unwrapType) {
+        if (unwrapType.isAssignableFrom(getClass())) {
+            return (T) this;
+        }
+        if (unwrapType.isAssignableFrom(HikariDataSource.class)) {
+            return (T) primaryPools.get(Workload.OLTP);
+        }
+        throw new UnknownUnwrapTypeException(unwrapType);
+    }
+    
+    @Override
+    public void stop() {
+        if (lagMonitor != null) {
+            lagMonitor.shutdownNow();
+        }
+        replicaPools.values().forEach(HikariDataSource::close);
+        primaryPools.values().forEach(HikariDataSource::close);
+    }
+    
+    /**
+     * Create the pool of a workload
+     * 
+     * @param configurationValues Hibernate settings with the JDBC URL, credentials and hibernate.hikari.* values
+     * @param workload Workload served by the pool
+     * @param poolName Pool name, shown in the pool metrics
+     * @param replica true for a read-only replica pool
+     * @return The pool
+     */
+    @SuppressWarnings("rawtypes")
+    private HikariDataSource createPool(Map configurationValues, Workload workload, String poolName, boolean replica) {
+        HikariConfig config = HikariConfigurationUtil.loadConfiguration(configurationValues);
+        String prefix = "persistence.pool." + workload.getPoolName() + ".";
+        
+        config.setPoolName(poolName);
+        config.setReadOnly(replica);
+        config.setMetricsTrackerFactory(new ConnectionPoolMetrics());
+        if (AppConfig.getProperty(prefix + "maximum-pool-size") != null) {
+            config.setMaximumPoolSize(AppConfig.getIntProperty(prefix + "maximum-pool-size", config.getMaximumPoolSize()));
+        }
+        if (AppConfig.getProperty(prefix + "minimum-idle") != null) {
+            config.setMinimumIdle(AppConfig.getIntProperty(prefix + "minimum-idle", config.getMinimumIdle()));
+        }
+        if (AppConfig.getProperty(prefix + "connection-timeout-ms") != null) {
+            config.setConnectionTimeout(AppConfig.getLongProperty(prefix + "connection-timeout-ms", config.getConnectionTimeout()));
+        }
+        if (AppConfig.getProperty(prefix + "leak-detection-threshold-ms") != null) {
+            config.setLeakDetectionThreshold(AppConfig.getLongProperty(prefix + "leak-detection-threshold-ms",
+                    config.getLeakDetectionThreshold()));
+        }
+        
+        LOGGER.log(Level.INFO, "Connection pool {0}: up to {1} connections, {2} ms connection timeout",
+                new Object[]{poolName, config.getMaximumPoolSize(), config.getConnectionTimeout()});
+        return new HikariDataSource(config);
+    }
+    
+    /**
+     * Check whether the replica is reachable and close enough behind the primary
+     */
+    private void checkReplica() {
+        try (Connection connection = replicaPools.get(Workload.OLTP).getConnection()) {
+            if (maxLagSeconds <= 0) {
+                markReplica(true, null);
+                return;
+            }
+            
+            Long lag = readLagSeconds(connection);
+            if (lag == null) {
+                markReplica(false, "replication is not running");
+            } else if (lag > maxLagSeconds) {
+                markReplica(false, "replica is " + lag + " s behind");
+            } else {
+                markReplica(true, null);
+            }
+        } catch (SQLException | RuntimeException e) {
+            LOGGER.log(Level.FINE, "Replica check failed", e);
+            markReplica(false, "check failed: " + e.getMessage());
+        }
+    }
+    
+    /**
+     * Read the replication lag, trying the MySQL 8.0.22+ statement before the older one
+     * 
+     * @param connection Replica connection
+     * @return Lag in seconds, 0 if the server is not replicating from anywhere, or null if replication is stopped
+     * @throws SQLException if neither statement is supported
+     */
+    private Long readLagSeconds(Connection connection) throws SQLException {
+        SQLException failure = null;
+        for (int i = 0; i < LAG_QUERIES.length; i++) {
+            try (Statement statement = connection.createStatement();
+                 ResultSet resultSet = statement.executeQuery(LAG_QUERIES[i])) {
+                if (!resultSet.next()) {
+                    return 0L;
+                }
+                
+                long lag = resultSet.getLong(LAG_COLUMNS[i]);
+                return resultSet.wasNull() ? null : lag;
+            } catch (SQLException e) {
+                failure = e;
+            }
+        }
+        throw failure;
+    }
+    
+    private void markReplica(boolean healthy, String reason) {
+        if (healthy != replicaHealthy) {
+            if (healthy) {
+                LOGGER.log(Level.INFO, "Replica is healthy again, reads marked for it use the replica");
+            } else {
+                LOGGER.log(Level.WARNING, "Replica skipped, reads marked for it use the primary: {0}", reason);
+            }
+        }
+        replicaHealthy = healthy;
+    }
+}
@@ -0,0 +1,67 @@
+package com.scm.dao.util;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+/**
+ * Sort order for keyset pagination: an entity attribute and a direction.
+ * Rows with equal sort keys are always ordered by ID in the same direction,
+ * so the attribute should be backed by an index (InnoDB secondary indexes
+ * already end with the primary key).
+ */
+public final class Sort implements Serializable {
+    
+    private static final long serialVersionUID = 1L;
+    
+    /**
+     * Sort direction
+     */
+    public enum Direction {
+        ASC, DESC
+    }
+    
+    private final String property;
+    private final Direction direction;
+    
+    private Sort(String property, Direction direction) {
+        this.property = Objects.requireNonNull(property, "Sort property cannot be null");
+        this.direction = Objects.requireNonNull(direction, "Sort direction cannot be null");
+    }
+    
+    /**
+     * Ascending sort on an attribute
+     * 
+     * @param property Entity attribute name
+     * @return Sort
+     */
+    public static Sort asc(String property) {
+        return new Sort(property, Direction.ASC);
+    }
+    
+    /**
+     * Descending sort on an attribute
+     * 
+     * @param property Entity attribute name
+     * @return Sort
+     */
+    public static Sort desc(String property) {
+        return new Sort(property, Direction.DESC);
+    }
+    
+    public String getProperty() {
+        return property;
+    }
+    
+    public Direction getDirection() {
+        return direction;
+    }
+    
+    public boolean isAscending() {
+        return direction == Direction.ASC;
+    }
+    
+    @Override
+    public String toString() {
+        return property + " " + direction;
+    }
+}
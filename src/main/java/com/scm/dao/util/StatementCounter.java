@@ -0,0 +1,38 @@
+package com.scm.dao.util;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Counts the SQL statements Hibernate prepares on the current thread.
+ * Registered through hibernate.session_factory.statement_inspector; the
+ * TransactionInterceptor resets the count when a transaction starts and reports
+ * it when the transaction ends, so a service call that suddenly issues many more
+ * statements (a lazy association loaded in a loop, for example) shows up in the logs.
+ */
+public class StatementCounter implements StatementInspector {
+    
+    private static final long serialVersionUID = 1L;
+    private static final ThreadLocal<int[]> COUNT = ThreadLocal.withInitial(() -> new int[1]);
+    
+    @Override
+    public String inspect(String sql) {
+        COUNT.get()[0]++;
+        return sql;
+    }
+    
+    /**
+     * Reset the count for the current thread
+     */
+    public static void reset() {
+        COUNT.get()[0] = 0;
+    }
+    
+    /**
+     * Get the number of statements prepared on the current thread since the last reset
+     * 
+     * @return Statement count
+     */
+    public static int getCount() {
+        return COUNT.get()[0];
+    }
+}
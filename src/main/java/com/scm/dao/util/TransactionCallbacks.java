@@ -0,0 +1,69 @@
+package com.scm.dao.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Work to run once the transaction of the current thread has committed.
+ * The TransactionInterceptor opens a list of callbacks when it begins the outermost
+ * transaction, runs them after a successful commit and drops them on rollback, so a
+ * transaction that is retried only runs the callbacks of its last attempt.
+ */
+public final class TransactionCallbacks {
+    
+    private static final Logger LOGGER = Logger.getLogger(TransactionCallbacks.class.getName());
+    private static final ThreadLocal<List<Runnable>> AFTER_COMMIT = new ThreadLocal<>();
+    
+    private TransactionCallbacks() {
+    }
+    
+    /**
+     * Run a callback after the current transaction commits, or right away outside a transaction
+     * 
+     * @param callback Callback; failures are logged and do not affect the committed transaction
+     */
+    public static void afterCommit(Runnable callback) {
+        List<Runnable> callbacks = AFTER_COMMIT.get();
+        if (callbacks != null) {
+            callbacks.add(callback);
+        } else {
+            run(callback);
+        }
+    }
+    
+    /**
+     * Start collecting callbacks for the transaction that begins on the current thread
+     */
+    static void begin() {
+        AFTER_COMMIT.set(new ArrayList<>());
+    }
+    
+    /**
+     * Run the callbacks of the transaction that just committed.
+     * They run outside the transaction, so a callback may begin a new one.
+     */
+    static void committed() {
+        List<Runnable> callbacks = AFTER_COMMIT.get();
+        AFTER_COMMIT.remove();
+        if (callbacks != null) {
+            callbacks.forEach(TransactionCallbacks::run);
+        }
+    }
+    
+    /**
+     * Drop the callbacks of the transaction that just rolled back
+     */
+    static void rolledBack() {
+        AFTER_COMMIT.remove();
+    }
+    
+    private static void run(Runnable callback) {
+        try {
+            callback.run();
+        } catch (RuntimeException e) {
+            LOGGER.log(Level.SEVERE, "After commit callback failed", e);
+        }
+    }
+}
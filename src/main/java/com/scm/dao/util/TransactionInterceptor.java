@@ -1,25 +1,69 @@
 package com.scm.dao.util;
 
+import java.sql.SQLException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
 import javax.annotation.Priority;
 import javax.interceptor.AroundInvoke;
 import javax.interceptor.Interceptor;
 import javax.interceptor.InvocationContext;
 import javax.persistence.EntityManager;
+import javax.persistence.LockTimeoutException;
+import javax.persistence.OptimisticLockException;
 import javax.persistence.PersistenceContext;
+import javax.persistence.PessimisticLockException;
 import javax.transaction.Transactional;
 
+import org.hibernate.CacheMode;
+import org.hibernate.FlushMode;
+import org.hibernate.Session;
+import org.hibernate.StaleStateException;
+import org.hibernate.exception.LockAcquisitionException;
+
 import com.scm.dao.exception.DaoException;
+import com.scm.util.AppConfig;
 
 /**
  * CDI Interceptor for transaction management.
  * This interceptor handles beginning and committing transactions for methods
- * annotated with @Transactional.
+ * annotated with @Transactional or @ReadOnly.
+ * An outermost transactional method marked @RetryOnConflict is run again in a new transaction,
+ * after a short randomized backoff, when it fails on an optimistic lock conflict, a deadlock or
+ * a lock wait timeout, within the limits of persistence.retry.* in application.properties.
  */
 @Interceptor
 @Transactional
 @Priority(Interceptor.Priority.APPLICATION)
 public class TransactionInterceptor {
     
+    private static final Logger LOGGER = Logger.getLogger(TransactionInterceptor.class.getName());
+    
+    /**
+     * Statement count above which a transaction is logged as a warning; 0 disables the warning
+     */
+    private static final int STATEMENT_WARNING_THRESHOLD =
+            AppConfig.getIntProperty("persistence.statement-warning-threshold", 0);
+    
+    /**
+     * Number of times a transaction that hit a lock conflict is run in total, including the first
+     */
+    private static final int MAX_ATTEMPTS = Math.max(1, AppConfig.getIntProperty("persistence.retry.max-attempts", 3));
+    private static final long INITIAL_BACKOFF_MS = AppConfig.getLongProperty("persistence.retry.initial-backoff-ms", 50);
+    private static final long MAX_BACKOFF_MS = AppConfig.getLongProperty("persistence.retry.max-backoff-ms", 1000);
+    
+    /**
+     * Shared by all transactions, so a burst of conflicts cannot multiply the load on the database
+     */
+    private static final RetryBudget RETRY_BUDGET = new RetryBudget(
+            Double.parseDouble(AppConfig.getProperty("persistence.retry.budget-ratio", "0.1")),
+            AppConfig.getIntProperty("persistence.retry.budget-max-retries", 20));
+    
+    private static final String SQLSTATE_SERIALIZATION_FAILURE = "40001";
+    private static final int MYSQL_LOCK_WAIT_TIMEOUT = 1205;
+    private static final int MYSQL_DEADLOCK = 1213;
+    
     @PersistenceContext
     private EntityManager entityManager;
     
@@ -28,33 +72,219 @@ public class TransactionInterceptor {
      * 
      * @param context Invocation context
      * @return Result of method invocation
-     * @throws Exception if an error occurs
+     * @throws Exception checked exceptions of the method unchanged; unexpected runtime failures
+     *         wrapped in a DaoException
      */
     @AroundInvoke
     public Object manageTransaction(InvocationContext context) throws Exception {
+        boolean readOnly = context.getMethod().isAnnotationPresent(ReadOnly.class);
+        Bulkhead bulkhead = context.getMethod().getAnnotation(Bulkhead.class);
+        Workload workload = bulkhead != null ? bulkhead.value() : Workload.OLTP;
+        
         try {
             // Check if a transaction is already active
             if (!entityManager.getTransaction().isActive()) {
-                entityManager.getTransaction().begin();
-                boolean completedSuccessfully = false;
-                
-                try {
-                    Object result = context.proceed();
-                    completedSuccessfully = true;
-                    return result;
-                } finally {
-                    if (completedSuccessfully) {
-                        entityManager.getTransaction().commit();
-                    } else {
-                        entityManager.getTransaction().rollback();
-                    }
-                }
+                return runWithRetry(context, workload, readOnly);
             } else {
-                // Transaction already active (e.g., nested call)
+                // Transaction already active (e.g., nested call); writes would be silently dropped
+                // by a read-only transaction, so refuse them instead
+                if (!readOnly && entityManager.unwrap(Session.class).isDefaultReadOnly()) {
+                    throw new IllegalStateException(context.getMethod().getName()
+                            + " cannot run inside a read-only transaction");
+                }
                 return context.proceed();
             }
-        } catch (Exception e) {
+        } catch (DaoException e) {
+            throw e;
+        } catch (RuntimeException e) {
+            // Only unexpected failures are wrapped; checked exceptions of the method (ServiceException,
+            // ValidationException, ...) reach the caller unchanged, so servlets can still show them
             throw new DaoException("Transaction failed", e);
         }
     }
-} 
\ No newline at end of file
+    
+    /**
+     * Run the outermost transactional method; if it is marked @RetryOnConflict, run it again in a
+     * new transaction when it lost an optimistic lock check, was chosen as a deadlock victim or
+     * timed out waiting for a lock
+     * 
+     * @param context Invocation context
+     * @param workload Workload whose pool serves the transaction
+     * @param readOnly true for a read-only transaction
+     * @return Result of method invocation
+     * @throws Exception if the last attempt failed, or a failure cannot be retried
+     */
+    private Object runWithRetry(InvocationContext context, Workload workload, boolean readOnly) throws Exception {
+        // Other methods may have changed their entity arguments in the failed attempt; replaying
+        // them would persist detached entities or write the state that just lost the conflict
+        int maxAttempts = context.getMethod().isAnnotationPresent(RetryOnConflict.class) ? MAX_ATTEMPTS : 1;
+        for (int attempt = 1; ; attempt++) {
+            TransactionCallbacks.begin();
+            try {
+                Object result = runTransaction(context, workload, readOnly);
+                RETRY_BUDGET.recordSuccess();
+                TransactionCallbacks.committed();
+                return result;
+            } catch (Exception e) {
+                TransactionCallbacks.rolledBack();
+                if (attempt >= maxAttempts || !isRetryable(e) || !RETRY_BUDGET.tryAcquire()) {
+                    throw e;
+                }
+                
+                // Entities loaded by the failed attempt hold stale state and versions
+                if (entityManager.getTransaction().isActive()) {
+                    entityManager.getTransaction().rollback();
+                }
+                entityManager.clear();
+                
+                long backoff = backoffMillis(attempt);
+                LOGGER.log(Level.WARNING, "{0}.{1} failed on a lock conflict (attempt {2} of {3}), retrying in {4} ms: {5}",
+                        new Object[]{context.getMethod().getDeclaringClass().getSimpleName(), context.getMethod().getName(),
+                                attempt, maxAttempts, backoff, e.getMessage()});
+                try {
+                    Thread.sleep(backoff);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    e.addSuppressed(interrupted);
+                    throw e;
+                }
+            }
+        }
+    }
+    
+    /**
+     * Run the method in a new transaction, committing it if the method returns normally
+     * 
+     * @param context Invocation context
+     * @param workload Workload whose pool serves the transaction
+     * @param readOnly true for a read-only transaction
+     * @return Result of method invocation
+     * @throws Exception if the method or the commit failed
+     */
+    private Object runTransaction(InvocationContext context, Workload workload, boolean readOnly) throws Exception {
+        // Decides which pool the connection acquired for this transaction comes from
+        boolean replica = readOnly && context.getMethod().getAnnotation(ReadOnly.class).replica();
+        RoutingConnectionProvider.setTransactionRoute(workload, replica);
+        try {
+            entityManager.getTransaction().begin();
+        } catch (RuntimeException e) {
+            RoutingConnectionProvider.clearTransactionRoute();
+            throw e;
+        }
+        StatementCounter.reset();
+        FlushMode previousFlushMode = readOnly ? beginReadOnly() : null;
+        boolean completedSuccessfully = false;
+        
+        try {
+            Object result = context.proceed();
+            completedSuccessfully = true;
+            return result;
+        } finally {
+            try {
+                if (completedSuccessfully) {
+                    entityManager.getTransaction().commit();
+                } else {
+                    entityManager.getTransaction().rollback();
+                }
+            } finally {
+                if (readOnly) {
+                    endReadOnly(previousFlushMode);
+                }
+                RoutingConnectionProvider.clearTransactionRoute();
+            }
+            logStatementCount(context);
+        }
+    }
+    
+    /**
+     * Check whether a failure is a lock conflict that a new attempt of the transaction may not hit again.
+     * Services wrap DAO exceptions, so the whole cause chain is searched.
+     * 
+     * @param failure Failure of the transaction
+     * @return true for optimistic lock failures, deadlocks and lock wait timeouts
+     */
+    private static boolean isRetryable(Throwable failure) {
+        for (Throwable cause = failure; cause != null; cause = cause.getCause()) {
+            if (cause instanceof OptimisticLockException
+                    || cause instanceof StaleStateException
+                    || cause instanceof PessimisticLockException
+                    || cause instanceof LockTimeoutException
+                    || cause instanceof LockAcquisitionException) {
+                return true;
+            }
+            if (cause instanceof SQLException) {
+                SQLException sqlException = (SQLException) cause;
+                if (SQLSTATE_SERIALIZATION_FAILURE.equals(sqlException.getSQLState())
+                        || sqlException.getErrorCode() == MYSQL_DEADLOCK
+                        || sqlException.getErrorCode() == MYSQL_LOCK_WAIT_TIMEOUT) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+    
+    /**
+     * Delay before the next attempt: a random value between half and all of a bound that
+     * doubles with every attempt, so transactions that collided do not collide again in step
+     * 
+     * @param attempt Number of the attempt that just failed, starting at 1
+     * @return Delay in milliseconds
+     */
+    private static long backoffMillis(int attempt) {
+        long bound = Math.min(MAX_BACKOFF_MS, INITIAL_BACKOFF_MS << Math.min(attempt - 1, 20));
+        long half = bound / 2;
+        return half + ThreadLocalRandom.current().nextLong(bound - half + 1);
+    }
+    
+    /**
+     * Switch the session and its connection to read-only for the transaction that just began
+     * 
+     * @return Flush mode to restore when the transaction ends
+     */
+    private FlushMode beginReadOnly() {
+        Session session = entityManager.unwrap(Session.class);
+        FlushMode previousFlushMode = session.getHibernateFlushMode();
+        
+        session.setDefaultReadOnly(true);
+        session.setHibernateFlushMode(FlushMode.MANUAL);
+        // The pool resets the flag when the connection is returned at the end of the transaction
+        session.doWork(connection -> connection.setReadOnly(true));
+        
+        // Rows read from a lagging replica may be stale, keep them out of the second-level cache
+        if (RoutingConnectionProvider.isUsingReplica()) {
+            session.setCacheMode(CacheMode.GET);
+        }
+        return previousFlushMode;
+    }
+    
+    /**
+     * Restore the session defaults after a read-only transaction and detach what it loaded.
+     * The session outlives the transaction, so an entity left managed read-only would be
+     * handed to a later read-write transaction that finds it, and its changes never flushed.
+     * 
+     * @param previousFlushMode Flush mode before the transaction
+     */
+    private void endReadOnly(FlushMode previousFlushMode) {
+        Session session = entityManager.unwrap(Session.class);
+        session.clear();
+        session.setDefaultReadOnly(false);
+        session.setHibernateFlushMode(previousFlushMode);
+        session.setCacheMode(CacheMode.NORMAL);
+    }
+    
+    /**
+     * Log the number of SQL statements executed by the transaction that just ended
+     * 
+     * @param context Invocation context of the outermost transactional method
+     */
+    private void logStatementCount(InvocationContext context) {
+        int count = StatementCounter.getCount();
+        Level level = STATEMENT_WARNING_THRESHOLD > 0 && count > STATEMENT_WARNING_THRESHOLD ? Level.WARNING : Level.FINE;
+        
+        if (LOGGER.isLoggable(level)) {
+            LOGGER.log(level, "{0}.{1} executed {2} SQL statements", new Object[]{
+                    context.getMethod().getDeclaringClass().getSimpleName(), context.getMethod().getName(), count});
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.scm.dao.util;
+
+/**
+ * Workloads with their own connection pool, so one kind of traffic cannot take
+ * every connection away from the others.
+ */
+public enum Workload {
+    
+    /**
+     * Short interactive transactions: orders, stock changes, list and detail pages
+     */
+    OLTP,
+    
+    /**
+     * Long-running aggregations and report generation
+     */
+    REPORTING,
+    
+    /**
+     * Bulk maintenance such as rollup rebuilds
+     */
+    BATCH;
+    
+    /**
+     * Get the name of the pool serving this workload, also used in its configuration keys
+     * 
+     * @return Pool name
+     */
+    public String getPoolName() {
+        return name().toLowerCase();
+    }
+}
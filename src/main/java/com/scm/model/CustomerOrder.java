@@ -13,25 +13,108 @@ import javax.persistence.Entity;
 import javax.persistence.EnumType;
 import javax.persistence.Enumerated;
 import javax.persistence.GeneratedValue;
-import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.NamedAttributeNode;
+import javax.persistence.NamedEntityGraph;
+import javax.persistence.NamedQueries;
+import javax.persistence.NamedQuery;
+import javax.persistence.NamedSubgraph;
 import javax.persistence.OneToMany;
 import javax.persistence.Table;
+import javax.persistence.Version;
 import javax.validation.constraints.DecimalMin;
 import javax.validation.constraints.Email;
 import javax.validation.constraints.NotBlank;
 import javax.validation.constraints.NotNull;
 import javax.validation.constraints.Size;
 
+import org.hibernate.Hibernate;
+import org.hibernate.annotations.GenericGenerator;
+
+import com.scm.dao.util.PooledIdGenerator;
+
 /**
  * Entity class for customer orders in the Supply Chain Management system.
  */
 @Entity
 @Table(name = "customer_orders")
+// Product.stock is joined as well: it is the inverse side of a one-to-one, which Hibernate
+// always loads, one SELECT per product otherwise
+@NamedEntityGraph(name = CustomerOrder.GRAPH_WITH_ITEMS_AND_PRODUCTS,
+        attributeNodes = @NamedAttributeNode(value = "orderItems", subgraph = "items"),
+        subgraphs = {
+                @NamedSubgraph(name = "items", attributeNodes = @NamedAttributeNode(value = "product", subgraph = "product")),
+                @NamedSubgraph(name = "product", attributeNodes = @NamedAttributeNode("stock"))
+        })
+@NamedQueries({
+        @NamedQuery(name = CustomerOrder.FIND_BY_CUSTOMER_EMAIL,
+                query = "SELECT o FROM CustomerOrder o WHERE o.customerEmail = :email " +
+                        "ORDER BY o.orderDate DESC"),
+        @NamedQuery(name = CustomerOrder.FIND_BY_STATUS,
+                query = "SELECT o FROM CustomerOrder o WHERE o.status = :status " +
+                        "ORDER BY o.orderDate DESC"),
+        @NamedQuery(name = CustomerOrder.FIND_SUMMARIES_BY_STATUS,
+                query = "SELECT " + CustomerOrder.SUMMARY_SELECT + " FROM CustomerOrder o " +
+                        "WHERE o.status = :status ORDER BY o.orderDate DESC, o.id DESC"),
+        @NamedQuery(name = CustomerOrder.FIND_BY_DATE_RANGE,
+                query = "SELECT o FROM CustomerOrder o WHERE o.orderDate BETWEEN :startDate AND :endDate " +
+                        "ORDER BY o.orderDate DESC"),
+        @NamedQuery(name = CustomerOrder.SUM_TOTAL_AMOUNT_BY_DATE_RANGE,
+                query = "SELECT SUM(o.totalAmount) FROM CustomerOrder o " +
+                        "WHERE o.orderDate BETWEEN :startDate AND :endDate"),
+        @NamedQuery(name = CustomerOrder.COUNT_BY_STATUS_IN_DATE_RANGE,
+                query = "SELECT o.status, COUNT(o) FROM CustomerOrder o " +
+                        "WHERE o.orderDate BETWEEN :startDate AND :endDate " +
+                        "GROUP BY o.status"),
+        @NamedQuery(name = CustomerOrder.FIND_TOP_SELLING_PRODUCTS,
+                query = "SELECT p.id, p.name, p.sku, SUM(i.quantity), SUM(i.quantity * i.unitPrice) " +
+                        "FROM OrderItem i JOIN i.order o JOIN i.product p " +
+                        "WHERE o.orderDate BETWEEN :startDate AND :endDate AND o.status NOT IN :excludedStatuses " +
+                        "GROUP BY p.id, p.name, p.sku " +
+                        "ORDER BY SUM(i.quantity) DESC, SUM(i.quantity * i.unitPrice) DESC"),
+        @NamedQuery(name = CustomerOrder.FIND_RECENT_ORDERS,
+                query = "SELECT o FROM CustomerOrder o ORDER BY o.orderDate DESC"),
+        @NamedQuery(name = CustomerOrder.FIND_BY_PRODUCT,
+                query = "SELECT DISTINCT o FROM CustomerOrder o JOIN o.orderItems i " +
+                        "WHERE i.product.id = :productId " +
+                        "ORDER BY o.orderDate DESC"),
+        @NamedQuery(name = CustomerOrder.ADD_TO_TOTAL_AMOUNT,
+                query = "UPDATE CustomerOrder o SET o.totalAmount = o.totalAmount + :delta, " +
+                        "o.version = o.version + 1 WHERE o.id = :orderId"),
+        @NamedQuery(name = CustomerOrder.FIND_TOTALS_AFTER_ID,
+                query = "SELECT o.id, o.totalAmount, COALESCE(SUM(i.quantity * i.unitPrice), 0) " +
+                        "FROM CustomerOrder o LEFT JOIN o.orderItems i WHERE o.id > :afterId " +
+                        "GROUP BY o.id, o.totalAmount ORDER BY o.id")
+})
 public class CustomerOrder implements Serializable {
 
     private static final long serialVersionUID = 1L;
 
+    // Named queries, parsed and validated once when the persistence unit starts
+    public static final String FIND_BY_CUSTOMER_EMAIL = "CustomerOrder.findByCustomerEmail";
+    public static final String FIND_BY_STATUS = "CustomerOrder.findByStatus";
+    public static final String FIND_SUMMARIES_BY_STATUS = "CustomerOrder.findSummariesByStatus";
+    public static final String FIND_BY_DATE_RANGE = "CustomerOrder.findByDateRange";
+    public static final String SUM_TOTAL_AMOUNT_BY_DATE_RANGE = "CustomerOrder.sumTotalAmountByDateRange";
+    public static final String COUNT_BY_STATUS_IN_DATE_RANGE = "CustomerOrder.countByStatusInDateRange";
+    public static final String FIND_TOP_SELLING_PRODUCTS = "CustomerOrder.findTopSellingProducts";
+    public static final String FIND_RECENT_ORDERS = "CustomerOrder.findRecentOrders";
+    public static final String FIND_BY_PRODUCT = "CustomerOrder.findByProduct";
+    public static final String ADD_TO_TOTAL_AMOUNT = "CustomerOrder.addToTotalAmount";
+    public static final String FIND_TOTALS_AFTER_ID = "CustomerOrder.findTotalsAfterId";
+
+    /**
+     * Entity graph loading the order lines and their products in the same query,
+     * for screens that show a single order in full.
+     */
+    public static final String GRAPH_WITH_ITEMS_AND_PRODUCTS = "CustomerOrder.withItemsAndProducts";
+
+    /**
+     * Constructor expression of the order list view, over CustomerOrder o
+     */
+    public static final String SUMMARY_SELECT = "new com.scm.model.dto.OrderSummary(" +
+            "o.id, o.customerName, o.orderDate, o.status, o.totalAmount)";
+
     /**
      * Enum for order status.
      */
@@ -40,7 +123,8 @@ public class CustomerOrder implements Serializable {
     }
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(generator = "customerOrderIdGenerator")
+    @GenericGenerator(name = "customerOrderIdGenerator", strategy = PooledIdGenerator.STRATEGY)
     private Integer id;
 
     @NotBlank(message = "Customer name is required")
@@ -74,6 +158,11 @@ public class CustomerOrder implements Serializable {
     @Column(name = "total_amount", precision = 12, scale = 2, nullable = false)
     private BigDecimal totalAmount = BigDecimal.ZERO;
 
+    // Incremented on every update; a stale copy fails with an OptimisticLockException instead of overwriting
+    @Version
+    @Column(name = "version", nullable = false)
+    private int version;
+
     // Relationships
     @OneToMany(mappedBy = "order", cascade = CascadeType.ALL, orphanRemoval = true)
     private List<OrderItem> orderItems = new ArrayList<>();
@@ -181,6 +270,14 @@ public class CustomerOrder implements Serializable {
         this.totalAmount = totalAmount;
     }
 
+    public int getVersion() {
+        return version;
+    }
+
+    public void setVersion(int version) {
+        this.version = version;
+    }
+
     public List<OrderItem> getOrderItems() {
         return orderItems;
     }
@@ -221,9 +318,9 @@ public class CustomerOrder implements Serializable {
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
-        if (o == null || getClass() != o.getClass()) return false;
+        if (o == null || Hibernate.getClass(this) != Hibernate.getClass(o)) return false;
         CustomerOrder that = (CustomerOrder) o;
-        return Objects.equals(id, that.id);
+        return Objects.equals(id, that.getId());
     }
 
     @Override
@@ -0,0 +1,131 @@
+package com.scm.model;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Objects;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.EnumType;
+import javax.persistence.Enumerated;
+import javax.persistence.Id;
+import javax.persistence.IdClass;
+import javax.persistence.NamedQueries;
+import javax.persistence.NamedQuery;
+import javax.persistence.Table;
+
+import com.scm.model.CustomerOrder.Status;
+
+/**
+ * Entity class for the daily sales rollup in the Supply Chain Management system.
+ * Each row aggregates the customer orders of one day in one status. Rows are
+ * maintained incrementally by the order service in the same transaction as the
+ * order changes, so sales charts never have to scan customer_orders.
+ */
+@Entity
+@Table(name = "daily_sales_rollup")
+@IdClass(DailySalesRollupId.class)
+@NamedQueries({
+        @NamedQuery(name = DailySalesRollup.FIND_BY_DATE_RANGE,
+                query = "SELECT r FROM DailySalesRollup r WHERE r.salesDate BETWEEN :startDate AND :endDate " +
+                        "ORDER BY r.salesDate")
+})
+public class DailySalesRollup implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    // Named queries, parsed and validated once when the persistence unit starts
+    public static final String FIND_BY_DATE_RANGE = "DailySalesRollup.findByDateRange";
+
+    @Id
+    @Column(name = "sales_date", nullable = false)
+    private LocalDate salesDate;
+
+    @Id
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", length = 20, nullable = false)
+    private Status status;
+
+    @Column(name = "order_count", nullable = false)
+    private Integer orderCount = 0;
+
+    @Column(name = "revenue", precision = 14, scale = 2, nullable = false)
+    private BigDecimal revenue = BigDecimal.ZERO;
+
+    @Column(name = "item_count", nullable = false)
+    private Integer itemCount = 0;
+
+    /**
+     * Default constructor
+     */
+    public DailySalesRollup() {
+    }
+
+    // Getters and Setters
+
+    public LocalDate getSalesDate() {
+        return salesDate;
+    }
+
+    public void setSalesDate(LocalDate salesDate) {
+        this.salesDate = salesDate;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public void setStatus(Status status) {
+        this.status = status;
+    }
+
+    public Integer getOrderCount() {
+        return orderCount;
+    }
+
+    public void setOrderCount(Integer orderCount) {
+        this.orderCount = orderCount;
+    }
+
+    public BigDecimal getRevenue() {
+        return revenue;
+    }
+
+    public void setRevenue(BigDecimal revenue) {
+        this.revenue = revenue;
+    }
+
+    public Integer getItemCount() {
+        return itemCount;
+    }
+
+    public void setItemCount(Integer itemCount) {
+        this.itemCount = itemCount;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        DailySalesRollup that = (DailySalesRollup) o;
+        return Objects.equals(salesDate, that.salesDate) &&
+               status == that.status;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(salesDate, status);
+    }
+
+    @Override
+    public String toString() {
+        return "DailySalesRollup{" +
+                "salesDate=" + salesDate +
+                ", status=" + status +
+                ", orderCount=" + orderCount +
+                ", revenue=" + revenue +
+                ", itemCount=" + itemCount +
+                '}';
+    }
+}
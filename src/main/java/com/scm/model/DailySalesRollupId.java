@@ -0,0 +1,73 @@
+package com.scm.model;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.util.Objects;
+
+import com.scm.model.CustomerOrder.Status;
+
+/**
+ * Composite primary key class for DailySalesRollup entity.
+ * This class represents the composite key consisting of sales_date and status.
+ */
+public class DailySalesRollupId implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private LocalDate salesDate;
+    private Status status;
+
+    /**
+     * Default constructor
+     */
+    public DailySalesRollupId() {
+    }
+
+    /**
+     * Constructor with key fields
+     */
+    public DailySalesRollupId(LocalDate salesDate, Status status) {
+        this.salesDate = salesDate;
+        this.status = status;
+    }
+
+    // Getters and Setters
+
+    public LocalDate getSalesDate() {
+        return salesDate;
+    }
+
+    public void setSalesDate(LocalDate salesDate) {
+        this.salesDate = salesDate;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public void setStatus(Status status) {
+        this.status = status;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        DailySalesRollupId that = (DailySalesRollupId) o;
+        return Objects.equals(salesDate, that.salesDate) &&
+               status == that.status;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(salesDate, status);
+    }
+
+    @Override
+    public String toString() {
+        return "DailySalesRollupId{" +
+                "salesDate=" + salesDate +
+                ", status=" + status +
+                '}';
+    }
+}
@@ -6,17 +6,23 @@ import java.util.Objects;
 
 import javax.persistence.Column;
 import javax.persistence.Entity;
+import javax.persistence.FetchType;
 import javax.persistence.GeneratedValue;
-import javax.persistence.GenerationType;
 import javax.persistence.Id;
 import javax.persistence.JoinColumn;
 import javax.persistence.ManyToOne;
+import javax.persistence.NamedQueries;
+import javax.persistence.NamedQuery;
 import javax.persistence.Table;
 import javax.persistence.UniqueConstraint;
 import javax.validation.constraints.DecimalMin;
 import javax.validation.constraints.Min;
 import javax.validation.constraints.NotNull;
 
+import org.hibernate.annotations.GenericGenerator;
+
+import com.scm.dao.util.PooledIdGenerator;
+
 /**
  * Entity class for order items in the Supply Chain Management system.
  */
@@ -24,21 +30,39 @@ import javax.validation.constraints.NotNull;
 @Table(name = "order_items", uniqueConstraints = {
     @UniqueConstraint(columnNames = {"order_id", "product_id"}, name = "uk_order_items_order_product")
 })
+@NamedQueries({
+        @NamedQuery(name = OrderItem.FIND_BY_ORDER_ID,
+                query = "SELECT oi FROM OrderItem oi JOIN FETCH oi.product p LEFT JOIN FETCH p.stock " +
+                        "WHERE oi.order.id = :orderId"),
+        @NamedQuery(name = OrderItem.FIND_BY_PRODUCT_ID,
+                query = "SELECT oi FROM OrderItem oi WHERE oi.product.id = :productId"),
+        @NamedQuery(name = OrderItem.DELETE_BY_ORDER_ID,
+                query = "DELETE FROM OrderItem oi WHERE oi.order.id = :orderId"),
+        @NamedQuery(name = OrderItem.FIND_BY_ORDER_ID_AND_PRODUCT_ID,
+                query = "SELECT oi FROM OrderItem oi WHERE oi.order.id = :orderId AND oi.product.id = :productId")
+})
 public class OrderItem implements Serializable {
 
     private static final long serialVersionUID = 1L;
 
+    // Named queries, parsed and validated once when the persistence unit starts
+    public static final String FIND_BY_ORDER_ID = "OrderItem.findByOrderId";
+    public static final String FIND_BY_PRODUCT_ID = "OrderItem.findByProductId";
+    public static final String DELETE_BY_ORDER_ID = "OrderItem.deleteByOrderId";
+    public static final String FIND_BY_ORDER_ID_AND_PRODUCT_ID = "OrderItem.findByOrderIdAndProductId";
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(generator = "orderItemIdGenerator")
+    @GenericGenerator(name = "orderItemIdGenerator", strategy = PooledIdGenerator.STRATEGY)
     private Integer id;
 
     @NotNull(message = "Order is required")
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "order_id", nullable = false)
     private CustomerOrder order;
 
     @NotNull(message = "Product is required")
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "product_id", nullable = false)
     private Product product;
 
@@ -0,0 +1,290 @@
+package com.scm.model;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.EnumType;
+import javax.persistence.Enumerated;
+import javax.persistence.GeneratedValue;
+import javax.persistence.Id;
+import javax.persistence.Lob;
+import javax.persistence.NamedQueries;
+import javax.persistence.NamedQuery;
+import javax.persistence.Table;
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Size;
+
+import org.hibernate.annotations.GenericGenerator;
+
+import com.scm.dao.util.PooledIdGenerator;
+
+/**
+ * Entity class for the email outbox in the Supply Chain Management system.
+ * An email is written here in the same transaction as the change it reports, and
+ * sent later by the outbox dispatcher, so a rolled back change never sends an email
+ * and a slow or unreachable mail server never holds up a request.
+ * A dispatcher claims an email (SENDING) for a lease before sending it; when the lease
+ * expires without a result, for example because the dispatcher died, the email is due again.
+ */
+@Entity
+@Table(name = "email_outbox")
+@NamedQueries({
+        @NamedQuery(name = OutboundEmail.FIND_DUE,
+                query = "SELECT e FROM OutboundEmail e " +
+                        "WHERE (e.status = :pending AND e.nextAttemptAt <= :now) " +
+                        "OR (e.status = :sending AND e.leaseExpiresAt <= :now) " +
+                        "ORDER BY e.nextAttemptAt, e.id"),
+        @NamedQuery(name = OutboundEmail.FIND_CLAIMED,
+                query = "SELECT e FROM OutboundEmail e " +
+                        "WHERE e.status = :status AND e.claimedBy = :owner AND e.id IN :ids"),
+        @NamedQuery(name = OutboundEmail.COUNT_BY_STATUS,
+                query = "SELECT e.status, COUNT(e) FROM OutboundEmail e GROUP BY e.status"),
+        @NamedQuery(name = OutboundEmail.DELETE_SENT_BEFORE,
+                query = "DELETE FROM OutboundEmail e WHERE e.status = :status AND e.sentAt < :before")
+})
+public class OutboundEmail implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    // Named queries, parsed and validated once when the persistence unit starts
+    public static final String FIND_DUE = "OutboundEmail.findDue";
+    public static final String FIND_CLAIMED = "OutboundEmail.findClaimed";
+    public static final String COUNT_BY_STATUS = "OutboundEmail.countByStatus";
+    public static final String DELETE_SENT_BEFORE = "OutboundEmail.deleteSentBefore";
+
+    /**
+     * Enum for delivery states.
+     */
+    public enum Status {
+        /** Waiting for its first or next attempt */
+        PENDING,
+        /** Claimed by a dispatcher that is sending it */
+        SENDING,
+        /** Accepted by the mail server */
+        SENT,
+        /** Given up on: rejected for good or out of attempts; kept for inspection */
+        DEAD
+    }
+
+    @Id
+    @GeneratedValue(generator = "emailOutboxIdGenerator")
+    @GenericGenerator(name = "emailOutboxIdGenerator", strategy = PooledIdGenerator.STRATEGY)
+    private Integer id;
+
+    @NotNull(message = "Recipient is required")
+    @Size(max = 255, message = "Recipient must be less than 255 characters")
+    @Column(name = "recipient", nullable = false)
+    private String recipient;
+
+    @Column(name = "cc")
+    private String cc;
+
+    @Column(name = "bcc")
+    private String bcc;
+
+    @NotNull(message = "Subject is required")
+    @Size(max = 255, message = "Subject must be less than 255 characters")
+    @Column(name = "subject", nullable = false)
+    private String subject;
+
+    @Lob
+    @Column(name = "body", nullable = false)
+    private String body;
+
+    @Column(name = "html", nullable = false)
+    private boolean html;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false)
+    private Status status;
+
+    @Column(name = "attempts", nullable = false)
+    private int attempts;
+
+    @Column(name = "next_attempt_at", nullable = false)
+    private LocalDateTime nextAttemptAt;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "sent_at")
+    private LocalDateTime sentAt;
+
+    @Column(name = "last_error", length = 1000)
+    private String lastError;
+
+    @Column(name = "claimed_by", length = 100)
+    private String claimedBy;
+
+    @Column(name = "lease_expires_at")
+    private LocalDateTime leaseExpiresAt;
+
+    /**
+     * Default constructor
+     */
+    public OutboundEmail() {
+        this.status = Status.PENDING;
+        this.createdAt = LocalDateTime.now();
+        this.nextAttemptAt = this.createdAt;
+    }
+
+    /**
+     * Constructor with essential fields
+     */
+    public OutboundEmail(String recipient, String subject, String body, boolean html) {
+        this();
+        this.recipient = recipient;
+        this.subject = subject;
+        this.body = body;
+        this.html = html;
+    }
+
+    // Getters and Setters
+
+    public Integer getId() {
+        return id;
+    }
+
+    public void setId(Integer id) {
+        this.id = id;
+    }
+
+    public String getRecipient() {
+        return recipient;
+    }
+
+    public void setRecipient(String recipient) {
+        this.recipient = recipient;
+    }
+
+    public String getCc() {
+        return cc;
+    }
+
+    public void setCc(String cc) {
+        this.cc = cc;
+    }
+
+    public String getBcc() {
+        return bcc;
+    }
+
+    public void setBcc(String bcc) {
+        this.bcc = bcc;
+    }
+
+    public String getSubject() {
+        return subject;
+    }
+
+    public void setSubject(String subject) {
+        this.subject = subject;
+    }
+
+    public String getBody() {
+        return body;
+    }
+
+    public void setBody(String body) {
+        this.body = body;
+    }
+
+    public boolean isHtml() {
+        return html;
+    }
+
+    public void setHtml(boolean html) {
+        this.html = html;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public void setStatus(Status status) {
+        this.status = status;
+    }
+
+    public int getAttempts() {
+        return attempts;
+    }
+
+    public void setAttempts(int attempts) {
+        this.attempts = attempts;
+    }
+
+    public LocalDateTime getNextAttemptAt() {
+        return nextAttemptAt;
+    }
+
+    public void setNextAttemptAt(LocalDateTime nextAttemptAt) {
+        this.nextAttemptAt = nextAttemptAt;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public LocalDateTime getSentAt() {
+        return sentAt;
+    }
+
+    public void setSentAt(LocalDateTime sentAt) {
+        this.sentAt = sentAt;
+    }
+
+    public String getLastError() {
+        return lastError;
+    }
+
+    public void setLastError(String lastError) {
+        this.lastError = lastError;
+    }
+
+    public String getClaimedBy() {
+        return claimedBy;
+    }
+
+    public void setClaimedBy(String claimedBy) {
+        this.claimedBy = claimedBy;
+    }
+
+    public LocalDateTime getLeaseExpiresAt() {
+        return leaseExpiresAt;
+    }
+
+    public void setLeaseExpiresAt(LocalDateTime leaseExpiresAt) {
+        this.leaseExpiresAt = leaseExpiresAt;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        OutboundEmail that = (OutboundEmail) o;
+        return Objects.equals(id, that.id);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(id);
+    }
+
+    @Override
+    public String toString() {
+        return "OutboundEmail{" +
+                "id=" + id +
+                ", recipient='" + recipient + '\'' +
+                ", subject='" + subject + '\'' +
+                ", status=" + status +
+                ", attempts=" + attempts +
+                '}';
+    }
+}
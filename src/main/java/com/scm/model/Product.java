@@ -7,29 +7,118 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
 
+import javax.persistence.Cacheable;
 import javax.persistence.CascadeType;
 import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.NamedAttributeNode;
+import javax.persistence.NamedEntityGraph;
+import javax.persistence.NamedQueries;
+import javax.persistence.NamedQuery;
 import javax.persistence.OneToMany;
 import javax.persistence.OneToOne;
 import javax.persistence.Table;
+import javax.persistence.Version;
 import javax.validation.constraints.DecimalMin;
 import javax.validation.constraints.Min;
 import javax.validation.constraints.NotBlank;
 import javax.validation.constraints.Size;
 
+import org.hibernate.Hibernate;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.NaturalId;
+import org.hibernate.annotations.NaturalIdCache;
+
 /**
  * Entity class for products in the Supply Chain Management system.
  */
 @Entity
 @Table(name = "products")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "product")
+@NaturalIdCache(region = "product-sku")
+@NamedEntityGraph(name = Product.GRAPH_WITH_STOCK, attributeNodes = @NamedAttributeNode("stock"))
+@NamedQueries({
+        @NamedQuery(name = Product.FIND_ALL_WITH_STOCK, query = "SELECT p FROM Product p ORDER BY p.name"),
+        @NamedQuery(name = Product.STREAM_ALL,
+                query = "SELECT p FROM Product p LEFT JOIN FETCH p.stock ORDER BY p.id"),
+        @NamedQuery(name = Product.FIND_BY_NAME_CONTAINING,
+                query = "SELECT p FROM Product p LEFT JOIN FETCH p.stock WHERE LOWER(p.name) LIKE LOWER(:name)"),
+        @NamedQuery(name = Product.FIND_LOW_STOCK_PRODUCTS,
+                query = "SELECT p FROM Product p JOIN FETCH p.stock s " +
+                        "WHERE s.quantityAvailable <= p.reorderLevel AND p.reorderLevel > 0"),
+        @NamedQuery(name = Product.FIND_OUT_OF_STOCK_PRODUCTS,
+                query = "SELECT p FROM Product p JOIN FETCH p.stock s " +
+                        "WHERE s.quantityAvailable = 0"),
+        @NamedQuery(name = Product.FIND_BY_SUPPLIER,
+                query = "SELECT DISTINCT p FROM Product p " +
+                        "LEFT JOIN FETCH p.stock " +
+                        "JOIN p.supplierProducts sp " +
+                        "WHERE sp.supplier.id = :supplierId"),
+        @NamedQuery(name = Product.SKU_EXISTS, query = "SELECT COUNT(p) FROM Product p WHERE p.sku = :sku"),
+        @NamedQuery(name = Product.FIND_SUMMARIES_BY_NAME_CONTAINING,
+                query = "SELECT " + Product.SUMMARY_SELECT + " FROM Product p LEFT JOIN p.stock s " +
+                        "WHERE LOWER(p.name) LIKE LOWER(:name) ORDER BY p.name, p.id"),
+        @NamedQuery(name = Product.FIND_LOW_STOCK_SUMMARIES,
+                query = "SELECT " + Product.SUMMARY_SELECT + " FROM Product p JOIN p.stock s " +
+                        "WHERE s.quantityAvailable <= p.reorderLevel AND p.reorderLevel > 0 " +
+                        "ORDER BY p.name, p.id"),
+        @NamedQuery(name = Product.FIND_OUT_OF_STOCK_SUMMARIES,
+                query = "SELECT " + Product.SUMMARY_SELECT + " FROM Product p JOIN p.stock s " +
+                        "WHERE s.quantityAvailable = 0 ORDER BY p.name, p.id"),
+        @NamedQuery(name = Product.FIND_STOCK_TOTALS,
+                query = "SELECT COALESCE(SUM(p.unitPrice * s.quantityAvailable), 0), " +
+                        "SUM(CASE WHEN s.quantityAvailable = 0 THEN 1 ELSE 0 END), " +
+                        "SUM(CASE WHEN s.quantityAvailable <= p.reorderLevel AND p.reorderLevel > 0 THEN 1 ELSE 0 END) " +
+                        "FROM Product p JOIN p.stock s"),
+        @NamedQuery(name = Product.FIND_STOCK_ALERTS,
+                query = "SELECT new com.scm.model.dto.StockAlert(p.id, p.sku, p.name, s.quantityAvailable, p.reorderLevel, " +
+                        "CASE WHEN s.quantityAvailable = 0 THEN 'OUT_OF_STOCK' ELSE 'LOW_STOCK' END) " +
+                        "FROM Product p JOIN p.stock s " +
+                        "WHERE s.quantityAvailable = 0 OR (s.quantityAvailable <= p.reorderLevel AND p.reorderLevel > 0) " +
+                        "ORDER BY s.quantityAvailable, p.name, p.id"),
+        @NamedQuery(name = Product.FIND_STOCK_LEVELS,
+                query = "SELECT p.id, p.unitPrice, p.reorderLevel, s.quantityAvailable " +
+                        "FROM Product p JOIN p.stock s"),
+        @NamedQuery(name = Product.COUNT_BY_PRODUCT_TYPE,
+                query = "SELECT p.productType, COUNT(p) FROM Product p GROUP BY p.productType")
+})
 public class Product implements Serializable {
 
     private static final long serialVersionUID = 1L;
 
+    // Named queries, parsed and validated once when the persistence unit starts
+    public static final String FIND_ALL_WITH_STOCK = "Product.findAllWithStock";
+    public static final String STREAM_ALL = "Product.streamAll";
+    public static final String FIND_BY_NAME_CONTAINING = "Product.findByNameContaining";
+    public static final String FIND_LOW_STOCK_PRODUCTS = "Product.findLowStockProducts";
+    public static final String FIND_OUT_OF_STOCK_PRODUCTS = "Product.findOutOfStockProducts";
+    public static final String FIND_BY_SUPPLIER = "Product.findBySupplier";
+    public static final String SKU_EXISTS = "Product.skuExists";
+    public static final String FIND_SUMMARIES_BY_NAME_CONTAINING = "Product.findSummariesByNameContaining";
+    public static final String FIND_LOW_STOCK_SUMMARIES = "Product.findLowStockSummaries";
+    public static final String FIND_OUT_OF_STOCK_SUMMARIES = "Product.findOutOfStockSummaries";
+    public static final String FIND_STOCK_TOTALS = "Product.findStockTotals";
+    public static final String FIND_STOCK_ALERTS = "Product.findStockAlerts";
+    public static final String FIND_STOCK_LEVELS = "Product.findStockLevels";
+    public static final String COUNT_BY_PRODUCT_TYPE = "Product.countByProductType";
+
+    /**
+     * Constructor expression of the list views, over Product p and its Stock s
+     */
+    public static final String SUMMARY_SELECT = "new com.scm.model.dto.ProductSummary(" +
+            "p.id, p.sku, p.name, p.unitPrice, p.reorderLevel, s.quantityAvailable)";
+
+    /**
+     * Entity graph loading the stock record in the same query. The inverse one-to-one
+     * cannot be lazy, so without it every product costs an extra SELECT.
+     */
+    public static final String GRAPH_WITH_STOCK = "Product.withStock";
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Integer id;
@@ -44,6 +133,7 @@ public class Product implements Serializable {
 
     @NotBlank(message = "SKU is required")
     @Size(max = 50, message = "SKU must be less than 50 characters")
+    @NaturalId(mutable = true)
     @Column(name = "sku", length = 50, nullable = false, unique = true)
     private String sku;
 
@@ -61,6 +151,10 @@ public class Product implements Serializable {
     @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
 
+    @Version
+    @Column(name = "version", nullable = false)
+    private int version;
+
     // Relationships
     @OneToOne(mappedBy = "product", cascade = CascadeType.ALL, orphanRemoval = true)
     private Stock stock;
@@ -174,6 +268,14 @@ public class Product implements Serializable {
         this.createdAt = createdAt;
     }
 
+    public int getVersion() {
+        return version;
+    }
+
+    public void setVersion(int version) {
+        this.version = version;
+    }
+
     public Stock getStock() {
         return stock;
     }
@@ -240,10 +342,10 @@ public class Product implements Serializable {
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
-        if (o == null || getClass() != o.getClass()) return false;
+        if (o == null || Hibernate.getClass(this) != Hibernate.getClass(o)) return false;
         Product product = (Product) o;
-        return Objects.equals(id, product.id) ||
-               (sku != null && Objects.equals(sku, product.sku));
+        return Objects.equals(id, product.getId()) ||
+               (sku != null && Objects.equals(sku, product.getSku()));
     }
 
     @Override
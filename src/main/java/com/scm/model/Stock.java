@@ -10,19 +10,43 @@ import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
 import javax.persistence.JoinColumn;
+import javax.persistence.NamedQueries;
+import javax.persistence.NamedQuery;
 import javax.persistence.OneToOne;
 import javax.persistence.Table;
+import javax.persistence.Version;
 import javax.validation.constraints.NotNull;
 
 /**
  * Entity class for stock in the Supply Chain Management system.
+ * Not in the second-level cache: stock levels change with every order, largely through
+ * bulk and JDBC batch updates that Hibernate can only follow by dropping cached entries.
  */
 @Entity
 @Table(name = "stock")
+@NamedQueries({
+        @NamedQuery(name = Stock.FIND_BY_PRODUCT_ID,
+                query = "SELECT s FROM Stock s WHERE s.product.id = :productId"),
+        @NamedQuery(name = Stock.FIND_BY_PRODUCT_SKU,
+                query = "SELECT s FROM Stock s JOIN s.product p WHERE p.sku = :sku"),
+        @NamedQuery(name = Stock.FIND_BY_PRODUCT_IDS,
+                query = "SELECT s FROM Stock s WHERE s.product.id IN :productIds"),
+        @NamedQuery(name = Stock.ADJUST_QUANTITY,
+                query = "UPDATE Stock s SET s.quantityAvailable = s.quantityAvailable + :quantityChange, " +
+                        "s.lastUpdated = :lastUpdated, s.version = s.version + 1 " +
+                        "WHERE s.product.id = :productId " +
+                        "AND s.quantityAvailable + :quantityChange >= 0")
+})
 public class Stock implements Serializable {
 
     private static final long serialVersionUID = 1L;
 
+    // Named queries, parsed and validated once when the persistence unit starts
+    public static final String FIND_BY_PRODUCT_ID = "Stock.findByProductId";
+    public static final String FIND_BY_PRODUCT_SKU = "Stock.findByProductSku";
+    public static final String FIND_BY_PRODUCT_IDS = "Stock.findByProductIds";
+    public static final String ADJUST_QUANTITY = "Stock.adjustQuantity";
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Integer id;
@@ -38,6 +62,10 @@ public class Stock implements Serializable {
     @Column(name = "last_updated", nullable = false)
     private LocalDateTime lastUpdated;
 
+    @Version
+    @Column(name = "version", nullable = false)
+    private int version;
+
     /**
      * Default constructor
      */
@@ -90,6 +118,14 @@ public class Stock implements Serializable {
         this.lastUpdated = lastUpdated;
     }
 
+    public int getVersion() {
+        return version;
+    }
+
+    public void setVersion(int version) {
+        this.version = version;
+    }
+
     /**
      * Updates quantity with the specified change
      * @param change Positive for additions, negative for reductions
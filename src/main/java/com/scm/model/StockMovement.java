@@ -8,23 +8,68 @@ import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.persistence.EnumType;
 import javax.persistence.Enumerated;
+import javax.persistence.FetchType;
 import javax.persistence.GeneratedValue;
-import javax.persistence.GenerationType;
 import javax.persistence.Id;
 import javax.persistence.JoinColumn;
 import javax.persistence.ManyToOne;
+import javax.persistence.NamedAttributeNode;
+import javax.persistence.NamedEntityGraph;
+import javax.persistence.NamedQueries;
+import javax.persistence.NamedQuery;
+import javax.persistence.NamedSubgraph;
 import javax.persistence.Table;
 import javax.validation.constraints.NotNull;
 
+import org.hibernate.annotations.GenericGenerator;
+
+import com.scm.dao.util.PooledIdGenerator;
+
 /**
  * Entity class for stock movements in the Supply Chain Management system.
  */
 @Entity
 @Table(name = "stock_movements")
+// Product.stock is the inverse side of a one-to-one, which Hibernate always loads; joining it
+// here avoids one SELECT per product
+@NamedEntityGraph(name = StockMovement.GRAPH_WITH_PRODUCT,
+        attributeNodes = @NamedAttributeNode(value = "product", subgraph = "product"),
+        subgraphs = @NamedSubgraph(name = "product", attributeNodes = @NamedAttributeNode("stock")))
+@NamedQueries({
+        @NamedQuery(name = StockMovement.FIND_BY_PRODUCT_ID,
+                query = "SELECT sm FROM StockMovement sm WHERE sm.product.id = :productId " +
+                        "ORDER BY sm.movementDate DESC"),
+        @NamedQuery(name = StockMovement.FIND_BY_MOVEMENT_TYPE,
+                query = "SELECT sm FROM StockMovement sm WHERE sm.movementType = :type " +
+                        "ORDER BY sm.movementDate DESC"),
+        @NamedQuery(name = StockMovement.FIND_BY_REFERENCE_ID,
+                query = "SELECT sm FROM StockMovement sm WHERE sm.referenceId = :referenceId " +
+                        "ORDER BY sm.movementDate DESC"),
+        @NamedQuery(name = StockMovement.FIND_BY_DATE_RANGE,
+                query = "SELECT sm FROM StockMovement sm WHERE sm.movementDate BETWEEN :startDate AND :endDate " +
+                        "ORDER BY sm.movementDate DESC"),
+        @NamedQuery(name = StockMovement.FIND_BY_PRODUCT_AND_DATE_RANGE,
+                query = "SELECT sm FROM StockMovement sm WHERE sm.product.id = :productId " +
+                        "AND sm.movementDate BETWEEN :startDate AND :endDate " +
+                        "ORDER BY sm.movementDate DESC")
+})
 public class StockMovement implements Serializable {
 
     private static final long serialVersionUID = 1L;
 
+    // Named queries, parsed and validated once when the persistence unit starts
+    public static final String FIND_BY_PRODUCT_ID = "StockMovement.findByProductId";
+    public static final String FIND_BY_MOVEMENT_TYPE = "StockMovement.findByMovementType";
+    public static final String FIND_BY_REFERENCE_ID = "StockMovement.findByReferenceId";
+    public static final String FIND_BY_DATE_RANGE = "StockMovement.findByDateRange";
+    public static final String FIND_BY_PRODUCT_AND_DATE_RANGE = "StockMovement.findByProductAndDateRange";
+
+    /**
+     * Entity graph loading the moved product in the same query. The product is lazy,
+     * so movement listings that show product names should ask for this graph.
+     */
+    public static final String GRAPH_WITH_PRODUCT = "StockMovement.withProduct";
+
     /**
      * Enum for movement types.
      */
@@ -46,11 +91,12 @@ public class StockMovement implements Serializable {
     }
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(generator = "stockMovementIdGenerator")
+    @GenericGenerator(name = "stockMovementIdGenerator", strategy = PooledIdGenerator.STRATEGY)
     private Integer id;
 
     @NotNull(message = "Product is required")
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "product_id", nullable = false)
     private Product product;
 
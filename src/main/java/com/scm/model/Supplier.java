@@ -6,12 +6,15 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
 
+import javax.persistence.Cacheable;
 import javax.persistence.CascadeType;
 import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.NamedQueries;
+import javax.persistence.NamedQuery;
 import javax.persistence.OneToMany;
 import javax.persistence.Table;
 import javax.validation.constraints.Email;
@@ -19,15 +22,56 @@ import javax.validation.constraints.NotBlank;
 import javax.validation.constraints.Pattern;
 import javax.validation.constraints.Size;
 
+import org.hibernate.Hibernate;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.Fetch;
+import org.hibernate.annotations.FetchMode;
+
 /**
  * Entity class for suppliers in the Supply Chain Management system.
  */
 @Entity
 @Table(name = "suppliers")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "supplier")
+@NamedQueries({
+        @NamedQuery(name = Supplier.FIND_BY_EMAIL, query = "SELECT s FROM Supplier s WHERE s.email = :email"),
+        @NamedQuery(name = Supplier.FIND_BY_NAME_CONTAINING,
+                query = "SELECT s FROM Supplier s WHERE LOWER(s.name) LIKE LOWER(:name)"),
+        @NamedQuery(name = Supplier.FIND_SUMMARIES_BY_NAME_CONTAINING,
+                query = "SELECT " + Supplier.SUMMARY_SELECT + " FROM Supplier s " +
+                        "WHERE LOWER(s.name) LIKE LOWER(:name) ORDER BY s.name, s.id"),
+        @NamedQuery(name = Supplier.FIND_BY_PRODUCT,
+                query = "SELECT DISTINCT s FROM Supplier s " +
+                        "JOIN s.supplierProducts sp " +
+                        "WHERE sp.product.id = :productId"),
+        @NamedQuery(name = Supplier.FIND_BY_PRODUCT_SKU,
+                query = "SELECT DISTINCT s FROM Supplier s " +
+                        "JOIN s.supplierProducts sp " +
+                        "JOIN sp.product p " +
+                        "WHERE p.sku = :sku"),
+        @NamedQuery(name = Supplier.EMAIL_EXISTS,
+                query = "SELECT COUNT(s) FROM Supplier s WHERE s.email = :email")
+})
 public class Supplier implements Serializable {
 
     private static final long serialVersionUID = 1L;
 
+    // Named queries, parsed and validated once when the persistence unit starts
+    public static final String FIND_BY_EMAIL = "Supplier.findByEmail";
+    public static final String FIND_BY_NAME_CONTAINING = "Supplier.findByNameContaining";
+    public static final String FIND_SUMMARIES_BY_NAME_CONTAINING = "Supplier.findSummariesByNameContaining";
+    public static final String FIND_BY_PRODUCT = "Supplier.findByProduct";
+    public static final String FIND_BY_PRODUCT_SKU = "Supplier.findByProductSku";
+    public static final String EMAIL_EXISTS = "Supplier.emailExists";
+
+    /**
+     * Constructor expression of the list view, over Supplier s
+     */
+    public static final String SUMMARY_SELECT = "new com.scm.model.dto.SupplierSummary(" +
+            "s.id, s.name, s.contactPerson, s.email, s.phone, SIZE(s.supplierProducts))";
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Integer id;
@@ -60,6 +104,7 @@ public class Supplier implements Serializable {
 
     // Relationships
     @OneToMany(mappedBy = "supplier", cascade = CascadeType.ALL, orphanRemoval = true)
+    @Fetch(FetchMode.SUBSELECT)
     private List<SupplierProduct> supplierProducts = new ArrayList<>();
 
     @OneToMany(mappedBy = "supplier", cascade = CascadeType.ALL)
@@ -192,10 +237,10 @@ public class Supplier implements Serializable {
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
-        if (o == null || getClass() != o.getClass()) return false;
+        if (o == null || Hibernate.getClass(this) != Hibernate.getClass(o)) return false;
         Supplier supplier = (Supplier) o;
-        return Objects.equals(id, supplier.id) ||
-               (email != null && Objects.equals(email, supplier.email));
+        return Objects.equals(id, supplier.getId()) ||
+               (email != null && Objects.equals(email, supplier.getEmail()));
     }
 
     @Override
@@ -13,25 +13,72 @@ import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.persistence.EnumType;
 import javax.persistence.Enumerated;
+import javax.persistence.FetchType;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
 import javax.persistence.JoinColumn;
 import javax.persistence.ManyToOne;
+import javax.persistence.NamedAttributeNode;
+import javax.persistence.NamedEntityGraph;
+import javax.persistence.NamedQueries;
+import javax.persistence.NamedQuery;
 import javax.persistence.OneToMany;
 import javax.persistence.Table;
+import javax.persistence.Version;
 import javax.validation.constraints.DecimalMin;
 import javax.validation.constraints.NotNull;
 
+import org.hibernate.Hibernate;
+
 /**
  * Entity class for supplier orders in the Supply Chain Management system.
  */
 @Entity
 @Table(name = "supplier_orders")
+@NamedEntityGraph(name = SupplierOrder.GRAPH_WITH_SUPPLIER, attributeNodes = @NamedAttributeNode("supplier"))
+@NamedQueries({
+        @NamedQuery(name = SupplierOrder.FIND_BY_SUPPLIER_ID,
+                query = "SELECT o FROM SupplierOrder o WHERE o.supplier.id = :supplierId " +
+                        "ORDER BY o.orderDate DESC"),
+        @NamedQuery(name = SupplierOrder.FIND_BY_STATUS,
+                query = "SELECT o FROM SupplierOrder o WHERE o.status = :status " +
+                        "ORDER BY o.orderDate DESC"),
+        @NamedQuery(name = SupplierOrder.FIND_BY_DATE_RANGE,
+                query = "SELECT o FROM SupplierOrder o WHERE o.orderDate BETWEEN :startDate AND :endDate " +
+                        "ORDER BY o.orderDate DESC"),
+        @NamedQuery(name = SupplierOrder.FIND_BY_EXPECTED_DELIVERY_DATE_RANGE,
+                query = "SELECT o FROM SupplierOrder o WHERE o.expectedDelivery BETWEEN :startDate AND :endDate " +
+                        "ORDER BY o.expectedDelivery"),
+        @NamedQuery(name = SupplierOrder.FIND_OVERDUE_ORDERS,
+                query = "SELECT o FROM SupplierOrder o WHERE o.expectedDelivery < :today " +
+                        "AND o.status NOT IN ('delivered', 'cancelled') " +
+                        "ORDER BY o.expectedDelivery"),
+        @NamedQuery(name = SupplierOrder.FIND_RECENT_ORDERS,
+                query = "SELECT o FROM SupplierOrder o ORDER BY o.orderDate DESC"),
+        @NamedQuery(name = SupplierOrder.FIND_BY_PRODUCT,
+                query = "SELECT DISTINCT o FROM SupplierOrder o JOIN o.orderItems i " +
+                        "WHERE i.product.id = :productId " +
+                        "ORDER BY o.orderDate DESC")
+})
 public class SupplierOrder implements Serializable {
 
     private static final long serialVersionUID = 1L;
 
+    // Named queries, parsed and validated once when the persistence unit starts
+    public static final String FIND_BY_SUPPLIER_ID = "SupplierOrder.findBySupplierId";
+    public static final String FIND_BY_STATUS = "SupplierOrder.findByStatus";
+    public static final String FIND_BY_DATE_RANGE = "SupplierOrder.findByDateRange";
+    public static final String FIND_BY_EXPECTED_DELIVERY_DATE_RANGE = "SupplierOrder.findByExpectedDeliveryDateRange";
+    public static final String FIND_OVERDUE_ORDERS = "SupplierOrder.findOverdueOrders";
+    public static final String FIND_RECENT_ORDERS = "SupplierOrder.findRecentOrders";
+    public static final String FIND_BY_PRODUCT = "SupplierOrder.findByProduct";
+
+    /**
+     * Entity graph loading the supplier in the same query, for order listings.
+     */
+    public static final String GRAPH_WITH_SUPPLIER = "SupplierOrder.withSupplier";
+
     /**
      * Enum for supplier order status.
      */
@@ -44,7 +91,7 @@ public class SupplierOrder implements Serializable {
     private Integer id;
 
     @NotNull(message = "Supplier is required")
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "supplier_id", nullable = false)
     private Supplier supplier;
 
@@ -63,6 +110,10 @@ public class SupplierOrder implements Serializable {
     @Column(name = "expected_delivery")
     private LocalDate expectedDelivery;
 
+    @Version
+    @Column(name = "version", nullable = false)
+    private int version;
+
     // Relationships
     @OneToMany(mappedBy = "supplierOrder", cascade = CascadeType.ALL, orphanRemoval = true)
     private List<SupplierOrderItem> orderItems = new ArrayList<>();
@@ -145,6 +196,14 @@ public class SupplierOrder implements Serializable {
         this.expectedDelivery = expectedDelivery;
     }
 
+    public int getVersion() {
+        return version;
+    }
+
+    public void setVersion(int version) {
+        this.version = version;
+    }
+
     public List<SupplierOrderItem> getOrderItems() {
         return orderItems;
     }
@@ -203,9 +262,9 @@ public class SupplierOrder implements Serializable {
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
-        if (o == null || getClass() != o.getClass()) return false;
+        if (o == null || Hibernate.getClass(this) != Hibernate.getClass(o)) return false;
         SupplierOrder that = (SupplierOrder) o;
-        return Objects.equals(id, that.id);
+        return Objects.equals(id, that.getId());
     }
 
     @Override
@@ -6,17 +6,23 @@ import java.util.Objects;
 
 import javax.persistence.Column;
 import javax.persistence.Entity;
+import javax.persistence.FetchType;
 import javax.persistence.GeneratedValue;
-import javax.persistence.GenerationType;
 import javax.persistence.Id;
 import javax.persistence.JoinColumn;
 import javax.persistence.ManyToOne;
+import javax.persistence.NamedQueries;
+import javax.persistence.NamedQuery;
 import javax.persistence.Table;
 import javax.persistence.UniqueConstraint;
 import javax.validation.constraints.DecimalMin;
 import javax.validation.constraints.Min;
 import javax.validation.constraints.NotNull;
 
+import org.hibernate.annotations.GenericGenerator;
+
+import com.scm.dao.util.PooledIdGenerator;
+
 /**
  * Entity class for supplier order items in the Supply Chain Management system.
  */
@@ -24,21 +30,35 @@ import javax.validation.constraints.NotNull;
 @Table(name = "supplier_order_items", uniqueConstraints = {
     @UniqueConstraint(columnNames = {"supplier_order_id", "product_id"}, name = "uk_supplier_order_items_order_product")
 })
+@NamedQueries({
+        @NamedQuery(name = SupplierOrderItem.FIND_BY_SUPPLIER_ORDER_ID,
+                query = "SELECT soi FROM SupplierOrderItem soi JOIN FETCH soi.product WHERE soi.supplierOrder.id = :supplierOrderId"),
+        @NamedQuery(name = SupplierOrderItem.FIND_BY_PRODUCT_ID,
+                query = "SELECT soi FROM SupplierOrderItem soi WHERE soi.product.id = :productId"),
+        @NamedQuery(name = SupplierOrderItem.DELETE_BY_SUPPLIER_ORDER_ID,
+                query = "DELETE FROM SupplierOrderItem soi WHERE soi.supplierOrder.id = :supplierOrderId")
+})
 public class SupplierOrderItem implements Serializable {
 
     private static final long serialVersionUID = 1L;
 
+    // Named queries, parsed and validated once when the persistence unit starts
+    public static final String FIND_BY_SUPPLIER_ORDER_ID = "SupplierOrderItem.findBySupplierOrderId";
+    public static final String FIND_BY_PRODUCT_ID = "SupplierOrderItem.findByProductId";
+    public static final String DELETE_BY_SUPPLIER_ORDER_ID = "SupplierOrderItem.deleteBySupplierOrderId";
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(generator = "supplierOrderItemIdGenerator")
+    @GenericGenerator(name = "supplierOrderItemIdGenerator", strategy = PooledIdGenerator.STRATEGY)
     private Integer id;
 
     @NotNull(message = "Supplier order is required")
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "supplier_order_id", nullable = false)
     private SupplierOrder supplierOrder;
 
     @NotNull(message = "Product is required")
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "product_id", nullable = false)
     private Product product;
 
@@ -5,18 +5,25 @@ import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.util.Objects;
 
+import javax.persistence.Cacheable;
 import javax.persistence.Column;
 import javax.persistence.Entity;
+import javax.persistence.FetchType;
 import javax.persistence.Id;
 import javax.persistence.IdClass;
 import javax.persistence.JoinColumn;
 import javax.persistence.ManyToOne;
+import javax.persistence.NamedQueries;
+import javax.persistence.NamedQuery;
 import javax.persistence.Table;
 import javax.persistence.Transient;
 import javax.validation.constraints.DecimalMin;
 import javax.validation.constraints.Min;
 import javax.validation.constraints.NotNull;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
 /**
  * Entity class for supplier products in the Supply Chain Management system.
  * This is a junction table for the many-to-many relationship between
@@ -24,18 +31,47 @@ import javax.validation.constraints.NotNull;
  */
 @Entity
 @Table(name = "supplier_products")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "supplier-product")
 @IdClass(SupplierProductId.class)
+@NamedQueries({
+        @NamedQuery(name = SupplierProduct.FIND_BY_SUPPLIER,
+                query = "SELECT sp FROM SupplierProduct sp JOIN FETCH sp.product WHERE sp.supplier.id = :supplierId"),
+        @NamedQuery(name = SupplierProduct.FIND_BY_PRODUCT,
+                query = "SELECT sp FROM SupplierProduct sp JOIN FETCH sp.supplier WHERE sp.product.id = :productId"),
+        @NamedQuery(name = SupplierProduct.FIND_BY_SUPPLIER_AND_PRODUCT,
+                query = "SELECT sp FROM SupplierProduct sp WHERE sp.supplier.id = :supplierId AND sp.product.id = :productId"),
+        @NamedQuery(name = SupplierProduct.DELETE_BY_SUPPLIER,
+                query = "DELETE FROM SupplierProduct sp WHERE sp.supplier.id = :supplierId"),
+        @NamedQuery(name = SupplierProduct.DELETE_BY_PRODUCT,
+                query = "DELETE FROM SupplierProduct sp WHERE sp.product.id = :productId"),
+        @NamedQuery(name = SupplierProduct.FIND_LOWEST_COST_SUPPLIER_FOR_PRODUCT,
+                query = "SELECT sp FROM SupplierProduct sp JOIN FETCH sp.supplier WHERE sp.product.id = :productId " +
+                        "ORDER BY sp.unitCost ASC"),
+        @NamedQuery(name = SupplierProduct.FIND_FASTEST_DELIVERY_SUPPLIER_FOR_PRODUCT,
+                query = "SELECT sp FROM SupplierProduct sp JOIN FETCH sp.supplier WHERE sp.product.id = :productId " +
+                        "ORDER BY sp.leadTimeDays ASC")
+})
 public class SupplierProduct implements Serializable {
 
     private static final long serialVersionUID = 1L;
 
+    // Named queries, parsed and validated once when the persistence unit starts
+    public static final String FIND_BY_SUPPLIER = "SupplierProduct.findBySupplier";
+    public static final String FIND_BY_PRODUCT = "SupplierProduct.findByProduct";
+    public static final String FIND_BY_SUPPLIER_AND_PRODUCT = "SupplierProduct.findBySupplierAndProduct";
+    public static final String DELETE_BY_SUPPLIER = "SupplierProduct.deleteBySupplier";
+    public static final String DELETE_BY_PRODUCT = "SupplierProduct.deleteByProduct";
+    public static final String FIND_LOWEST_COST_SUPPLIER_FOR_PRODUCT = "SupplierProduct.findLowestCostSupplierForProduct";
+    public static final String FIND_FASTEST_DELIVERY_SUPPLIER_FOR_PRODUCT = "SupplierProduct.findFastestDeliverySupplierForProduct";
+
     @Id
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "supplier_id", nullable = false)
     private Supplier supplier;
 
     @Id
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "product_id", nullable = false)
     private Product product;
 
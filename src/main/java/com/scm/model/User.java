@@ -4,6 +4,7 @@ import java.io.Serializable;
 import java.time.LocalDateTime;
 import java.util.Objects;
 
+import javax.persistence.Cacheable;
 import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.persistence.EnumType;
@@ -11,20 +12,43 @@ import javax.persistence.Enumerated;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.NamedQueries;
+import javax.persistence.NamedQuery;
 import javax.persistence.Table;
 import javax.validation.constraints.Email;
 import javax.validation.constraints.NotBlank;
 import javax.validation.constraints.Size;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.NaturalId;
+import org.hibernate.annotations.NaturalIdCache;
+
 /**
  * Entity class for users in the Supply Chain Management system.
  */
 @Entity
 @Table(name = "users")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "user")
+@NaturalIdCache(region = "user-username")
+@NamedQueries({
+        @NamedQuery(name = User.FIND_BY_EMAIL, query = "SELECT u FROM User u WHERE u.email = :email"),
+        @NamedQuery(name = User.FIND_BY_ROLE, query = "SELECT u FROM User u WHERE u.role = :role"),
+        @NamedQuery(name = User.USERNAME_EXISTS,
+                query = "SELECT COUNT(u) FROM User u WHERE u.username = :username"),
+        @NamedQuery(name = User.EMAIL_EXISTS, query = "SELECT COUNT(u) FROM User u WHERE u.email = :email")
+})
 public class User implements Serializable {
 
     private static final long serialVersionUID = 1L;
 
+    // Named queries, parsed and validated once when the persistence unit starts
+    public static final String FIND_BY_EMAIL = "User.findByEmail";
+    public static final String FIND_BY_ROLE = "User.findByRole";
+    public static final String USERNAME_EXISTS = "User.usernameExists";
+    public static final String EMAIL_EXISTS = "User.emailExists";
+
     /**
      * Enum for user roles.
      */
@@ -38,6 +62,7 @@ public class User implements Serializable {
 
     @NotBlank(message = "Username is required")
     @Size(min = 3, max = 50, message = "Username must be between 3 and 50 characters")
+    @NaturalId(mutable = true)
     @Column(name = "username", length = 50, nullable = false, unique = true)
     private String username;
 
@@ -0,0 +1,66 @@
+package com.scm.model.dto;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import com.scm.model.CustomerOrder.Status;
+
+/**
+ * Read-only row of the order list view.
+ * Built by a constructor expression, so the order items, addresses and notes
+ * are not loaded.
+ */
+public class OrderSummary implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final Integer id;
+    private final String customerName;
+    private final LocalDateTime orderDate;
+    private final Status status;
+    private final BigDecimal totalAmount;
+
+    /**
+     * Constructor used by JPQL constructor expressions
+     */
+    public OrderSummary(Integer id, String customerName, LocalDateTime orderDate, Status status,
+                        BigDecimal totalAmount) {
+        this.id = id;
+        this.customerName = customerName;
+        this.orderDate = orderDate;
+        this.status = status;
+        this.totalAmount = totalAmount;
+    }
+
+    public Integer getId() {
+        return id;
+    }
+
+    public String getCustomerName() {
+        return customerName;
+    }
+
+    public LocalDateTime getOrderDate() {
+        return orderDate;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public BigDecimal getTotalAmount() {
+        return totalAmount;
+    }
+
+    @Override
+    public String toString() {
+        return "OrderSummary{" +
+                "id=" + id +
+                ", customerName='" + customerName + '\'' +
+                ", orderDate=" + orderDate +
+                ", status=" + status +
+                ", totalAmount=" + totalAmount +
+                '}';
+    }
+}
@@ -0,0 +1,69 @@
+package com.scm.model.dto;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+
+/**
+ * Read-only row of the product list views.
+ * Built by a constructor expression, so only the listed columns are read and
+ * nothing is added to the persistence context.
+ */
+public class ProductSummary implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final Integer id;
+    private final String sku;
+    private final String name;
+    private final BigDecimal unitPrice;
+    private final Integer reorderLevel;
+    private final Integer quantityAvailable;
+
+    /**
+     * Constructor used by JPQL constructor expressions
+     */
+    public ProductSummary(Integer id, String sku, String name, BigDecimal unitPrice,
+                          Integer reorderLevel, Integer quantityAvailable) {
+        this.id = id;
+        this.sku = sku;
+        this.name = name;
+        this.unitPrice = unitPrice;
+        this.reorderLevel = reorderLevel;
+        // Products without a stock record have nothing available
+        this.quantityAvailable = quantityAvailable != null ? quantityAvailable : 0;
+    }
+
+    public Integer getId() {
+        return id;
+    }
+
+    public String getSku() {
+        return sku;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public BigDecimal getUnitPrice() {
+        return unitPrice;
+    }
+
+    public Integer getReorderLevel() {
+        return reorderLevel;
+    }
+
+    public Integer getQuantityAvailable() {
+        return quantityAvailable;
+    }
+
+    @Override
+    public String toString() {
+        return "ProductSummary{" +
+                "id=" + id +
+                ", sku='" + sku + '\'' +
+                ", name='" + name + '\'' +
+                ", quantityAvailable=" + quantityAvailable +
+                '}';
+    }
+}
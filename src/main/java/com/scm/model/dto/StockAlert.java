@@ -0,0 +1,75 @@
+package com.scm.model.dto;
+
+import java.io.Serializable;
+
+/**
+ * Read-only row of the stock alerts widget, classified by the query that reads it.
+ */
+public class StockAlert implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Alert level, most urgent first
+     */
+    public enum Level {
+        /** Nothing left */
+        OUT_OF_STOCK,
+        /** At or below the reorder level */
+        LOW_STOCK
+    }
+
+    private final Integer productId;
+    private final String sku;
+    private final String name;
+    private final Integer quantityAvailable;
+    private final Integer reorderLevel;
+    private final Level level;
+
+    /**
+     * Constructor used by JPQL constructor expressions
+     */
+    public StockAlert(Integer productId, String sku, String name, Integer quantityAvailable,
+                      Integer reorderLevel, String level) {
+        this.productId = productId;
+        this.sku = sku;
+        this.name = name;
+        this.quantityAvailable = quantityAvailable;
+        this.reorderLevel = reorderLevel;
+        this.level = Level.valueOf(level);
+    }
+
+    public Integer getProductId() {
+        return productId;
+    }
+
+    public String getSku() {
+        return sku;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Integer getQuantityAvailable() {
+        return quantityAvailable;
+    }
+
+    public Integer getReorderLevel() {
+        return reorderLevel;
+    }
+
+    public Level getLevel() {
+        return level;
+    }
+
+    @Override
+    public String toString() {
+        return "StockAlert{" +
+                "productId=" + productId +
+                ", sku='" + sku + '\'' +
+                ", quantityAvailable=" + quantityAvailable +
+                ", level=" + level +
+                '}';
+    }
+}
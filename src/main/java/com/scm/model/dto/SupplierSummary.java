@@ -0,0 +1,66 @@
+package com.scm.model.dto;
+
+import java.io.Serializable;
+
+/**
+ * Read-only row of the supplier list view.
+ * Built by a constructor expression; the number of products is counted by the
+ * database instead of loading the supplier's product associations.
+ */
+public class SupplierSummary implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final Integer id;
+    private final String name;
+    private final String contactPerson;
+    private final String email;
+    private final String phone;
+    private final int productCount;
+
+    /**
+     * Constructor used by JPQL constructor expressions
+     */
+    public SupplierSummary(Integer id, String name, String contactPerson, String email, String phone,
+                           Number productCount) {
+        this.id = id;
+        this.name = name;
+        this.contactPerson = contactPerson;
+        this.email = email;
+        this.phone = phone;
+        this.productCount = productCount != null ? productCount.intValue() : 0;
+    }
+
+    public Integer getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getContactPerson() {
+        return contactPerson;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    public String getPhone() {
+        return phone;
+    }
+
+    public int getProductCount() {
+        return productCount;
+    }
+
+    @Override
+    public String toString() {
+        return "SupplierSummary{" +
+                "id=" + id +
+                ", name='" + name + '\'' +
+                ", productCount=" + productCount +
+                '}';
+    }
+}
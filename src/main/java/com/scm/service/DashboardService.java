@@ -1,13 +1,14 @@
 package com.scm.service;
 
+import java.io.OutputStream;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
 
 import com.scm.model.CustomerOrder;
-import com.scm.model.Product;
 import com.scm.model.Supplier;
+import com.scm.model.dto.StockAlert;
 import com.scm.service.exception.ServiceException;
 
 /**
@@ -15,6 +16,11 @@ import com.scm.service.exception.ServiceException;
  */
 public interface DashboardService {
     
+    /**
+     * Report formats the report writers support, in upper case
+     */
+    List<String> REPORT_FORMATS = List.of("PDF", "CSV");
+    
     /**
      * Get sales statistics for a date range
      * 
@@ -68,6 +74,41 @@ public interface DashboardService {
             LocalDateTime startDate, LocalDateTime endDate, String groupBy) 
             throws ServiceException;
     
+    /**
+     * Rebuild the daily sales rollup from the orders table.
+     * Only needed once after the rollup is introduced or if it drifts; it is otherwise
+     * maintained incrementally by the order service.
+     * 
+     * @return Number of rollup rows written
+     * @throws ServiceException if a system error occurs
+     */
+    int rebuildSalesRollup() throws ServiceException;
+    
+    /**
+     * Get hit and miss counts of the second-level cache regions
+     * 
+     * @return One map per cache region (region, hits, misses, puts, hitRatio)
+     * @throws ServiceException if a system error occurs
+     */
+    List<Map<String, Object>> getCacheStatistics() throws ServiceException;
+    
+    /**
+     * Get hit and miss counts of the JPQL query plan cache
+     * 
+     * @return Map with keys hits, misses and hitRatio
+     * @throws ServiceException if a system error occurs
+     */
+    Map<String, Object> getQueryPlanStatistics() throws ServiceException;
+    
+    /**
+     * Get saturation and connection wait times of the database connection pools
+     * 
+     * @return One map per pool (pool, active, idle, total, max, pending, saturation,
+     *         acquisitions, avgWaitMs, maxWaitMs, timeouts)
+     * @throws ServiceException if a system error occurs
+     */
+    List<Map<String, Object>> getConnectionPoolStatistics() throws ServiceException;
+    
     /**
      * Get recent activity for the dashboard
      * 
@@ -97,12 +138,12 @@ public interface DashboardService {
     List<CustomerOrder> getOrdersRequiringAttention() throws ServiceException;
     
     /**
-     * Get stock alerts (low stock, out of stock)
+     * Get stock alerts (out of stock, or low stock: at or below the reorder level)
      * 
-     * @return List of products with stock alerts
+     * @return Stock alerts, lowest quantity first
      * @throws ServiceException if a system error occurs
      */
-    List<Product> getStockAlerts() throws ServiceException;
+    List<StockAlert> getStockAlerts() throws ServiceException;
     
     /**
      * Get supplier performance metrics
@@ -123,23 +164,24 @@ public interface DashboardService {
     BigDecimal getInventoryValuation() throws ServiceException;
     
     /**
-     * Generate sales report for a date range
+     * Write a sales report for a date range to a stream as the orders are read,
+     * so memory use does not grow with the size of the report
      * 
      * @param startDate Start date
      * @param endDate End date
-     * @param format Report format (PDF, CSV, etc.)
-     * @return Report data in the requested format
-     * @throws ServiceException if a system error occurs
+     * @param format Report format (PDF, CSV); CSV is written in UTF-8
+     * @param out Stream to write to; flushed, not closed
+     * @throws ServiceException if a parameter is invalid (before anything is written) or a system error occurs
      */
-    byte[] generateSalesReport(LocalDateTime startDate, LocalDateTime endDate, String format) 
+    void writeSalesReport(LocalDateTime startDate, LocalDateTime endDate, String format, OutputStream out) 
             throws ServiceException;
     
     /**
-     * Generate inventory report
+     * Write an inventory report to a stream as the products are read
      * 
-     * @param format Report format (PDF, CSV, etc.)
-     * @return Report data in the requested format
-     * @throws ServiceException if a system error occurs
+     * @param format Report format (PDF, CSV); CSV is written in UTF-8
+     * @param out Stream to write to; flushed, not closed
+     * @throws ServiceException if the format is invalid (before anything is written) or a system error occurs
      */
-    byte[] generateInventoryReport(String format) throws ServiceException;
+    void writeInventoryReport(String format, OutputStream out) throws ServiceException;
 } 
\ No newline at end of file
@@ -0,0 +1,99 @@
+package com.scm.service;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+import javax.mail.MessagingException;
+
+import com.scm.model.OutboundEmail;
+import com.scm.service.exception.ServiceException;
+import com.scm.service.exception.ValidationException;
+
+/**
+ * Service interface for the email outbox.
+ * Emails are queued in the transaction of the caller and sent in the background.
+ */
+public interface EmailService {
+    
+    /**
+     * Queue an HTML email, to be sent once the current transaction commits
+     * 
+     * @param to Recipient email address
+     * @param subject Subject
+     * @param body HTML body
+     * @return Queued email
+     * @throws ValidationException if the email is incomplete
+     * @throws ServiceException if a system error occurs
+     */
+    OutboundEmail queueEmail(String to, String subject, String body) throws ValidationException, ServiceException;
+    
+    /**
+     * Queue an email with CC and BCC recipients, to be sent once the current transaction commits
+     * 
+     * @param to Recipient email address
+     * @param cc Carbon copy recipient email addresses (comma-separated), or null
+     * @param bcc Blind carbon copy recipient email addresses (comma-separated), or null
+     * @param subject Subject
+     * @param body Body
+     * @param isHtml true if the body contains HTML
+     * @return Queued email
+     * @throws ValidationException if the email is incomplete
+     * @throws ServiceException if a system error occurs
+     */
+    OutboundEmail queueEmail(String to, String cc, String bcc, String subject, String body, boolean isHtml)
+            throws ValidationException, ServiceException;
+    
+    /**
+     * Claim a batch of due emails for a dispatcher: mark them SENDING under its name until
+     * mail.outbox.lease-seconds from now. The emails are sent afterwards, outside any
+     * transaction, and the results recorded with {@link #recordDeliveries}.
+     * 
+     * @param owner Name of the dispatcher
+     * @param batchSize Maximum number of emails to claim
+     * @return Claimed emails; fewer than batchSize once nothing more is due
+     * @throws ServiceException if the outbox cannot be read
+     */
+    List<OutboundEmail> claimDueEmails(String owner, int batchSize) throws ServiceException;
+    
+    /**
+     * Record the results of sending claimed emails. Sent emails are marked SENT, failed ones
+     * are rescheduled with exponential backoff, or marked DEAD when they were rejected for good
+     * or ran out of attempts. Emails no longer claimed by the dispatcher are left alone.
+     * 
+     * @param owner Name of the dispatcher that claimed the emails
+     * @param sentIds IDs of the emails accepted by the mail server
+     * @param failures Send failure by ID of the emails that were not
+     * @throws ServiceException if a system error occurs
+     */
+    void recordDeliveries(String owner, Collection<Integer> sentIds, Map<Integer, MessagingException> failures)
+            throws ServiceException;
+    
+    /**
+     * Hand claimed emails back as due without counting an attempt, for example when the
+     * mail server could not be reached at all
+     * 
+     * @param owner Name of the dispatcher that claimed the emails
+     * @param ids Email IDs
+     * @throws ServiceException if a system error occurs
+     */
+    void releaseEmails(String owner, Collection<Integer> ids) throws ServiceException;
+    
+    /**
+     * Delete the emails sent before a point in time
+     * 
+     * @param before Oldest send time to keep
+     * @return Number of emails deleted
+     * @throws ServiceException if a system error occurs
+     */
+    int purgeSentEmails(LocalDateTime before) throws ServiceException;
+    
+    /**
+     * Count the emails of the outbox in each delivery state
+     * 
+     * @return Map of PENDING, SENDING, SENT and DEAD to the number of emails
+     * @throws ServiceException if a system error occurs
+     */
+    Map<String, Long> getOutboxStatistics() throws ServiceException;
+}
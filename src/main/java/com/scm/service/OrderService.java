@@ -4,9 +4,12 @@ import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
+import com.scm.dao.util.Cursor;
+import com.scm.dao.util.Page;
 import com.scm.model.CustomerOrder;
 import com.scm.model.CustomerOrder.Status;
 import com.scm.model.OrderItem;
+import com.scm.model.dto.OrderSummary;
 import com.scm.service.exception.ServiceException;
 import com.scm.service.exception.ValidationException;
 
@@ -28,10 +31,11 @@ public interface OrderService {
     /**
      * Update an existing order
      * 
-     * @param order Order to update
+     * @param order Order to update, with the version it was read with
      * @return Updated order
      * @throws ValidationException if order data is invalid
-     * @throws ServiceException if a system error occurs
+     * @throws ServiceException if the order was changed since it was read
+     *         (caused by an OptimisticLockException) or a system error occurs
      */
     CustomerOrder updateOrder(CustomerOrder order) throws ValidationException, ServiceException;
     
@@ -135,6 +139,46 @@ public interface OrderService {
      */
     List<CustomerOrder> findRecentOrders(int limit) throws ServiceException;
     
+    /**
+     * Find a page of orders, most recent first
+     * 
+     * @param cursor Cursor returned with a previous page, or null for the first page
+     * @param size Maximum number of orders in the page
+     * @return Page of orders
+     * @throws ServiceException if a system error occurs
+     */
+    Page<CustomerOrder> findOrders(Cursor cursor, int size) throws ServiceException;
+    
+    /**
+     * Find a page of order summaries, most recent first, for list views
+     * 
+     * @param cursor Cursor returned with a previous page, or null for the first page
+     * @param size Maximum number of orders in the page
+     * @return Page of order summaries
+     * @throws ServiceException if a system error occurs
+     */
+    Page<OrderSummary> findOrderSummaries(Cursor cursor, int size) throws ServiceException;
+    
+    /**
+     * Find summaries of orders by status
+     * 
+     * @param status Order status
+     * @return Order summaries with the specified status, most recent first
+     * @throws ServiceException if a system error occurs
+     */
+    List<OrderSummary> findSummariesByStatus(Status status) throws ServiceException;
+    
+    /**
+     * Find the stored total of a chunk of orders next to the total of their items,
+     * to check that the incrementally maintained totals have not drifted
+     * 
+     * @param afterId Only orders with a greater ID are returned; 0 to start from the first order
+     * @param limit Maximum number of orders to return
+     * @return Rows of [order ID, stored total (BigDecimal), sum of the items (BigDecimal)], by order ID
+     * @throws ServiceException if a system error occurs
+     */
+    List<Object[]> findOrderTotals(Integer afterId, int limit) throws ServiceException;
+    
     /**
      * Process payment for an order
      * 
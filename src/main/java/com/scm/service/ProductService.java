@@ -3,7 +3,10 @@ package com.scm.service;
 import java.util.List;
 import java.util.Optional;
 
+import com.scm.dao.util.Cursor;
+import com.scm.dao.util.Page;
 import com.scm.model.Product;
+import com.scm.model.dto.ProductSummary;
 import com.scm.service.exception.ServiceException;
 import com.scm.service.exception.ValidationException;
 
@@ -25,10 +28,11 @@ public interface ProductService {
     /**
      * Update an existing product
      * 
-     * @param product Product to update
+     * @param product Product to update, with the version it was read with
      * @return Updated product
      * @throws ValidationException if product data is invalid
-     * @throws ServiceException if a system error occurs
+     * @throws ServiceException if the product was changed since it was read
+     *         (caused by an OptimisticLockException) or a system error occurs
      */
     Product updateProduct(Product product) throws ValidationException, ServiceException;
     
@@ -67,6 +71,16 @@ public interface ProductService {
      */
     List<Product> findAllProducts() throws ServiceException;
     
+    /**
+     * Find a page of products ordered by name
+     * 
+     * @param cursor Cursor returned with a previous page, or null for the first page
+     * @param size Maximum number of products in the page
+     * @return Page of products
+     * @throws ServiceException if a system error occurs
+     */
+    Page<Product> findAllProducts(Cursor cursor, int size) throws ServiceException;
+    
     /**
      * Find products by name (partial match)
      * 
@@ -92,6 +106,50 @@ public interface ProductService {
      */
     List<Product> findOutOfStockProducts() throws ServiceException;
     
+    /**
+     * Find a page of product summaries ordered by name, for list views
+     * 
+     * @param cursor Cursor returned with a previous page, or null for the first page
+     * @param size Maximum number of products in the page
+     * @return Page of product summaries
+     * @throws ServiceException if a system error occurs
+     */
+    Page<ProductSummary> findProductSummaries(Cursor cursor, int size) throws ServiceException;
+    
+    /**
+     * Find summaries of products by name (partial match)
+     * 
+     * @param name Name to search for
+     * @return Product summaries with matching name
+     * @throws ServiceException if a system error occurs
+     */
+    List<ProductSummary> findSummariesByNameContaining(String name) throws ServiceException;
+    
+    /**
+     * Find summaries of products with low stock (below reorder level)
+     * 
+     * @return Product summaries with stock below reorder level
+     * @throws ServiceException if a system error occurs
+     */
+    List<ProductSummary> findLowStockSummaries() throws ServiceException;
+    
+    /**
+     * Find summaries of products with zero stock
+     * 
+     * @return Product summaries with zero stock
+     * @throws ServiceException if a system error occurs
+     */
+    List<ProductSummary> findOutOfStockSummaries() throws ServiceException;
+    
+    /**
+     * Find the price, reorder level and quantity available of every product with a stock record,
+     * to seed and reconcile the inventory KPIs
+     * 
+     * @return Rows of [product ID, unit price (BigDecimal), reorder level (Integer), quantity available (Integer)]
+     * @throws ServiceException if a system error occurs
+     */
+    List<Object[]> findStockLevels() throws ServiceException;
+    
     /**
      * Find products by supplier ID
      * 
@@ -4,8 +4,11 @@ import java.math.BigDecimal;
 import java.util.List;
 import java.util.Optional;
 
+import com.scm.dao.util.Cursor;
+import com.scm.dao.util.Page;
 import com.scm.model.Supplier;
 import com.scm.model.SupplierProduct;
+import com.scm.model.dto.SupplierSummary;
 import com.scm.service.exception.ServiceException;
 import com.scm.service.exception.ValidationException;
 
@@ -69,6 +72,16 @@ public interface SupplierService {
      */
     List<Supplier> findAllSuppliers() throws ServiceException;
     
+    /**
+     * Find a page of suppliers ordered by name
+     * 
+     * @param cursor Cursor returned with a previous page, or null for the first page
+     * @param size Maximum number of suppliers in the page
+     * @return Page of suppliers
+     * @throws ServiceException if a system error occurs
+     */
+    Page<Supplier> findAllSuppliers(Cursor cursor, int size) throws ServiceException;
+    
     /**
      * Find suppliers by name (partial match)
      * 
@@ -78,6 +91,25 @@ public interface SupplierService {
      */
     List<Supplier> findByNameContaining(String name) throws ServiceException;
     
+    /**
+     * Find a page of supplier summaries ordered by name, for list views
+     * 
+     * @param cursor Cursor returned with a previous page, or null for the first page
+     * @param size Maximum number of suppliers in the page
+     * @return Page of supplier summaries
+     * @throws ServiceException if a system error occurs
+     */
+    Page<SupplierSummary> findSupplierSummaries(Cursor cursor, int size) throws ServiceException;
+    
+    /**
+     * Find summaries of suppliers by name (partial match)
+     * 
+     * @param name Name to search for
+     * @return Supplier summaries with matching name
+     * @throws ServiceException if a system error occurs
+     */
+    List<SupplierSummary> findSummariesByNameContaining(String name) throws ServiceException;
+    
     /**
      * Find suppliers that supply a specific product
      * 
@@ -0,0 +1,164 @@
+package com.scm.service.event;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.enterprise.context.ApplicationScoped;
+
+import com.scm.dao.util.TransactionCallbacks;
+import com.scm.util.AppConfig;
+
+/**
+ * In-process bus for the domain events of the services.
+ * Events are published after the transaction of the publishing thread commits, and dropped
+ * if it rolls back. Synchronous subscribers run on the publishing thread and should be cheap;
+ * asynchronous subscribers run in publishing order on one dispatcher thread, fed through a
+ * ring of events.ring-buffer-size slots. When the ring is full a publisher waits up to
+ * events.publish-timeout-ms for the dispatcher, then drops the event for the asynchronous
+ * subscribers and counts it.
+ * 
+ * Subscribers are matched on the exact event class and should not throw; failures are logged.
+ */
+@ApplicationScoped
+public class DomainEventBus {
+    
+    private static final Logger LOGGER = Logger.getLogger(DomainEventBus.class.getName());
+    
+    private static final long DISPATCHER_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+    
+    private final Map<Class<?>, List<Consumer<Object>>> subscribers = new ConcurrentHashMap<>();
+    private final Map<Class<?>, List<Consumer<Object>>> asyncSubscribers = new ConcurrentHashMap<>();
+    
+    private final LongAdder publishedCount = new LongAdder();
+    private final LongAdder droppedCount = new LongAdder();
+    
+    private EventRingBuffer ringBuffer;
+    private long publishTimeoutNanos;
+    private Thread dispatcher;
+    private volatile boolean running;
+    
+    @PostConstruct
+    public void init() {
+        ringBuffer = new EventRingBuffer(AppConfig.getIntProperty("events.ring-buffer-size", 1024));
+        publishTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(
+                Math.max(0, AppConfig.getLongProperty("events.publish-timeout-ms", 100)));
+        
+        running = true;
+        dispatcher = new Thread(this::dispatchLoop, "domain-event-dispatcher");
+        dispatcher.setDaemon(true);
+        dispatcher.start();
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        if (dispatcher != null) {
+            ringBuffer.wakeConsumer();
+            try {
+                dispatcher.join(TimeUnit.SECONDS.toMillis(5));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+    
+    /**
+     * Subscribe to an event type on the publishing thread
+     * 
+     * @param type Event class
+     * @param subscriber Subscriber
+     */
+    public <E> void subscribe(Class<E> type, Consumer<? super E> subscriber) {
+        add(subscribers, type, subscriber);
+    }
+    
+    /**
+     * Subscribe to an event type on the dispatcher thread
+     * 
+     * @param type Event class
+     * @param subscriber Subscriber
+     */
+    public <E> void subscribeAsync(Class<E> type, Consumer<? super E> subscriber) {
+        add(asyncSubscribers, type, subscriber);
+    }
+    
+    /**
+     * Publish an event once the current transaction commits, or right away outside a transaction
+     * 
+     * @param event Event
+     */
+    public void publish(Object event) {
+        TransactionCallbacks.afterCommit(() -> dispatch(event));
+    }
+    
+    /**
+     * Get the counters of the bus
+     * 
+     * @return Map with keys published, dropped, backlog and capacity
+     */
+    public Map<String, Long> getStatistics() {
+        Map<String, Long> statistics = new LinkedHashMap<>();
+        statistics.put("published", publishedCount.sum());
+        statistics.put("dropped", droppedCount.sum());
+        statistics.put("backlog", ringBuffer.backlog());
+        statistics.put("capacity", (long) ringBuffer.capacity());
+        return statistics;
+    }
+    
+    private void dispatch(Object event) {
+        publishedCount.increment();
+        deliver(subscribers, event);
+        
+        if (asyncSubscribers.containsKey(event.getClass()) && !ringBuffer.offer(event, publishTimeoutNanos)) {
+            droppedCount.increment();
+            long dropped = droppedCount.sum();
+            // Log the first drop and then every thousandth, not every event of a burst
+            if (dropped == 1 || dropped % 1000 == 0) {
+                LOGGER.log(Level.WARNING, "Event ring buffer full, dropped {0} (dropped {1} so far)",
+                        new Object[]{event, dropped});
+            }
+        }
+    }
+    
+    private void dispatchLoop() {
+        Consumer<Object> handler = event -> deliver(asyncSubscribers, event);
+        while (running) {
+            if (ringBuffer.drainTo(handler) == 0) {
+                ringBuffer.awaitEvents(DISPATCHER_PARK_NANOS);
+            }
+        }
+        
+        long remaining = ringBuffer.backlog();
+        if (remaining > 0) {
+            LOGGER.log(Level.WARNING, "Event dispatcher stopped with {0} undelivered events", remaining);
+        }
+    }
+    
+    private static void deliver(Map<Class<?>, List<Consumer<Object>>> registry, Object event) {
+        for (Consumer<Object> subscriber : registry.getOrDefault(event.getClass(), Collections.emptyList())) {
+            try {
+                subscriber.accept(event);
+            } catch (RuntimeException e) {
+                LOGGER.log(Level.SEVERE, "Subscriber failed on " + event, e);
+            }
+        }
+    }
+    
+    @SuppressWarnings("unchecked")
+    private static <E> void add(Map<Class<?>, List<Consumer<Object>>> registry, Class<E> type,
+                                Consumer<? super E> subscriber) {
+        registry.computeIfAbsent(type, key -> new CopyOnWriteArrayList<>())
+                .add((Consumer<Object>) (Consumer<?>) subscriber);
+    }
+}
@@ -0,0 +1,144 @@
+package com.scm.service.event;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+/**
+ * Bounded ring of events between any number of publishing threads and one consuming thread.
+ * Slots are allocated once; a publisher claims the next sequence with a compare-and-set,
+ * fills the slot and marks it published with the sequence number, so neither side takes a
+ * lock or allocates a queue node. A publisher that finds the ring full waits for the
+ * consumer, up to a timeout, which is the backpressure on the publishing threads.
+ */
+final class EventRingBuffer {
+    
+    private static final long PUBLISHER_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+    
+    private final Object[] entries;
+    private final AtomicLongArray published;
+    private final int mask;
+    
+    private final AtomicLong claimed = new AtomicLong(-1);
+    private volatile long consumed = -1;
+    
+    private volatile Thread consumer;
+    private volatile boolean consumerWaiting;
+    
+    /**
+     * Constructor
+     * 
+     * @param minimumSize Minimum number of slots; rounded up to a power of two
+     */
+    EventRingBuffer(int minimumSize) {
+        int size = Integer.highestOneBit(Math.max(2, minimumSize) - 1) << 1;
+        this.entries = new Object[size];
+        this.published = new AtomicLongArray(size);
+        this.mask = size - 1;
+        for (int i = 0; i < size; i++) {
+            published.set(i, -1);
+        }
+    }
+    
+    int capacity() {
+        return entries.length;
+    }
+    
+    /**
+     * Number of events published but not consumed yet
+     */
+    long backlog() {
+        return Math.max(0, claimed.get() - consumed);
+    }
+    
+    /**
+     * Add an event, waiting for a free slot while the ring is full
+     * 
+     * @param event Event
+     * @param timeoutNanos Longest time to wait for a free slot
+     * @return true if the event was added, false if the ring stayed full
+     */
+    boolean offer(Object event, long timeoutNanos) {
+        long deadline = 0;
+        long sequence;
+        while (true) {
+            long current = claimed.get();
+            sequence = current + 1;
+            if (sequence - entries.length > consumed) {
+                long now = System.nanoTime();
+                if (deadline == 0) {
+                    deadline = now + timeoutNanos;
+                } else if (now - deadline >= 0) {
+                    return false;
+                }
+                wakeConsumer();
+                LockSupport.parkNanos(PUBLISHER_PARK_NANOS);
+            } else if (claimed.compareAndSet(current, sequence)) {
+                break;
+            }
+        }
+        
+        int index = (int) sequence & mask;
+        entries[index] = event;
+        // Ordered write: the consumer sees the entry once it sees the sequence
+        published.lazySet(index, sequence);
+        if (consumerWaiting) {
+            wakeConsumer();
+        }
+        return true;
+    }
+    
+    /**
+     * Hand every published event in sequence to the handler; called by the consuming thread only
+     * 
+     * @param handler Event handler
+     * @return Number of events handled
+     */
+    int drainTo(Consumer<Object> handler) {
+        long next = consumed + 1;
+        int count = 0;
+        while (true) {
+            int index = (int) next & mask;
+            if (published.get(index) != next) {
+                break;
+            }
+            Object event = entries[index];
+            entries[index] = null;
+            try {
+                handler.accept(event);
+            } finally {
+                // Free the slot even if the handler failed
+                consumed = next;
+            }
+            next++;
+            count++;
+        }
+        return count;
+    }
+    
+    /**
+     * Park the consuming thread until an event is published or the timeout passes
+     * 
+     * @param timeoutNanos Longest time to wait
+     */
+    void awaitEvents(long timeoutNanos) {
+        consumer = Thread.currentThread();
+        consumerWaiting = true;
+        try {
+            if (published.get((int) (consumed + 1) & mask) != consumed + 1) {
+                LockSupport.parkNanos(this, timeoutNanos);
+            }
+        } finally {
+            consumerWaiting = false;
+        }
+    }
+    
+    void wakeConsumer() {
+        Thread thread = consumer;
+        if (thread != null) {
+            LockSupport.unpark(thread);
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.scm.service.event;
+
+import java.io.Serializable;
+
+import com.scm.model.CustomerOrder;
+
+/**
+ * Published when a customer order moved to another status.
+ */
+public class OrderStatusChanged implements Serializable {
+    
+    private static final long serialVersionUID = 1L;
+    
+    private final Integer orderId;
+    private final CustomerOrder.Status previousStatus;
+    private final CustomerOrder.Status newStatus;
+    
+    /**
+     * Constructor
+     * 
+     * @param orderId Order ID
+     * @param previousStatus Status before the change
+     * @param newStatus Status after the change
+     */
+    public OrderStatusChanged(Integer orderId, CustomerOrder.Status previousStatus, CustomerOrder.Status newStatus) {
+        this.orderId = orderId;
+        this.previousStatus = previousStatus;
+        this.newStatus = newStatus;
+    }
+    
+    public Integer getOrderId() {
+        return orderId;
+    }
+    
+    public CustomerOrder.Status getPreviousStatus() {
+        return previousStatus;
+    }
+    
+    public CustomerOrder.Status getNewStatus() {
+        return newStatus;
+    }
+    
+    @Override
+    public String toString() {
+        return "OrderStatusChanged{orderId=" + orderId + ", previousStatus=" + previousStatus
+                + ", newStatus=" + newStatus + '}';
+    }
+}
@@ -0,0 +1,39 @@
+package com.scm.service.event;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+
+/**
+ * Published when a product was created with, or changed to, a unit price.
+ */
+public class PriceChanged implements Serializable {
+    
+    private static final long serialVersionUID = 1L;
+    
+    private final Integer productId;
+    private final BigDecimal unitPrice;
+    
+    /**
+     * Constructor
+     * 
+     * @param productId Product ID
+     * @param unitPrice New unit price
+     */
+    public PriceChanged(Integer productId, BigDecimal unitPrice) {
+        this.productId = productId;
+        this.unitPrice = unitPrice;
+    }
+    
+    public Integer getProductId() {
+        return productId;
+    }
+    
+    public BigDecimal getUnitPrice() {
+        return unitPrice;
+    }
+    
+    @Override
+    public String toString() {
+        return "PriceChanged{productId=" + productId + ", unitPrice=" + unitPrice + '}';
+    }
+}
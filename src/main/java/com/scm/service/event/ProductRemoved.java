@@ -0,0 +1,31 @@
+package com.scm.service.event;
+
+import java.io.Serializable;
+
+/**
+ * Published when a product was deleted, together with its stock.
+ */
+public class ProductRemoved implements Serializable {
+    
+    private static final long serialVersionUID = 1L;
+    
+    private final Integer productId;
+    
+    /**
+     * Constructor
+     * 
+     * @param productId ID of the deleted product
+     */
+    public ProductRemoved(Integer productId) {
+        this.productId = productId;
+    }
+    
+    public Integer getProductId() {
+        return productId;
+    }
+    
+    @Override
+    public String toString() {
+        return "ProductRemoved{productId=" + productId + '}';
+    }
+}
@@ -0,0 +1,38 @@
+package com.scm.service.event;
+
+import java.io.Serializable;
+
+/**
+ * Published when a product was created with, or changed to, a reorder level.
+ */
+public class ReorderLevelChanged implements Serializable {
+    
+    private static final long serialVersionUID = 1L;
+    
+    private final Integer productId;
+    private final int reorderLevel;
+    
+    /**
+     * Constructor
+     * 
+     * @param productId Product ID
+     * @param reorderLevel New reorder level
+     */
+    public ReorderLevelChanged(Integer productId, int reorderLevel) {
+        this.productId = productId;
+        this.reorderLevel = reorderLevel;
+    }
+    
+    public Integer getProductId() {
+        return productId;
+    }
+    
+    public int getReorderLevel() {
+        return reorderLevel;
+    }
+    
+    @Override
+    public String toString() {
+        return "ReorderLevelChanged{productId=" + productId + ", reorderLevel=" + reorderLevel + '}';
+    }
+}
@@ -0,0 +1,38 @@
+package com.scm.service.event;
+
+import java.io.Serializable;
+
+/**
+ * Published when the quantity available of a product changed.
+ */
+public class StockChanged implements Serializable {
+    
+    private static final long serialVersionUID = 1L;
+    
+    private final Integer productId;
+    private final int quantityAvailable;
+    
+    /**
+     * Constructor
+     * 
+     * @param productId Product ID
+     * @param quantityAvailable Quantity available after the change
+     */
+    public StockChanged(Integer productId, int quantityAvailable) {
+        this.productId = productId;
+        this.quantityAvailable = quantityAvailable;
+    }
+    
+    public Integer getProductId() {
+        return productId;
+    }
+    
+    public int getQuantityAvailable() {
+        return quantityAvailable;
+    }
+    
+    @Override
+    public String toString() {
+        return "StockChanged{productId=" + productId + ", quantityAvailable=" + quantityAvailable + '}';
+    }
+}
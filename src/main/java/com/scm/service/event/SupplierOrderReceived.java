@@ -0,0 +1,38 @@
+package com.scm.service.event;
+
+import java.io.Serializable;
+
+/**
+ * Published when the goods of a supplier order were received into stock.
+ */
+public class SupplierOrderReceived implements Serializable {
+    
+    private static final long serialVersionUID = 1L;
+    
+    private final Integer supplierOrderId;
+    private final Integer supplierId;
+    
+    /**
+     * Constructor
+     * 
+     * @param supplierOrderId Supplier order ID
+     * @param supplierId Supplier ID
+     */
+    public SupplierOrderReceived(Integer supplierOrderId, Integer supplierId) {
+        this.supplierOrderId = supplierOrderId;
+        this.supplierId = supplierId;
+    }
+    
+    public Integer getSupplierOrderId() {
+        return supplierOrderId;
+    }
+    
+    public Integer getSupplierId() {
+        return supplierId;
+    }
+    
+    @Override
+    public String toString() {
+        return "SupplierOrderReceived{supplierOrderId=" + supplierOrderId + ", supplierId=" + supplierId + '}';
+    }
+}
@@ -0,0 +1,313 @@
+package com.scm.service.impl;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+import javax.naming.InitialContext;
+import javax.naming.NamingException;
+
+import com.scm.service.DashboardService;
+import com.scm.util.AppConfig;
+
+/**
+ * Loads the dashboard widgets concurrently.
+ * Each widget is a DashboardService call submitted to the container's managed
+ * executor (or a private pool, sized like the reporting connection pool, when none is
+ * available). A request runs at most dashboard.widget-concurrency widgets at a time and
+ * submits the next one when one finishes, so one page load cannot take every thread.
+ * A widget that fails, waits longer than dashboard.widget-timeout-ms for a thread, or
+ * runs longer than dashboard.widget-timeout-ms once started is replaced by an empty
+ * placeholder so the rest of the page can still be rendered.
+ */
+@ApplicationScoped
+public class DashboardAssembler {
+    
+    private static final Logger LOGGER = Logger.getLogger(DashboardAssembler.class.getName());
+    private static final String MANAGED_EXECUTOR_JNDI = "java:comp/DefaultManagedExecutorService";
+    
+    /**
+     * Request attribute listing the widgets replaced by a placeholder
+     */
+    public static final String UNAVAILABLE_WIDGETS = "unavailableWidgets";
+    
+    /**
+     * Request attribute holding the load time of each widget in milliseconds
+     */
+    public static final String WIDGET_TIMINGS = "widgetTimings";
+    
+    @Inject
+    private DashboardService dashboardService;
+    
+    private ExecutorService executor;
+    private boolean ownsExecutor;
+    private long widgetTimeoutMillis;
+    private int widgetConcurrency;
+    
+    @PostConstruct
+    public void init() {
+        widgetTimeoutMillis = AppConfig.getLongProperty("dashboard.widget-timeout-ms", 5000);
+        widgetConcurrency = Math.max(1, AppConfig.getIntProperty("dashboard.widget-concurrency", 3));
+        
+        try {
+            executor = (ExecutorService) new InitialContext().lookup(MANAGED_EXECUTOR_JNDI);
+        } catch (NamingException | ClassCastException e) {
+            // Widgets run on reporting connections; more threads than connections would only
+            // queue inside the connection pool, where their timeout is already running
+            int poolSize = Math.max(1, AppConfig.getIntProperty("persistence.pool.reporting.maximum-pool-size", 10));
+            widgetConcurrency = Math.min(widgetConcurrency, poolSize);
+            LOGGER.log(Level.INFO, "No managed executor available, loading dashboard widgets on a private pool of {0} threads",
+                    poolSize);
+            executor = Executors.newFixedThreadPool(poolSize, new WidgetThreadFactory());
+            ownsExecutor = true;
+        }
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        if (ownsExecutor) {
+            executor.shutdownNow();
+        }
+    }
+    
+    /**
+     * Load all dashboard widgets for a date range
+     * 
+     * @param startDate Start date
+     * @param endDate End date
+     * @return Widget values by request attribute name, plus {@link #UNAVAILABLE_WIDGETS}
+     *         and {@link #WIDGET_TIMINGS}
+     */
+    public Map<String, Object> assemble(LocalDateTime startDate, LocalDateTime endDate) {
+        Map<String, Widget> widgets = new LinkedHashMap<>();
+        widgets.put("salesStats", new Widget(
+                () -> dashboardService.getSalesStatistics(startDate, endDate), Collections.emptyMap()));
+        widgets.put("inventoryStats", new Widget(
+                () -> dashboardService.getInventoryStatistics(), Collections.emptyMap()));
+        widgets.put("supplierStats", new Widget(
+                () -> dashboardService.getSupplierStatistics(), Collections.emptyMap()));
+        widgets.put("topProducts", new Widget(
+                () -> dashboardService.getTopSellingProducts(startDate, endDate, 5), Collections.emptyList()));
+        widgets.put("salesByPeriod", new Widget(
+                () -> dashboardService.getSalesByTimePeriod(startDate, endDate, "day"), Collections.emptyList()));
+        widgets.put("recentActivity", new Widget(
+                () -> dashboardService.getRecentActivity(10), Collections.emptyList()));
+        widgets.put("ordersNeedingAttention", new Widget(
+                () -> dashboardService.getOrdersRequiringAttention(), Collections.emptyList()));
+        widgets.put("stockAlerts", new Widget(
+                () -> dashboardService.getStockAlerts(), Collections.emptyList()));
+        
+        // Fan out, a few widgets at a time; each finished widget submits the next
+        Map<String, Long> timings = new ConcurrentHashMap<>();
+        Map<String, WidgetRun> runs = new LinkedHashMap<>();
+        Queue<WidgetRun> pending = new ConcurrentLinkedQueue<>();
+        for (Map.Entry<String, Widget> entry : widgets.entrySet()) {
+            WidgetRun run = new WidgetRun(entry.getKey(), entry.getValue().loader, timings, pending);
+            runs.put(entry.getKey(), run);
+            pending.add(run);
+        }
+        for (int i = 0; i < widgetConcurrency; i++) {
+            submitNext(pending);
+        }
+        
+        // Collect in page order. Widgets before the one awaited have all finished or been
+        // given up, so it has been submitted by now
+        Map<String, Object> result = new LinkedHashMap<>();
+        List<String> unavailable = new ArrayList<>();
+        
+        for (WidgetRun run : runs.values()) {
+            Object value = await(run);
+            if (value == null) {
+                value = widgets.get(run.name).placeholder;
+                unavailable.add(run.name);
+            }
+            result.put(run.name, value);
+        }
+        
+        Map<String, Long> orderedTimings = new LinkedHashMap<>();
+        for (String name : widgets.keySet()) {
+            orderedTimings.put(name, timings.get(name));
+        }
+        if (LOGGER.isLoggable(Level.FINE)) {
+            LOGGER.log(Level.FINE, "Dashboard widget timings (ms): {0}", orderedTimings);
+        }
+        
+        result.put(UNAVAILABLE_WIDGETS, unavailable);
+        result.put(WIDGET_TIMINGS, orderedTimings);
+        return result;
+    }
+    
+    /**
+     * Submit the next pending widget of a request, if any
+     * 
+     * @param pending Widgets of the request not submitted yet
+     */
+    private void submitNext(Queue<WidgetRun> pending) {
+        WidgetRun run = pending.poll();
+        if (run == null) {
+            return;
+        }
+        
+        run.submittedAt = System.nanoTime();
+        try {
+            run.task = executor.submit(run::execute);
+        } catch (RejectedExecutionException e) {
+            run.result.completeExceptionally(e);
+            run.finish(false);
+        }
+    }
+    
+    /**
+     * Wait for a widget: up to the timeout for a thread to pick it up, then up to the
+     * timeout from the moment it starts running
+     * 
+     * @param run Widget run
+     * @return Widget value, or null if it failed or timed out
+     */
+    private Object await(WidgetRun run) {
+        long timeoutNanos = TimeUnit.MILLISECONDS.toNanos(widgetTimeoutMillis);
+        try {
+            while (true) {
+                long startedAt = run.startedAt;
+                long deadline = startedAt != 0 ? startedAt + timeoutNanos : run.submittedAt + timeoutNanos;
+                try {
+                    return run.result.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+                } catch (TimeoutException e) {
+                    // Started while waiting for a thread: give it its own full timeout
+                    if (startedAt == 0 && run.startedAt != 0) {
+                        continue;
+                    }
+                    run.giveUp();
+                    run.timings.putIfAbsent(run.name, widgetTimeoutMillis);
+                    LOGGER.log(Level.WARNING, "Dashboard widget {0} {1} after {2} ms", new Object[]{
+                            run.name, startedAt != 0 ? "timed out" : "found no free thread", widgetTimeoutMillis});
+                    return null;
+                }
+            }
+        } catch (ExecutionException e) {
+            LOGGER.log(Level.WARNING, "Dashboard widget " + run.name + " failed", e.getCause());
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            run.giveUp();
+            return null;
+        }
+    }
+    
+    /**
+     * A widget loader with the value shown when it is unavailable
+     */
+    private static final class Widget {
+        
+        private final Callable<Object> loader;
+        private final Object placeholder;
+        
+        private Widget(Callable<Object> loader, Object placeholder) {
+            this.loader = loader;
+            this.placeholder = placeholder;
+        }
+    }
+    
+    /**
+     * One load of a widget for one request.
+     * Whoever ends the run, the widget itself when it finishes or the request when it gives
+     * up on it, hands its slot to the next pending widget of the request, exactly once.
+     */
+    private final class WidgetRun {
+        
+        private static final int NEW = 0;
+        private static final int RUNNING = 1;
+        private static final int ENDED = 2;
+        
+        private final String name;
+        private final Callable<Object> loader;
+        private final Map<String, Long> timings;
+        private final Queue<WidgetRun> pending;
+        private final CompletableFuture<Object> result = new CompletableFuture<>();
+        private final AtomicInteger state = new AtomicInteger(NEW);
+        
+        private volatile long submittedAt;
+        private volatile long startedAt;
+        private volatile Future<?> task;
+        
+        private WidgetRun(String name, Callable<Object> loader, Map<String, Long> timings, Queue<WidgetRun> pending) {
+            this.name = name;
+            this.loader = loader;
+            this.timings = timings;
+            this.pending = pending;
+        }
+        
+        private void execute() {
+            if (!state.compareAndSet(NEW, RUNNING)) {
+                return;
+            }
+            long start = System.nanoTime();
+            startedAt = start;
+            try {
+                result.complete(loader.call());
+            } catch (Exception e) {
+                result.completeExceptionally(e);
+            } finally {
+                timings.put(name, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+                finish(true);
+            }
+        }
+        
+        private void giveUp() {
+            if (finish(false)) {
+                Future<?> submitted = task;
+                if (submitted != null) {
+                    submitted.cancel(true);
+                }
+            }
+        }
+        
+        private boolean finish(boolean fromTask) {
+            boolean ended = fromTask
+                    ? state.compareAndSet(RUNNING, ENDED)
+                    : state.compareAndSet(NEW, ENDED) || state.compareAndSet(RUNNING, ENDED);
+            if (ended) {
+                submitNext(pending);
+            }
+            return ended;
+        }
+    }
+    
+    /**
+     * Daemon threads so a stuck widget never prevents shutdown
+     */
+    private static final class WidgetThreadFactory implements ThreadFactory {
+        
+        private final AtomicInteger count = new AtomicInteger();
+        
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "dashboard-widget-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -1,34 +1,54 @@
 package com.scm.service.impl;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.TreeMap;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import javax.ejb.Stateless;
 import javax.inject.Inject;
+import javax.transaction.Transactional;
 
 import com.scm.dao.CustomerOrderDao;
+import com.scm.dao.DailySalesRollupDao;
 import com.scm.dao.ProductDao;
 import com.scm.dao.StockDao;
 import com.scm.dao.SupplierDao;
 import com.scm.dao.StockMovementDao;
+import com.scm.dao.util.Bulkhead;
+import com.scm.dao.util.CacheStatistics;
+import com.scm.dao.util.ConnectionPoolMetrics;
+import com.scm.dao.util.ReadOnly;
+import com.scm.dao.util.Workload;
 import com.scm.model.CustomerOrder;
+import com.scm.model.DailySalesRollup;
 import com.scm.model.Product;
-import com.scm.model.Stock;
 import com.scm.model.Supplier;
+import com.scm.model.dto.StockAlert;
 import com.scm.service.DashboardService;
-import com.scm.service.ProductService;
-import com.scm.service.StockService;
 import com.scm.service.exception.ServiceException;
+import com.scm.util.CsvWriter;
+import com.scm.util.AppConfig;
+import com.scm.util.ExpiringCache;
 
 /**
  * Implementation of DashboardService using EJB stateless session bean.
@@ -38,6 +58,14 @@ public class DashboardServiceImpl implements DashboardService {
     
     private static final Logger LOGGER = Logger.getLogger(DashboardServiceImpl.class.getName());
     
+    // Shared by all pooled instances; the dashboard asks for the same window on every load
+    private static final ExpiringCache<List<Object>, List<Map<String, Object>>> TOP_SELLING_CACHE =
+            new ExpiringCache<>(
+                    AppConfig.getBooleanProperty("cache.enabled", true)
+                            ? AppConfig.getLongProperty("dashboard.top-products.cache-ttl-seconds", 60) * 1000
+                            : 0,
+                    AppConfig.getIntProperty("cache.max-entries", 1000));
+    
     @Inject
     private CustomerOrderDao customerOrderDao;
     
@@ -54,12 +82,17 @@ public class DashboardServiceImpl implements DashboardService {
     private StockMovementDao stockMovementDao;
     
     @Inject
-    private ProductService productService;
+    private DailySalesRollupDao dailySalesRollupDao;
+    
+    @Inject
+    private CacheStatistics cacheStatistics;
     
     @Inject
-    private StockService stockService;
+    private InventoryKpiRegistry inventoryKpis;
     
     @Override
+    @ReadOnly(replica = true)
+    @Bulkhead(Workload.REPORTING)
     public Map<String, Object> getSalesStatistics(LocalDateTime startDate, LocalDateTime endDate) 
             throws ServiceException {
         try {
@@ -77,28 +110,22 @@ public class DashboardServiceImpl implements DashboardService {
             
             Map<String, Object> statistics = new HashMap<>();
             
-            // Get orders in date range
-            List<CustomerOrder> orders = customerOrderDao.findByDateRange(startDate, endDate);
-            
-            // Calculate statistics
-            BigDecimal totalSales = BigDecimal.ZERO;
-            int orderCount = orders.size();
-            BigDecimal averageOrderValue = BigDecimal.ZERO;
+            // Aggregate the orders in the date range in the database
+            BigDecimal totalSales = customerOrderDao.sumTotalAmountByDateRange(startDate, endDate);
+            Map<String, Long> ordersByStatus = new HashMap<>();
+            int orderCount = 0;
             
-            for (CustomerOrder order : orders) {
-                if (order.getTotalAmount() != null) {
-                    totalSales = totalSales.add(order.getTotalAmount());
-                }
+            for (Map.Entry<CustomerOrder.Status, Long> entry
+                    : customerOrderDao.countByStatusInDateRange(startDate, endDate).entrySet()) {
+                ordersByStatus.put(entry.getKey().name(), entry.getValue());
+                orderCount += entry.getValue().intValue();
             }
             
+            BigDecimal averageOrderValue = BigDecimal.ZERO;
             if (orderCount > 0) {
                 averageOrderValue = totalSales.divide(BigDecimal.valueOf(orderCount), 2, RoundingMode.HALF_UP);
             }
             
-            // Count orders by status
-            Map<String, Long> ordersByStatus = orders.stream()
-                    .collect(Collectors.groupingBy(order -> order.getStatus().name(), Collectors.counting()));
-            
             // Add statistics to the map
             statistics.put("totalSales", totalSales);
             statistics.put("orderCount", orderCount);
@@ -122,43 +149,46 @@ public class DashboardServiceImpl implements DashboardService {
     }
     
     @Override
+    @ReadOnly(replica = true)
+    @Bulkhead(Workload.REPORTING)
     public Map<String, Object> getInventoryStatistics() throws ServiceException {
         try {
             Map<String, Object> statistics = new HashMap<>();
             
-            // Get all products and stocks
-            List<Product> allProducts = productDao.findAll();
-            
-            // Count total products
-            statistics.put("totalProducts", allProducts.size());
-            
-            // Count low stock products
-            List<Product> lowStockProducts = productService.findLowStockProducts();
-            statistics.put("lowStockCount", lowStockProducts.size());
-            
-            // Count out of stock products
-            List<Product> outOfStockProducts = productService.findOutOfStockProducts();
-            statistics.put("outOfStockCount", outOfStockProducts.size());
+            // Value and alert counts of the stock, kept in memory once seeded
+            Object inventoryValue;
+            long outOfStockCount;
+            long lowStockCount;
+            if (inventoryKpis.isReady()) {
+                inventoryValue = inventoryKpis.getInventoryValue();
+                outOfStockCount = inventoryKpis.getOutOfStockCount();
+                lowStockCount = inventoryKpis.getLowStockCount();
+            } else {
+                Object[] stockTotals = productDao.findStockTotals();
+                inventoryValue = stockTotals[0];
+                outOfStockCount = toLong(stockTotals[1]);
+                lowStockCount = toLong(stockTotals[2]);
+            }
             
-            // Calculate inventory value
-            BigDecimal inventoryValue = getInventoryValuation();
             statistics.put("inventoryValue", inventoryValue);
+            statistics.put("outOfStockCount", outOfStockCount);
+            statistics.put("lowStockCount", lowStockCount);
+            // Products at or below their reorder level are the ones to reorder
+            statistics.put("productsNeedingReorder", lowStockCount);
+            
+            // Product counts by category, which also add up to the total
+            Map<String, Long> productsByCategory = new HashMap<>();
+            long totalProducts = 0;
+            for (Map.Entry<String, Long> entry : productDao.countByProductType().entrySet()) {
+                String category = entry.getKey() != null ? entry.getKey() : "Uncategorized";
+                productsByCategory.merge(category, entry.getValue(), Long::sum);
+                totalProducts += entry.getValue();
+            }
             
-            // Count products needing reorder
-            List<Stock> stocksNeedingReorder = stockService.getProductsNeedingReorder();
-            statistics.put("productsNeedingReorder", stocksNeedingReorder.size());
-            
-            // Calculate inventory metrics by category (assuming Product has a category field)
-            Map<String, Long> productsByCategory = allProducts.stream()
-                    .collect(Collectors.groupingBy(
-                            product -> product.getProductType() != null ? product.getProductType() : "Uncategorized",
-                            Collectors.counting()));
-            
+            statistics.put("totalProducts", totalProducts);
             statistics.put("productsByCategory", productsByCategory);
             
             return statistics;
-        } catch (ServiceException e) {
-            throw e;
         } catch (Exception e) {
             LOGGER.log(Level.SEVERE, "Error getting inventory statistics", e);
             throw new ServiceException("Failed to get inventory statistics", e);
@@ -166,6 +196,8 @@ public class DashboardServiceImpl implements DashboardService {
     }
     
     @Override
+    @ReadOnly(replica = true)
+    @Bulkhead(Workload.REPORTING)
     public Map<String, Object> getSupplierStatistics() throws ServiceException {
         try {
             Map<String, Object> statistics = new HashMap<>();
@@ -201,6 +233,8 @@ public class DashboardServiceImpl implements DashboardService {
     }
     
     @Override
+    @ReadOnly(replica = true)
+    @Bulkhead(Workload.REPORTING)
     public List<Map<String, Object>> getTopSellingProducts(
             LocalDateTime startDate, LocalDateTime endDate, int limit) 
             throws ServiceException {
@@ -221,13 +255,29 @@ public class DashboardServiceImpl implements DashboardService {
                 throw new ServiceException("Limit must be greater than zero");
             }
             
-            // Since findTopSellingProducts doesn't exist, we'll implement a workaround
-            List<Map<String, Object>> result = new ArrayList<>();
+            // Round the window to the minute so that repeated loads share a cache entry
+            LocalDateTime windowStart = startDate.truncatedTo(ChronoUnit.MINUTES);
+            LocalDateTime windowEnd = endDate.truncatedTo(ChronoUnit.MINUTES);
+            List<Object> cacheKey = Arrays.asList(windowStart, windowEnd, limit);
             
-            // In a real implementation, this would query the database for top selling products
-            // For now, we'll return an empty list
-            LOGGER.log(Level.WARNING, "findTopSellingProducts method not implemented in CustomerOrderDao");
+            List<Map<String, Object>> result = TOP_SELLING_CACHE.get(cacheKey);
+            if (result != null) {
+                return result;
+            }
             
+            result = new ArrayList<>();
+            for (Object[] row : customerOrderDao.findTopSellingProducts(windowStart, windowEnd, limit)) {
+                Map<String, Object> product = new LinkedHashMap<>();
+                product.put("productId", row[0]);
+                product.put("name", row[1]);
+                product.put("sku", row[2]);
+                product.put("quantity", row[3]);
+                product.put("revenue", row[4]);
+                result.add(Collections.unmodifiableMap(product));
+            }
+            
+            result = Collections.unmodifiableList(result);
+            TOP_SELLING_CACHE.put(cacheKey, result);
             return result;
         } catch (ServiceException e) {
             throw e;
@@ -238,6 +288,8 @@ public class DashboardServiceImpl implements DashboardService {
     }
     
     @Override
+    @ReadOnly(replica = true)
+    @Bulkhead(Workload.REPORTING)
     public List<Map<String, Object>> getSalesByTimePeriod(
             LocalDateTime startDate, LocalDateTime endDate, String groupBy) 
             throws ServiceException {
@@ -264,14 +316,34 @@ public class DashboardServiceImpl implements DashboardService {
                 throw new ServiceException("Group by parameter must be one of: day, week, month, year");
             }
             
-            // Since findSalesByTimePeriod doesn't exist, we'll implement a workaround
-            List<Map<String, Object>> result = new ArrayList<>();
+            // Build one empty bucket per period so the chart has no gaps
+            LocalDate firstDay = startDate.toLocalDate();
+            LocalDate lastDay = endDate.toLocalDate();
+            Map<LocalDate, Map<String, Object>> buckets = new TreeMap<>();
+            for (LocalDate period = getPeriodStart(firstDay, groupBy); !period.isAfter(lastDay);
+                    period = getNextPeriodStart(period, groupBy)) {
+                Map<String, Object> bucket = new HashMap<>();
+                bucket.put("date", period);
+                bucket.put("amount", BigDecimal.ZERO);
+                bucket.put("orderCount", 0);
+                bucket.put("itemCount", 0);
+                bucket.put("ordersByStatus", new HashMap<String, Integer>());
+                buckets.put(period, bucket);
+            }
             
-            // In a real implementation, this would query the database for sales by time period
-            // For now, we'll return an empty list
-            LOGGER.log(Level.WARNING, "findSalesByTimePeriod method not implemented in CustomerOrderDao");
+            // Fold the daily rollup rows into their period
+            for (DailySalesRollup row : dailySalesRollupDao.findByDateRange(firstDay, lastDay)) {
+                Map<String, Object> bucket = buckets.get(getPeriodStart(row.getSalesDate(), groupBy));
+                bucket.put("amount", ((BigDecimal) bucket.get("amount")).add(row.getRevenue()));
+                bucket.put("orderCount", (Integer) bucket.get("orderCount") + row.getOrderCount());
+                bucket.put("itemCount", (Integer) bucket.get("itemCount") + row.getItemCount());
+                
+                @SuppressWarnings("unchecked")
+                Map<String, Integer> ordersByStatus = (Map<String, Integer>) bucket.get("ordersByStatus");
+                ordersByStatus.merge(row.getStatus().name(), row.getOrderCount(), Integer::sum);
+            }
             
-            return result;
+            return new ArrayList<>(buckets.values());
         } catch (ServiceException e) {
             throw e;
         } catch (Exception e) {
@@ -281,6 +353,52 @@ public class DashboardServiceImpl implements DashboardService {
     }
     
     @Override
+    @Transactional
+    @Bulkhead(Workload.BATCH)
+    public int rebuildSalesRollup() throws ServiceException {
+        try {
+            int rows = dailySalesRollupDao.rebuild();
+            LOGGER.log(Level.INFO, "Daily sales rollup rebuilt with {0} rows", rows);
+            return rows;
+        } catch (Exception e) {
+            LOGGER.log(Level.SEVERE, "Error rebuilding daily sales rollup", e);
+            throw new ServiceException("Failed to rebuild daily sales rollup", e);
+        }
+    }
+    
+    @Override
+    public List<Map<String, Object>> getCacheStatistics() throws ServiceException {
+        try {
+            return cacheStatistics.getRegionStatistics();
+        } catch (Exception e) {
+            LOGGER.log(Level.SEVERE, "Error reading cache statistics", e);
+            throw new ServiceException("Failed to get cache statistics", e);
+        }
+    }
+    
+    @Override
+    public Map<String, Object> getQueryPlanStatistics() throws ServiceException {
+        try {
+            return cacheStatistics.getQueryPlanStatistics();
+        } catch (Exception e) {
+            LOGGER.log(Level.SEVERE, "Error reading query plan statistics", e);
+            throw new ServiceException("Failed to get query plan statistics", e);
+        }
+    }
+    
+    @Override
+    public List<Map<String, Object>> getConnectionPoolStatistics() throws ServiceException {
+        try {
+            return ConnectionPoolMetrics.getPoolStatistics();
+        } catch (Exception e) {
+            LOGGER.log(Level.SEVERE, "Error reading connection pool statistics", e);
+            throw new ServiceException("Failed to get connection pool statistics", e);
+        }
+    }
+    
+    @Override
+    @ReadOnly(replica = true)
+    @Bulkhead(Workload.REPORTING)
     public List<Map<String, Object>> getRecentActivity(int limit) throws ServiceException {
         try {
             if (limit <= 0) {
@@ -315,6 +433,8 @@ public class DashboardServiceImpl implements DashboardService {
     }
     
     @Override
+    @ReadOnly(replica = true)
+    @Bulkhead(Workload.REPORTING)
     public Map<String, BigDecimal> getSalesByCategory(LocalDateTime startDate, LocalDateTime endDate) 
             throws ServiceException {
         try {
@@ -347,6 +467,8 @@ public class DashboardServiceImpl implements DashboardService {
     }
     
     @Override
+    @ReadOnly(replica = true)
+    @Bulkhead(Workload.REPORTING)
     public List<CustomerOrder> getOrdersRequiringAttention() throws ServiceException {
         try {
             List<CustomerOrder> ordersRequiringAttention = new ArrayList<>();
@@ -368,20 +490,11 @@ public class DashboardServiceImpl implements DashboardService {
     }
     
     @Override
-    public List<Product> getStockAlerts() throws ServiceException {
+    @ReadOnly(replica = true)
+    @Bulkhead(Workload.REPORTING)
+    public List<StockAlert> getStockAlerts() throws ServiceException {
         try {
-            List<Product> alerts = new ArrayList<>();
-            
-            // Get out of stock products
-            alerts.addAll(productService.findOutOfStockProducts());
-            
-            // Get low stock products
-            alerts.addAll(productService.findLowStockProducts());
-            
-            // Remove duplicates and return
-            return alerts.stream().distinct().collect(Collectors.toList());
-        } catch (ServiceException e) {
-            throw e;
+            return productDao.findStockAlerts();
         } catch (Exception e) {
             LOGGER.log(Level.SEVERE, "Error getting stock alerts", e);
             throw new ServiceException("Failed to get stock alerts", e);
@@ -389,6 +502,8 @@ public class DashboardServiceImpl implements DashboardService {
     }
     
     @Override
+    @ReadOnly(replica = true)
+    @Bulkhead(Workload.REPORTING)
     public Map<Supplier, Map<String, Object>> getSupplierPerformanceMetrics(Integer supplierId) 
             throws ServiceException {
         try {
@@ -443,22 +558,14 @@ public class DashboardServiceImpl implements DashboardService {
     }
     
     @Override
+    @ReadOnly(replica = true)
+    @Bulkhead(Workload.REPORTING)
     public BigDecimal getInventoryValuation() throws ServiceException {
         try {
-            BigDecimal totalValue = BigDecimal.ZERO;
-            
-            // Get all products with stock information
-            List<Product> products = productDao.findAll();
-            
-            for (Product product : products) {
-                if (product.getStock() != null && product.getUnitPrice() != null) {
-                    BigDecimal productValue = product.getUnitPrice()
-                            .multiply(BigDecimal.valueOf(product.getStock().getQuantityAvailable()));
-                    totalValue = totalValue.add(productValue);
-                }
+            if (inventoryKpis.isReady()) {
+                return inventoryKpis.getInventoryValue();
             }
-            
-            return totalValue;
+            return (BigDecimal) productDao.findStockTotals()[0];
         } catch (Exception e) {
             LOGGER.log(Level.SEVERE, "Error calculating inventory valuation", e);
             throw new ServiceException("Failed to calculate inventory valuation", e);
@@ -466,7 +573,9 @@ public class DashboardServiceImpl implements DashboardService {
     }
     
     @Override
-    public byte[] generateSalesReport(LocalDateTime startDate, LocalDateTime endDate, String format) 
+    @ReadOnly(replica = true)
+    @Bulkhead(Workload.REPORTING)
+    public void writeSalesReport(LocalDateTime startDate, LocalDateTime endDate, String format, OutputStream out) 
             throws ServiceException {
         try {
             if (startDate == null) {
@@ -481,118 +590,167 @@ public class DashboardServiceImpl implements DashboardService {
                 throw new ServiceException("Start date cannot be after end date");
             }
             
-            if (format == null || format.isEmpty()) {
-                throw new ServiceException("Format cannot be empty");
-            }
+            String reportFormat = checkReportFormat(format);
             
             // In a real implementation, this would generate a report using a reporting library
             // For now, we'll just create a simple representation
             
-            StringBuilder report = new StringBuilder();
-            
-            // Get orders in date range
-            List<CustomerOrder> orders = customerOrderDao.findByDateRange(startDate, endDate);
-            
-            // Get sales statistics
-            Map<String, Object> statistics = getSalesStatistics(startDate, endDate);
+            CsvWriter report = new CsvWriter(out);
             
             // Generate report content based on format
-            switch (format.toUpperCase()) {
+            switch (reportFormat) {
                 case "PDF":
                     // In a real implementation, generate PDF
-                    report.append("PDF Sales Report from ")
-                          .append(startDate)
-                          .append(" to ")
-                          .append(endDate)
-                          .append("\n\n");
+                    report.writeLine("PDF Sales Report from " + startDate + " to " + endDate);
                     break;
                 case "CSV":
-                    // In a real implementation, generate CSV
-                    report.append("OrderID,Date,Customer,Total\n");
-                    for (CustomerOrder order : orders) {
-                        report.append(order.getId())
-                              .append(",")
-                              .append(order.getOrderDate())
-                              .append(",")
-                              .append(order.getCustomerName())
-                              .append(",")
-                              .append(order.getTotalAmount())
-                              .append("\n");
+                    report.writeRow("OrderID", "Date", "Customer", "Total");
+                    // Forward-only cursor: each order is written and detached before the next is read
+                    try (Stream<CustomerOrder> orders = customerOrderDao.streamByDateRange(
+                            startDate, endDate, CustomerOrderDao.STREAMING_FETCH_SIZE)) {
+                        Iterator<CustomerOrder> iterator = orders.iterator();
+                        while (iterator.hasNext()) {
+                            CustomerOrder order = iterator.next();
+                            report.writeRow(order.getId(), order.getOrderDate(), order.getCustomerName(),
+                                    order.getTotalAmount());
+                        }
                     }
                     break;
                 default:
                     throw new ServiceException("Unsupported format: " + format);
             }
             
-            // Return the report as bytes
-            return report.toString().getBytes();
+            report.flush();
         } catch (ServiceException e) {
             throw e;
         } catch (Exception e) {
-            LOGGER.log(Level.SEVERE, "Error generating sales report", e);
-            throw new ServiceException("Failed to generate sales report", e);
+            LOGGER.log(Level.SEVERE, "Error writing sales report", e);
+            throw new ServiceException("Failed to write sales report", e);
         }
     }
     
     @Override
-    public byte[] generateInventoryReport(String format) throws ServiceException {
+    @ReadOnly(replica = true)
+    @Bulkhead(Workload.REPORTING)
+    public void writeInventoryReport(String format, OutputStream out) throws ServiceException {
         try {
-            if (format == null || format.isEmpty()) {
-                throw new ServiceException("Format cannot be empty");
-            }
+            String reportFormat = checkReportFormat(format);
             
             // In a real implementation, this would generate a report using a reporting library
             // For now, we'll just create a simple representation
             
-            StringBuilder report = new StringBuilder();
-            
-            // Get all products with stock information
-            List<Product> products = productDao.findAll();
+            CsvWriter report = new CsvWriter(out);
             
             // Generate report content based on format
-            switch (format.toUpperCase()) {
+            switch (reportFormat) {
                 case "PDF":
                     // In a real implementation, generate PDF
-                    report.append("PDF Inventory Report as of ")
-                          .append(LocalDateTime.now())
-                          .append("\n\n");
+                    report.writeLine("PDF Inventory Report as of " + LocalDateTime.now());
                     break;
                 case "CSV":
-                    // In a real implementation, generate CSV
-                    report.append("ProductID,SKU,Name,InStock,ReorderLevel,UnitPrice,Value\n");
-                    for (Product product : products) {
-                        int quantity = (product.getStock() != null) ? product.getStock().getQuantityAvailable() : 0;
-                        BigDecimal value = (product.getUnitPrice() != null) 
-                                ? product.getUnitPrice().multiply(BigDecimal.valueOf(quantity))
-                                : BigDecimal.ZERO;
-                        
-                        report.append(product.getId())
-                              .append(",")
-                              .append(product.getSku())
-                              .append(",")
-                              .append(product.getName())
-                              .append(",")
-                              .append(quantity)
-                              .append(",")
-                              .append(product.getReorderLevel())
-                              .append(",")
-                              .append(product.getUnitPrice())
-                              .append(",")
-                              .append(value)
-                              .append("\n");
+                    report.writeRow("ProductID", "SKU", "Name", "InStock", "ReorderLevel", "UnitPrice", "Value");
+                    // Forward-only cursor over the products with their stock, detached one by one
+                    try (Stream<Product> products = productDao.streamAll(ProductDao.STREAMING_FETCH_SIZE)) {
+                        Iterator<Product> iterator = products.iterator();
+                        while (iterator.hasNext()) {
+                            writeInventoryLine(report, iterator.next());
+                        }
                     }
                     break;
                 default:
                     throw new ServiceException("Unsupported format: " + format);
             }
             
-            // Return the report as bytes
-            return report.toString().getBytes();
+            report.flush();
         } catch (ServiceException e) {
             throw e;
         } catch (Exception e) {
-            LOGGER.log(Level.SEVERE, "Error generating inventory report", e);
-            throw new ServiceException("Failed to generate inventory report", e);
+            LOGGER.log(Level.SEVERE, "Error writing inventory report", e);
+            throw new ServiceException("Failed to write inventory report", e);
         }
     }
-} 
\ No newline at end of file
+    
+    /**
+     * Check a report format before anything is written, so an unsupported format is
+     * reported while the response can still show an error page
+     * 
+     * @param format Requested format
+     * @return Format in upper case
+     * @throws ServiceException if the format is empty or not supported
+     */
+    private String checkReportFormat(String format) throws ServiceException {
+        if (format == null || format.isEmpty()) {
+            throw new ServiceException("Format cannot be empty");
+        }
+        
+        String reportFormat = format.toUpperCase();
+        if (!REPORT_FORMATS.contains(reportFormat)) {
+            throw new ServiceException("Unsupported format: " + format);
+        }
+        return reportFormat;
+    }
+    
+    /**
+     * Write one product line of the CSV inventory report
+     * 
+     * @param report Report being written
+     * @param product Product with its stock loaded
+     * @throws IOException if the report cannot be written
+     */
+    private void writeInventoryLine(CsvWriter report, Product product) throws IOException {
+        int quantity = (product.getStock() != null) ? product.getStock().getQuantityAvailable() : 0;
+        BigDecimal value = (product.getUnitPrice() != null) 
+                ? product.getUnitPrice().multiply(BigDecimal.valueOf(quantity))
+                : BigDecimal.ZERO;
+        
+        report.writeRow(product.getId(), product.getSku(), product.getName(), quantity,
+                product.getReorderLevel(), product.getUnitPrice(), value);
+    }
+    
+    /**
+     * Get the first day of the period containing a day
+     * 
+     * @param day The day
+     * @param groupBy Period (day, week, month, year)
+     * @return First day of the period; weeks start on Monday
+     */
+    private LocalDate getPeriodStart(LocalDate day, String groupBy) {
+        switch (groupBy) {
+            case "week":
+                return day.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+            case "month":
+                return day.withDayOfMonth(1);
+            case "year":
+                return day.withDayOfYear(1);
+            default:
+                return day;
+        }
+    }
+    
+    /**
+     * Get the first day of the period following the one starting on a day
+     * 
+     * @param periodStart First day of a period
+     * @param groupBy Period (day, week, month, year)
+     * @return First day of the next period
+     */
+    private LocalDate getNextPeriodStart(LocalDate periodStart, String groupBy) {
+        switch (groupBy) {
+            case "week":
+                return periodStart.plusWeeks(1);
+            case "month":
+                return periodStart.plusMonths(1);
+            case "year":
+                return periodStart.plusYears(1);
+            default:
+                return periodStart.plusDays(1);
+        }
+    }
+    
+    /**
+     * Read a count from an aggregate query, where SUM over no rows is null
+     */
+    private static long toLong(Object count) {
+        return count != null ? ((Number) count).longValue() : 0;
+    }
+}
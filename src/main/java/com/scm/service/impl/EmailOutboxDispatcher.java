@@ -0,0 +1,175 @@
+package com.scm.service.impl;
+
+import java.lang.management.ManagementFactory;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.annotation.PreDestroy;
+import javax.enterprise.context.ApplicationScoped;
+import javax.enterprise.context.Initialized;
+import javax.enterprise.event.Observes;
+import javax.inject.Inject;
+import javax.mail.MessagingException;
+
+import com.scm.model.OutboundEmail;
+import com.scm.service.EmailService;
+import com.scm.service.exception.ServiceException;
+import com.scm.util.AppConfig;
+import com.scm.util.EmailUtil;
+import com.scm.util.EmailUtil.MailConnection;
+
+/**
+ * Sends the emails of the outbox on a background thread.
+ * Every mail.outbox.poll-interval-seconds, and right after a transaction queued an email,
+ * the due emails are sent in batches of mail.outbox.batch-size over one SMTP connection,
+ * which is kept open until the outbox is drained. A batch is claimed in one short
+ * transaction, sent outside any transaction, and its results are recorded in a second
+ * short transaction, so no row stays locked while the mail server is talked to.
+ * An email is sent at least once: when the dispatcher dies between sending and recording,
+ * the lease of the batch (mail.outbox.lease-seconds) expires and the email is sent again.
+ * Sent emails are deleted after mail.outbox.retention-days; DEAD ones are kept.
+ */
+@ApplicationScoped
+public class EmailOutboxDispatcher {
+    
+    private static final Logger LOGGER = Logger.getLogger(EmailOutboxDispatcher.class.getName());
+    
+    @Inject
+    private EmailService emailService;
+    
+    /**
+     * Name under which this dispatcher claims emails; unique per JVM and deployment
+     */
+    private final String owner = ManagementFactory.getRuntimeMXBean().getName() + "/"
+            + UUID.randomUUID().toString().substring(0, 8);
+    
+    private final AtomicBoolean drainRequested = new AtomicBoolean();
+    private ScheduledExecutorService scheduler;
+    private int batchSize;
+    
+    /**
+     * Start polling the outbox together with the application
+     * 
+     * @param event Initialization of the application scope
+     */
+    public void start(@Observes @Initialized(ApplicationScoped.class) Object event) {
+        long intervalSeconds = AppConfig.getLongProperty("mail.outbox.poll-interval-seconds", 10);
+        long retentionDays = AppConfig.getLongProperty("mail.outbox.retention-days", 7);
+        batchSize = Math.max(1, AppConfig.getIntProperty("mail.outbox.batch-size", 50));
+        if (intervalSeconds <= 0) {
+            LOGGER.log(Level.INFO, "Email outbox dispatcher is disabled");
+            return;
+        }
+        
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "email-outbox-dispatcher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::drainQuietly, intervalSeconds, intervalSeconds, TimeUnit.SECONDS);
+        if (retentionDays > 0) {
+            scheduler.scheduleWithFixedDelay(() -> purgeQuietly(retentionDays), 1, 1, TimeUnit.HOURS);
+        }
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+    
+    /**
+     * Drain the outbox as soon as the dispatcher thread is free; requests made while a drain
+     * is already waiting to start are merged into it
+     */
+    public void requestDrain() {
+        if (scheduler != null && drainRequested.compareAndSet(false, true)) {
+            scheduler.execute(this::drainQuietly);
+        }
+    }
+    
+    /**
+     * Send the due emails, batch after batch, until none is left
+     * 
+     * @return Number of emails attempted
+     * @throws ServiceException if the mail server cannot be reached or the outbox cannot be read
+     */
+    public int drain() throws ServiceException {
+        int attempted = 0;
+        try (MailConnection connection = EmailUtil.openConnection()) {
+            List<OutboundEmail> batch;
+            do {
+                batch = emailService.claimDueEmails(owner, batchSize);
+                if (!batch.isEmpty()) {
+                    send(connection, batch);
+                    attempted += batch.size();
+                }
+            } while (batch.size() == batchSize);
+        }
+        return attempted;
+    }
+    
+    /**
+     * Send a claimed batch, outside any transaction, and record the results
+     */
+    private void send(MailConnection connection, List<OutboundEmail> batch) throws ServiceException {
+        List<Integer> ids = new ArrayList<>(batch.size());
+        for (OutboundEmail email : batch) {
+            ids.add(email.getId());
+        }
+        
+        // Nothing can be sent without the server; hand the batch back for the next run
+        try {
+            connection.connect();
+        } catch (MessagingException e) {
+            emailService.releaseEmails(owner, ids);
+            throw new ServiceException("Mail server is not reachable", e);
+        }
+        
+        List<Integer> sentIds = new ArrayList<>(batch.size());
+        Map<Integer, MessagingException> failures = new HashMap<>();
+        for (OutboundEmail email : batch) {
+            try {
+                connection.send(email.getRecipient(), email.getCc(), email.getBcc(),
+                        email.getSubject(), email.getBody(), email.isHtml());
+                sentIds.add(email.getId());
+            } catch (MessagingException e) {
+                failures.put(email.getId(), e);
+            }
+        }
+        
+        emailService.recordDeliveries(owner, sentIds, failures);
+    }
+    
+    private void drainQuietly() {
+        drainRequested.set(false);
+        try {
+            drain();
+        } catch (ServiceException | RuntimeException e) {
+            // Keep the schedule alive; the emails stay due and are picked up by the next run
+            LOGGER.log(Level.SEVERE, "Email outbox dispatch failed", e);
+        }
+    }
+    
+    private void purgeQuietly(long retentionDays) {
+        try {
+            int purged = emailService.purgeSentEmails(LocalDateTime.now().minusDays(retentionDays));
+            if (purged > 0) {
+                LOGGER.log(Level.INFO, "Purged {0} sent emails from the outbox", purged);
+            }
+        } catch (ServiceException | RuntimeException e) {
+            LOGGER.log(Level.SEVERE, "Email outbox purge failed", e);
+        }
+    }
+}
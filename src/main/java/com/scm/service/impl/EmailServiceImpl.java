@@ -0,0 +1,219 @@
+package com.scm.service.impl;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.ejb.Stateless;
+import javax.inject.Inject;
+import javax.mail.MessagingException;
+import javax.transaction.Transactional;
+
+import com.scm.dao.OutboundEmailDao;
+import com.scm.dao.util.Bulkhead;
+import com.scm.dao.util.ReadOnly;
+import com.scm.dao.util.TransactionCallbacks;
+import com.scm.dao.util.Workload;
+import com.scm.model.OutboundEmail;
+import com.scm.service.EmailService;
+import com.scm.service.exception.ServiceException;
+import com.scm.service.exception.ValidationException;
+import com.scm.util.AppConfig;
+import com.scm.util.EmailUtil;
+
+/**
+ * Implementation of EmailService using EJB stateless session bean.
+ */
+@Stateless
+public class EmailServiceImpl implements EmailService {
+    
+    private static final Logger LOGGER = Logger.getLogger(EmailServiceImpl.class.getName());
+    
+    private static final int MAX_ATTEMPTS = Math.max(1, AppConfig.getIntProperty("mail.outbox.max-attempts", 8));
+    private static final long INITIAL_BACKOFF_SECONDS = AppConfig.getLongProperty("mail.outbox.initial-backoff-seconds", 60);
+    private static final long MAX_BACKOFF_SECONDS = AppConfig.getLongProperty("mail.outbox.max-backoff-seconds", 3600);
+    private static final long LEASE_SECONDS = Math.max(1, AppConfig.getLongProperty("mail.outbox.lease-seconds", 300));
+    
+    /**
+     * Length of the last_error column
+     */
+    private static final int MAX_ERROR_LENGTH = 1000;
+    
+    @Inject
+    private OutboundEmailDao outboundEmailDao;
+    
+    @Inject
+    private EmailOutboxDispatcher outboxDispatcher;
+    
+    @Override
+    @Transactional
+    public OutboundEmail queueEmail(String to, String subject, String body) throws ValidationException, ServiceException {
+        return queueEmail(to, null, null, subject, body, true);
+    }
+    
+    @Override
+    @Transactional
+    public OutboundEmail queueEmail(String to, String cc, String bcc, String subject, String body, boolean isHtml)
+            throws ValidationException, ServiceException {
+        try {
+            Map<String, String> errors = new HashMap<>();
+            if (to == null || to.trim().isEmpty()) {
+                errors.put("to", "Recipient cannot be empty");
+            }
+            if (subject == null || subject.trim().isEmpty()) {
+                errors.put("subject", "Subject cannot be empty");
+            }
+            if (body == null) {
+                errors.put("body", "Body cannot be null");
+            }
+            if (!errors.isEmpty()) {
+                throw new ValidationException("Email validation failed", errors);
+            }
+            
+            OutboundEmail email = new OutboundEmail(to, subject, body, isHtml);
+            email.setCc(cc);
+            email.setBcc(bcc);
+            OutboundEmail savedEmail = outboundEmailDao.save(email);
+            
+            // Send soon after the commit instead of waiting for the next poll
+            TransactionCallbacks.afterCommit(outboxDispatcher::requestDrain);
+            
+            return savedEmail;
+        } catch (ServiceException e) {
+            throw e;
+        } catch (Exception e) {
+            LOGGER.log(Level.SEVERE, "Error queueing email", e);
+            throw new ServiceException("Failed to queue email", e);
+        }
+    }
+    
+    @Override
+    @Transactional
+    @Bulkhead(Workload.BATCH)
+    public List<OutboundEmail> claimDueEmails(String owner, int batchSize) throws ServiceException {
+        try {
+            // The rows stay locked only until this claim commits; sending happens afterwards
+            LocalDateTime now = LocalDateTime.now();
+            List<OutboundEmail> emails = outboundEmailDao.findDueForUpdate(now, batchSize);
+            for (OutboundEmail email : emails) {
+                if (email.getStatus() == OutboundEmail.Status.SENDING) {
+                    LOGGER.log(Level.WARNING, "Lease of {0} on email {1} expired, claiming it again",
+                            new Object[]{email.getClaimedBy(), email.getId()});
+                }
+                email.setStatus(OutboundEmail.Status.SENDING);
+                email.setClaimedBy(owner);
+                email.setLeaseExpiresAt(now.plusSeconds(LEASE_SECONDS));
+            }
+            return emails;
+        } catch (Exception e) {
+            LOGGER.log(Level.SEVERE, "Error claiming emails", e);
+            throw new ServiceException("Failed to claim emails", e);
+        }
+    }
+    
+    @Override
+    @Transactional
+    @Bulkhead(Workload.BATCH)
+    public void recordDeliveries(String owner, Collection<Integer> sentIds, Map<Integer, MessagingException> failures)
+            throws ServiceException {
+        try {
+            List<Integer> ids = new ArrayList<>(sentIds);
+            ids.addAll(failures.keySet());
+            LocalDateTime now = LocalDateTime.now();
+            
+            List<OutboundEmail> emails = outboundEmailDao.findClaimed(owner, ids);
+            if (emails.size() < ids.size()) {
+                LOGGER.log(Level.WARNING, "{0} of {1} emails were claimed by another dispatcher before their results were recorded",
+                        new Object[]{ids.size() - emails.size(), ids.size()});
+            }
+            
+            for (OutboundEmail email : emails) {
+                email.setAttempts(email.getAttempts() + 1);
+                email.setClaimedBy(null);
+                email.setLeaseExpiresAt(null);
+                
+                MessagingException failure = failures.get(email.getId());
+                if (failure == null) {
+                    email.setStatus(OutboundEmail.Status.SENT);
+                    email.setSentAt(now);
+                    email.setLastError(null);
+                } else {
+                    email.setStatus(OutboundEmail.Status.PENDING);
+                    recordFailure(email, failure, now);
+                }
+            }
+        } catch (Exception e) {
+            LOGGER.log(Level.SEVERE, "Error recording email deliveries", e);
+            throw new ServiceException("Failed to record email deliveries", e);
+        }
+    }
+    
+    @Override
+    @Transactional
+    @Bulkhead(Workload.BATCH)
+    public void releaseEmails(String owner, Collection<Integer> ids) throws ServiceException {
+        try {
+            for (OutboundEmail email : outboundEmailDao.findClaimed(owner, ids)) {
+                email.setStatus(OutboundEmail.Status.PENDING);
+                email.setClaimedBy(null);
+                email.setLeaseExpiresAt(null);
+            }
+        } catch (Exception e) {
+            LOGGER.log(Level.SEVERE, "Error releasing emails", e);
+            throw new ServiceException("Failed to release emails", e);
+        }
+    }
+    
+    @Override
+    @Transactional
+    @Bulkhead(Workload.BATCH)
+    public int purgeSentEmails(LocalDateTime before) throws ServiceException {
+        try {
+            return outboundEmailDao.deleteSentBefore(before);
+        } catch (Exception e) {
+            LOGGER.log(Level.SEVERE, "Error purging sent emails", e);
+            throw new ServiceException("Failed to purge sent emails", e);
+        }
+    }
+    
+    @Override
+    @ReadOnly
+    public Map<String, Long> getOutboxStatistics() throws ServiceException {
+        try {
+            Map<String, Long> counts = outboundEmailDao.countByStatus();
+            Map<String, Long> statistics = new LinkedHashMap<>();
+            for (OutboundEmail.Status status : OutboundEmail.Status.values()) {
+                statistics.put(status.name(), counts.getOrDefault(status.name(), 0L));
+            }
+            return statistics;
+        } catch (Exception e) {
+            LOGGER.log(Level.SEVERE, "Error counting outbox emails", e);
+            throw new ServiceException("Failed to count outbox emails", e);
+        }
+    }
+    
+    /**
+     * Reschedule a failed email, or give up on it when retrying cannot help or it ran out of attempts
+     */
+    private void recordFailure(OutboundEmail email, MessagingException e, LocalDateTime now) {
+        String error = String.valueOf(e.getMessage());
+        email.setLastError(error.length() > MAX_ERROR_LENGTH ? error.substring(0, MAX_ERROR_LENGTH) : error);
+        
+        if (EmailUtil.isPermanentFailure(e) || email.getAttempts() >= MAX_ATTEMPTS) {
+            email.setStatus(OutboundEmail.Status.DEAD);
+            LOGGER.log(Level.WARNING, "Giving up on email {0} to {1} after {2} attempts: {3}",
+                    new Object[]{email.getId(), email.getRecipient(), email.getAttempts(), error});
+        } else {
+            long backoff = Math.min(MAX_BACKOFF_SECONDS, INITIAL_BACKOFF_SECONDS << Math.min(email.getAttempts() - 1, 20));
+            email.setNextAttemptAt(now.plusSeconds(backoff));
+            LOGGER.log(Level.INFO, "Email {0} to {1} failed (attempt {2} of {3}), retrying in {4} s: {5}",
+                    new Object[]{email.getId(), email.getRecipient(), email.getAttempts(), MAX_ATTEMPTS, backoff, error});
+        }
+    }
+}
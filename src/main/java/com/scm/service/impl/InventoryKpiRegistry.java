@@ -0,0 +1,330 @@
+package com.scm.service.impl;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.UnaryOperator;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.annotation.PreDestroy;
+import javax.enterprise.context.ApplicationScoped;
+import javax.enterprise.context.Initialized;
+import javax.enterprise.event.Observes;
+import javax.inject.Inject;
+
+import com.scm.service.ProductService;
+import com.scm.service.event.DomainEventBus;
+import com.scm.service.event.PriceChanged;
+import com.scm.service.event.ProductRemoved;
+import com.scm.service.event.ReorderLevelChanged;
+import com.scm.service.event.StockChanged;
+import com.scm.service.exception.ServiceException;
+import com.scm.util.AppConfig;
+
+/**
+ * Keeps the inventory KPIs of the dashboard in memory, so reading them costs no query.
+ * Seeded from the database when the application starts, then updated from the stock,
+ * price and reorder level events of the services, which the event bus delivers after
+ * commit. The stock level of every product is kept next to the counters, so each event
+ * moves the counters by the difference it makes.
+ * 
+ * Changes made without an event, e.g. directly in the database, leave the counters off;
+ * every inventory.kpi.reconcile-interval-minutes the levels are read again and any
+ * product that drifted is corrected. Every change is stamped with a sequence number, so
+ * a product changed by an event after the reconciliation started keeps the newer levels
+ * instead of being set back to the snapshot.
+ */
+@ApplicationScoped
+public class InventoryKpiRegistry {
+    
+    private static final Logger LOGGER = Logger.getLogger(InventoryKpiRegistry.class.getName());
+    
+    /**
+     * Levels of a product without a stock record: counted nowhere until stock is recorded
+     */
+    private static final StockLevel NO_STOCK = new StockLevel(null, 0, 0, 0);
+    
+    @Inject
+    private ProductService productService;
+    
+    @Inject
+    private DomainEventBus eventBus;
+    
+    private final Map<Integer, StockLevel> levels = new ConcurrentHashMap<>();
+    private final AtomicLong changeSequence = new AtomicLong();
+    private final LongAdder outOfStockCount = new LongAdder();
+    private final LongAdder lowStockCount = new LongAdder();
+    private final LongAdder inventoryValueCents = new LongAdder();
+    private volatile boolean ready;
+    
+    private ScheduledExecutorService scheduler;
+    
+    /**
+     * Subscribe to the inventory events, seed the counters and start the reconciliation
+     * together with the application
+     * 
+     * @param event Initialization of the application scope
+     */
+    public void start(@Observes @Initialized(ApplicationScoped.class) Object event) {
+        // Subscribe first, so no change between the seeding read and the subscription is missed
+        eventBus.subscribe(StockChanged.class, this::onStockChanged);
+        eventBus.subscribe(PriceChanged.class, this::onPriceChanged);
+        eventBus.subscribe(ReorderLevelChanged.class, this::onReorderLevelChanged);
+        eventBus.subscribe(ProductRemoved.class, this::onProductRemoved);
+        reconcileQuietly();
+        
+        long intervalMinutes = AppConfig.getLongProperty("inventory.kpi.reconcile-interval-minutes", 15);
+        if (intervalMinutes <= 0) {
+            return;
+        }
+        
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "inventory-kpi-reconciler");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::reconcileQuietly, intervalMinutes, intervalMinutes, TimeUnit.MINUTES);
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+    
+    /**
+     * Check whether the counters have been seeded
+     * 
+     * @return true once the first reconciliation completed
+     */
+    public boolean isReady() {
+        return ready;
+    }
+    
+    /**
+     * Get the number of products with nothing left in stock
+     * 
+     * @return Out of stock count
+     */
+    public long getOutOfStockCount() {
+        return outOfStockCount.sum();
+    }
+    
+    /**
+     * Get the number of products at or below their reorder level
+     * 
+     * @return Low stock count
+     */
+    public long getLowStockCount() {
+        return lowStockCount.sum();
+    }
+    
+    /**
+     * Get the value of the stock: unit price times quantity available, over all products
+     * 
+     * @return Inventory value
+     */
+    public BigDecimal getInventoryValue() {
+        return BigDecimal.valueOf(inventoryValueCents.sum(), 2);
+    }
+    
+    /**
+     * Apply a new quantity available
+     * 
+     * @param event Stock change
+     */
+    public void onStockChanged(StockChanged event) {
+        update(event.getProductId(), level -> level.withQuantity(event.getQuantityAvailable()));
+    }
+    
+    /**
+     * Revalue the stock of a product at its new price
+     * 
+     * @param event Price change
+     */
+    public void onPriceChanged(PriceChanged event) {
+        update(event.getProductId(), level -> level.withPriceCents(toCents(event.getUnitPrice())));
+    }
+    
+    /**
+     * Apply a new reorder level
+     * 
+     * @param event Reorder level change
+     */
+    public void onReorderLevelChanged(ReorderLevelChanged event) {
+        update(event.getProductId(), level -> level.withReorderLevel(event.getReorderLevel()));
+    }
+    
+    /**
+     * Take a deleted product out of the counters
+     * 
+     * @param event Product deletion
+     */
+    public void onProductRemoved(ProductRemoved event) {
+        levels.computeIfPresent(event.getProductId(), (productId, level) -> {
+            apply(level, -1);
+            return null;
+        });
+    }
+    
+    /**
+     * Read the stock levels of all products again and correct the products that drifted
+     * 
+     * @return Number of products whose levels were corrected
+     * @throws ServiceException if the levels could not be read
+     */
+    public int reconcile() throws ServiceException {
+        // Changes stamped after this point may be newer than the snapshot read below
+        long snapshotSequence = changeSequence.get();
+        List<Object[]> rows = productService.findStockLevels();
+        
+        LongAdder corrected = new LongAdder();
+        Set<Integer> productIds = new HashSet<>();
+        for (Object[] row : rows) {
+            Integer productId = (Integer) row[0];
+            StockLevel actual = new StockLevel((Integer) row[3],
+                    row[2] != null ? (Integer) row[2] : 0, toCents((BigDecimal) row[1]), snapshotSequence);
+            productIds.add(productId);
+            
+            levels.compute(productId, (id, previous) -> {
+                if (previous != null && previous.sequence > snapshotSequence) {
+                    return previous;
+                }
+                if (!actual.equals(previous)) {
+                    apply(previous, -1);
+                    apply(actual, 1);
+                    corrected.increment();
+                }
+                return actual;
+            });
+        }
+        
+        // Products deleted without an event reaching the registry
+        for (Integer productId : levels.keySet()) {
+            if (!productIds.contains(productId)) {
+                levels.computeIfPresent(productId, (id, removed) -> {
+                    // Created or changed since the snapshot, not deleted
+                    if (removed.sequence > snapshotSequence) {
+                        return removed;
+                    }
+                    if (removed.quantity != null) {
+                        apply(removed, -1);
+                        corrected.increment();
+                    }
+                    return null;
+                });
+            }
+        }
+        
+        if (ready && corrected.sum() > 0) {
+            LOGGER.log(Level.WARNING, "Inventory KPIs drifted on {0} products, corrected", corrected.sum());
+        }
+        ready = true;
+        return corrected.intValue();
+    }
+    
+    private void reconcileQuietly() {
+        try {
+            reconcile();
+        } catch (ServiceException | RuntimeException e) {
+            // The dashboard falls back to querying the database until a reconciliation succeeds
+            LOGGER.log(Level.SEVERE, "Inventory KPI reconciliation failed", e);
+        }
+    }
+    
+    /**
+     * Replace the levels of a product, moving the counters by the difference.
+     * The map serializes changes to the same product; the counters take any interleaving.
+     */
+    private void update(Integer productId, UnaryOperator<StockLevel> change) {
+        levels.compute(productId, (id, previous) -> {
+            StockLevel next = change.apply(previous != null ? previous : NO_STOCK)
+                    .stamped(changeSequence.incrementAndGet());
+            apply(previous, -1);
+            apply(next, 1);
+            return next;
+        });
+    }
+    
+    /**
+     * Add the contribution of a product's levels to the counters, or take it away
+     */
+    private void apply(StockLevel level, int sign) {
+        if (level == null || level.quantity == null) {
+            return;
+        }
+        
+        if (level.quantity == 0) {
+            outOfStockCount.add(sign);
+        }
+        if (level.reorderLevel > 0 && level.quantity <= level.reorderLevel) {
+            lowStockCount.add(sign);
+        }
+        inventoryValueCents.add(sign * level.priceCents * level.quantity);
+    }
+    
+    private static long toCents(BigDecimal amount) {
+        return amount != null ? amount.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValue() : 0;
+    }
+    
+    /**
+     * Immutable stock level of one product, with the sequence number of the change that set it.
+     * Levels are equal when their values are, whatever set them.
+     */
+    private static final class StockLevel {
+        
+        private final Integer quantity;
+        private final int reorderLevel;
+        private final long priceCents;
+        private final long sequence;
+        
+        StockLevel(Integer quantity, int reorderLevel, long priceCents, long sequence) {
+            this.quantity = quantity;
+            this.reorderLevel = reorderLevel;
+            this.priceCents = priceCents;
+            this.sequence = sequence;
+        }
+        
+        StockLevel withQuantity(int newQuantity) {
+            return new StockLevel(newQuantity, reorderLevel, priceCents, sequence);
+        }
+        
+        StockLevel withReorderLevel(int newReorderLevel) {
+            return new StockLevel(quantity, newReorderLevel, priceCents, sequence);
+        }
+        
+        StockLevel withPriceCents(long newPriceCents) {
+            return new StockLevel(quantity, reorderLevel, newPriceCents, sequence);
+        }
+        
+        StockLevel stamped(long newSequence) {
+            return new StockLevel(quantity, reorderLevel, priceCents, newSequence);
+        }
+        
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof StockLevel)) return false;
+            StockLevel other = (StockLevel) o;
+            return reorderLevel == other.reorderLevel && priceCents == other.priceCents
+                    && Objects.equals(quantity, other.quantity);
+        }
+        
+        @Override
+        public int hashCode() {
+            return Objects.hash(quantity, reorderLevel, priceCents);
+        }
+    }
+}
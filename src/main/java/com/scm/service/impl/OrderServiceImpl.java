@@ -11,17 +11,29 @@ import java.util.logging.Logger;
 
 import javax.ejb.Stateless;
 import javax.inject.Inject;
+import javax.persistence.OptimisticLockException;
 import javax.transaction.Transactional;
 
 import com.scm.dao.CustomerOrderDao;
+import com.scm.dao.DailySalesRollupDao;
 import com.scm.dao.OrderItemDao;
 import com.scm.dao.ProductDao;
+import com.scm.dao.util.Bulkhead;
+import com.scm.dao.util.Cursor;
+import com.scm.dao.util.Page;
+import com.scm.dao.util.ReadOnly;
+import com.scm.dao.util.RetryOnConflict;
+import com.scm.dao.util.Sort;
+import com.scm.dao.util.Workload;
 import com.scm.model.CustomerOrder;
 import com.scm.model.CustomerOrder.Status;
 import com.scm.model.OrderItem;
 import com.scm.model.Product;
+import com.scm.model.dto.OrderSummary;
 import com.scm.service.OrderService;
 import com.scm.service.StockService;
+import com.scm.service.event.DomainEventBus;
+import com.scm.service.event.OrderStatusChanged;
 import com.scm.service.exception.ServiceException;
 import com.scm.service.exception.ValidationException;
 
@@ -45,6 +57,12 @@ public class OrderServiceImpl implements OrderService {
     @Inject
     private StockService stockService;
     
+    @Inject
+    private DailySalesRollupDao dailySalesRollupDao;
+    
+    @Inject
+    private DomainEventBus eventBus;
+    
     @Override
     @Transactional
     public CustomerOrder createOrder(CustomerOrder order) throws ValidationException, ServiceException {
@@ -61,20 +79,22 @@ public class OrderServiceImpl implements OrderService {
                 order.setStatus(Status.PENDING);
             }
             
-            // Save the order
-            CustomerOrder savedOrder = customerOrderDao.save(order);
-            
-            // Save order items if provided
-            if (order.getOrderItems() != null && !order.getOrderItems().isEmpty()) {
+            // Validate the items and total them up, so the order row is written once with its total
+            boolean hasItems = order.getOrderItems() != null && !order.getOrderItems().isEmpty();
+            BigDecimal total = BigDecimal.ZERO;
+            if (hasItems) {
                 for (OrderItem item : order.getOrderItems()) {
-                    item.setOrder(savedOrder);
+                    item.setOrder(order);
                     validateOrderItem(item);
-                    orderItemDao.save(item);
+                    total = total.add(item.getLineTotal());
                 }
             }
+            order.setTotalAmount(total);
+            
+            // Save the order; the items are persisted with it through the cascade
+            CustomerOrder savedOrder = customerOrderDao.save(order);
             
-            // Calculate total amount
-            updateOrderTotal(savedOrder.getId());
+            dailySalesRollupDao.addOrder(savedOrder.getId());
             
             return customerOrderDao.findById(savedOrder.getId()).orElse(savedOrder);
         } catch (ServiceException e) {
@@ -96,22 +116,44 @@ public class OrderServiceImpl implements OrderService {
             }
             
             CustomerOrder existingOrder = existingOrderOpt.get();
+            Status previousStatus = existingOrder.getStatus();
+            
+            // The order carries the version the form was loaded with; if anyone changed
+            // the order since, copying the form would silently overwrite their changes
+            if (order.getVersion() != existingOrder.getVersion()) {
+                throw new OptimisticLockException("Order " + order.getId()
+                        + " was changed by another user; reload it and apply your changes again",
+                        null, existingOrder);
+            }
             
             // Validate order data
             validateOrderForUpdate(order, existingOrder);
             
-            // Preserve creation date
-            order.setOrderDate(existingOrder.getOrderDate());
+            // Take the order out of the sales rollup while it changes
+            dailySalesRollupDao.removeOrder(order.getId());
             
-            // Update the order
-            CustomerOrder updatedOrder = customerOrderDao.update(order);
+            // Copy the header fields onto the managed order. Merging the form-built order would
+            // orphan-remove the items it does not carry; the order date, total, items and
+            // version stay as they are
+            existingOrder.setCustomerName(order.getCustomerName());
+            existingOrder.setCustomerEmail(order.getCustomerEmail());
+            existingOrder.setCustomerPhone(order.getCustomerPhone());
+            existingOrder.setShippingAddress(order.getShippingAddress());
+            existingOrder.setNotes(order.getNotes());
+            if (order.getStatus() != null) {
+                existingOrder.setStatus(order.getStatus());
+            }
             
-            // Calculate total amount
-            updateOrderTotal(updatedOrder.getId());
+            // Update the order
+            CustomerOrder updatedOrder = customerOrderDao.update(existingOrder);
+            dailySalesRollupDao.addOrder(updatedOrder.getId());
+            publishStatusChange(updatedOrder.getId(), previousStatus, updatedOrder.getStatus());
             
             return customerOrderDao.findById(updatedOrder.getId()).orElse(updatedOrder);
         } catch (ServiceException e) {
             throw e;
+        } catch (OptimisticLockException e) {
+            throw new ServiceException(e.getMessage(), e);
         } catch (Exception e) {
             LOGGER.log(Level.SEVERE, "Error updating order", e);
             throw new ServiceException("Failed to update order", e);
@@ -120,6 +162,7 @@ public class OrderServiceImpl implements OrderService {
     
     @Override
     @Transactional
+    @RetryOnConflict
     public boolean cancelOrder(Integer orderId) throws ServiceException {
         try {
             if (orderId == null) {
@@ -140,8 +183,12 @@ public class OrderServiceImpl implements OrderService {
             }
             
             // Update order status
+            Status previousStatus = order.getStatus();
+            dailySalesRollupDao.removeOrder(orderId);
             order.setStatus(Status.CANCELLED);
             customerOrderDao.update(order);
+            dailySalesRollupDao.addOrder(orderId);
+            publishStatusChange(orderId, previousStatus, Status.CANCELLED);
             
             return true;
         } catch (ServiceException e) {
@@ -154,6 +201,7 @@ public class OrderServiceImpl implements OrderService {
     
     @Override
     @Transactional
+    @RetryOnConflict
     public Optional<CustomerOrder> updateOrderStatus(Integer orderId, Status status) 
             throws ValidationException, ServiceException {
         try {
@@ -178,7 +226,13 @@ public class OrderServiceImpl implements OrderService {
             validateStatusTransition(order.getStatus(), status);
             
             // Update status
-            if (customerOrderDao.updateStatus(orderId, status)) {
+            Status previousStatus = order.getStatus();
+            dailySalesRollupDao.removeOrder(orderId);
+            boolean updated = customerOrderDao.updateStatus(orderId, status);
+            dailySalesRollupDao.addOrder(orderId);
+            
+            if (updated) {
+                publishStatusChange(orderId, previousStatus, status);
                 return customerOrderDao.findById(orderId);
             } else {
                 return Optional.empty();
@@ -224,22 +278,28 @@ public class OrderServiceImpl implements OrderService {
             // Validate order item
             validateOrderItem(item);
             
+            dailySalesRollupDao.removeOrder(orderId);
+            
             // Check if this product already exists in the order
             Optional<OrderItem> existingItemOpt = orderItemDao.findByOrderIdAndProductId(orderId, item.getProduct().getId());
             
             OrderItem savedItem;
+            BigDecimal delta;
             if (existingItemOpt.isPresent()) {
-                // Update quantity of existing item
+                // Update quantity of existing item, which keeps its unit price
                 OrderItem existingItem = existingItemOpt.get();
                 existingItem.setQuantity(existingItem.getQuantity() + item.getQuantity());
                 savedItem = orderItemDao.update(existingItem);
+                delta = existingItem.getUnitPrice().multiply(new BigDecimal(item.getQuantity()));
             } else {
                 // Save new item
                 savedItem = orderItemDao.save(item);
+                delta = item.getLineTotal();
             }
             
             // Update order total
-            updateOrderTotal(orderId);
+            customerOrderDao.addToTotalAmount(order, delta);
+            dailySalesRollupDao.addOrder(orderId);
             
             return savedItem;
         } catch (ServiceException e) {
@@ -279,11 +339,17 @@ public class OrderServiceImpl implements OrderService {
             // Validate order item
             validateOrderItem(item);
             
+            // Read before the merge copies the new values onto the existing item
+            BigDecimal previousLineTotal = existingItem.getLineTotal();
+            
+            dailySalesRollupDao.removeOrder(order.getId());
+            
             // Update the item
             OrderItem updatedItem = orderItemDao.update(item);
             
             // Update order total
-            updateOrderTotal(order.getId());
+            customerOrderDao.addToTotalAmount(order, updatedItem.getLineTotal().subtract(previousLineTotal));
+            dailySalesRollupDao.addOrder(order.getId());
             
             return updatedItem;
         } catch (ServiceException e) {
@@ -296,6 +362,7 @@ public class OrderServiceImpl implements OrderService {
     
     @Override
     @Transactional
+    @RetryOnConflict
     public boolean removeOrderItem(Integer orderItemId) throws ValidationException, ServiceException {
         try {
             // Validate inputs
@@ -317,14 +384,16 @@ public class OrderServiceImpl implements OrderService {
                 throw new ValidationException("Cannot remove items from order with status: " + order.getStatus());
             }
             
+            dailySalesRollupDao.removeOrder(order.getId());
+            
+            // Update order total, while the item is still there for the order to be refreshed with
+            customerOrderDao.addToTotalAmount(order, item.getLineTotal().negate());
+            
             // Delete the item
-            if (orderItemDao.deleteById(orderItemId)) {
-                // Update order total
-                updateOrderTotal(order.getId());
-                return true;
-            } else {
-                return false;
-            }
+            boolean deleted = orderItemDao.deleteById(orderItemId);
+            dailySalesRollupDao.addOrder(order.getId());
+            
+            return deleted;
         } catch (ServiceException e) {
             throw e;
         } catch (Exception e) {
@@ -334,13 +403,14 @@ public class OrderServiceImpl implements OrderService {
     }
     
     @Override
+    @ReadOnly
     public Optional<CustomerOrder> findById(Integer orderId) throws ServiceException {
         try {
             if (orderId == null) {
                 throw new ServiceException("Order ID cannot be null");
             }
             
-            return customerOrderDao.findById(orderId);
+            return customerOrderDao.findByIdWithItems(orderId);
         } catch (ServiceException e) {
             throw e;
         } catch (Exception e) {
@@ -350,6 +420,7 @@ public class OrderServiceImpl implements OrderService {
     }
     
     @Override
+    @ReadOnly(replica = true)
     public List<CustomerOrder> findByCustomerEmail(String email) throws ServiceException {
         try {
             if (email == null || email.isEmpty()) {
@@ -366,6 +437,7 @@ public class OrderServiceImpl implements OrderService {
     }
     
     @Override
+    @ReadOnly(replica = true)
     public List<CustomerOrder> findByStatus(Status status) throws ServiceException {
         try {
             if (status == null) {
@@ -382,6 +454,7 @@ public class OrderServiceImpl implements OrderService {
     }
     
     @Override
+    @ReadOnly(replica = true)
     public List<CustomerOrder> findByDateRange(LocalDateTime startDate, LocalDateTime endDate) 
             throws ServiceException {
         try {
@@ -407,6 +480,7 @@ public class OrderServiceImpl implements OrderService {
     }
     
     @Override
+    @ReadOnly(replica = true)
     public List<CustomerOrder> findRecentOrders(int limit) throws ServiceException {
         try {
             if (limit <= 0) {
@@ -422,8 +496,72 @@ public class OrderServiceImpl implements OrderService {
         }
     }
     
+    @Override
+    @ReadOnly(replica = true)
+    public Page<CustomerOrder> findOrders(Cursor cursor, int size) throws ServiceException {
+        try {
+            if (size <= 0) {
+                throw new ServiceException("Page size must be greater than zero");
+            }
+            
+            return customerOrderDao.findPage(cursor, size, Sort.desc("orderDate"));
+        } catch (ServiceException e) {
+            throw e;
+        } catch (Exception e) {
+            LOGGER.log(Level.SEVERE, "Error finding order page", e);
+            throw new ServiceException("Failed to find orders", e);
+        }
+    }
+    
+    @Override
+    @ReadOnly(replica = true)
+    public Page<OrderSummary> findOrderSummaries(Cursor cursor, int size) throws ServiceException {
+        try {
+            if (size <= 0) {
+                throw new ServiceException("Page size must be greater than zero");
+            }
+            
+            return customerOrderDao.findSummaryPage(cursor, size);
+        } catch (ServiceException e) {
+            throw e;
+        } catch (Exception e) {
+            LOGGER.log(Level.SEVERE, "Error finding order summary page", e);
+            throw new ServiceException("Failed to find orders", e);
+        }
+    }
+    
+    @Override
+    @ReadOnly(replica = true)
+    public List<OrderSummary> findSummariesByStatus(Status status) throws ServiceException {
+        try {
+            if (status == null) {
+                throw new ServiceException("Status cannot be null");
+            }
+            
+            return customerOrderDao.findSummariesByStatus(status);
+        } catch (ServiceException e) {
+            throw e;
+        } catch (Exception e) {
+            LOGGER.log(Level.SEVERE, "Error finding order summaries by status", e);
+            throw new ServiceException("Failed to find orders by status", e);
+        }
+    }
+    
+    @Override
+    @ReadOnly
+    @Bulkhead(Workload.BATCH)
+    public List<Object[]> findOrderTotals(Integer afterId, int limit) throws ServiceException {
+        try {
+            return customerOrderDao.findTotalsAfterId(afterId, limit);
+        } catch (Exception e) {
+            LOGGER.log(Level.SEVERE, "Error finding order totals", e);
+            throw new ServiceException("Failed to find order totals", e);
+        }
+    }
+    
     @Override
     @Transactional
+    @RetryOnConflict
     public boolean processPayment(Integer orderId, Object paymentDetails) 
             throws ValidationException, ServiceException {
         try {
@@ -451,8 +589,11 @@ public class OrderServiceImpl implements OrderService {
             
             // In a real implementation, this would integrate with a payment gateway
             // For now, just update the order status
+            dailySalesRollupDao.removeOrder(orderId);
             order.setStatus(Status.PAID);
             customerOrderDao.update(order);
+            dailySalesRollupDao.addOrder(orderId);
+            publishStatusChange(orderId, Status.PENDING, Status.PAID);
             
             return true;
         } catch (ServiceException e) {
@@ -465,6 +606,7 @@ public class OrderServiceImpl implements OrderService {
     
     @Override
     @Transactional
+    @RetryOnConflict
     public String processShipment(Integer orderId, Object shipmentDetails) 
             throws ValidationException, ServiceException {
         try {
@@ -490,6 +632,8 @@ public class OrderServiceImpl implements OrderService {
                 throw new ValidationException("Cannot process shipment for order with status: " + order.getStatus());
             }
             
+            Status previousStatus = order.getStatus();
+            
             // Process stock for the order
             if (!stockService.processStockForCustomerOrder(orderId)) {
                 throw new ServiceException("Failed to process stock for order");
@@ -497,8 +641,11 @@ public class OrderServiceImpl implements OrderService {
             
             // In a real implementation, this would integrate with a shipping provider
             // For now, just update the order status and generate a tracking number
+            dailySalesRollupDao.removeOrder(orderId);
             order.setStatus(Status.SHIPPED);
             customerOrderDao.update(order);
+            dailySalesRollupDao.addOrder(orderId);
+            publishStatusChange(orderId, previousStatus, Status.SHIPPED);
             
             // Generate a tracking number
             String trackingNumber = "TRK" + System.currentTimeMillis() + orderId;
@@ -512,35 +659,6 @@ public class OrderServiceImpl implements OrderService {
         }
     }
     
-    /**
-     * Update the total amount of an order based on its items
-     */
-    private void updateOrderTotal(Integer orderId) throws ServiceException {
-        try {
-            Optional<CustomerOrder> orderOpt = customerOrderDao.findById(orderId);
-            if (!orderOpt.isPresent()) {
-                throw new ServiceException("Order not found with ID: " + orderId);
-            }
-            
-            CustomerOrder order = orderOpt.get();
-            List<OrderItem> items = orderItemDao.findByOrderId(orderId);
-            
-            BigDecimal total = BigDecimal.ZERO;
-            for (OrderItem item : items) {
-                BigDecimal itemTotal = item.getUnitPrice().multiply(new BigDecimal(item.getQuantity()));
-                total = total.add(itemTotal);
-            }
-            
-            order.setTotalAmount(total);
-            customerOrderDao.update(order);
-        } catch (ServiceException e) {
-            throw e;
-        } catch (Exception e) {
-            LOGGER.log(Level.SEVERE, "Error updating order total", e);
-            throw new ServiceException("Failed to update order total", e);
-        }
-    }
-    
     /**
      * Validate order data for creation
      */
@@ -566,6 +684,15 @@ public class OrderServiceImpl implements OrderService {
         }
     }
     
+    /**
+     * Publish a status change after commit, unless the status stayed the same
+     */
+    private void publishStatusChange(Integer orderId, Status previousStatus, Status newStatus) {
+        if (newStatus != null && newStatus != previousStatus) {
+            eventBus.publish(new OrderStatusChanged(orderId, previousStatus, newStatus));
+        }
+    }
+    
     /**
      * Validate order data for update
      */
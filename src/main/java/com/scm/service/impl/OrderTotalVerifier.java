@@ -0,0 +1,148 @@
+package com.scm.service.impl;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.annotation.PreDestroy;
+import javax.enterprise.context.ApplicationScoped;
+import javax.enterprise.context.Initialized;
+import javax.enterprise.event.Observes;
+import javax.inject.Inject;
+
+import com.scm.service.OrderService;
+import com.scm.service.exception.ServiceException;
+import com.scm.util.AppConfig;
+
+/**
+ * Checks the incrementally maintained order totals against the items of each order.
+ * Runs every orders.total-verifier.interval-minutes on a background thread, reading the
+ * orders in chunks of orders.total-verifier.chunk-size, each in its own short read-only
+ * transaction. Orders whose total drifted are logged; totals are not corrected, so the
+ * cause can be investigated first.
+ */
+@ApplicationScoped
+public class OrderTotalVerifier {
+    
+    private static final Logger LOGGER = Logger.getLogger(OrderTotalVerifier.class.getName());
+    
+    /**
+     * Maximum number of drifted order IDs kept in the report
+     */
+    private static final int MAX_REPORTED_ORDERS = 20;
+    
+    @Inject
+    private OrderService orderService;
+    
+    private ScheduledExecutorService scheduler;
+    private int chunkSize;
+    private volatile Map<String, Object> lastReport = Collections.emptyMap();
+    
+    /**
+     * Start the schedule together with the application
+     * 
+     * @param event Initialization of the application scope
+     */
+    public void start(@Observes @Initialized(ApplicationScoped.class) Object event) {
+        long intervalMinutes = AppConfig.getLongProperty("orders.total-verifier.interval-minutes", 60);
+        chunkSize = Math.max(1, AppConfig.getIntProperty("orders.total-verifier.chunk-size", 500));
+        if (intervalMinutes <= 0) {
+            LOGGER.log(Level.INFO, "Order total verifier is disabled");
+            return;
+        }
+        
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "order-total-verifier");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::verifyQuietly, intervalMinutes, intervalMinutes, TimeUnit.MINUTES);
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+    
+    /**
+     * Get the outcome of the last completed run
+     * 
+     * @return Map with keys finishedAt, ordersChecked, driftedOrders, driftedOrderIds (the first
+     *         few only), totalDrift and durationMs; empty before the first run completed
+     */
+    public Map<String, Object> getLastReport() {
+        return lastReport;
+    }
+    
+    /**
+     * Recompute the total of every order and compare it with the stored total
+     * 
+     * @return The report, also available from {@link #getLastReport()}
+     * @throws ServiceException if a chunk could not be read
+     */
+    public Map<String, Object> verify() throws ServiceException {
+        long start = System.nanoTime();
+        int checked = 0;
+        int drifted = 0;
+        BigDecimal totalDrift = BigDecimal.ZERO;
+        List<Integer> driftedOrderIds = new ArrayList<>();
+        
+        Integer afterId = 0;
+        List<Object[]> chunk;
+        do {
+            chunk = orderService.findOrderTotals(afterId, chunkSize);
+            for (Object[] row : chunk) {
+                Integer orderId = (Integer) row[0];
+                BigDecimal stored = (BigDecimal) row[1];
+                BigDecimal computed = (BigDecimal) row[2];
+                
+                if (stored.compareTo(computed) != 0) {
+                    drifted++;
+                    totalDrift = totalDrift.add(stored.subtract(computed).abs());
+                    if (driftedOrderIds.size() < MAX_REPORTED_ORDERS) {
+                        driftedOrderIds.add(orderId);
+                    }
+                    LOGGER.log(Level.WARNING, "Order {0} total is {1}, its items add up to {2}",
+                            new Object[]{orderId, stored, computed});
+                }
+                afterId = orderId;
+            }
+            checked += chunk.size();
+        } while (chunk.size() == chunkSize);
+        
+        long durationMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("finishedAt", LocalDateTime.now());
+        report.put("ordersChecked", checked);
+        report.put("driftedOrders", drifted);
+        report.put("driftedOrderIds", driftedOrderIds);
+        report.put("totalDrift", totalDrift);
+        report.put("durationMs", durationMs);
+        lastReport = report;
+        
+        LOGGER.log(drifted > 0 ? Level.WARNING : Level.INFO,
+                "Order total verification checked {0} orders in {1} ms, {2} drifted by {3} in total",
+                new Object[]{checked, durationMs, drifted, totalDrift});
+        return report;
+    }
+    
+    private void verifyQuietly() {
+        try {
+            verify();
+        } catch (ServiceException | RuntimeException e) {
+            // Keep the schedule alive; the next run starts over from the first order
+            LOGGER.log(Level.SEVERE, "Order total verification failed", e);
+        }
+    }
+}
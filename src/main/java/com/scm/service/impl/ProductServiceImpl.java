@@ -5,19 +5,34 @@ import java.time.LocalDateTime;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 import javax.ejb.Stateless;
 import javax.inject.Inject;
+import javax.persistence.OptimisticLockException;
 import javax.transaction.Transactional;
 
 import com.scm.dao.ProductDao;
 import com.scm.dao.StockDao;
+import com.scm.dao.util.Bulkhead;
+import com.scm.dao.util.Cursor;
+import com.scm.dao.util.Page;
+import com.scm.dao.util.ReadOnly;
+import com.scm.dao.util.RetryOnConflict;
+import com.scm.dao.util.Sort;
+import com.scm.dao.util.Workload;
 import com.scm.model.Product;
 import com.scm.model.Stock;
+import com.scm.model.dto.ProductSummary;
 import com.scm.service.ProductService;
+import com.scm.service.event.DomainEventBus;
+import com.scm.service.event.PriceChanged;
+import com.scm.service.event.ProductRemoved;
+import com.scm.service.event.ReorderLevelChanged;
+import com.scm.service.event.StockChanged;
 import com.scm.service.exception.ServiceException;
 import com.scm.service.exception.ValidationException;
 
@@ -35,6 +50,9 @@ public class ProductServiceImpl implements ProductService {
     @Inject
     private StockDao stockDao;
     
+    @Inject
+    private DomainEventBus eventBus;
+    
     @Override
     @Transactional
     public Product createProduct(Product product) throws ValidationException, ServiceException {
@@ -57,6 +75,11 @@ public class ProductServiceImpl implements ProductService {
                 stockDao.save(stock);
             }
             
+            eventBus.publish(new PriceChanged(savedProduct.getId(), savedProduct.getUnitPrice()));
+            eventBus.publish(new ReorderLevelChanged(savedProduct.getId(), reorderLevelOf(savedProduct)));
+            eventBus.publish(new StockChanged(savedProduct.getId(), savedProduct.getStock() != null
+                    ? savedProduct.getStock().getQuantityAvailable() : 0));
+            
             return savedProduct;
         } catch (ServiceException e) {
             throw e;
@@ -78,16 +101,39 @@ public class ProductServiceImpl implements ProductService {
             
             Product existingProduct = existingProductOpt.get();
             
+            // The product carries the version the form was loaded with; if anyone changed
+            // the product since, this update would silently overwrite their changes
+            if (product.getVersion() != existingProduct.getVersion()) {
+                throw new OptimisticLockException("Product " + product.getId()
+                        + " was changed by another user; reload it and apply your changes again",
+                        null, existingProduct);
+            }
+            
             // Validate product data
             validateProductForUpdate(product, existingProduct);
             
             // Preserve creation timestamp
             product.setCreatedAt(existingProduct.getCreatedAt());
             
+            // Read before the merge copies the new values onto the existing product
+            BigDecimal previousPrice = existingProduct.getUnitPrice();
+            int previousReorderLevel = reorderLevelOf(existingProduct);
+            
             // Update the product
-            return productDao.update(product);
+            Product updatedProduct = productDao.update(product);
+            
+            if (!Objects.equals(previousPrice, updatedProduct.getUnitPrice())) {
+                eventBus.publish(new PriceChanged(updatedProduct.getId(), updatedProduct.getUnitPrice()));
+            }
+            if (previousReorderLevel != reorderLevelOf(updatedProduct)) {
+                eventBus.publish(new ReorderLevelChanged(updatedProduct.getId(), reorderLevelOf(updatedProduct)));
+            }
+            
+            return updatedProduct;
         } catch (ServiceException e) {
             throw e;
+        } catch (OptimisticLockException e) {
+            throw new ServiceException(e.getMessage(), e);
         } catch (Exception e) {
             LOGGER.log(Level.SEVERE, "Error updating product", e);
             throw new ServiceException("Failed to update product", e);
@@ -102,7 +148,12 @@ public class ProductServiceImpl implements ProductService {
                 throw new ServiceException("Product ID cannot be null");
             }
             
-            return productDao.deleteById(productId);
+            boolean deleted = productDao.deleteById(productId);
+            if (deleted) {
+                eventBus.publish(new ProductRemoved(productId));
+            }
+            
+            return deleted;
         } catch (ServiceException e) {
             throw e;
         } catch (Exception e) {
@@ -112,6 +163,7 @@ public class ProductServiceImpl implements ProductService {
     }
     
     @Override
+    @ReadOnly
     public Optional<Product> findById(Integer productId) throws ServiceException {
         try {
             if (productId == null) {
@@ -128,6 +180,7 @@ public class ProductServiceImpl implements ProductService {
     }
     
     @Override
+    @ReadOnly
     public Optional<Product> findBySku(String sku) throws ServiceException {
         try {
             if (sku == null || sku.isEmpty()) {
@@ -144,9 +197,10 @@ public class ProductServiceImpl implements ProductService {
     }
     
     @Override
+    @ReadOnly(replica = true)
     public List<Product> findAllProducts() throws ServiceException {
         try {
-            return productDao.findAll();
+            return productDao.findAllWithStock();
         } catch (Exception e) {
             LOGGER.log(Level.SEVERE, "Error finding all products", e);
             throw new ServiceException("Failed to find all products", e);
@@ -154,6 +208,24 @@ public class ProductServiceImpl implements ProductService {
     }
     
     @Override
+    @ReadOnly(replica = true)
+    public Page<Product> findAllProducts(Cursor cursor, int size) throws ServiceException {
+        try {
+            if (size <= 0) {
+                throw new ServiceException("Page size must be greater than zero");
+            }
+            
+            return productDao.findPage(cursor, size, Sort.asc("name"));
+        } catch (ServiceException e) {
+            throw e;
+        } catch (Exception e) {
+            LOGGER.log(Level.SEVERE, "Error finding product page", e);
+            throw new ServiceException("Failed to find products", e);
+        }
+    }
+    
+    @Override
+    @ReadOnly(replica = true)
     public List<Product> findByNameContaining(String name) throws ServiceException {
         try {
             if (name == null || name.isEmpty()) {
@@ -170,6 +242,7 @@ public class ProductServiceImpl implements ProductService {
     }
     
     @Override
+    @ReadOnly(replica = true)
     public List<Product> findLowStockProducts() throws ServiceException {
         try {
             return productDao.findLowStockProducts();
@@ -180,6 +253,7 @@ public class ProductServiceImpl implements ProductService {
     }
     
     @Override
+    @ReadOnly(replica = true)
     public List<Product> findOutOfStockProducts() throws ServiceException {
         try {
             return productDao.findOutOfStockProducts();
@@ -190,6 +264,75 @@ public class ProductServiceImpl implements ProductService {
     }
     
     @Override
+    @ReadOnly(replica = true)
+    public Page<ProductSummary> findProductSummaries(Cursor cursor, int size) throws ServiceException {
+        try {
+            if (size <= 0) {
+                throw new ServiceException("Page size must be greater than zero");
+            }
+            
+            return productDao.findSummaryPage(cursor, size);
+        } catch (ServiceException e) {
+            throw e;
+        } catch (Exception e) {
+            LOGGER.log(Level.SEVERE, "Error finding product summary page", e);
+            throw new ServiceException("Failed to find products", e);
+        }
+    }
+    
+    @Override
+    @ReadOnly(replica = true)
+    public List<ProductSummary> findSummariesByNameContaining(String name) throws ServiceException {
+        try {
+            if (name == null || name.isEmpty()) {
+                throw new ServiceException("Name cannot be empty");
+            }
+            
+            return productDao.findSummariesByNameContaining(name);
+        } catch (ServiceException e) {
+            throw e;
+        } catch (Exception e) {
+            LOGGER.log(Level.SEVERE, "Error finding product summaries by name", e);
+            throw new ServiceException("Failed to find products by name", e);
+        }
+    }
+    
+    @Override
+    @ReadOnly(replica = true)
+    public List<ProductSummary> findLowStockSummaries() throws ServiceException {
+        try {
+            return productDao.findLowStockSummaries();
+        } catch (Exception e) {
+            LOGGER.log(Level.SEVERE, "Error finding low stock product summaries", e);
+            throw new ServiceException("Failed to find low stock products", e);
+        }
+    }
+    
+    @Override
+    @ReadOnly(replica = true)
+    public List<ProductSummary> findOutOfStockSummaries() throws ServiceException {
+        try {
+            return productDao.findOutOfStockSummaries();
+        } catch (Exception e) {
+            LOGGER.log(Level.SEVERE, "Error finding out of stock product summaries", e);
+            throw new ServiceException("Failed to find out of stock products", e);
+        }
+    }
+    
+    @Override
+    @ReadOnly
+    @Bulkhead(Workload.BATCH)
+    public List<Object[]> findStockLevels() throws ServiceException {
+        try {
+            return productDao.findStockLevels();
+        } catch (Exception e) {
+            LOGGER.log(Level.SEVERE, "Error finding stock levels", e);
+            throw new ServiceException("Failed to find stock levels", e);
+        }
+    }
+    
+    @Override
+    @ReadOnly(replica = true)
     public List<Product> findBySupplier(Integer supplierId) throws ServiceException {
         try {
             if (supplierId == null) {
@@ -207,6 +350,7 @@ public class ProductServiceImpl implements ProductService {
     
     @Override
     @Transactional
+    @RetryOnConflict
     public Optional<Product> updatePrice(Integer productId, BigDecimal newPrice) 
             throws ValidationException, ServiceException {
         try {
@@ -233,7 +377,10 @@ public class ProductServiceImpl implements ProductService {
             product.setUnitPrice(newPrice);
             
             // Update the product
-            return Optional.of(productDao.update(product));
+            Product updatedProduct = productDao.update(product);
+            eventBus.publish(new PriceChanged(productId, newPrice));
+            
+            return Optional.of(updatedProduct);
         } catch (ServiceException e) {
             throw e;
         } catch (Exception e) {
@@ -244,6 +391,7 @@ public class ProductServiceImpl implements ProductService {
     
     @Override
     @Transactional
+    @RetryOnConflict
     public Optional<Product> updateReorderLevel(Integer productId, Integer reorderLevel) 
             throws ValidationException, ServiceException {
         try {
@@ -270,7 +418,10 @@ public class ProductServiceImpl implements ProductService {
             product.setReorderLevel(reorderLevel);
             
             // Update the product
-            return Optional.of(productDao.update(product));
+            Product updatedProduct = productDao.update(product);
+            eventBus.publish(new ReorderLevelChanged(productId, reorderLevel));
+            
+            return Optional.of(updatedProduct);
         } catch (ServiceException e) {
             throw e;
         } catch (Exception e) {
@@ -279,6 +430,10 @@ public class ProductServiceImpl implements ProductService {
         }
     }
     
+    private static int reorderLevelOf(Product product) {
+        return product.getReorderLevel() != null ? product.getReorderLevel() : 0;
+    }
+    
     /**
      * Validate product data for creation
      */
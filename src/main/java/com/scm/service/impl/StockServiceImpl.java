@@ -1,8 +1,12 @@
 package com.scm.service.impl;
 
 import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.TreeMap;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -11,12 +15,15 @@ import javax.inject.Inject;
 import javax.transaction.Transactional;
 
 import com.scm.dao.CustomerOrderDao;
+import com.scm.dao.DailySalesRollupDao;
 import com.scm.dao.OrderItemDao;
 import com.scm.dao.ProductDao;
 import com.scm.dao.StockDao;
 import com.scm.dao.StockMovementDao;
 import com.scm.dao.SupplierOrderDao;
 import com.scm.dao.SupplierOrderItemDao;
+import com.scm.dao.util.ReadOnly;
+import com.scm.dao.util.RetryOnConflict;
 import com.scm.model.CustomerOrder;
 import com.scm.model.OrderItem;
 import com.scm.model.Product;
@@ -26,6 +33,10 @@ import com.scm.model.StockMovement.MovementType;
 import com.scm.model.SupplierOrder;
 import com.scm.model.SupplierOrderItem;
 import com.scm.service.StockService;
+import com.scm.service.event.DomainEventBus;
+import com.scm.service.event.OrderStatusChanged;
+import com.scm.service.event.StockChanged;
+import com.scm.service.event.SupplierOrderReceived;
 import com.scm.service.exception.ServiceException;
 import com.scm.service.exception.ValidationException;
 
@@ -58,7 +69,14 @@ public class StockServiceImpl implements StockService {
     @Inject
     private SupplierOrderItemDao supplierOrderItemDao;
     
+    @Inject
+    private DailySalesRollupDao dailySalesRollupDao;
+    
+    @Inject
+    private DomainEventBus eventBus;
+    
     @Override
+    @ReadOnly
     public Optional<Stock> getStockForProduct(Integer productId) throws ServiceException {
         try {
             if (productId == null) {
@@ -75,6 +93,7 @@ public class StockServiceImpl implements StockService {
     }
     
     @Override
+    @ReadOnly
     public Optional<Stock> getStockForProductBySku(String sku) throws ServiceException {
         try {
             if (sku == null || sku.isEmpty()) {
@@ -92,6 +111,7 @@ public class StockServiceImpl implements StockService {
     
     @Override
     @Transactional
+    @RetryOnConflict
     public Optional<Stock> updateStockQuantity(Integer productId, int quantityChange, 
             MovementType movementType, Integer referenceId, String notes) 
             throws ValidationException, ServiceException {
@@ -105,51 +125,36 @@ public class StockServiceImpl implements StockService {
                 throw new ValidationException("Movement type cannot be null");
             }
             
-            // Find the product
-            Optional<Product> productOpt = productDao.findById(productId);
-            if (!productOpt.isPresent()) {
-                throw new ServiceException("Product not found with ID: " + productId);
-            }
-            
-            Product product = productOpt.get();
-            
-            // Find or create stock record
-            Optional<Stock> stockOpt = stockDao.findByProductId(productId);
+            // Apply the change as a single conditional update so concurrent changes cannot oversell
+            Optional<Stock> stockOpt = stockDao.updateQuantity(productId, quantityChange);
             Stock stock;
             
             if (stockOpt.isPresent()) {
                 stock = stockOpt.get();
             } else {
+                // Either there is no stock record yet or the quantity is insufficient
+                Optional<Product> productOpt = productDao.findById(productId);
+                if (!productOpt.isPresent()) {
+                    throw new ServiceException("Product not found with ID: " + productId);
+                }
+                
+                if (quantityChange < 0 || stockDao.findByProductId(productId).isPresent()) {
+                    throw new ValidationException("Cannot update stock: insufficient quantity available");
+                }
+                
                 // Create new stock record
                 stock = new Stock();
-                stock.setProduct(product);
-                stock.setQuantityAvailable(0);
+                stock.setProduct(productOpt.get());
+                stock.setQuantityAvailable(quantityChange);
                 stock.setLastUpdated(LocalDateTime.now());
                 stock = stockDao.save(stock);
             }
             
-            // Validate if quantity change would make stock negative
-            if (stock.getQuantityAvailable() + quantityChange < 0) {
-                throw new ValidationException("Cannot update stock: insufficient quantity available");
-            }
-            
-            // Update stock quantity
-            stock.setQuantityAvailable(stock.getQuantityAvailable() + quantityChange);
-            stock.setLastUpdated(LocalDateTime.now());
-            
             // Create stock movement record
-            StockMovement movement = new StockMovement();
-            movement.setProduct(product);
-            movement.setMovementType(movementType);
-            movement.setQuantity(quantityChange);
-            movement.setReferenceId(referenceId);
-            movement.setNotes(notes);
-            movement.setMovementDate(LocalDateTime.now());
-            
-            stockMovementDao.save(movement);
-            
-            // Update stock record
-            return Optional.of(stockDao.update(stock));
+            recordStockMovement(stock.getProduct(), quantityChange, movementType, referenceId, notes);
+            eventBus.publish(new StockChanged(productId, stock.getQuantityAvailable()));
+            
+            return Optional.of(stock);
         } catch (ServiceException e) {
             throw e;
         } catch (Exception e) {
@@ -159,6 +164,7 @@ public class StockServiceImpl implements StockService {
     }
     
     @Override
+    @ReadOnly
     public List<StockMovement> getStockMovementsForProduct(Integer productId) throws ServiceException {
         try {
             if (productId == null) {
@@ -175,6 +181,7 @@ public class StockServiceImpl implements StockService {
     }
     
     @Override
+    @ReadOnly
     public List<StockMovement> getStockMovementsByType(MovementType movementType) throws ServiceException {
         try {
             if (movementType == null) {
@@ -191,6 +198,7 @@ public class StockServiceImpl implements StockService {
     }
     
     @Override
+    @ReadOnly
     public List<StockMovement> getStockMovementsByReferenceId(Integer referenceId) throws ServiceException {
         try {
             if (referenceId == null) {
@@ -207,6 +215,7 @@ public class StockServiceImpl implements StockService {
     }
     
     @Override
+    @ReadOnly
     public List<StockMovement> getStockMovementsByDateRange(LocalDateTime startDate, LocalDateTime endDate) 
             throws ServiceException {
         try {
@@ -233,6 +242,7 @@ public class StockServiceImpl implements StockService {
     
     @Override
     @Transactional
+    @RetryOnConflict
     public StockMovement createStockAdjustment(Integer productId, int quantity, String notes) 
             throws ValidationException, ServiceException {
         try {
@@ -279,6 +289,7 @@ public class StockServiceImpl implements StockService {
     
     @Override
     @Transactional
+    @RetryOnConflict
     public boolean processStockForCustomerOrder(Integer orderId) 
             throws ValidationException, ServiceException {
         try {
@@ -306,29 +317,20 @@ public class StockServiceImpl implements StockService {
                 throw new ValidationException("Order has no items");
             }
             
-            // Check stock availability for all items
-            for (OrderItem item : orderItems) {
-                Optional<Stock> stockOpt = stockDao.findByProductId(item.getProduct().getId());
-                if (!stockOpt.isPresent() || stockOpt.get().getQuantityAvailable() < item.getQuantity()) {
-                    throw new ValidationException("Insufficient stock for product: " 
-                            + item.getProduct().getName() + " (SKU: " + item.getProduct().getSku() + ")");
-                }
-            }
+            // Reserve stock for all lines at once; nothing is changed unless every line can be served
+            reserveStock(orderItems);
             
-            // Process stock for each item
             for (OrderItem item : orderItems) {
-                updateStockQuantity(
-                    item.getProduct().getId(),
-                    -item.getQuantity(),
-                    MovementType.CUSTOMER_ORDER,
-                    orderId,
-                    "Customer order #" + orderId
-                );
+                recordStockMovement(item.getProduct(), -item.getQuantity(), MovementType.CUSTOMER_ORDER, 
+                        orderId, "Customer order #" + orderId);
             }
             
-            // Update order status
+            // Update order status, moving the order to its new bucket in the sales rollup
+            dailySalesRollupDao.removeOrder(orderId);
             order.setStatus(CustomerOrder.Status.PROCESSING);
             customerOrderDao.update(order);
+            dailySalesRollupDao.addOrder(orderId);
+            eventBus.publish(new OrderStatusChanged(orderId, CustomerOrder.Status.PENDING, CustomerOrder.Status.PROCESSING));
             
             return true;
         } catch (ServiceException e) {
@@ -341,6 +343,7 @@ public class StockServiceImpl implements StockService {
     
     @Override
     @Transactional
+    @RetryOnConflict
     public boolean processStockForSupplierOrder(Integer supplierOrderId) throws ServiceException {
         try {
             // Validate inputs
@@ -381,6 +384,7 @@ public class StockServiceImpl implements StockService {
             // Update order status
             order.setStatus(SupplierOrder.Status.COMPLETED);
             supplierOrderDao.update(order);
+            eventBus.publish(new SupplierOrderReceived(supplierOrderId, order.getSupplier().getId()));
             
             return true;
         } catch (ServiceException e) {
@@ -392,6 +396,7 @@ public class StockServiceImpl implements StockService {
     }
     
     @Override
+    @ReadOnly
     public boolean checkSufficientStockForOrder(Integer orderId) throws ServiceException {
         try {
             // Validate inputs
@@ -411,10 +416,16 @@ public class StockServiceImpl implements StockService {
                 return true; // No items to check
             }
             
-            // Check stock availability for all items
-            for (OrderItem item : orderItems) {
-                Optional<Stock> stockOpt = stockDao.findByProductId(item.getProduct().getId());
-                if (!stockOpt.isPresent() || stockOpt.get().getQuantityAvailable() < item.getQuantity()) {
+            // Check stock availability for all items with a single query
+            Map<Integer, Integer> requested = getRequestedQuantities(orderItems);
+            Map<Integer, Integer> available = new HashMap<>();
+            for (Stock stock : stockDao.findByProductIds(requested.keySet().toArray(new Integer[0]))) {
+                available.put(stock.getProduct().getId(), stock.getQuantityAvailable());
+            }
+            
+            for (Map.Entry<Integer, Integer> line : requested.entrySet()) {
+                Integer quantity = available.get(line.getKey());
+                if (quantity == null || quantity < line.getValue()) {
                     return false; // Insufficient stock
                 }
             }
@@ -429,6 +440,7 @@ public class StockServiceImpl implements StockService {
     }
     
     @Override
+    @ReadOnly
     public List<Stock> getProductsNeedingReorder() throws ServiceException {
         try {
             List<Product> lowStockProducts = productDao.findLowStockProducts();
@@ -440,4 +452,67 @@ public class StockServiceImpl implements StockService {
             throw new ServiceException("Failed to get products needing reorder", e);
         }
     }
-} 
\ No newline at end of file
+    
+    /**
+     * Reserve stock for a set of order items.
+     * Locks the stock rows of all products in one statement, checks every line and then
+     * decrements all quantities in a single batch, so the reservation is all-or-nothing.
+     */
+    private void reserveStock(List<OrderItem> orderItems) throws ValidationException {
+        Map<Integer, Integer> requested = getRequestedQuantities(orderItems);
+        Map<Integer, Integer> available = stockDao.lockQuantities(requested.keySet());
+        
+        Map<String, String> errors = new LinkedHashMap<>();
+        Map<Integer, Integer> changes = new TreeMap<>();
+        
+        for (OrderItem item : orderItems) {
+            Product product = item.getProduct();
+            Integer quantity = available.get(product.getId());
+            
+            if (quantity == null || quantity < requested.get(product.getId())) {
+                errors.put(product.getSku(), "Insufficient stock for product: " 
+                        + product.getName() + " (SKU: " + product.getSku() + ")");
+            }
+            
+            changes.put(product.getId(), -requested.get(product.getId()));
+        }
+        
+        if (!errors.isEmpty()) {
+            throw new ValidationException(String.join("; ", errors.values()), errors);
+        }
+        
+        stockDao.applyQuantityChanges(changes);
+        
+        // The rows are locked, so the new quantities follow from the ones read above
+        for (Map.Entry<Integer, Integer> change : changes.entrySet()) {
+            eventBus.publish(new StockChanged(change.getKey(), available.get(change.getKey()) + change.getValue()));
+        }
+    }
+    
+    /**
+     * Sum the requested quantity per product, ordered by product ID
+     */
+    private Map<Integer, Integer> getRequestedQuantities(List<OrderItem> orderItems) {
+        Map<Integer, Integer> requested = new TreeMap<>();
+        for (OrderItem item : orderItems) {
+            requested.merge(item.getProduct().getId(), item.getQuantity(), Integer::sum);
+        }
+        return requested;
+    }
+    
+    /**
+     * Record a stock movement for a quantity change
+     */
+    private void recordStockMovement(Product product, int quantity, MovementType movementType, 
+            Integer referenceId, String notes) {
+        StockMovement movement = new StockMovement();
+        movement.setProduct(product);
+        movement.setMovementType(movementType);
+        movement.setQuantity(quantity);
+        movement.setReferenceId(referenceId);
+        movement.setNotes(notes);
+        movement.setMovementDate(LocalDateTime.now());
+        
+        stockMovementDao.save(movement);
+    }
+}
@@ -16,10 +16,14 @@ import javax.transaction.Transactional;
 import com.scm.dao.ProductDao;
 import com.scm.dao.SupplierDao;
 import com.scm.dao.SupplierProductDao;
+import com.scm.dao.util.Cursor;
+import com.scm.dao.util.Page;
+import com.scm.dao.util.Sort;
 import com.scm.model.Product;
 import com.scm.model.Supplier;
 import com.scm.model.SupplierProduct;
 import com.scm.model.SupplierProductId;
+import com.scm.model.dto.SupplierSummary;
 import com.scm.service.SupplierService;
 import com.scm.service.exception.ServiceException;
 import com.scm.service.exception.ValidationException;
@@ -148,6 +152,22 @@ public class SupplierServiceImpl implements SupplierService {
         }
     }
     
+    @Override
+    public Page<Supplier> findAllSuppliers(Cursor cursor, int size) throws ServiceException {
+        try {
+            if (size <= 0) {
+                throw new ServiceException("Page size must be greater than zero");
+            }
+            
+            return supplierDao.findPage(cursor, size, Sort.asc("name"));
+        } catch (ServiceException e) {
+            throw e;
+        } catch (Exception e) {
+            LOGGER.log(Level.SEVERE, "Error finding supplier page", e);
+            throw new ServiceException("Failed to find suppliers", e);
+        }
+    }
+    
     @Override
     public List<Supplier> findByNameContaining(String name) throws ServiceException {
         try {
@@ -164,6 +184,38 @@ public class SupplierServiceImpl implements SupplierService {
         }
     }
     
+    @Override
+    public Page<SupplierSummary> findSupplierSummaries(Cursor cursor, int size) throws ServiceException {
+        try {
+            if (size <= 0) {
+                throw new ServiceException("Page size must be greater than zero");
+            }
+            
+            return supplierDao.findSummaryPage(cursor, size);
+        } catch (ServiceException e) {
+            throw e;
+        } catch (Exception e) {
+            LOGGER.log(Level.SEVERE, "Error finding supplier summary page", e);
+            throw new ServiceException("Failed to find suppliers", e);
+        }
+    }
+    
+    @Override
+    public List<SupplierSummary> findSummariesByNameContaining(String name) throws ServiceException {
+        try {
+            if (name == null || name.isEmpty()) {
+                throw new ServiceException("Name cannot be empty");
+            }
+            
+            return supplierDao.findSummariesByNameContaining(name);
+        } catch (ServiceException e) {
+            throw e;
+        } catch (Exception e) {
+            LOGGER.log(Level.SEVERE, "Error finding supplier summaries by name", e);
+            throw new ServiceException("Failed to find suppliers by name", e);
+        }
+    }
+    
     @Override
     public List<Supplier> findByProduct(Integer productId) throws ServiceException {
         try {
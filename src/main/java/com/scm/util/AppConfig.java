@@ -35,8 +35,8 @@ public class AppConfig {
             // Load base properties first
             loadPropertiesFile(BASE_PROPERTIES_FILE);
             
-            // Determine active profile
-            activeProfile = getProperty("spring.profiles.active", "development");
+            // Determine active profile; read directly, getProperty would initialize again
+            activeProfile = properties.getProperty("spring.profiles.active", "development");
             
             // Load profile-specific properties (these will override base properties)
             String profilePropertiesFile = "application-" + activeProfile + ".properties";
@@ -0,0 +1,100 @@
+package com.scm.util;
+
+import java.io.BufferedWriter;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Writes CSV rows (RFC 4180) in UTF-8 to an output stream as they are produced.
+ * Rows are buffered and flushed to the stream every few hundred rows, so a report of any
+ * size is written in chunks while only a buffer's worth of it is held in memory.
+ * The stream is flushed but never closed; it belongs to the caller.
+ */
+public class CsvWriter implements Flushable {
+    
+    private static final int BUFFER_SIZE = 16 * 1024;
+    private static final int FLUSH_EVERY_ROWS = 500;
+    
+    private final Writer writer;
+    private long rowCount;
+    
+    /**
+     * Constructor
+     * 
+     * @param out Stream to write to
+     */
+    public CsvWriter(OutputStream out) {
+        this.writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_SIZE);
+    }
+    
+    /**
+     * Write one row; null values are written as empty fields
+     * 
+     * @param values Field values, written with toString()
+     * @throws IOException if the stream cannot be written
+     */
+    public void writeRow(Object... values) throws IOException {
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            if (values[i] != null) {
+                writeField(values[i].toString());
+            }
+        }
+        writer.write("\r\n");
+        
+        if (++rowCount % FLUSH_EVERY_ROWS == 0) {
+            writer.flush();
+        }
+    }
+    
+    /**
+     * Write a line of text as is, e.g. for formats that are not CSV
+     * 
+     * @param line Line without line terminator
+     * @throws IOException if the stream cannot be written
+     */
+    public void writeLine(String line) throws IOException {
+        writer.write(line);
+        writer.write("\r\n");
+    }
+    
+    /**
+     * Get the number of rows written so far
+     * 
+     * @return Row count
+     */
+    public long getRowCount() {
+        return rowCount;
+    }
+    
+    @Override
+    public void flush() throws IOException {
+        writer.flush();
+    }
+    
+    /**
+     * Write a field, quoted if it contains a separator, a quote or a line break
+     */
+    private void writeField(String value) throws IOException {
+        boolean quote = false;
+        for (int i = 0; i < value.length() && !quote; i++) {
+            char c = value.charAt(i);
+            quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        
+        if (!quote) {
+            writer.write(value);
+            return;
+        }
+        
+        writer.write('"');
+        writer.write(value.replace("\"", "\"\""));
+        writer.write('"');
+    }
+}
@@ -5,18 +5,23 @@ import java.util.Properties;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
+import javax.mail.Address;
 import javax.mail.Authenticator;
 import javax.mail.Message;
 import javax.mail.MessagingException;
 import javax.mail.PasswordAuthentication;
+import javax.mail.SendFailedException;
 import javax.mail.Session;
 import javax.mail.Transport;
+import javax.mail.internet.AddressException;
 import javax.mail.internet.InternetAddress;
 import javax.mail.internet.MimeMessage;
 
 /**
  * Utility class for sending emails.
  * Supports both actual SMTP sending and mock mode for development.
+ * Emails sent from a request should go through the email outbox (EmailService) instead,
+ * which sends them in the background over a reused connection.
  */
 public class EmailUtil {
     
@@ -30,6 +35,8 @@ public class EmailUtil {
     private static final String PASSWORD = AppConfig.getProperty("mail.password", "");
     private static final String FROM_ADDRESS = AppConfig.getProperty("mail.from", "noreply@scm-system.com");
     
+    private static volatile Session session;
+    
     // Private constructor to prevent instantiation
     private EmailUtil() {
     }
@@ -63,51 +70,8 @@ public class EmailUtil {
         }
         
         try {
-            // Set up mail server properties
-            Properties props = new Properties();
-            props.put("mail.smtp.host", SMTP_HOST);
-            props.put("mail.smtp.port", SMTP_PORT);
-            props.put("mail.smtp.auth", String.valueOf(SMTP_AUTH));
-            props.put("mail.smtp.starttls.enable", String.valueOf(SMTP_STARTTLS));
-            
-            // Create a mail session with or without authentication
-            Session session;
-            if (SMTP_AUTH) {
-                session = Session.getInstance(props, new Authenticator() {
-                    @Override
-                    protected PasswordAuthentication getPasswordAuthentication() {
-                        return new PasswordAuthentication(USERNAME, PASSWORD);
-                    }
-                });
-            } else {
-                session = Session.getInstance(props);
-            }
-            
-            // Create and configure the email message
-            Message message = new MimeMessage(session);
-            message.setFrom(new InternetAddress(FROM_ADDRESS));
-            message.setRecipients(Message.RecipientType.TO, InternetAddress.parse(to));
-            
-            if (cc != null && !cc.isEmpty()) {
-                message.setRecipients(Message.RecipientType.CC, InternetAddress.parse(cc));
-            }
-            
-            if (bcc != null && !bcc.isEmpty()) {
-                message.setRecipients(Message.RecipientType.BCC, InternetAddress.parse(bcc));
-            }
-            
-            message.setSubject(subject);
-            message.setSentDate(new Date());
-            
-            // Set the message content
-            if (isHtml) {
-                message.setContent(body, "text/html; charset=utf-8");
-            } else {
-                message.setText(body);
-            }
-            
-            // Send the message
-            Transport.send(message);
+            // Send the message over a connection of its own
+            Transport.send(createMessage(to, cc, bcc, subject, body, isHtml));
             LOGGER.log(Level.INFO, "Email sent successfully to {0}", to);
             return true;
             
@@ -117,6 +81,97 @@ public class EmailUtil {
         }
     }
     
+    /**
+     * Open a connection for sending several emails over one SMTP session.
+     * The connection is established on first use and must be closed by the caller.
+     * 
+     * @return New, not yet connected mail connection
+     */
+    public static MailConnection openConnection() {
+        return new MailConnection();
+    }
+    
+    /**
+     * Check whether retrying a failed send cannot help, e.g. because an address is malformed
+     * or was rejected by the server
+     * 
+     * @param e Failure of a send
+     * @return true if the email should not be retried
+     */
+    public static boolean isPermanentFailure(MessagingException e) {
+        if (e instanceof AddressException) {
+            return true;
+        }
+        if (e instanceof SendFailedException) {
+            Address[] invalid = ((SendFailedException) e).getInvalidAddresses();
+            return invalid != null && invalid.length > 0;
+        }
+        return false;
+    }
+    
+    /**
+     * Get the mail session, created once from the mail settings
+     */
+    private static Session getSession() {
+        Session current = session;
+        if (current == null) {
+            synchronized (EmailUtil.class) {
+                current = session;
+                if (current == null) {
+                    // Set up mail server properties
+                    Properties props = new Properties();
+                    props.put("mail.smtp.host", SMTP_HOST);
+                    props.put("mail.smtp.port", SMTP_PORT);
+                    props.put("mail.smtp.auth", String.valueOf(SMTP_AUTH));
+                    props.put("mail.smtp.starttls.enable", String.valueOf(SMTP_STARTTLS));
+                    
+                    // Create a mail session with or without authentication
+                    if (SMTP_AUTH) {
+                        current = Session.getInstance(props, new Authenticator() {
+                            @Override
+                            protected PasswordAuthentication getPasswordAuthentication() {
+                                return new PasswordAuthentication(USERNAME, PASSWORD);
+                            }
+                        });
+                    } else {
+                        current = Session.getInstance(props);
+                    }
+                    session = current;
+                }
+            }
+        }
+        return current;
+    }
+    
+    /**
+     * Create and configure an email message
+     */
+    private static MimeMessage createMessage(String to, String cc, String bcc, String subject, String body,
+                                             boolean isHtml) throws MessagingException {
+        MimeMessage message = new MimeMessage(getSession());
+        message.setFrom(new InternetAddress(FROM_ADDRESS));
+        message.setRecipients(Message.RecipientType.TO, InternetAddress.parse(to));
+        
+        if (cc != null && !cc.isEmpty()) {
+            message.setRecipients(Message.RecipientType.CC, InternetAddress.parse(cc));
+        }
+        
+        if (bcc != null && !bcc.isEmpty()) {
+            message.setRecipients(Message.RecipientType.BCC, InternetAddress.parse(bcc));
+        }
+        
+        message.setSubject(subject);
+        message.setSentDate(new Date());
+        
+        // Set the message content
+        if (isHtml) {
+            message.setContent(body, "text/html; charset=utf-8");
+        } else {
+            message.setText(body, "utf-8");
+        }
+        return message;
+    }
+    
     /**
      * Mock implementation of email sending for development/testing.
      * 
@@ -149,4 +204,84 @@ public class EmailUtil {
         LOGGER.log(Level.INFO, logMessage.toString());
         return true;
     }
+    
+    /**
+     * One SMTP connection reused for several emails; in mock mode emails are logged instead.
+     * Not thread-safe: meant for a single dispatching thread.
+     */
+    public static final class MailConnection implements AutoCloseable {
+        
+        private Transport transport;
+        
+        private MailConnection() {
+        }
+        
+        /**
+         * Connect to the mail server, or check that the existing connection is still alive.
+         * Reconnects when the server closed the connection in the meantime.
+         * 
+         * @throws MessagingException if the mail server cannot be reached
+         */
+        public void connect() throws MessagingException {
+            if (USE_MOCK) {
+                return;
+            }
+            if (transport != null && transport.isConnected()) {
+                return;
+            }
+            
+            close();
+            Transport newTransport = getSession().getTransport("smtp");
+            newTransport.connect(SMTP_HOST, Integer.parseInt(SMTP_PORT),
+                    SMTP_AUTH ? USERNAME : null, SMTP_AUTH ? PASSWORD : null);
+            transport = newTransport;
+        }
+        
+        /**
+         * Send an email over this connection
+         * 
+         * @param to primary recipient email address
+         * @param cc carbon copy recipient email addresses (comma-separated)
+         * @param bcc blind carbon copy recipient email addresses (comma-separated)
+         * @param subject email subject
+         * @param body email body content
+         * @param isHtml true if the body contains HTML
+         * @throws MessagingException if the email could not be sent; see {@link #isPermanentFailure}
+         */
+        public void send(String to, String cc, String bcc, String subject, String body, boolean isHtml)
+                throws MessagingException {
+            if (USE_MOCK) {
+                mockSendEmail(to, cc, bcc, subject, body);
+                return;
+            }
+            
+            MimeMessage message = createMessage(to, cc, bcc, subject, body, isHtml);
+            message.saveChanges();
+            if (transport == null) {
+                connect();
+            }
+            try {
+                transport.sendMessage(message, message.getAllRecipients());
+            } catch (SendFailedException e) {
+                // Rejected recipients; the connection itself is still usable
+                throw e;
+            } catch (MessagingException e) {
+                // The session may be broken; the next send connects again
+                close();
+                throw e;
+            }
+        }
+        
+        @Override
+        public void close() {
+            if (transport != null) {
+                try {
+                    transport.close();
+                } catch (MessagingException e) {
+                    LOGGER.log(Level.FINE, "Failed to close mail connection", e);
+                }
+                transport = null;
+            }
+        }
+    }
 } 
\ No newline at end of file
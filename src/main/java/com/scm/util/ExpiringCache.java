@@ -0,0 +1,91 @@
+package com.scm.util;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Small thread-safe in-memory cache whose entries expire a fixed time after
+ * they were stored. Intended for short-lived results of expensive read-only
+ * queries (dashboard widgets and the like), not as a general purpose cache.
+ * 
+ * @param <K> Key type
+ * @param <V> Value type
+ */
+public class ExpiringCache<K, V> {
+    
+    private final Map<K, Entry<V>> entries = new ConcurrentHashMap<>();
+    private final long timeToLiveMillis;
+    private final int maxEntries;
+    
+    /**
+     * Constructor
+     * 
+     * @param timeToLiveMillis How long an entry stays valid, in milliseconds; 0 or less disables caching
+     * @param maxEntries Maximum number of entries kept; expired entries are purged when it is reached
+     */
+    public ExpiringCache(long timeToLiveMillis, int maxEntries) {
+        this.timeToLiveMillis = timeToLiveMillis;
+        this.maxEntries = maxEntries;
+    }
+    
+    /**
+     * Get a cached value
+     * 
+     * @param key The key
+     * @return The value, or null if absent or expired
+     */
+    public V get(K key) {
+        Entry<V> entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.isExpired(System.currentTimeMillis())) {
+            entries.remove(key, entry);
+            return null;
+        }
+        return entry.value;
+    }
+    
+    /**
+     * Store a value
+     * 
+     * @param key The key
+     * @param value The value
+     */
+    public void put(K key, V value) {
+        if (timeToLiveMillis <= 0 || value == null) {
+            return;
+        }
+        
+        long now = System.currentTimeMillis();
+        if (entries.size() >= maxEntries) {
+            entries.values().removeIf(entry -> entry.isExpired(now));
+            if (entries.size() >= maxEntries) {
+                entries.clear();
+            }
+        }
+        entries.put(key, new Entry<>(value, now + timeToLiveMillis));
+    }
+    
+    /**
+     * Remove all entries
+     */
+    public void clear() {
+        entries.clear();
+    }
+    
+    private static final class Entry<V> {
+        
+        private final V value;
+        private final long expiresAt;
+        
+        private Entry(V value, long expiresAt) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+        
+        private boolean isExpired(long now) {
+            return now >= expiresAt;
+        }
+    }
+}
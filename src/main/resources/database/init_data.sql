@@ -152,4 +152,26 @@ INSERT INTO stock_movements (product_id, movement_type, quantity, reference_id,
     (4, 'return_item', 2, 3, DATE_SUB(NOW(), INTERVAL 1 DAY), 'Customer return - defective'),
     
     -- Waste/Damage
-    (8, 'waste', -1, NULL, DATE_SUB(NOW(), INTERVAL 6 DAY), 'Damaged during handling'); 
\ No newline at end of file
+    (8, 'waste', -1, NULL, DATE_SUB(NOW(), INTERVAL 6 DAY), 'Damaged during handling');
+
+-- Align the pooled id generators with the rows inserted above
+INSERT INTO id_generators (sequence_name, next_val)
+    SELECT 'customer_orders', COALESCE(MAX(id), 0) FROM customer_orders
+    ON DUPLICATE KEY UPDATE next_val = GREATEST(next_val, VALUES(next_val));
+INSERT INTO id_generators (sequence_name, next_val)
+    SELECT 'order_items', COALESCE(MAX(id), 0) FROM order_items
+    ON DUPLICATE KEY UPDATE next_val = GREATEST(next_val, VALUES(next_val));
+INSERT INTO id_generators (sequence_name, next_val)
+    SELECT 'supplier_order_items', COALESCE(MAX(id), 0) FROM supplier_order_items
+    ON DUPLICATE KEY UPDATE next_val = GREATEST(next_val, VALUES(next_val));
+INSERT INTO id_generators (sequence_name, next_val)
+    SELECT 'stock_movements', COALESCE(MAX(id), 0) FROM stock_movements
+    ON DUPLICATE KEY UPDATE next_val = GREATEST(next_val, VALUES(next_val));
+
+-- Build the daily sales rollup from the orders inserted above
+DELETE FROM daily_sales_rollup;
+INSERT INTO daily_sales_rollup (sales_date, status, order_count, revenue, item_count)
+    SELECT DATE(o.order_date), o.status, COUNT(*), SUM(o.total_amount), COALESCE(SUM(items.quantity), 0)
+    FROM customer_orders o
+    LEFT JOIN (SELECT order_id, SUM(quantity) AS quantity FROM order_items GROUP BY order_id) items ON items.order_id = o.id
+    GROUP BY DATE(o.order_date), o.status;
@@ -12,6 +12,9 @@ DROP TABLE IF EXISTS stock;
 DROP TABLE IF EXISTS suppliers;
 DROP TABLE IF EXISTS products;
 DROP TABLE IF EXISTS users;
+DROP TABLE IF EXISTS id_generators;
+DROP TABLE IF EXISTS daily_sales_rollup;
+DROP TABLE IF EXISTS email_outbox;
 
 -- Create Users table
 CREATE TABLE users (
@@ -36,6 +39,7 @@ CREATE TABLE products (
     unit_price DECIMAL(10, 2) NOT NULL,
     reorder_level INT NOT NULL DEFAULT 0,
     created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    version INT NOT NULL DEFAULT 0,
     
     INDEX idx_products_sku (sku),
     INDEX idx_products_name (name)
@@ -62,6 +66,7 @@ CREATE TABLE stock (
     product_id INT NOT NULL,
     quantity_available INT NOT NULL DEFAULT 0,
     last_updated TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+    version INT NOT NULL DEFAULT 0,
     
     CONSTRAINT fk_stock_product FOREIGN KEY (product_id) REFERENCES products(id) ON DELETE CASCADE ON UPDATE CASCADE,
     UNIQUE INDEX idx_stock_product (product_id)
@@ -89,6 +94,7 @@ CREATE TABLE customer_orders (
     order_date TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
     status ENUM('pending', 'processing', 'shipped', 'delivered', 'cancelled') NOT NULL DEFAULT 'pending',
     total_amount DECIMAL(12, 2) NOT NULL DEFAULT 0.00,
+    version INT NOT NULL DEFAULT 0,
     
     INDEX idx_customer_orders_customer_email (customer_email),
     INDEX idx_customer_orders_order_date (order_date),
@@ -107,7 +113,9 @@ CREATE TABLE order_items (
     CONSTRAINT fk_order_items_product FOREIGN KEY (product_id) REFERENCES products(id) ON UPDATE CASCADE,
     INDEX idx_order_items_order_id (order_id),
     INDEX idx_order_items_product_id (product_id),
-    UNIQUE INDEX idx_order_items_order_product (order_id, product_id)
+    UNIQUE INDEX idx_order_items_order_product (order_id, product_id),
+    -- Covers the top selling products aggregate so it never reads the table rows
+    INDEX idx_order_items_order_sales (order_id, product_id, quantity, unit_price)
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
 
 -- Create Supplier_Orders table
@@ -118,6 +126,7 @@ CREATE TABLE supplier_orders (
     status ENUM('pending', 'placed', 'confirmed', 'shipped', 'delivered', 'cancelled') NOT NULL DEFAULT 'pending',
     total_amount DECIMAL(12, 2) NOT NULL DEFAULT 0.00,
     expected_delivery DATE,
+    version INT NOT NULL DEFAULT 0,
     
     CONSTRAINT fk_supplier_orders_supplier FOREIGN KEY (supplier_id) REFERENCES suppliers(id) ON UPDATE CASCADE,
     INDEX idx_supplier_orders_supplier_id (supplier_id),
@@ -155,4 +164,59 @@ CREATE TABLE stock_movements (
     INDEX idx_stock_movements_movement_type (movement_type),
     INDEX idx_stock_movements_movement_date (movement_date),
     INDEX idx_stock_movements_reference_id (reference_id)
-) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci; 
\ No newline at end of file
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+-- Create Id_Generators table
+-- Backs the pooled identifier generator used by high-volume tables: each row holds the last id
+-- handed out for one table, and the application reserves ids in blocks so inserts can be batched
+CREATE TABLE id_generators (
+    sequence_name VARCHAR(255) NOT NULL PRIMARY KEY,
+    next_val BIGINT NOT NULL
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+INSERT INTO id_generators (sequence_name, next_val) VALUES
+    ('customer_orders', 0),
+    ('order_items', 0),
+    ('supplier_order_items', 0),
+    ('stock_movements', 0),
+    ('email_outbox', 0);
+
+-- Create Daily_Sales_Rollup table
+-- One row per day and order status, maintained by the application in the same transaction as
+-- order changes; sales charts read these rows instead of scanning customer_orders
+CREATE TABLE daily_sales_rollup (
+    sales_date DATE NOT NULL,
+    status VARCHAR(20) NOT NULL,
+    order_count INT NOT NULL DEFAULT 0,
+    revenue DECIMAL(14, 2) NOT NULL DEFAULT 0.00,
+    item_count INT NOT NULL DEFAULT 0,
+    
+    PRIMARY KEY (sales_date, status)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+-- Create Email_Outbox table
+-- Emails are written in the same transaction as the change they report and sent by a background
+-- dispatcher; failed sends are retried with backoff and end up DEAD when they cannot be delivered.
+-- A dispatcher claims a batch (SENDING, claimed_by, lease_expires_at) before sending it outside any
+-- transaction; an email whose lease expired without a result is claimed again
+CREATE TABLE email_outbox (
+    id INT AUTO_INCREMENT PRIMARY KEY,
+    recipient VARCHAR(255) NOT NULL,
+    cc VARCHAR(255),
+    bcc VARCHAR(255),
+    subject VARCHAR(255) NOT NULL,
+    body MEDIUMTEXT NOT NULL,
+    html BOOLEAN NOT NULL DEFAULT FALSE,
+    status ENUM('PENDING', 'SENDING', 'SENT', 'DEAD') NOT NULL DEFAULT 'PENDING',
+    attempts INT NOT NULL DEFAULT 0,
+    next_attempt_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    sent_at TIMESTAMP NULL,
+    last_error VARCHAR(1000),
+    claimed_by VARCHAR(100),
+    lease_expires_at TIMESTAMP NULL,
+    
+    INDEX idx_email_outbox_status_next_attempt (status, next_attempt_at),
+    INDEX idx_email_outbox_status_lease (status, lease_expires_at),
+    INDEX idx_email_outbox_status_sent_at (status, sent_at)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
@@ -28,6 +28,13 @@
     </div>
 </div>
 
+<c:if test="${not empty unavailableWidgets}">
+    <div class="alert alert-warning" role="alert">
+        <i class="fas fa-exclamation-triangle me-2"></i>
+        Some dashboard data could not be loaded in time: ${fn:join(unavailableWidgets.toArray(), ', ')}
+    </div>
+</c:if>
+
 <!-- Stats Cards -->
 <div class="row mb-4">
     <!-- Sales Stats -->
@@ -233,14 +240,14 @@
                                     </tr>
                                 </thead>
                                 <tbody>
-                                    <c:forEach var="product" items="${stockAlerts}">
-                                        <tr class="${product.stock.quantity == 0 ? 'table-danger' : 'table-warning'}">
-                                            <td>${product.name}</td>
-                                            <td>${product.sku}</td>
-                                            <td>${product.stock.quantity}</td>
-                                            <td>${product.reorderLevel}</td>
+                                    <c:forEach var="alert" items="${stockAlerts}">
+                                        <tr class="${alert.level == 'OUT_OF_STOCK' ? 'table-danger' : alert.level == 'LOW_STOCK' ? 'table-warning' : ''}">
+                                            <td>${alert.name}</td>
+                                            <td>${alert.sku}</td>
+                                            <td>${alert.quantityAvailable}</td>
+                                            <td>${alert.reorderLevel}</td>
                                             <td>
-                                                <a href="${pageContext.request.contextPath}/stock/view/${product.id}" class="btn btn-sm btn-primary">
+                                                <a href="${pageContext.request.contextPath}/stock/view/${alert.productId}" class="btn btn-sm btn-primary">
                                                     <i class="fas fa-eye"></i> View
                                                 </a>
                                             </td>
@@ -285,6 +292,169 @@
     </div>
 </div>
 
+<!-- Second-Level Cache (administrators only) -->
+<c:if test="${not empty cacheStats}">
+<div class="row">
+    <div class="col-12">
+        <div class="card shadow mb-4">
+            <div class="card-header py-3">
+                <h6 class="m-0 font-weight-bold text-primary">Entity Cache</h6>
+            </div>
+            <div class="card-body">
+                <div class="table-responsive">
+                    <table class="table table-bordered table-sm" width="100%" cellspacing="0">
+                        <thead>
+                            <tr>
+                                <th>Region</th>
+                                <th>Hits</th>
+                                <th>Misses</th>
+                                <th>Puts</th>
+                                <th>Hit Ratio</th>
+                            </tr>
+                        </thead>
+                        <tbody>
+                            <c:forEach var="region" items="${cacheStats}">
+                                <tr>
+                                    <td>${region.region}</td>
+                                    <td>${region.hits}</td>
+                                    <td>${region.misses}</td>
+                                    <td>${region.puts}</td>
+                                    <td><fmt:formatNumber value="${region.hitRatio}" maxFractionDigits="1" />%</td>
+                                </tr>
+                            </c:forEach>
+                        </tbody>
+                    </table>
+                </div>
+                <c:if test="${not empty queryPlanStats}">
+                    <p class="mb-0 small text-muted">
+                        Query plan cache: ${queryPlanStats.hits} hits, ${queryPlanStats.misses} misses
+                        (<fmt:formatNumber value="${queryPlanStats.hitRatio}" maxFractionDigits="1" />%)
+                    </p>
+                </c:if>
+            </div>
+        </div>
+    </div>
+</div>
+</c:if>
+
+<!-- Connection Pools (administrators only) -->
+<c:if test="${not empty poolStats}">
+<div class="row">
+    <div class="col-12">
+        <div class="card shadow mb-4">
+            <div class="card-header py-3">
+                <h6 class="m-0 font-weight-bold text-primary">Connection Pools</h6>
+            </div>
+            <div class="card-body">
+                <div class="table-responsive">
+                    <table class="table table-bordered table-sm" width="100%" cellspacing="0">
+                        <thead>
+                            <tr>
+                                <th>Pool</th>
+                                <th>Active / Max</th>
+                                <th>Idle</th>
+                                <th>Waiting</th>
+                                <th>Saturation</th>
+                                <th>Avg Wait</th>
+                                <th>Max Wait</th>
+                                <th>Timeouts</th>
+                            </tr>
+                        </thead>
+                        <tbody>
+                            <c:forEach var="pool" items="${poolStats}">
+                                <tr class="${pool.pending > 0 ? 'table-warning' : ''}">
+                                    <td>${pool.pool}</td>
+                                    <td>${pool.active} / ${pool.max}</td>
+                                    <td>${pool.idle}</td>
+                                    <td>${pool.pending}</td>
+                                    <td><fmt:formatNumber value="${pool.saturation}" maxFractionDigits="1" />%</td>
+                                    <td><fmt:formatNumber value="${pool.avgWaitMs}" maxFractionDigits="2" /> ms</td>
+                                    <td><fmt:formatNumber value="${pool.maxWaitMs}" maxFractionDigits="2" /> ms</td>
+                                    <td>${pool.timeouts}</td>
+                                </tr>
+                            </c:forEach>
+                        </tbody>
+                    </table>
+                </div>
+            </div>
+        </div>
+    </div>
+</div>
+</c:if>
+
+<!-- Order Total Verification (administrators only) -->
+<c:if test="${not empty orderTotalReport}">
+<div class="row">
+    <div class="col-12">
+        <div class="card shadow mb-4">
+            <div class="card-header py-3">
+                <h6 class="m-0 font-weight-bold text-primary">Order Total Verification</h6>
+            </div>
+            <div class="card-body">
+                <p class="mb-1">
+                    Last run ${orderTotalReport.finishedAt.toLocalDate()} ${orderTotalReport.finishedAt.toLocalTime().withNano(0)}:
+                    ${orderTotalReport.ordersChecked} orders checked in ${orderTotalReport.durationMs} ms
+                </p>
+                <c:choose>
+                    <c:when test="${orderTotalReport.driftedOrders > 0}">
+                        <p class="mb-0 text-danger">
+                            ${orderTotalReport.driftedOrders} orders drifted by
+                            <fmt:formatNumber value="${orderTotalReport.totalDrift}" type="currency" currencySymbol="$" /> in total
+                            (orders ${orderTotalReport.driftedOrderIds})
+                        </p>
+                    </c:when>
+                    <c:otherwise>
+                        <p class="mb-0 text-success">All order totals match their items</p>
+                    </c:otherwise>
+                </c:choose>
+            </div>
+        </div>
+    </div>
+</div>
+</c:if>
+
+<!-- Domain Event Bus (administrators only) -->
+<c:if test="${not empty eventBusStats}">
+<div class="row">
+    <div class="col-12">
+        <div class="card shadow mb-4">
+            <div class="card-header py-3">
+                <h6 class="m-0 font-weight-bold text-primary">Domain Events</h6>
+            </div>
+            <div class="card-body">
+                <p class="mb-0">
+                    ${eventBusStats.published} published, ${eventBusStats.backlog} of ${eventBusStats.capacity} ring slots pending
+                    <c:if test="${eventBusStats.dropped > 0}">
+                        <span class="text-danger">, ${eventBusStats.dropped} dropped while the ring was full</span>
+                    </c:if>
+                </p>
+            </div>
+        </div>
+    </div>
+</div>
+</c:if>
+
+<!-- Email Outbox (administrators only) -->
+<c:if test="${not empty outboxStats}">
+<div class="row">
+    <div class="col-12">
+        <div class="card shadow mb-4">
+            <div class="card-header py-3">
+                <h6 class="m-0 font-weight-bold text-primary">Email Outbox</h6>
+            </div>
+            <div class="card-body">
+                <p class="mb-0">
+                    ${outboxStats.PENDING} pending, ${outboxStats.SENDING} sending, ${outboxStats.SENT} sent
+                    <c:if test="${outboxStats.DEAD > 0}">
+                        <span class="text-danger">, ${outboxStats.DEAD} undeliverable</span>
+                    </c:if>
+                </p>
+            </div>
+        </div>
+    </div>
+</div>
+</c:if>
+
 <!-- Export Report Form (Hidden) -->
 <form id="exportReportForm" action="${pageContext.request.contextPath}/dashboard" method="post" style="display: none;">
     <input type="hidden" name="_csrf" value="${pageContext.request.getSession().getAttribute('csrfToken')}" />
@@ -68,7 +68,7 @@
                                 <tr>
                                     <td>${order.id}</td>
                                     <td>${order.customerName}</td>
-                                    <td><fmt:formatDate value="${order.createdAt}" pattern="yyyy-MM-dd" /></td>
+                                    <td>${order.orderDate.toLocalDate()}</td>
                                     <td>
                                         <span class="badge bg-${order.status == 'NEW' ? 'primary' : 
                                                              order.status == 'PROCESSING' ? 'info' : 
@@ -80,7 +80,7 @@
                                         </span>
                                     </td>
                                     <td>
-                                        <fmt:formatNumber value="${order.total}" type="currency" currencySymbol="$" />
+                                        <fmt:formatNumber value="${order.totalAmount}" type="currency" currencySymbol="$" />
                                     </td>
                                     <td>
                                         <div class="btn-group" role="group">
@@ -110,6 +110,18 @@
                         </tbody>
                     </table>
                 </div>
+                <c:if test="${not empty previousCursor or not empty nextCursor}">
+                    <nav aria-label="Order pages">
+                        <ul class="pagination justify-content-end mb-0">
+                            <li class="page-item ${empty previousCursor ? 'disabled' : ''}">
+                                <a class="page-link" href="${pageContext.request.contextPath}/orders?cursor=${previousCursor}">Previous</a>
+                            </li>
+                            <li class="page-item ${empty nextCursor ? 'disabled' : ''}">
+                                <a class="page-link" href="${pageContext.request.contextPath}/orders?cursor=${nextCursor}">Next</a>
+                            </li>
+                        </ul>
+                    </nav>
+                </c:if>
             </c:otherwise>
         </c:choose>
     </div>
@@ -158,8 +170,9 @@
         // Initialize DataTable if available
         if ($.fn.DataTable) {
             $('#ordersTable').DataTable({
-                "order": [[ 0, "desc" ]],
-                "pageLength": 25
+                // Rows are paged and ordered by the server
+                "order": [],
+                "paging": false
             });
         }
     });
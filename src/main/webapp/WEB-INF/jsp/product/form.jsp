@@ -35,6 +35,11 @@
             <!-- CSRF Protection -->
             <input type="hidden" name="_csrf" value="${pageContext.request.getSession().getAttribute('csrfToken')}" />
             
+            <!-- Version the product was loaded with, so a concurrent edit is detected -->
+            <c:if test="${not empty product}">
+                <input type="hidden" name="version" value="${product.version}" />
+            </c:if>
+            
             <div class="row mb-3">
                 <div class="col-md-6">
                     <label for="name" class="form-label">Product Name <span class="text-danger">*</span></label>
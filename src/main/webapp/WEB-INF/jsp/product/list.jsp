@@ -72,14 +72,14 @@
                                     <td><fmt:formatNumber value="${product.unitPrice}" type="currency" currencySymbol="$" /></td>
                                     <td>
                                         <c:choose>
-                                            <c:when test="${product.stock.quantity == 0}">
+                                            <c:when test="${product.quantityAvailable == 0}">
                                                 <span class="badge bg-danger">Out of Stock</span>
                                             </c:when>
-                                            <c:when test="${product.stock.quantity <= product.reorderLevel}">
-                                                <span class="badge bg-warning text-dark">${product.stock.quantity} (Low)</span>
+                                            <c:when test="${product.quantityAvailable <= product.reorderLevel}">
+                                                <span class="badge bg-warning text-dark">${product.quantityAvailable} (Low)</span>
                                             </c:when>
                                             <c:otherwise>
-                                                <span class="badge bg-success">${product.stock.quantity}</span>
+                                                <span class="badge bg-success">${product.quantityAvailable}</span>
                                             </c:otherwise>
                                         </c:choose>
                                     </td>
@@ -108,6 +108,18 @@
                         </tbody>
                     </table>
                 </div>
+                <c:if test="${not empty previousCursor or not empty nextCursor}">
+                    <nav aria-label="Product pages">
+                        <ul class="pagination justify-content-end mb-0">
+                            <li class="page-item ${empty previousCursor ? 'disabled' : ''}">
+                                <a class="page-link" href="${pageContext.request.contextPath}/products?cursor=${previousCursor}">Previous</a>
+                            </li>
+                            <li class="page-item ${empty nextCursor ? 'disabled' : ''}">
+                                <a class="page-link" href="${pageContext.request.contextPath}/products?cursor=${nextCursor}">Next</a>
+                            </li>
+                        </ul>
+                    </nav>
+                </c:if>
             </c:otherwise>
         </c:choose>
     </div>
@@ -157,8 +169,9 @@
         // Initialize DataTable if available
         if ($.fn.DataTable) {
             $('#productsTable').DataTable({
-                "order": [[ 0, "desc" ]],
-                "pageLength": 25
+                // Rows are paged and ordered by the server
+                "order": [],
+                "paging": false
             });
         }
     });
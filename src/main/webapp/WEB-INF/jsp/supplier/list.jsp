@@ -64,11 +64,11 @@
                                     <td>${supplier.phone}</td>
                                     <td>
                                         <c:choose>
-                                            <c:when test="${empty supplier.products}">
+                                            <c:when test="${supplier.productCount == 0}">
                                                 <span class="badge bg-secondary">0</span>
                                             </c:when>
                                             <c:otherwise>
-                                                <span class="badge bg-info">${fn:length(supplier.products)}</span>
+                                                <span class="badge bg-info">${supplier.productCount}</span>
                                             </c:otherwise>
                                         </c:choose>
                                     </td>
@@ -100,6 +100,18 @@
                         </tbody>
                     </table>
                 </div>
+                <c:if test="${not empty previousCursor or not empty nextCursor}">
+                    <nav aria-label="Supplier pages">
+                        <ul class="pagination justify-content-end mb-0">
+                            <li class="page-item ${empty previousCursor ? 'disabled' : ''}">
+                                <a class="page-link" href="${pageContext.request.contextPath}/suppliers?cursor=${previousCursor}">Previous</a>
+                            </li>
+                            <li class="page-item ${empty nextCursor ? 'disabled' : ''}">
+                                <a class="page-link" href="${pageContext.request.contextPath}/suppliers?cursor=${nextCursor}">Next</a>
+                            </li>
+                        </ul>
+                    </nav>
+                </c:if>
             </c:otherwise>
         </c:choose>
     </div>
@@ -150,8 +162,9 @@
         // Initialize DataTable if available
         if ($.fn.DataTable) {
             $('#suppliersTable').DataTable({
-                "order": [[ 0, "desc" ]],
-                "pageLength": 25
+                // Rows are paged and ordered by the server
+                "order": [],
+                "paging": false
             });
         }
     });
@@ -0,0 +1,161 @@
+package com.scm.dao.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.lang.reflect.Field;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.EntityTransaction;
+import javax.persistence.Persistence;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.function.Executable;
+
+import com.scm.dao.util.StatementCounter;
+
+/**
+ * Base class of the DAO and service tests.
+ * Each test class gets its own in-memory H2 database in MySQL mode, created from the
+ * entity mappings (persistence unit scmTestPU), and each test its own EntityManager,
+ * which the DAOs under test are wired to with {@link #dao}. Services are wired to
+ * those DAOs with {@link #inject}; their interceptors do not run, so tests open the
+ * transaction themselves.
+ */
+public abstract class JpaTestSupport {
+    
+    private static EntityManagerFactory entityManagerFactory;
+    
+    protected EntityManager entityManager;
+    
+    @BeforeAll
+    static void createDatabase() {
+        String url = "jdbc:h2:mem:" + UUID.randomUUID() + ";MODE=MySQL;DB_CLOSE_DELAY=-1";
+        entityManagerFactory = Persistence.createEntityManagerFactory("scmTestPU",
+                Map.of("javax.persistence.jdbc.url", url));
+    }
+    
+    @AfterAll
+    static void dropDatabase() {
+        entityManagerFactory.close();
+    }
+    
+    @BeforeEach
+    void openEntityManager() {
+        entityManager = entityManagerFactory.createEntityManager();
+    }
+    
+    @AfterEach
+    void closeEntityManager() {
+        if (entityManager.getTransaction().isActive()) {
+            entityManager.getTransaction().rollback();
+        }
+        entityManager.close();
+    }
+    
+    /**
+     * Wire a DAO to the EntityManager of the current test
+     * 
+     * @param dao DAO
+     * @return The DAO
+     */
+    protected <D extends AbstractJpaDao<?, ?>> D dao(D dao) {
+        dao.entityManager = entityManager;
+        return dao;
+    }
+    
+    /**
+     * Set the fields of a service that can hold one of the given dependencies, as the
+     * container would inject them
+     * 
+     * @param service Service
+     * @param dependencies DAOs and other collaborators
+     * @return The service
+     */
+    protected static <S> S inject(S service, Object... dependencies) {
+        for (Field field : service.getClass().getDeclaredFields()) {
+            for (Object dependency : dependencies) {
+                if (field.getType().isInstance(dependency)) {
+                    field.setAccessible(true);
+                    try {
+                        field.set(service, dependency);
+                    } catch (IllegalAccessException e) {
+                        throw new IllegalStateException("Cannot inject " + field, e);
+                    }
+                }
+            }
+        }
+        return service;
+    }
+    
+    /**
+     * Run work in a transaction that is committed afterwards, then clear the persistence
+     * context so later reads go to the database
+     * 
+     * @param work Work
+     * @return Result of the work
+     */
+    protected <R> R inTransaction(Supplier<R> work) {
+        EntityTransaction transaction = entityManager.getTransaction();
+        transaction.begin();
+        try {
+            R result = work.get();
+            transaction.commit();
+            return result;
+        } finally {
+            if (transaction.isActive()) {
+                transaction.rollback();
+            }
+            entityManager.clear();
+        }
+    }
+    
+    /**
+     * Run work in a transaction, as {@link #inTransaction(Supplier)}
+     * 
+     * @param work Work
+     */
+    protected void inTransaction(Runnable work) {
+        inTransaction(() -> {
+            work.run();
+            return null;
+        });
+    }
+    
+    /**
+     * Count the SQL statements Hibernate prepares while running work
+     * 
+     * @param work Work
+     * @return Statement count
+     */
+    protected static int countStatements(Runnable work) {
+        StatementCounter.reset();
+        work.run();
+        return StatementCounter.getCount();
+    }
+    
+    /**
+     * Assert the number of SQL statements Hibernate prepares while running work,
+     * including the lazy loads triggered by the work itself
+     * 
+     * @param expected Expected statement count
+     * @param work Work, typically a service call followed by reading what the caller uses
+     */
+    protected static void assertStatementCount(int expected, Executable work) {
+        StatementCounter.reset();
+        try {
+            work.execute();
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new IllegalStateException(e);
+        }
+        assertEquals(expected, StatementCounter.getCount(), "SQL statements");
+    }
+}
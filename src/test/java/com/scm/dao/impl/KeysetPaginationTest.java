@@ -0,0 +1,169 @@
+package com.scm.dao.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.scm.dao.util.Cursor;
+import com.scm.dao.util.Page;
+import com.scm.dao.util.Sort;
+import com.scm.model.Supplier;
+import com.scm.model.dto.SupplierSummary;
+
+/**
+ * Tests of keyset pagination: walking the pages in both directions must visit every row
+ * exactly once in (sort key, ID) order, also across rows with equal sort keys.
+ */
+class KeysetPaginationTest extends JpaTestSupport {
+    
+    private static final String[] NAMES = {
+        "Gamma", "Acme", "Delta", "Acme", "Beta", "Gamma", "Acme", "Epsilon", "Beta", "Zeta", "Acme"
+    };
+    
+    private static boolean seeded;
+    
+    private SupplierDaoImpl supplierDao;
+    
+    @BeforeEach
+    void setUp() {
+        supplierDao = dao(new SupplierDaoImpl());
+        if (!seeded) {
+            inTransaction(() -> {
+                for (int i = 0; i < NAMES.length; i++) {
+                    entityManager.persist(new Supplier(NAMES[i], "supplier" + i + "@example.com",
+                            "555-010" + i, i + " Main Street"));
+                }
+            });
+            seeded = true;
+        }
+    }
+    
+    @Test
+    void forwardPagesVisitEveryRowInOrder() {
+        List<Integer> expected = ids("SELECT s.id FROM Supplier s ORDER BY s.name, s.id");
+        
+        List<Integer> visited = new ArrayList<>();
+        Page<Supplier> page = supplierDao.findPage(null, 3, Sort.asc("name"));
+        assertFalse(page.hasPrevious());
+        while (true) {
+            assertTrue(page.getContent().size() <= 3);
+            visited.addAll(idsOf(page.getContent(), Supplier::getId));
+            if (!page.hasNext()) {
+                break;
+            }
+            page = supplierDao.findPage(page.getNextCursor(), 3, Sort.asc("name"));
+            assertTrue(page.hasPrevious());
+        }
+        
+        assertEquals(expected, visited);
+    }
+    
+    @Test
+    void backwardPagesMirrorForwardPages() {
+        Sort sort = Sort.asc("name");
+        List<List<Integer>> forward = new ArrayList<>();
+        Page<Supplier> page = supplierDao.findPage(null, 4, sort);
+        forward.add(idsOf(page.getContent(), Supplier::getId));
+        while (page.hasNext()) {
+            page = supplierDao.findPage(page.getNextCursor(), 4, sort);
+            forward.add(idsOf(page.getContent(), Supplier::getId));
+        }
+        
+        List<List<Integer>> backward = new ArrayList<>();
+        backward.add(idsOf(page.getContent(), Supplier::getId));
+        while (page.hasPrevious()) {
+            page = supplierDao.findPage(page.getPreviousCursor(), 4, sort);
+            assertTrue(page.hasNext());
+            backward.add(idsOf(page.getContent(), Supplier::getId));
+        }
+        Collections.reverse(backward);
+        
+        // Rows within a page keep the sort order, and the first page has no previous page
+        assertEquals(forward, backward);
+        assertFalse(page.hasPrevious());
+    }
+    
+    @Test
+    void descendingSortOnIdPages() {
+        List<Integer> expected = ids("SELECT s.id FROM Supplier s ORDER BY s.id DESC");
+        
+        List<Integer> visited = new ArrayList<>();
+        Cursor cursor = null;
+        do {
+            Page<Supplier> page = supplierDao.findPage(cursor, 5, Sort.desc("id"));
+            visited.addAll(idsOf(page.getContent(), Supplier::getId));
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+        
+        assertEquals(expected, visited);
+    }
+    
+    @Test
+    void cursorSurvivesEncoding() {
+        Page<Supplier> first = supplierDao.findPage(null, 2, Sort.desc("name"));
+        Cursor decoded = Cursor.decode(first.getNextCursor().encode());
+        
+        Page<Supplier> second = supplierDao.findPage(decoded, 2, Sort.desc("name"));
+        
+        List<Integer> expected = ids("SELECT s.id FROM Supplier s ORDER BY s.name DESC, s.id DESC");
+        assertEquals(expected.subList(2, 4), idsOf(second.getContent(), Supplier::getId));
+    }
+    
+    @Test
+    void summaryPagesFollowTheSameKeyset() {
+        List<Integer> expected = ids("SELECT s.id FROM Supplier s ORDER BY s.name, s.id");
+        
+        List<Integer> visited = new ArrayList<>();
+        Cursor cursor = null;
+        do {
+            Page<SupplierSummary> page = supplierDao.findSummaryPage(cursor, 3);
+            visited.addAll(idsOf(page.getContent(), SupplierSummary::getId));
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+        
+        assertEquals(expected, visited);
+    }
+    
+    @Test
+    void eachPageIsOneQuery() {
+        Page<SupplierSummary> first = supplierDao.findSummaryPage(null, 3);
+        
+        assertStatementCount(1, () -> supplierDao.findSummaryPage(first.getNextCursor(), 3));
+    }
+    
+    @Test
+    void pageSizeMustBePositive() {
+        assertThrows(IllegalArgumentException.class, () -> supplierDao.findPage(null, 0, Sort.asc("name")));
+    }
+    
+    @Test
+    void pagePastTheEndIsEmpty() {
+        List<Integer> all = ids("SELECT s.id FROM Supplier s ORDER BY s.id");
+        Cursor pastLast = Cursor.after(all.get(all.size() - 1), all.get(all.size() - 1));
+        
+        Page<Supplier> page = supplierDao.findPage(pastLast, 3, Sort.asc("id"));
+        
+        assertTrue(page.getContent().isEmpty());
+        assertNull(page.getNextCursor());
+        assertNull(page.getPreviousCursor());
+    }
+    
+    private List<Integer> ids(String query) {
+        return entityManager.createQuery(query, Integer.class).getResultList();
+    }
+    
+    private static <R> List<Integer> idsOf(List<R> rows, Function<R, Integer> id) {
+        return rows.stream().map(id).collect(Collectors.toList());
+    }
+}
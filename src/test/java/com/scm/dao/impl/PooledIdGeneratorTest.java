@@ -0,0 +1,79 @@
+package com.scm.dao.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.scm.dao.util.PooledIdGenerator;
+import com.scm.model.Product;
+import com.scm.model.StockMovement;
+import com.scm.model.StockMovement.MovementType;
+
+/**
+ * Tests that entities using the PooledIdGenerator get their ids without a round trip per row,
+ * so their inserts are sent as JDBC batches.
+ */
+class PooledIdGeneratorTest extends JpaTestSupport {
+    
+    private static final int MOVEMENTS = 120;
+    
+    private StockMovementDaoImpl stockMovementDao;
+    private Product product;
+    
+    @BeforeEach
+    void setUp() {
+        stockMovementDao = dao(new StockMovementDaoImpl());
+        product = inTransaction(() -> {
+            Product newProduct = new Product("Widget", "W-" + System.nanoTime(), new BigDecimal("2.50"));
+            entityManager.persist(newProduct);
+            return newProduct;
+        });
+    }
+    
+    @Test
+    void idIsAssignedOnPersistWithoutInsert() {
+        inTransaction(() -> {
+            StockMovement movement = new StockMovement(entityManager.getReference(Product.class, product.getId()),
+                    MovementType.ADJUSTMENT, 5);
+            
+            int statements = countStatements(() -> stockMovementDao.save(movement));
+            
+            assertNotNull(movement.getId());
+            assertEquals(0, statements, "persist should not execute an INSERT before the flush");
+        });
+    }
+    
+    @Test
+    void insertsAreBatched() {
+        List<StockMovement> movements = new ArrayList<>();
+        int statements = inTransaction(() -> {
+            Product reference = entityManager.getReference(Product.class, product.getId());
+            for (int i = 0; i < MOVEMENTS; i++) {
+                movements.add(new StockMovement(reference, MovementType.ADJUSTMENT, i + 1));
+            }
+            return countStatements(() -> stockMovementDao.saveAll(movements));
+        });
+        
+        // One INSERT is prepared per JDBC batch, not per row
+        int batches = (MOVEMENTS + PooledIdGenerator.BLOCK_SIZE - 1) / PooledIdGenerator.BLOCK_SIZE;
+        assertEquals(batches, statements);
+        
+        Set<Integer> ids = new HashSet<>();
+        for (StockMovement movement : movements) {
+            assertTrue(ids.add(movement.getId()), "duplicate id " + movement.getId());
+        }
+        assertEquals(MOVEMENTS, ((Number) entityManager.createQuery(
+                "SELECT COUNT(m) FROM StockMovement m WHERE m.product.id = :productId")
+                .setParameter("productId", product.getId())
+                .getSingleResult()).intValue());
+    }
+}
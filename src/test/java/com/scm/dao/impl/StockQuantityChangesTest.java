@@ -0,0 +1,65 @@
+package com.scm.dao.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.math.BigDecimal;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.scm.model.Product;
+import com.scm.model.Stock;
+
+/**
+ * Tests that the batched stock updates, which bypass Hibernate, leave no stale Stock
+ * instances in the persistence context.
+ */
+class StockQuantityChangesTest extends JpaTestSupport {
+    
+    private StockDaoImpl stockDao;
+    private Integer productId;
+    
+    @BeforeEach
+    void setUp() {
+        stockDao = dao(new StockDaoImpl());
+        productId = inTransaction(() -> {
+            Product product = new Product("Widget", "W-" + System.nanoTime(), new BigDecimal("10.00"));
+            product.setStock(new Stock(product, 100));
+            entityManager.persist(product);
+            return product.getId();
+        });
+    }
+    
+    @Test
+    void loadedStockCarriesNewQuantityAndVersion() {
+        inTransaction(() -> {
+            Stock loaded = stockDao.findByProductId(productId).orElseThrow();
+            int versionBefore = loaded.getVersion();
+            
+            stockDao.applyQuantityChanges(Map.of(productId, -30));
+            
+            assertEquals(70, loaded.getQuantityAvailable());
+            assertEquals(versionBefore + 1, loaded.getVersion());
+            
+            // The instance can still be changed and flushed without a version conflict
+            loaded.setQuantityAvailable(65);
+            entityManager.flush();
+        });
+        
+        assertEquals(65, stockDao.findByProductId(productId).orElseThrow().getQuantityAvailable());
+    }
+    
+    @Test
+    void stockNotLoadedIsNotRead() {
+        inTransaction(() -> {
+            int statements = countStatements(() -> stockDao.applyQuantityChanges(Map.of(productId, 5)));
+            
+            // Only the SELECT of the changed stock IDs: the JDBC batch is not prepared by
+            // Hibernate, and nothing is refreshed
+            assertEquals(1, statements);
+        });
+        
+        assertEquals(105, stockDao.findByProductId(productId).orElseThrow().getQuantityAvailable());
+    }
+}
@@ -0,0 +1,68 @@
+package com.scm.dao.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests of the cursor tokens exchanged with clients of the paginated lists.
+ */
+class CursorTest {
+    
+    @Test
+    void tokenRoundTrips() {
+        Cursor after = Cursor.after("Acme Supplies", 42);
+        Cursor before = Cursor.before(LocalDateTime.of(2026, 1, 31, 12, 0), 7);
+        
+        Cursor decodedAfter = Cursor.decode(after.encode());
+        Cursor decodedBefore = Cursor.decode(before.encode());
+        
+        assertEquals(after, decodedAfter);
+        assertEquals("Acme Supplies", decodedAfter.getSortValue());
+        assertEquals("42", decodedAfter.getId());
+        assertFalse(decodedAfter.isBackward());
+        assertEquals(before, decodedBefore);
+        assertEquals("2026-01-31T12:00", decodedBefore.getSortValue());
+        assertTrue(decodedBefore.isBackward());
+    }
+    
+    @Test
+    void sortValueMayContainTheSeparator() {
+        Cursor cursor = Cursor.after("Smith | Sons", 3);
+        
+        assertEquals("Smith | Sons", Cursor.decode(cursor.encode()).getSortValue());
+    }
+    
+    @Test
+    void tokenIsUrlSafe() {
+        String token = Cursor.after("??>>~~ ünïcode", 1).encode();
+        
+        assertTrue(token.matches("[A-Za-z0-9_-]+"), token);
+    }
+    
+    @Test
+    void missingTokenMeansFirstPage() {
+        assertNull(Cursor.decode(null));
+        assertNull(Cursor.decode(""));
+    }
+    
+    @Test
+    void malformedTokenIsRejected() {
+        String unknownDirection = Base64.getUrlEncoder()
+                .encodeToString("x|1|name".getBytes(StandardCharsets.UTF_8));
+        String missingParts = Base64.getUrlEncoder()
+                .encodeToString("a|1".getBytes(StandardCharsets.UTF_8));
+        
+        assertThrows(IllegalArgumentException.class, () -> Cursor.decode(unknownDirection));
+        assertThrows(IllegalArgumentException.class, () -> Cursor.decode(missingParts));
+        assertThrows(IllegalArgumentException.class, () -> Cursor.decode("not base64!"));
+    }
+}
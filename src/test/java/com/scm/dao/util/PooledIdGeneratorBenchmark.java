@@ -0,0 +1,130 @@
+package com.scm.dao.util;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+import javax.persistence.Persistence;
+import javax.persistence.Table;
+
+import org.hibernate.annotations.GenericGenerator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Inserts with IDENTITY ids against inserts with PooledIdGenerator ids.
+ * Each operation persists and commits rowsPerTransaction rows. With IDENTITY every persist
+ * executes its INSERT to learn the id, so rows go one statement at a time; with pooled ids
+ * the inserts go out in JDBC batches of hibernate.jdbc.batch_size.
+ * 
+ * Runs against in-memory H2 (persistence unit scmBenchmarkPU), where a statement costs no
+ * network round trip, so the gap measured here understates the gap against MySQL.
+ * Run with: mvn -P benchmark test-compile exec:exec -Dbenchmark=PooledIdGeneratorBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PooledIdGeneratorBenchmark {
+    
+    @Param({"IDENTITY", "POOLED"})
+    public String idStrategy;
+    
+    @Param({"500"})
+    public int rowsPerTransaction;
+    
+    private EntityManagerFactory entityManagerFactory;
+    
+    @Setup(Level.Trial)
+    public void createDatabase() {
+        String url = "jdbc:h2:mem:" + UUID.randomUUID() + ";MODE=MySQL;DB_CLOSE_DELAY=-1";
+        entityManagerFactory = Persistence.createEntityManagerFactory("scmBenchmarkPU",
+                Map.of("javax.persistence.jdbc.url", url));
+    }
+    
+    @TearDown(Level.Trial)
+    public void dropDatabase() {
+        entityManagerFactory.close();
+    }
+    
+    @Benchmark
+    public int insertRows() {
+        boolean pooled = "POOLED".equals(idStrategy);
+        EntityManager entityManager = entityManagerFactory.createEntityManager();
+        try {
+            entityManager.getTransaction().begin();
+            for (int i = 0; i < rowsPerTransaction; i++) {
+                entityManager.persist(pooled ? new PooledRow(i) : new IdentityRow(i));
+            }
+            entityManager.getTransaction().commit();
+            return rowsPerTransaction;
+        } finally {
+            entityManager.close();
+        }
+    }
+    
+    /**
+     * Row with an IDENTITY id, as the high-volume entities had before
+     */
+    @Entity
+    @Table(name = "benchmark_identity_rows")
+    public static class IdentityRow {
+        
+        @Id
+        @GeneratedValue(strategy = GenerationType.IDENTITY)
+        private Integer id;
+        
+        @Column(name = "quantity", nullable = false)
+        private int quantity;
+        
+        protected IdentityRow() {
+        }
+        
+        IdentityRow(int quantity) {
+            this.quantity = quantity;
+        }
+    }
+    
+    /**
+     * Row with a PooledIdGenerator id, as the high-volume entities have now
+     */
+    @Entity
+    @Table(name = "benchmark_pooled_rows")
+    public static class PooledRow {
+        
+        @Id
+        @GeneratedValue(generator = "benchmarkPooledRowIdGenerator")
+        @GenericGenerator(name = "benchmarkPooledRowIdGenerator", strategy = PooledIdGenerator.STRATEGY)
+        private Integer id;
+        
+        @Column(name = "quantity", nullable = false)
+        private int quantity;
+        
+        protected PooledRow() {
+        }
+        
+        PooledRow(int quantity) {
+            this.quantity = quantity;
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package com.scm.dao.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.interceptor.InvocationContext;
+import javax.transaction.Transactional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.scm.dao.impl.JpaTestSupport;
+import com.scm.model.Product;
+
+/**
+ * Tests that entities loaded by a read-only transaction do not leak, still read-only,
+ * into a later read-write transaction of the same session, and that only read-only
+ * transactions marked for it may use the replica.
+ */
+class ReadOnlyTransactionTest extends JpaTestSupport {
+    
+    private TransactionInterceptor interceptor;
+    private Integer productId;
+    
+    @BeforeEach
+    void setUp() throws Exception {
+        interceptor = new TransactionInterceptor();
+        Field field = TransactionInterceptor.class.getDeclaredField("entityManager");
+        field.setAccessible(true);
+        field.set(interceptor, entityManager);
+        
+        productId = inTransaction(() -> {
+            Product product = new Product("Widget", "W-" + System.nanoTime(), new BigDecimal("10.00"));
+            entityManager.persist(product);
+            return product.getId();
+        });
+    }
+    
+    @Test
+    void readWriteTransactionChangesEntityReadBefore() throws Exception {
+        Product read = (Product) interceptor.manageTransaction(invocation("load",
+                () -> entityManager.find(Product.class, productId)));
+        
+        assertFalse(entityManager.contains(read), "entities of a read-only transaction are detached");
+        
+        interceptor.manageTransaction(invocation("rename", () -> {
+            entityManager.find(Product.class, productId).setName("Renamed");
+            return null;
+        }));
+        
+        entityManager.clear();
+        assertEquals("Renamed", entityManager.find(Product.class, productId).getName());
+    }
+    
+    @Test
+    void onlyMarkedTransactionsMayUseReplica() throws Exception {
+        assertEquals(Boolean.FALSE, interceptor.manageTransaction(invocation("load", ReadOnlyTransactionTest::replicaAllowed)));
+        assertEquals(Boolean.TRUE, interceptor.manageTransaction(invocation("list", ReadOnlyTransactionTest::replicaAllowed)));
+        assertEquals(Boolean.FALSE, interceptor.manageTransaction(invocation("rename", ReadOnlyTransactionTest::replicaAllowed)));
+    }
+    
+    private static Object replicaAllowed() {
+        try {
+            Field field = RoutingConnectionProvider.class.getDeclaredField("REPLICA_ALLOWED");
+            field.setAccessible(true);
+            return ((ThreadLocal<?>) field.get(null)).get();
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+    
+    private static InvocationContext invocation(String methodName, Work work) throws NoSuchMethodException {
+        Method method = Service.class.getDeclaredMethod(methodName);
+        return new InvocationContext() {
+            private final Map<String, Object> contextData = new HashMap<>();
+            
+            @Override
+            public Object proceed() {
+                return work.run();
+            }
+            
+            @Override
+            public Method getMethod() {
+                return method;
+            }
+            
+            @Override
+            public Object getTarget() {
+                return null;
+            }
+            
+            @Override
+            public Object getTimer() {
+                return null;
+            }
+            
+            @Override
+            public Constructor<?> getConstructor() {
+                return null;
+            }
+            
+            @Override
+            public Object[] getParameters() {
+                return new Object[0];
+            }
+            
+            @Override
+            public void setParameters(Object[] params) {
+            }
+            
+            @Override
+            public Map<String, Object> getContextData() {
+                return contextData;
+            }
+        };
+    }
+    
+    @FunctionalInterface
+    private interface Work {
+        Object run();
+    }
+    
+    /**
+     * Methods whose annotations the intercepted calls carry
+     */
+    private static final class Service {
+        
+        @ReadOnly
+        void load() {
+        }
+        
+        @ReadOnly(replica = true)
+        void list() {
+        }
+        
+        @Transactional
+        void rename() {
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.scm.dao.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests of the retry budget that caps transaction retries under conflict bursts.
+ */
+class RetryBudgetTest {
+    
+    @Test
+    void budgetStartsFullAndRunsOut() {
+        RetryBudget budget = new RetryBudget(0.1, 3);
+        
+        assertTrue(budget.tryAcquire());
+        assertTrue(budget.tryAcquire());
+        assertTrue(budget.tryAcquire());
+        assertFalse(budget.tryAcquire());
+    }
+    
+    @Test
+    void successesEarnRetriesAtTheRatio() {
+        RetryBudget budget = new RetryBudget(0.1, 1);
+        assertTrue(budget.tryAcquire());
+        
+        for (int i = 0; i < 9; i++) {
+            budget.recordSuccess();
+        }
+        assertFalse(budget.tryAcquire(), "nine successes earn less than one retry");
+        
+        budget.recordSuccess();
+        assertTrue(budget.tryAcquire());
+        assertFalse(budget.tryAcquire());
+    }
+    
+    @Test
+    void balanceIsCappedAtMaxRetries() {
+        RetryBudget budget = new RetryBudget(0.5, 2);
+        for (int i = 0; i < 100; i++) {
+            budget.recordSuccess();
+        }
+        
+        assertTrue(budget.tryAcquire());
+        assertTrue(budget.tryAcquire());
+        assertFalse(budget.tryAcquire());
+    }
+    
+    @Test
+    void zeroRatioNeverRefills() {
+        RetryBudget budget = new RetryBudget(0, 1);
+        assertTrue(budget.tryAcquire());
+        
+        for (int i = 0; i < 1000; i++) {
+            budget.recordSuccess();
+        }
+        assertFalse(budget.tryAcquire());
+    }
+    
+    @Test
+    void concurrentRetriesNeverOverspend() throws Exception {
+        int maxRetries = 100;
+        RetryBudget budget = new RetryBudget(0.1, maxRetries);
+        AtomicInteger granted = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            Thread thread = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                for (int i = 0; i < 1000; i++) {
+                    if (budget.tryAcquire()) {
+                        granted.incrementAndGet();
+                    }
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        
+        assertEquals(maxRetries, granted.get());
+    }
+}
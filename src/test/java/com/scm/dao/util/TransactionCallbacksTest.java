@@ -0,0 +1,89 @@
+package com.scm.dao.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests of the after commit callbacks the TransactionInterceptor runs or drops.
+ */
+class TransactionCallbacksTest {
+    
+    private final List<String> calls = new ArrayList<>();
+    
+    @AfterEach
+    void clearThread() {
+        TransactionCallbacks.rolledBack();
+    }
+    
+    @Test
+    void callbackRunsRightAwayOutsideTransaction() {
+        TransactionCallbacks.afterCommit(() -> calls.add("run"));
+        
+        assertEquals(List.of("run"), calls);
+    }
+    
+    @Test
+    void callbacksRunInOrderAfterCommit() {
+        TransactionCallbacks.begin();
+        TransactionCallbacks.afterCommit(() -> calls.add("first"));
+        TransactionCallbacks.afterCommit(() -> calls.add("second"));
+        assertTrue(calls.isEmpty());
+        
+        TransactionCallbacks.committed();
+        
+        assertEquals(List.of("first", "second"), calls);
+    }
+    
+    @Test
+    void callbacksAreDroppedOnRollback() {
+        TransactionCallbacks.begin();
+        TransactionCallbacks.afterCommit(() -> calls.add("dropped"));
+        
+        TransactionCallbacks.rolledBack();
+        TransactionCallbacks.committed();
+        
+        assertTrue(calls.isEmpty());
+    }
+    
+    @Test
+    void retriedTransactionOnlyRunsCallbacksOfLastAttempt() {
+        TransactionCallbacks.begin();
+        TransactionCallbacks.afterCommit(() -> calls.add("attempt 1"));
+        TransactionCallbacks.rolledBack();
+        
+        TransactionCallbacks.begin();
+        TransactionCallbacks.afterCommit(() -> calls.add("attempt 2"));
+        TransactionCallbacks.committed();
+        
+        assertEquals(List.of("attempt 2"), calls);
+    }
+    
+    @Test
+    void failingCallbackDoesNotStopTheOthers() {
+        TransactionCallbacks.begin();
+        TransactionCallbacks.afterCommit(() -> {
+            throw new IllegalStateException("callback failed");
+        });
+        TransactionCallbacks.afterCommit(() -> calls.add("after failure"));
+        
+        TransactionCallbacks.committed();
+        
+        assertEquals(List.of("after failure"), calls);
+    }
+    
+    @Test
+    void callbackMayRunWorkOutsideTheCommittedTransaction() {
+        TransactionCallbacks.begin();
+        TransactionCallbacks.afterCommit(() -> TransactionCallbacks.afterCommit(() -> calls.add("nested")));
+        
+        TransactionCallbacks.committed();
+        
+        assertEquals(List.of("nested"), calls);
+    }
+}
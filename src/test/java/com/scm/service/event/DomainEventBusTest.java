@@ -0,0 +1,97 @@
+package com.scm.service.event;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.scm.model.CustomerOrder.Status;
+
+/**
+ * Tests of the delivery of events to synchronous and asynchronous subscribers,
+ * outside a transaction (see TransactionCallbacksTest for publishing after commit).
+ */
+class DomainEventBusTest {
+    
+    private DomainEventBus bus;
+    
+    @BeforeEach
+    void startBus() {
+        bus = new DomainEventBus();
+        bus.init();
+    }
+    
+    @AfterEach
+    void stopBus() {
+        bus.shutdown();
+    }
+    
+    @Test
+    void synchronousSubscriberRunsOnPublishingThread() {
+        List<Thread> threads = new CopyOnWriteArrayList<>();
+        List<StockChanged> received = new CopyOnWriteArrayList<>();
+        bus.subscribe(StockChanged.class, event -> {
+            threads.add(Thread.currentThread());
+            received.add(event);
+        });
+        
+        StockChanged event = new StockChanged(1, 10);
+        bus.publish(event);
+        
+        assertEquals(List.of(event), received);
+        assertEquals(List.of(Thread.currentThread()), threads);
+    }
+    
+    @Test
+    void asynchronousSubscriberReceivesEventsInPublishOrder() throws Exception {
+        int events = 500;
+        List<Integer> received = new CopyOnWriteArrayList<>();
+        CountDownLatch done = new CountDownLatch(events);
+        bus.subscribeAsync(OrderStatusChanged.class, event -> {
+            received.add(event.getOrderId());
+            done.countDown();
+        });
+        
+        for (int i = 0; i < events; i++) {
+            bus.publish(new OrderStatusChanged(i, Status.PENDING, Status.PROCESSING));
+        }
+        
+        assertTrue(done.await(5, TimeUnit.SECONDS), "events were not delivered");
+        for (int i = 0; i < events; i++) {
+            assertEquals(i, received.get(i));
+        }
+        assertEquals((long) events, bus.getStatistics().get("published"));
+        assertEquals(0L, bus.getStatistics().get("dropped"));
+    }
+    
+    @Test
+    void subscribersOnlyReceiveTheirEventType() {
+        List<Object> received = new CopyOnWriteArrayList<>();
+        bus.subscribe(PriceChanged.class, received::add);
+        
+        bus.publish(new StockChanged(1, 10));
+        bus.publish(new ProductRemoved(1));
+        
+        assertTrue(received.isEmpty());
+    }
+    
+    @Test
+    void failingSubscriberDoesNotStopOthers() {
+        List<Object> received = new CopyOnWriteArrayList<>();
+        bus.subscribe(ProductRemoved.class, event -> {
+            throw new IllegalStateException("subscriber failed");
+        });
+        bus.subscribe(ProductRemoved.class, received::add);
+        
+        bus.publish(new ProductRemoved(7));
+        
+        assertEquals(1, received.size());
+    }
+}
@@ -0,0 +1,114 @@
+package com.scm.service.event;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.scm.model.CustomerOrder.Status;
+
+/**
+ * Throughput of publishing threads handing events to one consuming thread.
+ * offerRing and offerQueue compare the event ring with an ArrayBlockingQueue of the same
+ * capacity, each with a consumer draining in the background; publishEvent measures
+ * DomainEventBus.publish outside a transaction, with one synchronous and one asynchronous
+ * subscriber.
+ * 
+ * Run with: mvn -P benchmark test-compile exec:exec -Dbenchmark=EventRingBufferBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(4)
+@Fork(1)
+public class EventRingBufferBenchmark {
+    
+    private static final int CAPACITY = 1024;
+    private static final long OFFER_TIMEOUT_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+    
+    private final LongAdder consumed = new LongAdder();
+    private final Object event = new StockChanged(1, 10);
+    
+    private EventRingBuffer ring;
+    private BlockingQueue<Object> queue;
+    private DomainEventBus bus;
+    private volatile boolean running;
+    private Thread ringConsumer;
+    private Thread queueConsumer;
+    
+    @Setup(Level.Trial)
+    public void start() {
+        running = true;
+        
+        ring = new EventRingBuffer(CAPACITY);
+        ringConsumer = new Thread(() -> {
+            while (running) {
+                if (ring.drainTo(e -> consumed.increment()) == 0) {
+                    ring.awaitEvents(TimeUnit.MILLISECONDS.toNanos(1));
+                }
+            }
+        }, "ring-consumer");
+        ringConsumer.setDaemon(true);
+        ringConsumer.start();
+        
+        queue = new ArrayBlockingQueue<>(CAPACITY);
+        queueConsumer = new Thread(() -> {
+            while (running) {
+                try {
+                    if (queue.poll(1, TimeUnit.MILLISECONDS) != null) {
+                        consumed.increment();
+                    }
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        }, "queue-consumer");
+        queueConsumer.setDaemon(true);
+        queueConsumer.start();
+        
+        bus = new DomainEventBus();
+        bus.init();
+        bus.subscribe(OrderStatusChanged.class, e -> consumed.increment());
+        bus.subscribeAsync(OrderStatusChanged.class, e -> consumed.increment());
+    }
+    
+    @TearDown(Level.Trial)
+    public void stop() throws InterruptedException {
+        running = false;
+        ring.wakeConsumer();
+        ringConsumer.join();
+        queueConsumer.join();
+        bus.shutdown();
+    }
+    
+    @Benchmark
+    public boolean offerRing() {
+        return ring.offer(event, OFFER_TIMEOUT_NANOS);
+    }
+    
+    @Benchmark
+    public boolean offerQueue() throws InterruptedException {
+        return queue.offer(event, OFFER_TIMEOUT_NANOS, TimeUnit.NANOSECONDS);
+    }
+    
+    @Benchmark
+    public void publishEvent() {
+        bus.publish(new OrderStatusChanged(1, Status.PENDING, Status.PROCESSING));
+    }
+}
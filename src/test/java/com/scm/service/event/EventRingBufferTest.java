@@ -0,0 +1,166 @@
+package com.scm.service.event;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests of the ring between the publishing threads and the event dispatcher.
+ */
+class EventRingBufferTest {
+    
+    private static final long NO_WAIT = 0;
+    private static final long LONG_WAIT = TimeUnit.SECONDS.toNanos(10);
+    
+    @Test
+    void capacityIsRoundedUpToPowerOfTwo() {
+        assertEquals(2, new EventRingBuffer(1).capacity());
+        assertEquals(8, new EventRingBuffer(5).capacity());
+        assertEquals(1024, new EventRingBuffer(1000).capacity());
+        assertEquals(1024, new EventRingBuffer(1024).capacity());
+    }
+    
+    @Test
+    void eventsAreDrainedInPublishOrder() {
+        EventRingBuffer ring = new EventRingBuffer(16);
+        for (int i = 0; i < 10; i++) {
+            assertTrue(ring.offer(i, NO_WAIT));
+        }
+        assertEquals(10, ring.backlog());
+        
+        List<Object> drained = new ArrayList<>();
+        assertEquals(10, ring.drainTo(drained::add));
+        
+        assertEquals(List.of(0, 1, 2, 3, 4, 5, 6, 7, 8, 9), drained);
+        assertEquals(0, ring.backlog());
+        assertEquals(0, ring.drainTo(drained::add));
+    }
+    
+    @Test
+    void fullRingRejectsAfterTimeoutAndAcceptsOnceDrained() {
+        EventRingBuffer ring = new EventRingBuffer(2);
+        assertTrue(ring.offer("a", NO_WAIT));
+        assertTrue(ring.offer("b", NO_WAIT));
+        
+        long start = System.nanoTime();
+        assertFalse(ring.offer("c", TimeUnit.MILLISECONDS.toNanos(20)));
+        assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(20), "publisher should wait for the timeout");
+        
+        List<Object> drained = new ArrayList<>();
+        ring.drainTo(drained::add);
+        assertTrue(ring.offer("c", NO_WAIT));
+        ring.drainTo(drained::add);
+        assertEquals(List.of("a", "b", "c"), drained);
+    }
+    
+    @Test
+    void slotIsFreedWhenHandlerFails() {
+        EventRingBuffer ring = new EventRingBuffer(2);
+        ring.offer("a", NO_WAIT);
+        ring.offer("b", NO_WAIT);
+        
+        try {
+            ring.drainTo(event -> {
+                throw new IllegalStateException("subscriber failed");
+            });
+        } catch (IllegalStateException expected) {
+            // The failing event is consumed; the next one stays in the ring
+        }
+        
+        assertEquals(1, ring.backlog());
+        assertTrue(ring.offer("c", NO_WAIT));
+    }
+    
+    @Test
+    void concurrentPublishersLoseNothingAndKeepTheirOrder() throws Exception {
+        int producers = 4;
+        int eventsPerProducer = 20_000;
+        EventRingBuffer ring = new EventRingBuffer(64);
+        
+        // Events are {producer, sequence} pairs; each producer's sequence must arrive in order
+        int[] lastSeen = new int[producers];
+        Arrays.fill(lastSeen, -1);
+        AtomicBoolean outOfOrder = new AtomicBoolean();
+        int[] received = new int[1];
+        
+        AtomicBoolean producing = new AtomicBoolean(true);
+        Thread consumer = new Thread(() -> {
+            while (producing.get() || ring.backlog() > 0) {
+                int count = ring.drainTo(event -> {
+                    int[] pair = (int[]) event;
+                    if (pair[1] != lastSeen[pair[0]] + 1) {
+                        outOfOrder.set(true);
+                    }
+                    lastSeen[pair[0]] = pair[1];
+                });
+                received[0] += count;
+                if (count == 0) {
+                    ring.awaitEvents(TimeUnit.MILLISECONDS.toNanos(1));
+                }
+            }
+        });
+        consumer.start();
+        
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        AtomicBoolean rejected = new AtomicBoolean();
+        for (int p = 0; p < producers; p++) {
+            int producer = p;
+            Thread thread = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                for (int i = 0; i < eventsPerProducer; i++) {
+                    if (!ring.offer(new int[]{producer, i}, LONG_WAIT)) {
+                        rejected.set(true);
+                    }
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        producing.set(false);
+        consumer.join(TimeUnit.SECONDS.toMillis(10));
+        
+        assertFalse(rejected.get(), "no event should time out with a running consumer");
+        assertFalse(outOfOrder.get(), "events of one producer arrived out of order");
+        assertEquals(producers * eventsPerProducer, received[0]);
+        for (int last : lastSeen) {
+            assertEquals(eventsPerProducer - 1, last);
+        }
+    }
+    
+    @Test
+    void waitingConsumerIsWokenByPublish() throws Exception {
+        EventRingBuffer ring = new EventRingBuffer(8);
+        CountDownLatch woken = new CountDownLatch(1);
+        Thread consumer = new Thread(() -> {
+            ring.awaitEvents(LONG_WAIT);
+            woken.countDown();
+        });
+        consumer.start();
+        
+        // Give the consumer time to park, then publish
+        Thread.sleep(50);
+        ring.offer("event", NO_WAIT);
+        
+        assertTrue(woken.await(2, TimeUnit.SECONDS), "consumer should wake up long before its timeout");
+        consumer.join();
+    }
+}
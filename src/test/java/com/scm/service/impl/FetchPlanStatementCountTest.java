@@ -0,0 +1,124 @@
+package com.scm.service.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.scm.dao.impl.CustomerOrderDaoImpl;
+import com.scm.dao.impl.JpaTestSupport;
+import com.scm.dao.impl.ProductDaoImpl;
+import com.scm.dao.impl.StockMovementDaoImpl;
+import com.scm.model.CustomerOrder;
+import com.scm.model.OrderItem;
+import com.scm.model.Product;
+import com.scm.model.Stock;
+import com.scm.model.StockMovement;
+import com.scm.model.StockMovement.MovementType;
+
+/**
+ * Pins the number of SQL statements of the service calls that load associations through
+ * named entity graphs. Each call reads everything a page shows from what it returns, so a
+ * finder that loses its graph, or an association that turns into one SELECT per row,
+ * fails here instead of showing up in production.
+ */
+class FetchPlanStatementCountTest extends JpaTestSupport {
+    
+    private static final int PRODUCTS = 5;
+    private static final int MOVEMENTS_PER_PRODUCT = 4;
+    
+    private List<Product> products;
+    private Integer orderId;
+    
+    private StockServiceImpl stockService;
+    private OrderServiceImpl orderService;
+    private ProductServiceImpl productService;
+    
+    @BeforeEach
+    void setUp() {
+        products = inTransaction(() -> {
+            List<Product> created = new ArrayList<>();
+            for (int i = 0; i < PRODUCTS; i++) {
+                Product product = new Product("Product " + i, "P-" + System.nanoTime() + "-" + i, new BigDecimal("10.00"));
+                product.setStock(new Stock(product, 100));
+                entityManager.persist(product);
+                for (int j = 0; j < MOVEMENTS_PER_PRODUCT; j++) {
+                    entityManager.persist(new StockMovement(product, MovementType.ADJUSTMENT, j + 1));
+                }
+                created.add(product);
+            }
+            return created;
+        });
+        orderId = inTransaction(() -> {
+            CustomerOrder order = new CustomerOrder("Customer", "customer@example.com");
+            for (Product product : products) {
+                order.getOrderItems().add(new OrderItem(order, entityManager.find(Product.class, product.getId()), 2));
+            }
+            entityManager.persist(order);
+            return order.getId();
+        });
+        
+        StockMovementDaoImpl stockMovementDao = dao(new StockMovementDaoImpl());
+        ProductDaoImpl productDao = dao(new ProductDaoImpl());
+        CustomerOrderDaoImpl customerOrderDao = dao(new CustomerOrderDaoImpl());
+        stockService = inject(new StockServiceImpl(), stockMovementDao, productDao);
+        orderService = inject(new OrderServiceImpl(), customerOrderDao, productDao);
+        productService = inject(new ProductServiceImpl(), productDao);
+        
+        // The calls below run in one read transaction, as the interceptor would open it
+        entityManager.getTransaction().begin();
+    }
+    
+    @Test
+    void stockMovementsForProductLoadProductAndStockInOneStatement() {
+        assertStatementCount(1, () -> {
+            List<StockMovement> movements = stockService.getStockMovementsForProduct(products.get(0).getId());
+            assertEquals(MOVEMENTS_PER_PRODUCT, movements.size());
+            for (StockMovement movement : movements) {
+                movement.getProduct().getName();
+                movement.getProduct().getStock().getQuantityAvailable();
+            }
+        });
+    }
+    
+    @Test
+    void stockMovementsOfManyProductsLoadInOneStatement() {
+        assertStatementCount(1, () -> {
+            // The database is shared by the tests of this class; count this test's rows only
+            List<StockMovement> movements = stockService.getStockMovementsByType(MovementType.ADJUSTMENT);
+            assertEquals(PRODUCTS * MOVEMENTS_PER_PRODUCT,
+                    movements.stream().filter(movement -> products.contains(movement.getProduct())).count());
+            for (StockMovement movement : movements) {
+                movement.getProduct().getName();
+                movement.getProduct().getStock().getQuantityAvailable();
+            }
+        });
+    }
+    
+    @Test
+    void orderLoadsItemsProductsAndStockInOneStatement() {
+        assertStatementCount(1, () -> {
+            CustomerOrder order = orderService.findById(orderId).orElseThrow();
+            assertEquals(PRODUCTS, order.getOrderItems().size());
+            for (OrderItem item : order.getOrderItems()) {
+                item.getProduct().getName();
+                item.getProduct().getStock().getQuantityAvailable();
+            }
+        });
+    }
+    
+    @Test
+    void productListLoadsStockInOneStatement() {
+        assertStatementCount(1, () -> {
+            List<Product> all = productService.findAllProducts();
+            assertEquals(PRODUCTS, all.stream().filter(products::contains).count());
+            for (Product product : all) {
+                product.getStock().getQuantityAvailable();
+            }
+        });
+    }
+}
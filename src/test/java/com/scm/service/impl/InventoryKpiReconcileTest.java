@@ -0,0 +1,84 @@
+package com.scm.service.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.scm.service.ProductService;
+import com.scm.service.event.PriceChanged;
+import com.scm.service.event.StockChanged;
+
+/**
+ * Reconciliation against events applied while the snapshot is being read
+ */
+class InventoryKpiReconcileTest {
+    
+    private final List<Object[]> snapshot = new ArrayList<>();
+    private Runnable duringRead = () -> { };
+    private InventoryKpiRegistry registry;
+    
+    @BeforeEach
+    void setUp() throws Exception {
+        ProductService productService = (ProductService) Proxy.newProxyInstance(
+                ProductService.class.getClassLoader(), new Class<?>[] { ProductService.class },
+                (proxy, method, args) -> {
+                    if (!method.getName().equals("findStockLevels")) {
+                        throw new UnsupportedOperationException(method.getName());
+                    }
+                    List<Object[]> rows = new ArrayList<>(snapshot);
+                    duringRead.run();
+                    return rows;
+                });
+        registry = new InventoryKpiRegistry();
+        Field field = InventoryKpiRegistry.class.getDeclaredField("productService");
+        field.setAccessible(true);
+        field.set(registry, productService);
+    }
+    
+    @Test
+    void keepsChangesAppliedAfterTheSnapshotWasRead() throws Exception {
+        snapshot.add(new Object[] { 1, new BigDecimal("2.00"), 5, 10 });
+        registry.reconcile();
+        
+        duringRead = () -> {
+            registry.onStockChanged(new StockChanged(1, 0));
+            registry.onPriceChanged(new PriceChanged(1, new BigDecimal("3.00")));
+        };
+        int corrected = registry.reconcile();
+        
+        assertEquals(0, corrected);
+        assertEquals(1, registry.getOutOfStockCount());
+        assertEquals(1, registry.getLowStockCount());
+        assertEquals(new BigDecimal("0.00"), registry.getInventoryValue());
+        
+        duringRead = () -> { };
+        snapshot.set(0, new Object[] { 1, new BigDecimal("3.00"), 5, 0 });
+        assertEquals(0, registry.reconcile());
+    }
+    
+    @Test
+    void keepsProductsCreatedAfterTheSnapshotWasRead() throws Exception {
+        duringRead = () -> registry.onStockChanged(new StockChanged(2, 0));
+        registry.reconcile();
+        
+        assertEquals(1, registry.getOutOfStockCount());
+    }
+    
+    @Test
+    void correctsDriftFromBeforeTheSnapshot() throws Exception {
+        snapshot.add(new Object[] { 1, new BigDecimal("2.00"), 5, 10 });
+        registry.reconcile();
+        registry.onStockChanged(new StockChanged(1, 0));
+        
+        assertEquals(1, registry.reconcile());
+        assertEquals(0, registry.getOutOfStockCount());
+        assertEquals(new BigDecimal("20.00"), registry.getInventoryValue());
+    }
+}
@@ -0,0 +1,88 @@
+package com.scm.service.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.math.BigDecimal;
+import java.util.EnumMap;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.scm.dao.impl.CustomerOrderDaoImpl;
+import com.scm.dao.impl.DailySalesRollupDaoImpl;
+import com.scm.dao.impl.JpaTestSupport;
+import com.scm.dao.impl.OrderItemDaoImpl;
+import com.scm.dao.impl.StockDaoImpl;
+import com.scm.dao.impl.StockMovementDaoImpl;
+import com.scm.model.CustomerOrder;
+import com.scm.model.CustomerOrder.Status;
+import com.scm.model.DailySalesRollup;
+import com.scm.model.OrderItem;
+import com.scm.model.Product;
+import com.scm.model.Stock;
+import com.scm.service.event.DomainEventBus;
+
+/**
+ * Tests that order status changes move the order between the status buckets of the
+ * daily sales rollup, so the rollup keeps matching the orders it summarises.
+ */
+class OrderRollupTransitionTest extends JpaTestSupport {
+    
+    private StockServiceImpl stockService;
+    private DailySalesRollupDaoImpl dailySalesRollupDao;
+    private Integer orderId;
+    
+    @BeforeEach
+    void setUp() {
+        dailySalesRollupDao = dao(new DailySalesRollupDaoImpl());
+        stockService = inject(new StockServiceImpl(), dao(new StockDaoImpl()), dao(new StockMovementDaoImpl()),
+                dao(new CustomerOrderDaoImpl()), dao(new OrderItemDaoImpl()), dailySalesRollupDao,
+                new DomainEventBus());
+        
+        orderId = inTransaction(() -> {
+            Product product = new Product("Widget", "W-" + System.nanoTime(), new BigDecimal("10.00"));
+            product.setStock(new Stock(product, 100));
+            entityManager.persist(product);
+            
+            CustomerOrder order = new CustomerOrder("Customer", "customer@example.com",
+                    Status.PENDING, new BigDecimal("30.00"));
+            order.getOrderItems().add(new OrderItem(order, product, 3));
+            entityManager.persist(order);
+            return order.getId();
+        });
+        inTransaction(() -> dailySalesRollupDao.addOrder(orderId));
+    }
+    
+    @Test
+    void processingStockMovesOrderFromPendingToProcessing() throws Exception {
+        assertEquals(1, rollupOrderCounts().get(Status.PENDING));
+        
+        inTransaction(() -> {
+            try {
+                stockService.processStockForCustomerOrder(orderId);
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        
+        Map<Status, Integer> counts = rollupOrderCounts();
+        assertEquals(0, counts.get(Status.PENDING));
+        assertEquals(1, counts.get(Status.PROCESSING));
+        
+        // The rollup matches a rebuild from the orders themselves
+        inTransaction(() -> dailySalesRollupDao.rebuild());
+        Map<Status, Integer> rebuilt = rollupOrderCounts();
+        assertEquals(counts.get(Status.PROCESSING), rebuilt.get(Status.PROCESSING));
+        assertEquals(0, rebuilt.getOrDefault(Status.PENDING, 0));
+    }
+    
+    private Map<Status, Integer> rollupOrderCounts() {
+        Map<Status, Integer> counts = new EnumMap<>(Status.class);
+        for (DailySalesRollup row : entityManager.createQuery(
+                "SELECT r FROM DailySalesRollup r", DailySalesRollup.class).getResultList()) {
+            counts.merge(row.getStatus(), row.getOrderCount(), Integer::sum);
+        }
+        return counts;
+    }
+}
@@ -0,0 +1,123 @@
+package com.scm.service.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.math.BigDecimal;
+
+import javax.persistence.OptimisticLockException;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.scm.dao.impl.CustomerOrderDaoImpl;
+import com.scm.dao.impl.DailySalesRollupDaoImpl;
+import com.scm.dao.impl.JpaTestSupport;
+import com.scm.dao.impl.ProductDaoImpl;
+import com.scm.model.CustomerOrder;
+import com.scm.model.CustomerOrder.Status;
+import com.scm.model.Product;
+import com.scm.service.event.DomainEventBus;
+import com.scm.service.exception.ServiceException;
+
+/**
+ * Tests that an edit form submitted after someone else changed the same product or order
+ * is rejected instead of overwriting the other change.
+ */
+class StaleEditTest extends JpaTestSupport {
+    
+    private ProductServiceImpl productService;
+    private OrderServiceImpl orderService;
+    private Integer productId;
+    private Integer orderId;
+    
+    @BeforeEach
+    void setUp() {
+        DomainEventBus eventBus = new DomainEventBus();
+        productService = inject(new ProductServiceImpl(), dao(new ProductDaoImpl()), eventBus);
+        orderService = inject(new OrderServiceImpl(), dao(new CustomerOrderDaoImpl()),
+                dao(new DailySalesRollupDaoImpl()), eventBus);
+        
+        productId = inTransaction(() -> {
+            Product product = new Product("Widget", "W-" + System.nanoTime(), new BigDecimal("10.00"));
+            entityManager.persist(product);
+            return product.getId();
+        });
+        orderId = inTransaction(() -> {
+            CustomerOrder order = new CustomerOrder("Customer", "customer@example.com",
+                    Status.PENDING, BigDecimal.ZERO);
+            entityManager.persist(order);
+            return order.getId();
+        });
+    }
+    
+    @Test
+    void productEditFromStaleFormIsRejected() throws Exception {
+        Product firstForm = productForm("First edit", 0);
+        Product secondForm = productForm("Second edit", 0);
+        
+        update(() -> productService.updateProduct(firstForm));
+        
+        ServiceException failure = assertThrows(ServiceException.class,
+                () -> update(() -> productService.updateProduct(secondForm)));
+        assertInstanceOf(OptimisticLockException.class, failure.getCause());
+        assertEquals("First edit", entityManager.find(Product.class, productId).getName());
+        
+        // Reloading the form picks up the current version, and the edit goes through
+        Product reloadedForm = productForm("Second edit", 1);
+        update(() -> productService.updateProduct(reloadedForm));
+        assertEquals("Second edit", entityManager.find(Product.class, productId).getName());
+    }
+    
+    @Test
+    void orderEditFromStaleFormIsRejected() throws Exception {
+        CustomerOrder firstForm = orderForm("First Customer", 0);
+        CustomerOrder secondForm = orderForm("Second Customer", 0);
+        
+        update(() -> orderService.updateOrder(firstForm));
+        
+        ServiceException failure = assertThrows(ServiceException.class,
+                () -> update(() -> orderService.updateOrder(secondForm)));
+        assertInstanceOf(OptimisticLockException.class, failure.getCause());
+        assertEquals("First Customer", entityManager.find(CustomerOrder.class, orderId).getCustomerName());
+    }
+    
+    private Product productForm(String name, int version) {
+        Product product = entityManager.find(Product.class, productId);
+        entityManager.clear();
+        Product form = new Product(name, product.getSku(), product.getUnitPrice());
+        form.setId(productId);
+        form.setVersion(version);
+        return form;
+    }
+    
+    private CustomerOrder orderForm(String customerName, int version) {
+        CustomerOrder form = new CustomerOrder(customerName, "customer@example.com",
+                Status.PENDING, BigDecimal.ZERO);
+        form.setId(orderId);
+        form.setVersion(version);
+        return form;
+    }
+    
+    /**
+     * Run a service call in a transaction, as the interceptor would, passing its failure on
+     */
+    private void update(ServiceCall call) throws ServiceException {
+        entityManager.getTransaction().begin();
+        try {
+            call.run();
+            entityManager.getTransaction().commit();
+        } finally {
+            if (entityManager.getTransaction().isActive()) {
+                entityManager.getTransaction().rollback();
+            }
+            entityManager.clear();
+        }
+    }
+    
+    @FunctionalInterface
+    private interface ServiceCall {
+        void run() throws ServiceException;
+    }
+}